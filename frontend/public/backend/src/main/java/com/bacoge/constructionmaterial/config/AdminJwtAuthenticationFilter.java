@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.config;
 
+import com.bacoge.constructionmaterial.service.JwtPrincipalCache;
 import com.bacoge.constructionmaterial.service.JwtService;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
@@ -7,77 +8,53 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
 @Component
 public class AdminJwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminJwtAuthenticationFilter.class);
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
-    
-    // Chemins à ignorer pour éviter les traitements inutiles
-    private static final List<String> STATIC_RESOURCE_PATTERNS = Arrays.asList(
-        "/admin/css/", "/admin/js/", "/admin/images/", "/admin/fonts/", "/admin/assets/",
-        "/css/", "/js/", "/images/", "/fonts/", "/favicon.ico", "/@vite/", "/static/"
-    );
+    private final JwtPrincipalCache jwtPrincipalCache;
+    private final JwtFilterMetrics jwtFilterMetrics;
+    private final RequestPathClassifier pathClassifier;
 
-    public AdminJwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public AdminJwtAuthenticationFilter(JwtService jwtService, JwtPrincipalCache jwtPrincipalCache,
+                                        JwtFilterMetrics jwtFilterMetrics, RequestPathClassifier pathClassifier) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.jwtPrincipalCache = jwtPrincipalCache;
+        this.jwtFilterMetrics = jwtFilterMetrics;
+        this.pathClassifier = pathClassifier;
     }
 
     @Override
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-        
-        System.out.println("AdminJwtAuthenticationFilter - Checking if should filter: " + path);
-        
-        // Ne pas filtrer les requêtes qui ne sont pas pour l'administration
-        if (!path.startsWith("/admin/") && !path.startsWith("/api/admin/")) {
-            System.out.println("AdminJwtAuthenticationFilter - Not an admin path, skipping filter");
-            return true;
-        }
-        
-        // Ne pas filtrer la page de connexion admin et ses ressources
-        if (path.equals("/admin/login") || 
-            path.startsWith("/admin/login/") ||
-            path.equals("/admin") ||
-            path.equals("/admin/")) {
-            System.out.println("AdminJwtAuthenticationFilter - Admin login page or related, skipping filter");
-            return true;
-        }
-        
-        // Ne pas filtrer les ressources statiques
-        if (STATIC_RESOURCE_PATTERNS.stream().anyMatch(path::contains)) {
-            System.out.println("AdminJwtAuthenticationFilter - Static resource, skipping filter");
-            return true;
-        }
-        
         // Ne pas filtrer les requêtes OPTIONS (nécessaires pour CORS)
-        if ("OPTIONS".equalsIgnoreCase(method)) {
-            System.out.println("AdminJwtAuthenticationFilter - OPTIONS request, skipping filter");
+        if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
             return true;
         }
         
-        // Ne pas filtrer les chemins de l'API d'authentification admin
-        if (path.startsWith("/api/admin/auth/")) {
-            System.out.println("AdminJwtAuthenticationFilter - Admin auth API, skipping filter");
+        // Filtrer uniquement les pages et API d'administration protégées : sont exclus les chemins
+        // hors administration, la page de connexion admin, les ressources statiques et l'API
+        // d'authentification admin
+        RequestPathClassifier.PathCategory category = pathClassifier.classify(request.getRequestURI());
+        if (category != RequestPathClassifier.PathCategory.ADMIN) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Filtre JWT admin ignoré ({}) pour: {}", category, request.getRequestURI());
+            }
             return true;
         }
-        
-        System.out.println("AdminJwtAuthenticationFilter - Should filter this request: " + path);
-        // Filtrer toutes les autres requêtes d'administration
         return false;
     }
 
@@ -88,49 +65,61 @@ public class AdminJwtAuthenticationFilter extends OncePerRequestFilter {
         @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         
+        String previousPath = MDC.get(RequestLoggingContext.REQUEST_PATH);
+        String previousUser = MDC.get(RequestLoggingContext.USER);
+        MDC.put(RequestLoggingContext.REQUEST_PATH, request.getRequestURI());
+        try {
+            authenticate(request, response);
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestLoggingContext.restore(RequestLoggingContext.REQUEST_PATH, previousPath);
+            RequestLoggingContext.restore(RequestLoggingContext.USER, previousUser);
+        }
+    }
+
+    private void authenticate(HttpServletRequest request, HttpServletResponse response) {
         String jwt = extractAdminJwtToken(request);
         
         if (jwt == null) {
-            System.out.println("DEBUG: Aucun token JWT admin trouvé pour: " + request.getRequestURI());
-            filterChain.doFilter(request, response);
+            logger.debug("Aucun token JWT admin trouvé");
             return;
         }
         
         // Éviter la re-authentification si déjà authentifié dans cette requête
         if (SecurityContextHolder.getContext().getAuthentication() != null) {
-            filterChain.doFilter(request, response);
             return;
         }
         
+        long startNanos = System.nanoTime();
         try {
             final Claims claims = jwtService.validateTokenAndGetClaims(jwt, "ADMIN_ACCESS");
             final String username = claims.getSubject();
             
             if (username != null) {
-                UserDetails adminDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails adminDetails = jwtPrincipalCache.getPrincipal(claims);
                 
                 // Vérifier que l'utilisateur a bien un rôle ADMIN
                 if (adminDetails.getAuthorities().stream()
                         .noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
-                    System.out.println("WARN: Tentative d'accès admin avec un compte non-admin: " + username);
-                    filterChain.doFilter(request, response);
-                    return;
+                    logger.warn("Tentative d'accès admin avec un compte non-admin: {}", username);
+                } else {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        adminDetails, null, adminDetails.getAuthorities()
+                    );
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    MDC.put(RequestLoggingContext.USER, username);
+                    logger.debug("Authentification admin réussie");
                 }
-                
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    adminDetails, null, adminDetails.getAuthorities()
-                );
-                
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                System.out.println("DEBUG: Authentification admin réussie pour: " + username);
             }
         } catch (io.jsonwebtoken.ExpiredJwtException e) {
             clearAdminJwtCookie(response);
         } catch (Exception e) {
-            System.out.println("WARN: Erreur d'authentification admin: " + e.getMessage());
+            logger.warn("Erreur d'authentification admin: {}", e.getMessage());
+        } finally {
+            jwtFilterMetrics.record(System.nanoTime() - startNanos,
+                    SecurityContextHolder.getContext().getAuthentication() != null);
         }
-        
-        filterChain.doFilter(request, response);
     }
     
     private String extractAdminJwtToken(HttpServletRequest request) {
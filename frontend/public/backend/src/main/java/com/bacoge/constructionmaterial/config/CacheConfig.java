@@ -0,0 +1,41 @@
+package com.bacoge.constructionmaterial.config;
+
+import com.bacoge.constructionmaterial.config.properties.CacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration du cache applicatif (Caffeine, en mémoire).
+ *
+ * Chaque cache déclaré dans {@code app.cache.specs} reçoit sa propre taille
+ * maximale et son TTL ; les autres utilisent {@code app.cache.default-spec}.
+ * Les statistiques (hits/misses/évictions) sont toujours enregistrées.
+ * Le gestionnaire est rendu transactionnel pour que les @CacheEvict ne
+ * s'appliquent qu'après le commit des écritures.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCaffeine(Caffeine.from(cacheProperties.getDefaultSpec()).recordStats());
+
+        cacheProperties.getSpecs().forEach((name, spec) -> {
+            caffeineCacheManager.registerCustomCache(name, Caffeine.from(spec).recordStats().build());
+            logger.info("Cache '{}' configuré: {}", name, spec);
+        });
+
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,18 @@
+package com.bacoge.constructionmaterial.config;
+
+/**
+ * Noms des caches utilisés par les annotations @Cacheable / @CacheEvict.
+ */
+public final class CacheNames {
+
+    public static final String DASHBOARD_STATS = "dashboardStats";
+    public static final String SALES_TRENDS = "salesTrends";
+    public static final String RECENT_ACTIVITY = "recentActivity";
+    public static final String DASHBOARD_BATCH_STATS = "dashboard-stats";
+    public static final String JWT_PRINCIPALS = "jwtPrincipals";
+    public static final String CHATBOT_RESPONSES = "chatbotResponses";
+    public static final String SALES_REPORTS = "salesReports";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,27 @@
+package com.bacoge.constructionmaterial.config;
+
+import org.springframework.cache.annotation.CacheEvict;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Vide les caches du tableau de bord après une écriture sur les commandes,
+ * les produits ou les utilisateurs. L'éviction est différée au commit de la
+ * transaction en cours (voir {@link CacheConfig}).
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@CacheEvict(cacheNames = {
+        CacheNames.DASHBOARD_STATS,
+        CacheNames.SALES_TRENDS,
+        CacheNames.RECENT_ACTIVITY,
+        CacheNames.DASHBOARD_BATCH_STATS,
+        CacheNames.SALES_REPORTS
+}, allEntries = true)
+public @interface EvictDashboardCaches {
+}
@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.config;
 
+import com.bacoge.constructionmaterial.service.JwtPrincipalCache;
 import com.bacoge.constructionmaterial.service.JwtService;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
@@ -7,137 +8,130 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
-    
-    // Chemins à ignorer pour éviter les traitements inutiles
-    private static final List<String> STATIC_RESOURCE_PATTERNS = Arrays.asList(
-        "/css/", "/js/", "/images/", "/fonts/", "/favicon.ico", "/@vite/", "/static/"
-    );
+    private final JwtPrincipalCache jwtPrincipalCache;
+    private final JwtFilterMetrics jwtFilterMetrics;
+    private final RequestPathClassifier pathClassifier;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, JwtPrincipalCache jwtPrincipalCache,
+                                   JwtFilterMetrics jwtFilterMetrics, RequestPathClassifier pathClassifier) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.jwtPrincipalCache = jwtPrincipalCache;
+        this.jwtFilterMetrics = jwtFilterMetrics;
+        this.pathClassifier = pathClassifier;
     }
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        
-        System.out.println("JwtAuthenticationFilter - Checking path: " + path);
-        
-        // Ignorer les ressources statiques pour améliorer les performances
-        if (STATIC_RESOURCE_PATTERNS.stream().anyMatch(path::contains)) {
-            System.out.println("JwtAuthenticationFilter - Excluding static resource: " + path);
-            return true;
-        }
-        
-        // Ne pas exclure /api/auth/status afin que le cookie jwt_token puisse authentifier cette requête
-        // On peut néanmoins ignorer explicitement les endpoints de login/register
-        if (path.equals("/api/auth/login") || path.equals("/api/auth/register")) {
-            System.out.println("JwtAuthenticationFilter - Skipping auth login/register path: " + path);
-            return true;
+        // Ignorer les ressources statiques pour améliorer les performances.
+        // Ne pas exclure /api/auth/status afin que le cookie jwt_token puisse authentifier cette requête ;
+        // on ignore néanmoins explicitement les endpoints de login/register
+        RequestPathClassifier.PathCategory category = pathClassifier.classify(request.getRequestURI());
+        boolean skip = category == RequestPathClassifier.PathCategory.STATIC_RESOURCE
+                || category == RequestPathClassifier.PathCategory.PUBLIC_AUTH;
+        if (skip && logger.isTraceEnabled()) {
+            logger.trace("Filtre JWT ignoré ({}) pour: {}", category, request.getRequestURI());
         }
-        
-        System.out.println("JwtAuthenticationFilter - Should filter path: " + path);
-        return false;
+        return skip;
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
         
+        String previousPath = MDC.get(RequestLoggingContext.REQUEST_PATH);
+        String previousUser = MDC.get(RequestLoggingContext.USER);
+        MDC.put(RequestLoggingContext.REQUEST_PATH, request.getRequestURI());
+        try {
+            authenticate(request, response);
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestLoggingContext.restore(RequestLoggingContext.REQUEST_PATH, previousPath);
+            RequestLoggingContext.restore(RequestLoggingContext.USER, previousUser);
+        }
+    }
+
+    private void authenticate(HttpServletRequest request, HttpServletResponse response) {
         String jwt = extractJwtToken(request);
         
         if (jwt == null) {
             // Seulement logger pour les endpoints API importants
-            String uri = request.getRequestURI();
-            if (uri.startsWith("/api/") && !uri.equals("/api/auth/status")) {
-                System.out.println("DEBUG: Aucun token JWT pour: " + uri);
-            }
-            if (uri.startsWith("/admin/")) {
-                System.out.println("DEBUG: Aucun token JWT pour page admin: " + uri);
+            if (logger.isDebugEnabled()) {
+                String uri = request.getRequestURI();
+                if ((uri.startsWith("/api/") && !uri.equals("/api/auth/status")) || uri.startsWith("/admin/")) {
+                    logger.debug("Aucun token JWT pour: {}", uri);
+                }
             }
-            filterChain.doFilter(request, response);
             return;
         }
         
         // Éviter la re-authentification si déjà authentifié dans cette requête
         if (SecurityContextHolder.getContext().getAuthentication() != null) {
-            filterChain.doFilter(request, response);
             return;
         }
         
+        long startNanos = System.nanoTime();
         try {
-            final Claims claims = jwtService.validateTokenAndGetClaims(jwt);
-            final String username = claims.getSubject();
-            
-            if (username != null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities()
-                );
-                
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                // Logger seulement les authentifications réussies importantes
-                if (request.getRequestURI().startsWith("/api/admin/")) {
-                    System.out.println("DEBUG: Authentification admin réussie pour: " + username);
-                }
-                if (request.getRequestURI().startsWith("/admin/")) {
-                    System.out.println("DEBUG: Contexte authentifié pour page admin: " + username);
-                }
-            }
+            authenticateWithToken(jwt);
         } catch (io.jsonwebtoken.MalformedJwtException mjme) {
             // Si le header est mal formé, tenter une récupération via cookie
             String cookieToken = extractJwtTokenFromCookie(request);
             if (cookieToken != null) {
                 try {
-                    final Claims claims = jwtService.validateTokenAndGetClaims(cookieToken);
-                    final String username = claims.getSubject();
-                    if (username != null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                        );
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                        if (request.getRequestURI().startsWith("/admin/")) {
-                            System.out.println("DEBUG: Récupération via cookie réussie pour page admin: " + username);
-                        }
-                    }
+                    authenticateWithToken(cookieToken);
+                    logger.debug("Récupération du token via cookie réussie");
                 } catch (Exception ignored) {
-                    System.out.println("WARN: Token JWT invalide détecté après fallback cookie: " + ignored.getClass().getSimpleName());
+                    logger.warn("Token JWT invalide détecté après fallback cookie: {}", ignored.getClass().getSimpleName());
                 }
             } else {
-                System.out.println("WARN: Token JWT invalide détecté: MalformedJwtException");
+                logger.warn("Token JWT invalide détecté: MalformedJwtException");
             }
         } catch (io.jsonwebtoken.ExpiredJwtException e) {
             // Token expiré - nettoyer le cookie
             clearExpiredJwtCookie(request, response);
         } catch (io.jsonwebtoken.security.SecurityException e) {
             // Token invalide - logger seulement en cas d'erreur critique
-            System.out.println("WARN: Token JWT invalide détecté: " + e.getClass().getSimpleName());
+            logger.warn("Token JWT invalide détecté: {}", e.getClass().getSimpleName());
         } catch (Exception e) {
             // Autres erreurs - logger pour debug
-            System.out.println("ERROR: Erreur validation JWT: " + e.getMessage());
+            logger.error("Erreur validation JWT: {}", e.getMessage());
+        } finally {
+            jwtFilterMetrics.record(System.nanoTime() - startNanos,
+                    SecurityContextHolder.getContext().getAuthentication() != null);
+        }
+    }
+
+    private void authenticateWithToken(String token) {
+        final Claims claims = jwtService.validateTokenAndGetClaims(token);
+        final String username = claims.getSubject();
+        if (username == null) {
+            return;
         }
         
-        filterChain.doFilter(request, response);
+        UserDetails userDetails = jwtPrincipalCache.getPrincipal(claims);
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+            userDetails, null, userDetails.getAuthorities()
+        );
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        MDC.put(RequestLoggingContext.USER, username);
+        logger.debug("Authentification JWT réussie");
     }
     
     private String extractJwtToken(HttpServletRequest request) {
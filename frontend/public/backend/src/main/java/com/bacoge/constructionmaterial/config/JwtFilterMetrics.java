@@ -0,0 +1,50 @@
+package com.bacoge.constructionmaterial.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures de latence du filtre JWT (temps passé à valider le token et à
+ * résoudre l'utilisateur, hors reste de la chaîne de filtres).
+ */
+@Component
+public class JwtFilterMetrics {
+
+    private final LongAdder authenticatedRequests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long elapsedNanos, boolean authenticated) {
+        if (authenticated) {
+            authenticatedRequests.increment();
+        } else {
+            failedRequests.increment();
+        }
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    public Map<String, Object> snapshot() {
+        long authenticated = authenticatedRequests.sum();
+        long failed = failedRequests.sum();
+        long count = authenticated + failed;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("authenticatedRequests", authenticated);
+        stats.put("failedRequests", failed);
+        stats.put("averageMicros", count > 0 ? totalNanos.sum() / count / 1_000 : 0);
+        stats.put("maxMicros", maxNanos.get() / 1_000);
+        return stats;
+    }
+
+    public void reset() {
+        authenticatedRequests.reset();
+        failedRequests.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+}
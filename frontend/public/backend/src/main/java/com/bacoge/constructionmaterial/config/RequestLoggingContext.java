@@ -0,0 +1,27 @@
+package com.bacoge.constructionmaterial.config;
+
+import org.slf4j.MDC;
+
+/**
+ * Clés MDC renseignées par les filtres de sécurité pour chaque requête
+ * (affichées dans le motif de log, voir logging.pattern.console).
+ */
+public final class RequestLoggingContext {
+
+    public static final String REQUEST_PATH = "requestPath";
+    public static final String USER = "user";
+
+    private RequestLoggingContext() {
+    }
+
+    /**
+     * Remet une clé MDC à sa valeur d'avant le filtre (ou la supprime)
+     */
+    public static void restore(String key, String previousValue) {
+        if (previousValue != null) {
+            MDC.put(key, previousValue);
+        } else {
+            MDC.remove(key);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.bacoge.constructionmaterial.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Classification des chemins de requête pour les filtres de sécurité.
+ *
+ * Les règles sont compilées une fois dans deux arbres de préfixes (trie) :
+ * - ressources statiques : motif recherché à chaque '/' du chemin (équivalent
+ *   à path.contains(motif), sans parcourir une liste à chaque requête) ;
+ * - routes : plus long préfixe depuis le début du chemin, une correspondance
+ *   exacte l'emportant sur un préfixe.
+ * La classification ne fait aucune allocation et est sûre entre threads
+ * (arbres en lecture seule après construction).
+ */
+@Component
+public class RequestPathClassifier {
+
+    public enum PathCategory {
+        /** Fichiers statiques (css, js, images, polices...) */
+        STATIC_RESOURCE,
+        /** Connexion / inscription client */
+        PUBLIC_AUTH,
+        /** Page de connexion de l'administration */
+        ADMIN_LOGIN,
+        /** API d'authentification admin (/api/admin/auth/**) */
+        ADMIN_AUTH_API,
+        /** Pages et API d'administration protégées */
+        ADMIN,
+        /** Autres endpoints /api/** */
+        API,
+        OTHER
+    }
+
+    private static final String[] STATIC_RESOURCE_PATTERNS = {
+        "/css/", "/js/", "/images/", "/fonts/", "/favicon.ico", "/@vite/", "/static/", "/admin/assets/"
+    };
+
+    private final PrefixTrie staticResources = new PrefixTrie();
+    private final PrefixTrie routes = new PrefixTrie();
+
+    public RequestPathClassifier() {
+        for (String pattern : STATIC_RESOURCE_PATTERNS) {
+            staticResources.addPrefix(pattern, PathCategory.STATIC_RESOURCE);
+        }
+
+        routes.addExact("/api/auth/login", PathCategory.PUBLIC_AUTH);
+        routes.addExact("/api/auth/register", PathCategory.PUBLIC_AUTH);
+
+        routes.addExact("/admin", PathCategory.ADMIN_LOGIN);
+        routes.addExact("/admin/", PathCategory.ADMIN_LOGIN);
+        routes.addExact("/admin/login", PathCategory.ADMIN_LOGIN);
+        routes.addPrefix("/admin/login/", PathCategory.ADMIN_LOGIN);
+        routes.addPrefix("/api/admin/auth/", PathCategory.ADMIN_AUTH_API);
+
+        routes.addPrefix("/admin/", PathCategory.ADMIN);
+        routes.addPrefix("/api/admin/", PathCategory.ADMIN);
+        routes.addPrefix("/api/", PathCategory.API);
+    }
+
+    public PathCategory classify(String path) {
+        if (path == null || path.isEmpty()) {
+            return PathCategory.OTHER;
+        }
+        if (isStaticResource(path)) {
+            return PathCategory.STATIC_RESOURCE;
+        }
+        PathCategory category = routes.longestMatch(path);
+        return category != null ? category : PathCategory.OTHER;
+    }
+
+    public boolean isStaticResource(String path) {
+        for (int i = path.indexOf('/'); i >= 0; i = path.indexOf('/', i + 1)) {
+            if (staticResources.matchesPrefixAt(path, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class PrefixTrie {
+
+        private final Node root = new Node();
+
+        void addPrefix(String key, PathCategory category) {
+            nodeFor(key).prefixCategory = category;
+        }
+
+        void addExact(String key, PathCategory category) {
+            nodeFor(key).exactCategory = category;
+        }
+
+        private Node nodeFor(String key) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            }
+            return node;
+        }
+
+        /** Vrai si une règle préfixe correspond au chemin à partir de l'index donné */
+        boolean matchesPrefixAt(String path, int from) {
+            Node node = root;
+            for (int i = from; i < path.length(); i++) {
+                node = node.children.get(path.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+                if (node.prefixCategory != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Catégorie exacte si le chemin entier correspond, sinon celle du plus long préfixe */
+        PathCategory longestMatch(String path) {
+            Node node = root;
+            PathCategory match = null;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.get(path.charAt(i));
+                if (node == null) {
+                    return match;
+                }
+                if (node.prefixCategory != null) {
+                    match = node.prefixCategory;
+                }
+            }
+            return node.exactCategory != null ? node.exactCategory : match;
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private PathCategory prefixCategory;
+        private PathCategory exactCategory;
+    }
+}
@@ -1,10 +1,13 @@
 package com.bacoge.constructionmaterial.config;
 
+import com.bacoge.constructionmaterial.config.properties.WebSocketProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * Configuration WebSocket pour les notifications en temps réel
@@ -13,6 +16,12 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketProperties webSocketProperties;
+
+    public WebSocketConfig(WebSocketProperties webSocketProperties) {
+        this.webSocketProperties = webSocketProperties;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Active un broker de messages simple en mémoire
@@ -23,15 +32,43 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        WebSocketProperties.Channel inbound = webSocketProperties.getInbound();
+        registration.taskExecutor()
+                .corePoolSize(inbound.getCorePoolSize())
+                .maxPoolSize(inbound.getMaxPoolSize())
+                .queueCapacity(inbound.getQueueCapacity());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // File bornée : son niveau sert d'indicateur de clients lents (voir AdminNotificationStream)
+        WebSocketProperties.Channel outbound = webSocketProperties.getOutbound();
+        registration.taskExecutor()
+                .corePoolSize(outbound.getCorePoolSize())
+                .maxPoolSize(outbound.getMaxPoolSize())
+                .queueCapacity(outbound.getQueueCapacity());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Une session qui n'arrive plus à suivre est fermée au lieu de bloquer les threads d'envoi
+        WebSocketProperties.Transport transport = webSocketProperties.getTransport();
+        registration.setSendTimeLimit(transport.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(transport.getSendBufferSizeLimit())
+                .setMessageSizeLimit(transport.getMessageSizeLimit());
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Point d'entrée WebSocket avec support SockJS pour la compatibilité
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
-        
+
         // Point d'entrée WebSocket natif
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*");
     }
-}
\ No newline at end of file
+}
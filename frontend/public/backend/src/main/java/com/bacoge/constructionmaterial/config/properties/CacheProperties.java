@@ -0,0 +1,43 @@
+package com.bacoge.constructionmaterial.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the in-process cache layer.
+ * Maps properties with prefix 'app.cache' from application.properties/yml.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+    /**
+     * Caffeine spec applied to caches that have no dedicated entry in {@link #specs}.
+     * Default: 1000 entries, 10 minutes after write
+     */
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=600s";
+
+    /**
+     * Caffeine spec per cache name (size bound and TTL).
+     * Example: app.cache.specs[dashboardStats]=maximumSize=10,expireAfterWrite=300s
+     */
+    private Map<String, String> specs = new LinkedHashMap<>();
+
+    public String getDefaultSpec() {
+        return defaultSpec;
+    }
+
+    public void setDefaultSpec(String defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    public Map<String, String> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, String> specs) {
+        this.specs = specs;
+    }
+}
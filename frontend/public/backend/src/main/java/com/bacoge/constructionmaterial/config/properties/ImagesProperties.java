@@ -65,6 +65,120 @@ public class ImagesProperties {
         }
     }
 
+    /**
+     * Resized copies generated on upload (see ImageDerivativeService).
+     * The thumbnail derivative uses the thumbnail width/height above.
+     */
+    private final Derivatives derivatives = new Derivatives();
+
+    /**
+     * Derivative generation properties.
+     */
+    public static class Derivatives {
+        /**
+         * Whether derivatives are generated for uploaded product images.
+         * Default: true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Bounding box of the product card (listing grid) derivative.
+         * Default: 480x480px
+         */
+        private int cardWidth = 480;
+        private int cardHeight = 480;
+
+        /**
+         * Bounding box of the product page derivative.
+         * Default: 1200x1200px
+         */
+        private int detailWidth = 1200;
+        private int detailHeight = 1200;
+
+        /**
+         * JPEG compression quality, from 0 to 1.
+         * Default: 0.82
+         */
+        private float jpegQuality = 0.82f;
+
+        /**
+         * Number of background worker threads.
+         * Default: 2
+         */
+        private int workerThreads = 2;
+
+        /**
+         * Maximum number of images waiting for processing; further uploads are
+         * served from the original until the next rebuild.
+         * Default: 500
+         */
+        private int queueCapacity = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCardWidth() {
+            return cardWidth;
+        }
+
+        public void setCardWidth(int cardWidth) {
+            this.cardWidth = cardWidth;
+        }
+
+        public int getCardHeight() {
+            return cardHeight;
+        }
+
+        public void setCardHeight(int cardHeight) {
+            this.cardHeight = cardHeight;
+        }
+
+        public int getDetailWidth() {
+            return detailWidth;
+        }
+
+        public void setDetailWidth(int detailWidth) {
+            this.detailWidth = detailWidth;
+        }
+
+        public int getDetailHeight() {
+            return detailHeight;
+        }
+
+        public void setDetailHeight(int detailHeight) {
+            this.detailHeight = detailHeight;
+        }
+
+        public float getJpegQuality() {
+            return jpegQuality;
+        }
+
+        public void setJpegQuality(float jpegQuality) {
+            this.jpegQuality = jpegQuality;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
     // Getters and Setters with documentation
     
     public String getUploadDir() { 
@@ -96,4 +210,8 @@ public class ImagesProperties {
     }
     
     // No setter for thumbnail as it's final and initialized in-place
+
+    public Derivatives getDerivatives() {
+        return derivatives;
+    }
 }
@@ -151,4 +151,106 @@ public class MailProperties {
     public void setDebug(boolean debug) { 
         this.debug = debug; 
     }
+
+    /**
+     * Background sending of queued emails (see EmailOutboxSender).
+     */
+    private final Outbox outbox = new Outbox();
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public static class Outbox {
+        /** Whether this instance sends queued emails */
+        private boolean enabled = true;
+        /** Delay between two outbox polls (ms) */
+        private long pollIntervalMs = 1000;
+        /** Number of sender threads (one SMTP connection per thread and batch) */
+        private int senderThreads = 2;
+        /** Maximum number of emails sent over a single SMTP connection */
+        private int batchSize = 20;
+        /** Maximum number of attempts before giving up (status FAILED) */
+        private int maxAttempts = 6;
+        /** Delay before the first retry, doubled after each failure (ms) */
+        private long initialBackoffMs = 30000;
+        /** Maximum delay between two attempts (ms) */
+        private long maxBackoffMs = 3600000;
+        /** Batches left in SENDING longer than this are queued again (instance stopped mid-send) */
+        private long staleAfterMs = 600000;
+        /** How long sent emails are kept (days) */
+        private int sentRetentionDays = 7;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMs() {
+            return initialBackoffMs;
+        }
+
+        public void setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+
+        public long getStaleAfterMs() {
+            return staleAfterMs;
+        }
+
+        public void setStaleAfterMs(long staleAfterMs) {
+            this.staleAfterMs = staleAfterMs;
+        }
+
+        public int getSentRetentionDays() {
+            return sentRetentionDays;
+        }
+
+        public void setSentRetentionDays(int sentRetentionDays) {
+            this.sentRetentionDays = sentRetentionDays;
+        }
+    }
 }
@@ -1,14 +1,20 @@
 package com.bacoge.constructionmaterial.config.properties;
 
+import com.bacoge.constructionmaterial.model.Notification;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties(prefix = "app.notifications")
 public class NotificationProperties {
     private boolean enabled = true;
     private final Email email = new Email();
     private final Sms sms = new Sms();
+    private final Dispatch dispatch = new Dispatch();
+    private final Retention retention = new Retention();
 
     public static class Email {
         private boolean enabled = true;
@@ -34,6 +40,42 @@ public class NotificationProperties {
         }
     }
 
+    /**
+     * Envoi différé des notifications (NotificationOutbox / NotificationDispatcher)
+     */
+    public static class Dispatch {
+        /** Délai entre deux passes du répartiteur (ms) */
+        private long intervalMs = 250;
+        /** Nombre maximal de notifications insérées par lot */
+        private int batchSize = 200;
+        /** Capacité de la file en mémoire ; au-delà, les notifications sont ignorées */
+        private int queueCapacity = 10000;
+
+        public long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
     // Getters and Setters
     public boolean isEnabled() {
         return enabled;
@@ -50,4 +92,87 @@ public class NotificationProperties {
     public Sms getSms() {
         return sms;
     }
+
+    /**
+     * Purge planifiée des notifications (NotificationRetentionService)
+     */
+    public static class Retention {
+        private boolean enabled = true;
+        /** Délai entre deux purges (ms) */
+        private long intervalMs = 900_000;
+        /** Nombre maximal de lignes supprimées par instruction (une transaction par tranche) */
+        private int chunkSize = 1000;
+        /** Nombre maximal de tranches par critère et par passe */
+        private int maxChunksPerRun = 100;
+        /** Pause entre deux tranches pour laisser passer les autres écritures (ms) */
+        private long pauseMs = 50;
+        /** Durée de conservation des notifications lues, à partir de leur lecture (jours, 0 = illimitée) */
+        private int readRetentionDays = 30;
+        /** Durée de conservation maximale par type, à partir de la création (jours) */
+        private Map<Notification.NotificationType, Integer> typeRetentionDays = new EnumMap<>(Notification.NotificationType.class);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxChunksPerRun() {
+            return maxChunksPerRun;
+        }
+
+        public void setMaxChunksPerRun(int maxChunksPerRun) {
+            this.maxChunksPerRun = maxChunksPerRun;
+        }
+
+        public long getPauseMs() {
+            return pauseMs;
+        }
+
+        public void setPauseMs(long pauseMs) {
+            this.pauseMs = pauseMs;
+        }
+
+        public int getReadRetentionDays() {
+            return readRetentionDays;
+        }
+
+        public void setReadRetentionDays(int readRetentionDays) {
+            this.readRetentionDays = readRetentionDays;
+        }
+
+        public Map<Notification.NotificationType, Integer> getTypeRetentionDays() {
+            return typeRetentionDays;
+        }
+
+        public void setTypeRetentionDays(Map<Notification.NotificationType, Integer> typeRetentionDays) {
+            this.typeRetentionDays = typeRetentionDays;
+        }
+    }
+
+    public Dispatch getDispatch() {
+        return dispatch;
+    }
+
+    public Retention getRetention() {
+        return retention;
+    }
 }
@@ -0,0 +1,154 @@
+package com.bacoge.constructionmaterial.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the STOMP broker channels and the admin notification stream.
+ * Maps properties with prefix 'app.websocket' from application.properties/yml.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.websocket")
+public class WebSocketProperties {
+    private final AdminStream adminStream = new AdminStream();
+    private final Channel inbound = new Channel(2, 8, 500);
+    private final Channel outbound = new Channel(4, 16, 2000);
+    private final Transport transport = new Transport();
+
+    /**
+     * Coalescing of admin notifications (AdminNotificationStream)
+     */
+    public static class AdminStream {
+        /** Window during which admin events are grouped into a single frame */
+        private long windowMs = 150;
+        /** Maximum number of notifications per frame */
+        private int maxBatchSize = 100;
+        /** Maximum number of events waiting for the next window; LOW events are dropped first */
+        private int bufferCapacity = 2000;
+        /**
+         * Outbound channel backlog from which clients are considered slow:
+         * LOW events are then merged into a summary instead of being sent one by one
+         */
+        private int slowClientQueueThreshold = 200;
+
+        public long getWindowMs() {
+            return windowMs;
+        }
+
+        public void setWindowMs(long windowMs) {
+            this.windowMs = windowMs;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getBufferCapacity() {
+            return bufferCapacity;
+        }
+
+        public void setBufferCapacity(int bufferCapacity) {
+            this.bufferCapacity = bufferCapacity;
+        }
+
+        public int getSlowClientQueueThreshold() {
+            return slowClientQueueThreshold;
+        }
+
+        public void setSlowClientQueueThreshold(int slowClientQueueThreshold) {
+            this.slowClientQueueThreshold = slowClientQueueThreshold;
+        }
+    }
+
+    /**
+     * Thread pool of a client channel (inbound: messages from browsers, outbound: frames to browsers)
+     */
+    public static class Channel {
+        private int corePoolSize;
+        private int maxPoolSize;
+        private int queueCapacity;
+
+        public Channel(int corePoolSize, int maxPoolSize, int queueCapacity) {
+            this.corePoolSize = corePoolSize;
+            this.maxPoolSize = maxPoolSize;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getCorePoolSize() {
+            return corePoolSize;
+        }
+
+        public void setCorePoolSize(int corePoolSize) {
+            this.corePoolSize = corePoolSize;
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Per-session limits: a session exceeding the send time or buffer size is closed
+     */
+    public static class Transport {
+        private int sendTimeLimitMs = 10_000;
+        private int sendBufferSizeLimit = 512 * 1024;
+        private int messageSizeLimit = 64 * 1024;
+
+        public int getSendTimeLimitMs() {
+            return sendTimeLimitMs;
+        }
+
+        public void setSendTimeLimitMs(int sendTimeLimitMs) {
+            this.sendTimeLimitMs = sendTimeLimitMs;
+        }
+
+        public int getSendBufferSizeLimit() {
+            return sendBufferSizeLimit;
+        }
+
+        public void setSendBufferSizeLimit(int sendBufferSizeLimit) {
+            this.sendBufferSizeLimit = sendBufferSizeLimit;
+        }
+
+        public int getMessageSizeLimit() {
+            return messageSizeLimit;
+        }
+
+        public void setMessageSizeLimit(int messageSizeLimit) {
+            this.messageSizeLimit = messageSizeLimit;
+        }
+    }
+
+    public AdminStream getAdminStream() {
+        return adminStream;
+    }
+
+    public Channel getInbound() {
+        return inbound;
+    }
+
+    public Channel getOutbound() {
+        return outbound;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+}
@@ -2,6 +2,7 @@ package com.bacoge.constructionmaterial.controller;
 
 import com.bacoge.constructionmaterial.dto.NotificationDto;
 import com.bacoge.constructionmaterial.service.AdminNotificationService;
+import com.bacoge.constructionmaterial.service.NotificationRetentionService;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,9 +20,12 @@ import java.util.*;
 public class AdminNotificationController {
     
     private final AdminNotificationService notificationService;
+    private final NotificationRetentionService notificationRetentionService;
 
-    public AdminNotificationController(AdminNotificationService notificationService) {
+    public AdminNotificationController(AdminNotificationService notificationService,
+                                       NotificationRetentionService notificationRetentionService) {
         this.notificationService = notificationService;
+        this.notificationRetentionService = notificationRetentionService;
     }
     
     /**
@@ -158,6 +162,24 @@ public class AdminNotificationController {
         return ResponseEntity.ok(Collections.singletonMap("count", count));
     }
     
+    /**
+     * Get retention sweeper metrics (rows purged per rule, last run)
+     */
+    @GetMapping("/retention")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRetentionStats() {
+        return ResponseEntity.ok(notificationRetentionService.snapshot());
+    }
+    
+    /**
+     * Run the retention sweeper now (expired, old read and per-type rules)
+     */
+    @PostMapping("/retention/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Long>> runRetention() {
+        return ResponseEntity.ok(notificationRetentionService.purgeAll());
+    }
+    
     /**
      * Get notification statistics
      */
@@ -4,7 +4,10 @@ import com.bacoge.constructionmaterial.dto.admin.CreateProductRequest;
 import com.bacoge.constructionmaterial.dto.admin.ProductDto;
 import com.bacoge.constructionmaterial.model.Product;
 import com.bacoge.constructionmaterial.service.admin.AdminProductService;
+import com.bacoge.constructionmaterial.service.admin.ProductImportService;
 import com.bacoge.constructionmaterial.service.FileStorageService;
+import com.bacoge.constructionmaterial.service.ImageDerivativeService;
+import com.bacoge.constructionmaterial.service.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -20,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
 import java.math.BigDecimal;
@@ -43,6 +47,9 @@ public class AdminProductController {
     
     private final AdminProductService adminProductService;
     private final FileStorageService fileStorageService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ProductImportService productImportService;
     
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllProducts(
@@ -312,6 +319,7 @@ public class AdminProductController {
                     if (fileStorageService.deleteFile(filename)) {
                         log.debug("Image supprimée: {}", filename);
                     }
+                    imageDerivativeService.deleteDerivatives(url);
                 });
                 log.info("{} images supprimées pour le produit ID: {}", deletedImageUrls.size(), id);
             }
@@ -484,4 +492,45 @@ public class AdminProductController {
             return ResponseEntity.internalServerError().body(errorResponse);
         }
     }
+    
+    /**
+     * Import en masse (CSV ou JSON) : produits créés ou mis à jour par SKU, erreurs rapportées par ligne
+     */
+    @PostMapping(value = "/import", consumes = {"multipart/form-data"})
+    public ResponseEntity<Map<String, Object>> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        if (file == null || file.isEmpty()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Fichier d'import manquant");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(productImportService.importProducts(in, file.getOriginalFilename(), dryRun));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'import des produits", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Erreur lors de l'import des produits: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+    
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        try {
+            productSearchIndex.rebuild();
+            Map<String, Object> response = new HashMap<>();
+            response.put("ready", productSearchIndex.isReady());
+            response.put("indexedProducts", productSearchIndex.size());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Erreur lors de la reconstruction de l'index de recherche");
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
 }
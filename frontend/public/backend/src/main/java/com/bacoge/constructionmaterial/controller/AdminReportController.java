@@ -1,14 +1,13 @@
 package com.bacoge.constructionmaterial.controller;
 
-import com.bacoge.constructionmaterial.service.admin.AdminOrderService;
 import com.bacoge.constructionmaterial.service.admin.AdminUserService;
+import com.bacoge.constructionmaterial.service.admin.SalesReportService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -17,12 +16,12 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/admin/reports")
 public class AdminReportController {
-    private final AdminOrderService adminOrderService;
     private final AdminUserService adminUserService;
+    private final SalesReportService salesReportService;
 
-    public AdminReportController(AdminOrderService adminOrderService, AdminUserService adminUserService) {
-        this.adminOrderService = adminOrderService;
+    public AdminReportController(AdminUserService adminUserService, SalesReportService salesReportService) {
         this.adminUserService = adminUserService;
+        this.salesReportService = salesReportService;
     }
 
     @GetMapping("/sales")
@@ -34,24 +33,8 @@ public class AdminReportController {
         LocalDateTime start = LocalDateTime.parse(startDate, formatter);
         LocalDateTime end = LocalDateTime.parse(endDate, formatter);
 
-        BigDecimal totalRevenue = adminOrderService.getTotalRevenueBetweenDates(start, end);
-        long totalOrders = adminOrderService.getOrdersCountBetweenDates(start, end);
-        BigDecimal avgOrderValue = (totalOrders > 0 && totalRevenue != null)
-                ? totalRevenue.divide(BigDecimal.valueOf(totalOrders), 2, java.math.RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-        long newUsers = adminUserService.getUsersCountBetweenDates(start, end);
-        double conversionRate = totalOrders > 0 ? (double) newUsers / totalOrders * 100.0 : 0.0;
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("totalRevenue", totalRevenue);
-        body.put("totalOrders", totalOrders);
-        body.put("avgOrderValue", avgOrderValue);
-        body.put("conversionRate", conversionRate);
-        body.put("revenueByCategory", adminOrderService.getRevenueByCategoryBetween(start, end));
-        body.put("ordersByCategory", adminOrderService.getOrderCountByCategoryBetween(start, end));
-        body.put("revenueByPayment", adminOrderService.getRevenueByPaymentMethodBetween(start, end));
-        body.put("topProducts", adminOrderService.getTopSellingProductsBetween(start, end, 5));
-        return ResponseEntity.ok(body);
+        // Tous les indicateurs en deux requêtes groupées exécutées en parallèle (voir SalesReportService)
+        return ResponseEntity.ok(salesReportService.getSalesReport(start, end));
     }
 
     @GetMapping("/users")
@@ -58,12 +58,7 @@ public class AdminReviewController {
     @PutMapping("/{reviewId}/approve")
     public ResponseEntity<Map<String, Object>> approveReview(@PathVariable Long reviewId) {
         try {
-            Review review = reviewRepository.findById(reviewId)
-                    .orElseThrow(() -> new RuntimeException("Avis non trouvé"));
-            
-            review.setIsApproved(true);
-            review.setUpdatedAt(java.time.LocalDateTime.now());
-            reviewRepository.save(review);
+            Review review = reviewService.setApproval(reviewId, true);
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Avis approuvé avec succès");
@@ -80,12 +75,7 @@ public class AdminReviewController {
     @PutMapping("/{reviewId}/reject")
     public ResponseEntity<Map<String, Object>> rejectReview(@PathVariable Long reviewId) {
         try {
-            Review review = reviewRepository.findById(reviewId)
-                    .orElseThrow(() -> new RuntimeException("Avis non trouvé"));
-            
-            review.setIsApproved(false);
-            review.setUpdatedAt(java.time.LocalDateTime.now());
-            reviewRepository.save(review);
+            Review review = reviewService.setApproval(reviewId, false);
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Avis rejeté avec succès");
@@ -102,7 +92,7 @@ public class AdminReviewController {
     @DeleteMapping("/{reviewId}")
     public ResponseEntity<Map<String, Object>> deleteReview(@PathVariable Long reviewId) {
         try {
-            reviewRepository.deleteById(reviewId);
+            reviewService.deleteReviewAsAdmin(reviewId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Avis supprimé avec succès");
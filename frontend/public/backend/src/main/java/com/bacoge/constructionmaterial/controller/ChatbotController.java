@@ -2,15 +2,14 @@ package com.bacoge.constructionmaterial.controller;
 
 import com.bacoge.constructionmaterial.dto.ChatRequest;
 import com.bacoge.constructionmaterial.dto.ChatResponse;
-import com.bacoge.constructionmaterial.model.Product;
-import com.bacoge.constructionmaterial.service.ProductService;
+import com.bacoge.constructionmaterial.service.ChatbotContextService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -19,51 +18,56 @@ import java.util.stream.Collectors;
 public class ChatbotController {
 
     private final com.bacoge.constructionmaterial.service.OpenAIService openAIService;
-    private final ProductService productService;
+    private final ChatbotContextService chatbotContextService;
 
+    /**
+     * Réponse complète ; le thread de requête est libéré pendant la génération
+     */
     @PostMapping("/message")
-    public ResponseEntity<ChatResponse> sendMessage(@RequestBody ChatRequest request) {
+    public CompletableFuture<ResponseEntity<ChatResponse>> sendMessage(@RequestBody ChatRequest request) {
         String userMessage = request.getMessage();
-        
-        // 1. RAG Amélioré : Recherche dédupliquée et limitée
-        String contextInfo = "";
-        try {
-            // Extraction des mots-clés (> 3 lettres)
-            String[] words = userMessage.split("\\s+");
-            java.util.Set<Long> addedProductIds = new java.util.HashSet<>();
-            java.util.List<Product> allFoundProducts = new java.util.ArrayList<>();
 
-            for (String word : words) {
-                if (word.length() > 3) {
-                    List<Product> products = productService.searchProducts(word);
-                    for (Product p : products) {
-                        if (addedProductIds.add(p.getId())) { // add returns true if set didn't already contain the element
-                            allFoundProducts.add(p);
-                        }
-                    }
-                }
+        // 1. RAG : produits pertinents choisis par l'index en mémoire
+        String contextInfo = buildContext(userMessage);
+
+        // 2. Appel à l'IA avec le contexte enrichi
+        return openAIService.getChatResponseAsync(userMessage, contextInfo)
+                .thenApply(botResponse -> ResponseEntity.ok(new ChatResponse(botResponse)));
+    }
+
+    /**
+     * Réponse transmise au fil de la génération (Server-Sent Events) :
+     * événements "token" (fragment de texte), puis "done" (texte complet)
+     */
+    @PostMapping("/stream")
+    public SseEmitter streamMessage(@RequestBody ChatRequest request) {
+        String userMessage = request.getMessage();
+        String contextInfo = buildContext(userMessage);
+
+        SseEmitter emitter = new SseEmitter(openAIService.getRequestTimeoutMs() + 10_000);
+        openAIService.streamChatResponse(userMessage, contextInfo, token -> {
+            try {
+                emitter.send(SseEmitter.event().name("token").data(token));
+            } catch (IOException | IllegalStateException e) {
+                // Client déconnecté : la génération se termine sans destinataire
             }
-            
-            if (!allFoundProducts.isEmpty()) {
-                // Limiter à 5 produits pertinents au total pour la performance et la clarté
-                List<Product> topProducts = allFoundProducts.stream().limit(5).collect(Collectors.toList());
-                
-                StringBuilder contextBuilder = new StringBuilder();
-                for (Product p : topProducts) {
-                    contextBuilder.append(String.format("- %s : %.2f € (Dispo: %s)\n", 
-                        p.getName(), 
-                        p.getPrice(), 
-                        p.getStockQuantity() > 0 ? "Oui" : "Non"));
-                }
-                contextInfo = contextBuilder.toString();
+        }).whenComplete((botResponse, error) -> {
+            try {
+                emitter.send(SseEmitter.event().name("done").data(new ChatResponse(botResponse)));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
             }
+        });
+        return emitter;
+    }
+
+    private String buildContext(String userMessage) {
+        try {
+            return chatbotContextService.buildProductContext(userMessage);
         } catch (Exception e) {
             System.err.println("Erreur RAG: " + e.getMessage());
+            return "";
         }
-
-        // 2. Appel à l'IA avec le contexte enrichi
-        String botResponse = openAIService.getChatResponse(userMessage, contextInfo);
-
-        return ResponseEntity.ok(new ChatResponse(botResponse));
     }
 }
@@ -32,16 +32,13 @@ public class ClientCategoryController {
     
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDisplayDto> getCategoryById(@PathVariable Long id) {
-        CategoryDisplayDto category = CategoryDisplayDto.fromCategory(clientCategoryService.getCategoryById(id));
+        CategoryDisplayDto category = clientCategoryService.getCategoryById(id);
         return ResponseEntity.ok(category);
     }
     
     @GetMapping("/featured")
     public ResponseEntity<List<CategoryDisplayDto>> getFeaturedCategories() {
-        List<CategoryDisplayDto> categories = clientCategoryService.getFeaturedCategories()
-                .stream()
-                .map(CategoryDisplayDto::fromCategory)
-                .collect(java.util.stream.Collectors.toList());
+        List<CategoryDisplayDto> categories = clientCategoryService.getFeaturedCategories();
         return ResponseEntity.ok(categories);
     }
 } 
@@ -110,8 +110,11 @@ public class ClientReviewController {
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ReviewDto>> getUserReviews(@PathVariable Long userId) {
-        List<ReviewDto> reviews = reviewService.getUserReviews(userId);
+    public ResponseEntity<List<ReviewDto>> getUserReviews(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        List<ReviewDto> reviews = reviewService.getUserReviews(userId, page, size).getContent();
         return ResponseEntity.ok(reviews);
     }
 }
@@ -2,10 +2,12 @@ package com.bacoge.constructionmaterial.controller;
 
 import com.bacoge.constructionmaterial.dto.DashboardStats;
 import com.bacoge.constructionmaterial.service.DashboardService;
+import com.bacoge.constructionmaterial.service.OrderStatsRollupService;
 import com.bacoge.constructionmaterial.service.admin.AdminPromotionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -19,10 +21,13 @@ public class DashboardController {
 
     private final DashboardService dashboardService;
     private final AdminPromotionService adminPromotionService;
+    private final OrderStatsRollupService orderStatsRollupService;
 
-    public DashboardController(DashboardService dashboardService, AdminPromotionService adminPromotionService) {
+    public DashboardController(DashboardService dashboardService, AdminPromotionService adminPromotionService,
+                               OrderStatsRollupService orderStatsRollupService) {
         this.dashboardService = dashboardService;
         this.adminPromotionService = adminPromotionService;
+        this.orderStatsRollupService = orderStatsRollupService;
     }
 
     @GetMapping("/stats")
@@ -237,5 +242,21 @@ public class DashboardController {
         }
     }
 
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildOrderRollup() {
+        try {
+            int days = orderStatsRollupService.rebuild();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("days", days);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Erreur lors de la reconstruction des agrégats de commandes");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
     // Méthode getRecentActivity() supprimée car elle était en double
 }
@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.controller;
 
+import com.bacoge.constructionmaterial.service.ImageDerivativeService;
 import com.bacoge.constructionmaterial.service.ProductImageService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -37,9 +38,12 @@ public class ProductImageController {
     private String uploadDir;
     
     private final ProductImageService productImageService;
+    private final ImageDerivativeService imageDerivativeService;
 
-    public ProductImageController(ProductImageService productImageService) {
+    public ProductImageController(ProductImageService productImageService,
+                                  ImageDerivativeService imageDerivativeService) {
         this.productImageService = productImageService;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
     @PostMapping(value = "/upload", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -91,6 +95,9 @@ public class ProductImageController {
             // Retourner la réponse
             String relativePath = "/uploads/" + uniqueFilename;
             
+            // Miniature, carte et page produit générées en arrière-plan
+            imageDerivativeService.generateAsync(relativePath);
+            
             response.put("success", true);
             response.put("url", relativePath);
             response.put("filename", uniqueFilename);
@@ -1,11 +1,14 @@
 package com.bacoge.constructionmaterial.controller;
 
+import com.bacoge.constructionmaterial.dto.client.ReviewCursorPageDto;
 import com.bacoge.constructionmaterial.dto.client.ReviewDto;
 import com.bacoge.constructionmaterial.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,13 +21,14 @@ public class ServiceTestimonialController {
 
     /**
      * Récupère les témoignages pour les services
-     * Retourne tous les avis approuvés et vérifiés
+     * Retourne les avis approuvés, du plus récent au plus ancien, par page
      */
     @GetMapping("/reviews/testimonials")
-    public ResponseEntity<List<ReviewDto>> getServiceTestimonials() {
+    public ResponseEntity<List<ReviewDto>> getServiceTestimonials(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            // Récupérer tous les avis approuvés pour affichage en témoignages
-            List<ReviewDto> testimonials = reviewService.getAllApprovedReviews();
+            List<ReviewDto> testimonials = reviewService.getApprovedReviews(page, size).getContent();
             return ResponseEntity.ok(testimonials);
         } catch (Exception e) {
             // En cas d'erreur, retourner une liste vide
@@ -45,4 +49,22 @@ public class ServiceTestimonialController {
             return ResponseEntity.ok(List.of());
         }
     }
+
+    /**
+     * Meilleurs avis (note décroissante puis plus récents), paginés par curseur.
+     * La première page s'obtient sans curseur ; les suivantes avec les valeurs nextCursor* de la réponse.
+     */
+    @GetMapping("/reviews/testimonials/top")
+    public ResponseEntity<ReviewCursorPageDto> getTopTestimonials(
+            @RequestParam(defaultValue = "4") int minRating,
+            @RequestParam(required = false) Integer cursorRating,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorCreatedAt,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(reviewService.getTopRatedReviews(minRating, cursorRating, cursorCreatedAt, cursorId, size));
+        } catch (Exception e) {
+            return ResponseEntity.ok(new ReviewCursorPageDto(List.of(), false, null, null, null));
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package com.bacoge.constructionmaterial.controller.admin;
+
+import com.bacoge.constructionmaterial.config.JwtFilterMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics/auth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminAuthMetricsController {
+
+    private final JwtFilterMetrics jwtFilterMetrics;
+
+    public AdminAuthMetricsController(JwtFilterMetrics jwtFilterMetrics) {
+        this.jwtFilterMetrics = jwtFilterMetrics;
+    }
+
+    /**
+     * Get JWT filter latency (principal cache hit rate: GET /api/admin/cache/stats)
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getAuthFilterMetrics() {
+        return ResponseEntity.ok(jwtFilterMetrics.snapshot());
+    }
+
+    /**
+     * Reset JWT filter latency counters
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> resetAuthFilterMetrics() {
+        jwtFilterMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
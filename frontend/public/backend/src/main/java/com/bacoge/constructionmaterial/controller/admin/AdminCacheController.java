@@ -0,0 +1,39 @@
+package com.bacoge.constructionmaterial.controller.admin;
+
+import com.bacoge.constructionmaterial.service.admin.AdminCacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final AdminCacheService adminCacheService;
+
+    public AdminCacheController(AdminCacheService adminCacheService) {
+        this.adminCacheService = adminCacheService;
+    }
+
+    /**
+     * Get statistics (size, hits, misses, evictions) for every cache
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStatistics() {
+        return ResponseEntity.ok(adminCacheService.getCacheStatistics());
+    }
+
+    /**
+     * Clear a specific cache
+     */
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> clearCache(@PathVariable String name) {
+        if (!adminCacheService.clearCache(name)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
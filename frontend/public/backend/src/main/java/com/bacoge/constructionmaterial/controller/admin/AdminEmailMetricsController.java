@@ -0,0 +1,28 @@
+package com.bacoge.constructionmaterial.controller.admin;
+
+import com.bacoge.constructionmaterial.service.EmailOutboxSender;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics/email")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminEmailMetricsController {
+
+    private final EmailOutboxSender emailOutboxSender;
+
+    public AdminEmailMetricsController(EmailOutboxSender emailOutboxSender) {
+        this.emailOutboxSender = emailOutboxSender;
+    }
+
+    /**
+     * Get email outbox metrics (queue size per status, sent/retried/failed emails, SMTP connections)
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getEmailMetrics() {
+        return ResponseEntity.ok(emailOutboxSender.snapshot());
+    }
+}
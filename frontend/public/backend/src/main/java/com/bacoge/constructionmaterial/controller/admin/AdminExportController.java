@@ -0,0 +1,83 @@
+package com.bacoge.constructionmaterial.controller.admin;
+
+import com.bacoge.constructionmaterial.service.admin.DataExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * CSV exports, written directly to the response while rows are read (see DataExportService).
+ * Optional startDate (inclusive) / endDate (exclusive) use the reports format yyyy-MM-dd'T'HH:mm:ss.
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminExportController {
+
+    private static final DateTimeFormatter PARAM_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final DataExportService dataExportService;
+
+    public AdminExportController(DataExportService dataExportService) {
+        this.dataExportService = dataExportService;
+    }
+
+    @GetMapping("/orders")
+    public void exportOrders(@RequestParam(required = false) String startDate,
+                             @RequestParam(required = false) String endDate,
+                             HttpServletResponse response) throws IOException {
+        LocalDateTime start = parse(startDate, EARLIEST);
+        LocalDateTime end = parse(endDate, LocalDateTime.now());
+        prepare(response, "commandes");
+        dataExportService.exportOrders(start, end, response.getOutputStream());
+    }
+
+    @GetMapping("/users")
+    public void exportUsers(@RequestParam(required = false) String startDate,
+                            @RequestParam(required = false) String endDate,
+                            HttpServletResponse response) throws IOException {
+        LocalDateTime start = parse(startDate, EARLIEST);
+        LocalDateTime end = parse(endDate, LocalDateTime.now());
+        prepare(response, "utilisateurs");
+        dataExportService.exportUsers(start, end, response.getOutputStream());
+    }
+
+    @GetMapping("/stock-movements")
+    public void exportStockMovements(@RequestParam(required = false) String startDate,
+                                     @RequestParam(required = false) String endDate,
+                                     HttpServletResponse response) throws IOException {
+        LocalDateTime start = parse(startDate, EARLIEST);
+        LocalDateTime end = parse(endDate, LocalDateTime.now());
+        prepare(response, "mouvements-stock");
+        dataExportService.exportStockMovements(start, end, response.getOutputStream());
+    }
+
+    private LocalDateTime parse(String value, LocalDateTime defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return LocalDateTime.parse(value, PARAM_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Date invalide (format attendu yyyy-MM-dd'T'HH:mm:ss): " + value);
+        }
+    }
+
+    private void prepare(HttpServletResponse response, String name) {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "-" + LocalDate.now() + ".csv\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
+}
@@ -0,0 +1,40 @@
+package com.bacoge.constructionmaterial.controller.admin;
+
+import com.bacoge.constructionmaterial.service.ImageDerivativeService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/images/derivatives")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminImageController {
+
+    private final ImageDerivativeService imageDerivativeService;
+
+    public AdminImageController(ImageDerivativeService imageDerivativeService) {
+        this.imageDerivativeService = imageDerivativeService;
+    }
+
+    /**
+     * Get image derivative metrics (generated, unsupported, failed, bytes saved, worker queue)
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getDerivativeMetrics() {
+        return ResponseEntity.ok(imageDerivativeService.snapshot());
+    }
+
+    /**
+     * Generate missing derivatives for existing product images (runs in the background)
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDerivatives() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("scheduled", imageDerivativeService.rebuildMissing());
+        return ResponseEntity.accepted().body(response);
+    }
+}
@@ -1,14 +1,17 @@
 package com.bacoge.constructionmaterial.controller.admin;
 
+import com.bacoge.constructionmaterial.dto.admin.StockMovementCursorPageDto;
 import com.bacoge.constructionmaterial.dto.admin.StockMovementDto;
 import com.bacoge.constructionmaterial.model.StockMovement;
 import com.bacoge.constructionmaterial.service.admin.AdminStockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -83,4 +86,28 @@ public class AdminStockController {
         List<StockMovementDto> movements = adminStockService.getProductStockMovements(productId);
         return ResponseEntity.ok(movements);
     }
+
+    /**
+     * Get stock movement history with cursor pagination
+     * (pass nextCursorCreatedAt / nextCursorId from the previous page to continue)
+     */
+    @GetMapping("/movements/history")
+    public ResponseEntity<StockMovementCursorPageDto> getMovementHistory(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorCreatedAt,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        StockMovement.MovementType movementType = null;
+        if (type != null && !type.isBlank()) {
+            try {
+                movementType = StockMovement.MovementType.valueOf(type.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        StockMovementCursorPageDto page = adminStockService.getStockMovementHistory(
+                productId, movementType, cursorCreatedAt, cursorId, size);
+        return ResponseEntity.ok(page);
+    }
 }
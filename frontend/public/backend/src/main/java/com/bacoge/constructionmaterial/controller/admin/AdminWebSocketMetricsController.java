@@ -0,0 +1,37 @@
+package com.bacoge.constructionmaterial.controller.admin;
+
+import com.bacoge.constructionmaterial.service.AdminNotificationStream;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics/websocket")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminWebSocketMetricsController {
+
+    private final AdminNotificationStream adminNotificationStream;
+
+    public AdminWebSocketMetricsController(AdminNotificationStream adminNotificationStream) {
+        this.adminNotificationStream = adminNotificationStream;
+    }
+
+    /**
+     * Get admin notification stream metrics (buffer depth, frames, merged/dropped events, outbound queue)
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getWebSocketMetrics() {
+        return ResponseEntity.ok(adminNotificationStream.snapshot());
+    }
+
+    /**
+     * Reset admin notification stream counters
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> resetWebSocketMetrics() {
+        adminNotificationStream.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
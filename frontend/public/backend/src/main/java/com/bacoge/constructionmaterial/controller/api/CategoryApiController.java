@@ -26,7 +26,7 @@ public class CategoryApiController {
     
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDisplayDto> getCategoryById(@PathVariable Long id) {
-        CategoryDisplayDto category = CategoryDisplayDto.fromCategory(clientCategoryService.getCategoryById(id));
+        CategoryDisplayDto category = clientCategoryService.getCategoryById(id);
         return ResponseEntity.ok(category);
     }
     
@@ -2,6 +2,7 @@ package com.bacoge.constructionmaterial.controller.api;
 
 import com.bacoge.constructionmaterial.dto.client.ProductDisplayDto;
 import com.bacoge.constructionmaterial.service.ClientProductService;
+import com.bacoge.constructionmaterial.service.ProductFacetIndex;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -10,21 +11,33 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/products")
 
 public class ClientProductApiController {
     
+    // Taille maximale des listes classées (populaires, recommandés) par appel
+    private static final int MAX_RANKED_PRODUCTS = 48;
+    
     private final ClientProductService clientProductService;
     
     public ClientProductApiController(ClientProductService clientProductService) {
         this.clientProductService = clientProductService;
     }
     
+    /**
+     * Liste paginée du catalogue. Les filtres prennent les valeurs renvoyées par /facets
+     * (paramètre répété = OU, filtres différents = ET), avec les mêmes règles de correspondance.
+     */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
@@ -33,30 +46,42 @@ public class ClientProductApiController {
             @RequestParam(required = false) Long category,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
-            @RequestParam(required = false) String style,
-            @RequestParam(required = false) String room,
-            @RequestParam(required = false) String color,
-            @RequestParam(required = false) String material,
-            @RequestParam(required = false, name = "collectionName") String collectionName,
-            @RequestParam(required = false) String tags,
-            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(required = false) List<String> style,
+            @RequestParam(required = false) List<String> room,
+            @RequestParam(required = false) List<String> color,
+            @RequestParam(required = false) List<String> material,
+            @RequestParam(required = false, name = "collectionName") List<String> collectionName,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "asc") String sortOrder) {
         
         try {
+            // Par défaut : pertinence pour une recherche texte, sinon ordre alphabétique
+            if (sortBy == null || sortBy.isBlank()) {
+                sortBy = search != null && !search.isBlank() ? "relevance" : "name";
+            }
+            // La pertinence n'existe que dans l'index de recherche ; le tri SQL de repli se fait par nom
+            String sortProperty = "relevance".equals(sortBy) ? "name" : sortBy;
             Pageable pageable = PageRequest.of(page, size, 
-                Sort.by(sortOrder.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy));
+                Sort.by(sortOrder.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, sortProperty));
+            
+            // Mêmes clés que /facets : les valeurs renvoyées par les facettes filtrent la liste à l'identique
+            Map<ProductFacetIndex.Facet, Set<String>> selected = new EnumMap<>(ProductFacetIndex.Facet.class);
+            putSelection(selected, ProductFacetIndex.Facet.STYLE, style);
+            putSelection(selected, ProductFacetIndex.Facet.ROOM, room);
+            putSelection(selected, ProductFacetIndex.Facet.COLOR, color);
+            putSelection(selected, ProductFacetIndex.Facet.MATERIAL, material);
+            putSelection(selected, ProductFacetIndex.Facet.COLLECTION, collectionName);
+            putSelection(selected, ProductFacetIndex.Facet.TAGS, tags);
+            putSelection(selected, ProductFacetIndex.Facet.PRICE, price);
             
             Page<ProductDisplayDto> products = clientProductService.getActiveProducts(
                 search,
                 category,
                 minPrice != null ? BigDecimal.valueOf(minPrice) : null,
                 maxPrice != null ? BigDecimal.valueOf(maxPrice) : null,
-                style,
-                room,
-                color,
-                material,
-                collectionName,
-                tags,
+                selected,
                 sortBy,
                 sortOrder,
                 pageable,
@@ -79,6 +104,86 @@ public class ClientProductApiController {
         }
     }
     
+    /**
+     * Comptes par valeur de filtre pour la barre latérale du catalogue.
+     * Chaque filtre accepte plusieurs valeurs (paramètre répété) combinées en OU ;
+     * les filtres différents se combinent en ET.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) List<String> style,
+            @RequestParam(required = false) List<String> room,
+            @RequestParam(required = false) List<String> color,
+            @RequestParam(required = false) List<String> material,
+            @RequestParam(required = false, name = "collectionName") List<String> collectionName,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        try {
+            Map<ProductFacetIndex.Facet, Set<String>> selected = new EnumMap<>(ProductFacetIndex.Facet.class);
+            putSelection(selected, ProductFacetIndex.Facet.CATEGORY, category);
+            putSelection(selected, ProductFacetIndex.Facet.STYLE, style);
+            putSelection(selected, ProductFacetIndex.Facet.ROOM, room);
+            putSelection(selected, ProductFacetIndex.Facet.COLOR, color);
+            putSelection(selected, ProductFacetIndex.Facet.MATERIAL, material);
+            putSelection(selected, ProductFacetIndex.Facet.COLLECTION, collectionName);
+            putSelection(selected, ProductFacetIndex.Facet.TAGS, tags);
+            putSelection(selected, ProductFacetIndex.Facet.PRICE, price);
+            
+            ProductFacetIndex.FacetResult result = clientProductService.getCatalogFacets(
+                search,
+                selected,
+                minPrice != null ? BigDecimal.valueOf(minPrice) : null,
+                maxPrice != null ? BigDecimal.valueOf(maxPrice) : null,
+                Math.max(1, Math.min(limit, 500))
+            );
+            
+            Map<String, Object> facets = new LinkedHashMap<>();
+            result.facets().forEach((facet, counts) -> facets.put(facet.getParamName(), counts.stream()
+                .map(c -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("value", c.value());
+                    entry.put("label", c.label());
+                    entry.put("count", c.count());
+                    return entry;
+                })
+                .collect(Collectors.toList())));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("totalElements", result.total());
+            response.put("facets", facets);
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Filtres indisponibles");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(503).body(error);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Erreur lors du calcul des filtres");
+            error.put("message", e.getMessage());
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+    
+    private static void putSelection(Map<ProductFacetIndex.Facet, Set<String>> selected,
+                                     ProductFacetIndex.Facet facet, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        Set<String> cleaned = values.stream()
+            .filter(v -> v != null && !v.isBlank())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!cleaned.isEmpty()) {
+            selected.put(facet, cleaned);
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ProductDisplayDto> getProductById(@PathVariable Long id) {
         try {
@@ -105,6 +210,34 @@ public class ClientProductApiController {
         }
     }
     
+    @GetMapping("/popular")
+    public ResponseEntity<Map<String, Object>> getPopularProducts(@RequestParam(defaultValue = "8") int limit) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("products", clientProductService.getPopularProducts(Math.min(Math.max(limit, 1), MAX_RANKED_PRODUCTS)));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Erreur lors de la récupération des produits populaires");
+            error.put("message", e.getMessage());
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+    
+    @GetMapping("/recommended")
+    public ResponseEntity<Map<String, Object>> getRecommendedProducts(@RequestParam(defaultValue = "8") int limit) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("products", clientProductService.getRecommendedProducts(Math.min(Math.max(limit, 1), MAX_RANKED_PRODUCTS)));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Erreur lors de la récupération des produits recommandés");
+            error.put("message", e.getMessage());
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+    
     @GetMapping("/new")
     public ResponseEntity<Map<String, Object>> getNewArrivals() {
         try {
@@ -1,6 +1,7 @@
 package com.bacoge.constructionmaterial.dto.admin;
 
 import com.bacoge.constructionmaterial.model.Category;
+import com.bacoge.constructionmaterial.service.CategorySnapshotService;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -46,4 +47,11 @@ public class CategoryDto {
         
         return dto;
     }
-}
\ No newline at end of file
+    
+    // Depuis l'instantané des catégories : productsCount = produits actifs
+    public static CategoryDto fromSummary(CategorySnapshotService.CategorySummary summary) {
+        return new CategoryDto(summary.id(), summary.name(), summary.description(), summary.imageUrl(),
+                summary.status() != null ? summary.status().name() : null, summary.activeProductCount(),
+                summary.createdAt(), summary.updatedAt());
+    }
+}
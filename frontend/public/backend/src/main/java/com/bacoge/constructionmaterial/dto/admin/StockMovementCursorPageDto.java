@@ -0,0 +1,23 @@
+package com.bacoge.constructionmaterial.dto.admin;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Page d'historique de mouvements de stock paginée par curseur.
+ * Pour obtenir la page suivante, renvoyer nextCursorCreatedAt / nextCursorId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementCursorPageDto {
+    
+    private List<StockMovementDto> content;
+    private boolean hasMore;
+    private LocalDateTime nextCursorCreatedAt;
+    private Long nextCursorId;
+}
@@ -4,6 +4,7 @@ import com.bacoge.constructionmaterial.model.Cart;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -12,6 +13,8 @@ public class CartDto {
     private Long id;
     private Long userId;
     private List<CartItemDto> items;
+    // Lignes dont le produit n'existe plus ou n'a pas de prix : absentes de items et du total
+    private List<Long> unavailableItemIds = new ArrayList<>();
     private BigDecimal totalAmount;
     private int totalItems;
     private LocalDateTime createdAt;
@@ -41,6 +44,9 @@ public class CartDto {
     public List<CartItemDto> getItems() { return items; }
     public void setItems(List<CartItemDto> items) { this.items = items; }
     
+    public List<Long> getUnavailableItemIds() { return unavailableItemIds; }
+    public void setUnavailableItemIds(List<Long> unavailableItemIds) { this.unavailableItemIds = unavailableItemIds; }
+    
     public BigDecimal getTotalAmount() { return totalAmount; }
     public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
     
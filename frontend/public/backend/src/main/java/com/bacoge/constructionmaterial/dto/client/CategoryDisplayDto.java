@@ -2,6 +2,7 @@ package com.bacoge.constructionmaterial.dto.client;
 
 import java.time.LocalDateTime;
 import com.bacoge.constructionmaterial.model.Category;
+import com.bacoge.constructionmaterial.service.CategorySnapshotService;
 
 public class CategoryDisplayDto {
     private Long id;
@@ -11,6 +12,7 @@ public class CategoryDisplayDto {
     private String status;
     private LocalDateTime createdAt;
     private int productCount;
+    private int promotionCount;
     
     public CategoryDisplayDto() {}
     
@@ -80,6 +82,23 @@ public class CategoryDisplayDto {
         this.productCount = productCount;
     }
     
+    public int getPromotionCount() {
+        return promotionCount;
+    }
+    
+    public void setPromotionCount(int promotionCount) {
+        this.promotionCount = promotionCount;
+    }
+    
+    // Depuis l'instantané des catégories : productCount = produits actifs
+    public static CategoryDisplayDto fromSummary(CategorySnapshotService.CategorySummary summary) {
+        CategoryDisplayDto dto = new CategoryDisplayDto(summary.id(), summary.name(), summary.description(),
+                summary.imageUrl(), summary.status() != null ? summary.status().name() : null,
+                summary.createdAt(), (int) summary.activeProductCount());
+        dto.setPromotionCount((int) summary.promotionProductCount());
+        return dto;
+    }
+    
     public static CategoryDisplayDto fromCategory(Category category) {
         CategoryDisplayDto dto = new CategoryDisplayDto();
         dto.setId(category.getId());
@@ -1,6 +1,7 @@
 package com.bacoge.constructionmaterial.dto.client;
 
 import com.bacoge.constructionmaterial.model.Product;
+import com.bacoge.constructionmaterial.model.ProductImage;
 import com.bacoge.constructionmaterial.model.Promotion;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -25,6 +26,10 @@ public class ProductDisplayDto {
     private Boolean inStock;
     private Boolean lowStock;
     private String imageUrl;
+    // Image principale redimensionnée : panier / grille de produits / page produit (original à défaut)
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String detailUrl;
     private List<String> imageUrls;
     private String sku;
     private BigDecimal weightKg;
@@ -60,6 +65,22 @@ public class ProductDisplayDto {
         return category;
     }
     
+    /**
+     * Renseigne les URLs par taille à partir de l'image principale ;
+     * sans copie générée (ou sans image), l'URL de imageUrl est reprise
+     */
+    public void applyImageVariants(ProductImage mainImage) {
+        if (mainImage == null) {
+            this.thumbnailUrl = imageUrl;
+            this.cardUrl = imageUrl;
+            this.detailUrl = imageUrl;
+            return;
+        }
+        this.thumbnailUrl = mainImage.urlFor(ProductImage.Variant.THUMBNAIL);
+        this.cardUrl = mainImage.urlFor(ProductImage.Variant.CARD);
+        this.detailUrl = mainImage.urlFor(ProductImage.Variant.DETAIL);
+    }
+    
     public static ProductDisplayDto fromProduct(Product product) {
         if (product == null) {
             return null;
@@ -117,13 +138,19 @@ public class ProductDisplayDto {
                     mainUrl = imageUrls.get(0);
                 }
                 dto.setImageUrl(mainUrl != null ? mainUrl : "/images/placeholder-product.jpg");
+                dto.applyImageVariants(product.getImages().stream()
+                        .filter(image -> Boolean.TRUE.equals(image.getIsMain()))
+                        .findFirst()
+                        .orElse(product.getImages().get(0)));
             } else {
                 dto.setImageUrl("/images/placeholder-product.jpg");
+                dto.applyImageVariants(null);
             }
         } catch (Exception e) {
             // Fallback en cas de LazyInitializationException
             dto.setImageUrl("/images/placeholder-product.jpg");
             dto.setImageUrls(java.util.Arrays.asList("/images/placeholder-product.jpg"));
+            dto.applyImageVariants(null);
         }
         
         // Handle promotions - with lazy loading protection
@@ -148,9 +175,9 @@ public class ProductDisplayDto {
             dto.setDiscountedPrice(product.getPrice());
         }
         
-        // Default values for fields not in Product entity
-        dto.setAverageRating(0.0);
-        dto.setReviewCount(0);
+        // Synthèse des avis maintenue sur le produit (aucune requête supplémentaire)
+        dto.setAverageRating(product.getAverageRating());
+        dto.setReviewCount(product.getReviewCount());
         
         return dto;
     }
@@ -0,0 +1,24 @@
+package com.bacoge.constructionmaterial.dto.client;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Page de meilleurs avis paginée par curseur (note, date, id).
+ * Pour obtenir la page suivante, renvoyer nextCursorRating / nextCursorCreatedAt / nextCursorId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewCursorPageDto {
+    
+    private List<ReviewDto> content;
+    private boolean hasMore;
+    private Integer nextCursorRating;
+    private LocalDateTime nextCursorCreatedAt;
+    private Long nextCursorId;
+}
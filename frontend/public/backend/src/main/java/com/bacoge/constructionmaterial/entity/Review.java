@@ -8,7 +8,11 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+    @Index(name = "idx_reviews_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_reviews_approved_created", columnList = "is_approved, created_at, id"),
+    @Index(name = "idx_reviews_approved_rating_created", columnList = "is_approved, rating, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
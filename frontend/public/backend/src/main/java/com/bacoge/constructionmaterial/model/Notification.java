@@ -5,7 +5,12 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_notifications_read_read_at", columnList = "is_read, read_at"),
+    @Index(name = "idx_notifications_type_created_at", columnList = "type, created_at"),
+    @Index(name = "idx_notifications_user_read", columnList = "user_id, is_read")
+})
 public class Notification {
     
     @Id
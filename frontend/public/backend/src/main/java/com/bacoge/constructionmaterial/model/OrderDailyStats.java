@@ -0,0 +1,93 @@
+package com.bacoge.constructionmaterial.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Agrégats journaliers des commandes, maintenus de façon incrémentale
+ * (voir OrderStatsRollupService). Une ligne par jour de création de commande :
+ * nombre de commandes, répartition par statut et chiffre d'affaires des
+ * commandes livrées.
+ */
+@Entity
+@Table(name = "order_daily_stats")
+@Data
+@NoArgsConstructor
+public class OrderDailyStats {
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "orders_count", nullable = false)
+    private long ordersCount;
+
+    @Column(name = "pending_count", nullable = false)
+    private long pendingCount;
+
+    @Column(name = "confirmed_count", nullable = false)
+    private long confirmedCount;
+
+    @Column(name = "processing_count", nullable = false)
+    private long processingCount;
+
+    @Column(name = "shipped_count", nullable = false)
+    private long shippedCount;
+
+    @Column(name = "delivered_count", nullable = false)
+    private long deliveredCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+
+    @Column(name = "delivered_revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal deliveredRevenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public OrderDailyStats(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void adjustStatusCount(Order.OrderStatus status, long delta) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case PENDING -> pendingCount += delta;
+            case CONFIRMED -> confirmedCount += delta;
+            case PROCESSING -> processingCount += delta;
+            case SHIPPED -> shippedCount += delta;
+            case DELIVERED -> deliveredCount += delta;
+            case CANCELLED -> cancelledCount += delta;
+        }
+    }
+
+    public void adjustDeliveredRevenue(BigDecimal delta) {
+        if (delta != null) {
+            deliveredRevenue = deliveredRevenue.add(delta);
+        }
+    }
+
+    /** Commandes en cours : en attente + confirmées + en préparation */
+    public long getOpenCount() {
+        return pendingCount + confirmedCount + processingCount;
+    }
+
+    /** Commandes abouties : expédiées + livrées */
+    public long getCompletedCount() {
+        return shippedCount + deliveredCount;
+    }
+}
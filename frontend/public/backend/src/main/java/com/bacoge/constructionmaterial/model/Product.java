@@ -46,6 +46,11 @@ public class Product {
     @Column(name = "min_stock_level")
     private Integer minStockLevel = 10;
     
+    // Verrou optimiste : une modification concurrente du stock est détectée au lieu d'être écrasée
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+    
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("displayOrder ASC, id ASC")
     private List<ProductImage> images = new ArrayList<>();
@@ -144,6 +149,21 @@ public class Product {
     @Column(name = "is_featured", columnDefinition = "boolean default false")
     private boolean featured = false;
     
+    // Synthèse des avis approuvés, maintenue par ProductRatingService via des UPDATE ciblés :
+    // jamais écrite par l'entité, pour ne pas écraser une modération concurrente
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long ratingSum;
+    
+    @Column(name = "review_count", nullable = false, insertable = false, updatable = false, columnDefinition = "int default 0")
+    private int reviewCount;
+    
+    @Column(name = "avg_rating", nullable = false, insertable = false, updatable = false, columnDefinition = "double default 0")
+    private double averageRating;
+    
+    // Consultations de la fiche produit, cumulées par ProductRankingService (UPDATE ciblés, comme les avis)
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long viewCount;
+    
     @OneToMany(mappedBy = "product", cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH}, 
                orphanRemoval = true, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems = new ArrayList<>();
@@ -232,6 +252,9 @@ public class Product {
     public Integer getMinStockLevel() { return minStockLevel; }
     public void setMinStockLevel(Integer minStockLevel) { this.minStockLevel = minStockLevel; }
     
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    
     public List<ProductImage> getImages() { return images; }
     public void setImages(List<ProductImage> images) { this.images = images; }
     
@@ -274,6 +297,11 @@ public class Product {
     public boolean isFeatured() { return featured; }
     public void setFeatured(boolean featured) { this.featured = featured; }
     
+    public long getRatingSum() { return ratingSum; }
+    public int getReviewCount() { return reviewCount; }
+    public double getAverageRating() { return averageRating; }
+    public long getViewCount() { return viewCount; }
+    
     public Long getCategoryId() { 
         return category != null ? category.getId() : null; 
     }
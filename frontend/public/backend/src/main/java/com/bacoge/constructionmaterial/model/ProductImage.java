@@ -31,10 +31,38 @@ public class ProductImage {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
     
+    // Copies redimensionnées (voir ImageDerivativeService), null tant qu'elles ne sont pas générées
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+    
+    @Column(name = "card_url")
+    private String cardUrl;
+    
+    @Column(name = "detail_url")
+    private String detailUrl;
+    
+    public enum Variant {
+        THUMBNAIL, // Miniatures (panier, listes compactes)
+        CARD,      // Grille de produits
+        DETAIL     // Page produit
+    }
+    
     // Constructeur pour faciliter la création
     public ProductImage(String imageUrl, boolean isMain, Product product) {
         this.imageUrl = imageUrl;
         this.isMain = isMain;
         this.product = product;
     }
+    
+    /**
+     * URL de la copie demandée, ou de l'original si elle n'existe pas encore
+     */
+    public String urlFor(Variant variant) {
+        String url = switch (variant) {
+            case THUMBNAIL -> thumbnailUrl;
+            case CARD -> cardUrl;
+            case DETAIL -> detailUrl;
+        };
+        return url != null ? url : imageUrl;
+    }
 }
@@ -8,7 +8,11 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_movements")
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_stock_movements_product_created", columnList = "product_id, created_at, id"),
+    @Index(name = "idx_stock_movements_type_created", columnList = "movement_type, created_at, id"),
+    @Index(name = "idx_stock_movements_created", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +16,10 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_role_status", columnList = "role, status"),
+    @Index(name = "idx_users_status", columnList = "status")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class User implements UserDetails {
@@ -17,6 +17,16 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     @Query("SELECT c FROM Category c WHERE c.name = :name")
     Optional<Category> findByName(@Param("name") String name);
+
+    // Lignes : [id, name]
+    @Query("SELECT c.id, c.name FROM Category c")
+    List<Object[]> findAllIdsAndNames();
+
+    // Instantané des catégories : tous les compteurs de produits en un seul passage
+    // Lignes : [categoryId, nombre de produits, nombre de produits actifs]
+    @Query("SELECT p.category.id, COUNT(p), SUM(CASE WHEN p.status = 'ACTIVE' THEN 1 ELSE 0 END) " +
+           "FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category.id")
+    List<Object[]> countProductsGroupedByCategory();
     
     @Query("SELECT c FROM Category c WHERE c.status = :status")
     List<Category> findByStatus(@Param("status") Category.CategoryStatus status);
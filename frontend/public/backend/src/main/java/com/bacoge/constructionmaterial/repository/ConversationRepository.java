@@ -15,4 +15,8 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     Page<Conversation> findByUser(@Param("user") User user, Pageable pageable);
     @Query("SELECT c FROM Conversation c WHERE c.status = :status")
     Page<Conversation> findByStatus(@Param("status") Conversation.Status status, Pageable pageable);
+    @Query("SELECT COALESCE(SUM(c.userUnreadCount), 0) FROM Conversation c WHERE c.user.id = :userId")
+    long sumUserUnreadCount(@Param("userId") Long userId);
+    @Query("SELECT COALESCE(SUM(c.adminUnreadCount), 0) FROM Conversation c")
+    long sumAdminUnreadCount();
 }
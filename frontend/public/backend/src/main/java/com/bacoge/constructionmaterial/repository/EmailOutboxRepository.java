@@ -0,0 +1,64 @@
+package com.bacoge.constructionmaterial.repository;
+
+import com.bacoge.constructionmaterial.model.EmailOutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    /** Ids of pending emails whose next attempt is due, oldest first (bounded by the pageable) */
+    @Query("SELECT e.id FROM EmailOutboxMessage e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.id ASC")
+    List<Long> findDueIds(@Param("status") EmailOutboxMessage.Status status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /** Claims pending emails for a send batch; rows already claimed elsewhere are skipped */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxMessage e SET e.status = :sending, e.claimToken = :token, e.lockedAt = :now " +
+           "WHERE e.id IN :ids AND e.status = :pending")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("now") LocalDateTime now,
+              @Param("pending") EmailOutboxMessage.Status pending, @Param("sending") EmailOutboxMessage.Status sending);
+
+    List<EmailOutboxMessage> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxMessage e SET e.status = :status, e.sentAt = :sentAt, e.claimToken = NULL, " +
+           "e.attempts = e.attempts + 1, e.lastError = NULL WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt,
+                 @Param("status") EmailOutboxMessage.Status status);
+
+    /** Records a failed attempt: back to PENDING with a later attempt date, or FAILED */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxMessage e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :lastError, e.claimToken = NULL WHERE e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("status") EmailOutboxMessage.Status status, @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+
+    /** Releases batches left in SENDING by a stopped instance */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutboxMessage e SET e.status = :pending, e.claimToken = NULL " +
+           "WHERE e.status = :sending AND e.lockedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before,
+                     @Param("pending") EmailOutboxMessage.Status pending, @Param("sending") EmailOutboxMessage.Status sending);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutboxMessage e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before, @Param("status") EmailOutboxMessage.Status status);
+
+    /** Rows: [status, count] */
+    @Query("SELECT e.status, COUNT(e) FROM EmailOutboxMessage e GROUP BY e.status")
+    List<Object[]> countByStatus();
+}
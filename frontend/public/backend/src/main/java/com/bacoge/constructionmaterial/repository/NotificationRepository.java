@@ -12,8 +12,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -45,6 +47,12 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.relatedUser.id = :userId AND n.isRead = false")
     long countByRelatedUserIdAndIsReadFalse(@Param("userId") Long userId);
     
+    /**
+     * Count unread notifications for several users at once (userId, count)
+     */
+    @Query("SELECT n.relatedUser.id, COUNT(n) FROM Notification n WHERE n.relatedUser.id IN :userIds AND n.isRead = false GROUP BY n.relatedUser.id")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+    
     /**
      * Find all notifications that have expired
      */
@@ -297,4 +305,35 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      */
     @Query("SELECT n FROM Notification n WHERE n.isRead = false AND n.priority IN ('HIGH', 'URGENT') ORDER BY n.priority DESC, n.createdAt DESC")
     List<Notification> findHighPriorityUnreadNotifications();
-}
\ No newline at end of file
+
+    // ========== RETENTION (suppression par tranches de clés primaires) ==========
+
+    /** Ids of expired notifications after a given id, ascending (bounded by the pageable) */
+    @Query("SELECT n.id FROM Notification n WHERE n.expiresAt IS NOT NULL AND n.expiresAt <= :now AND n.id > :afterId ORDER BY n.id ASC")
+    List<Long> findExpiredIdsAfter(@Param("now") LocalDateTime now, @Param("afterId") Long afterId, Pageable pageable);
+
+    /** Ids of notifications read before a date, after a given id, ascending */
+    @Query("SELECT n.id FROM Notification n WHERE n.isRead = true AND n.readAt <= :date AND n.id > :afterId ORDER BY n.id ASC")
+    List<Long> findReadBeforeIdsAfter(@Param("date") LocalDateTime date, @Param("afterId") Long afterId, Pageable pageable);
+
+    /** Ids of notifications of a type created before a date, after a given id, ascending */
+    @Query("SELECT n.id FROM Notification n WHERE n.type = :type AND n.createdAt <= :date AND n.id > :afterId ORDER BY n.id ASC")
+    List<Long> findByTypeCreatedBeforeIdsAfter(@Param("type") Notification.NotificationType type, @Param("date") LocalDateTime date,
+                                               @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.id BETWEEN :fromId AND :toId AND n.expiresAt IS NOT NULL AND n.expiresAt <= :now")
+    int deleteExpiredInRange(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.id BETWEEN :fromId AND :toId AND n.isRead = true AND n.readAt <= :date")
+    int deleteReadBeforeInRange(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("date") LocalDateTime date);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.id BETWEEN :fromId AND :toId AND n.type = :type AND n.createdAt <= :date")
+    int deleteByTypeCreatedBeforeInRange(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                         @Param("type") Notification.NotificationType type, @Param("date") LocalDateTime date);
+}
@@ -0,0 +1,49 @@
+package com.bacoge.constructionmaterial.repository;
+
+import com.bacoge.constructionmaterial.model.OrderDailyStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderDailyStatsRepository extends JpaRepository<OrderDailyStats, LocalDate> {
+
+    // Crée la ligne du jour si elle n'existe pas encore (sans conflit entre transactions concurrentes)
+    @Modifying
+    @Query(value = "INSERT INTO order_daily_stats " +
+                   "(stat_date, orders_count, pending_count, confirmed_count, processing_count, " +
+                   "shipped_count, delivered_count, cancelled_count, delivered_revenue) " +
+                   "VALUES (:statDate, 0, 0, 0, 0, 0, 0, 0, 0) " +
+                   "ON DUPLICATE KEY UPDATE stat_date = stat_date", nativeQuery = true)
+    int insertIfAbsent(@Param("statDate") LocalDate statDate);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OrderDailyStats s WHERE s.statDate = :statDate")
+    Optional<OrderDailyStats> findByStatDateForUpdate(@Param("statDate") LocalDate statDate);
+
+    @Query("SELECT s FROM OrderDailyStats s WHERE s.statDate >= :startDate AND s.statDate <= :endDate ORDER BY s.statDate")
+    List<OrderDailyStats> findBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Somme de toutes les lignes : une seule ligne de résultat
+    @Query("SELECT COALESCE(SUM(s.ordersCount), 0), COALESCE(SUM(s.pendingCount), 0), " +
+           "COALESCE(SUM(s.confirmedCount), 0), COALESCE(SUM(s.processingCount), 0), " +
+           "COALESCE(SUM(s.shippedCount), 0), COALESCE(SUM(s.deliveredCount), 0), " +
+           "COALESCE(SUM(s.cancelledCount), 0), COALESCE(SUM(s.deliveredRevenue), 0) " +
+           "FROM OrderDailyStats s")
+    List<Object[]> sumAll();
+
+    @Query("SELECT COALESCE(SUM(s.ordersCount), 0), COALESCE(SUM(s.pendingCount), 0), " +
+           "COALESCE(SUM(s.confirmedCount), 0), COALESCE(SUM(s.processingCount), 0), " +
+           "COALESCE(SUM(s.shippedCount), 0), COALESCE(SUM(s.deliveredCount), 0), " +
+           "COALESCE(SUM(s.cancelledCount), 0), COALESCE(SUM(s.deliveredRevenue), 0) " +
+           "FROM OrderDailyStats s WHERE s.statDate >= :startDate AND s.statDate <= :endDate")
+    List<Object[]> sumBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
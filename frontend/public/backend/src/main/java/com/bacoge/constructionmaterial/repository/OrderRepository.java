@@ -2,12 +2,15 @@ package com.bacoge.constructionmaterial.repository;
 
 import com.bacoge.constructionmaterial.model.Order;
 import com.bacoge.constructionmaterial.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,6 +18,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -40,6 +44,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.paymentStatus = :paymentStatus")
     List<Order> findByPaymentStatus(@Param("paymentStatus") Order.PaymentStatus paymentStatus);
     
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    @Query("SELECT o FROM Order o WHERE o.orderDate > :startDate AND o.orderDate < :endDate ORDER BY o.orderDate DESC")
+    List<Order> findByOrderDateStrictlyBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
     @Query("SELECT o FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt <= :endDate")
     List<Order> findOrdersBetweenDates(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
@@ -152,12 +160,25 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         return findTopSellingProductsBetween(startDate, endDate, PageRequest.of(0, limit));
     }
     
+    // Classements produits : quantités vendues par produit et par jour (commandes non annulées)
+    // Lignes : [productId, année, mois, jour, quantité]
+    @Query("SELECT oi.product.id, YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt), SUM(oi.quantity) " +
+           "FROM OrderItem oi JOIN oi.order o WHERE o.status <> 'CANCELLED' AND o.createdAt >= :since " +
+           "GROUP BY oi.product.id, YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt)")
+    List<Object[]> getUnitsSoldByProductAndDaySince(@Param("since") LocalDateTime since);
+    
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = 'DELIVERED' AND o.createdAt >= :date")
     long countCompletedOrdersAfter(@Param("date") LocalDateTime date);
     
     @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt >= :date")
     long countOrdersAfter(@Param("date") LocalDateTime date);
     
+    // Agrégats par jour de création et par statut (reconstruction de order_daily_stats)
+    @Query("SELECT CAST(o.createdAt AS LocalDate), o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0) " +
+           "FROM Order o WHERE o.createdAt IS NOT NULL " +
+           "GROUP BY CAST(o.createdAt AS LocalDate), o.status")
+    List<Object[]> getDailyStatusAggregates();
+    
     @Query("SELECT FUNCTION('date_format', o.createdAt, '%Y-%m'), COUNT(o) " +
            "FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt <= :endDate " +
            "GROUP BY FUNCTION('date_format', o.createdAt, '%Y-%m') " +
@@ -194,4 +215,27 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT c.name, COUNT(o) FROM Order o JOIN o.orderItems oi JOIN oi.product p JOIN p.category c WHERE o.status = 'DELIVERED' AND o.createdAt >= :startDate AND o.createdAt <= :endDate GROUP BY c.name")
     List<Object[]> getOrderCountByCategoryBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Rapport de ventes (SalesReportService) : un seul passage sur les commandes de la période
+    // Lignes : [status, paymentMethod, nombre de commandes, montant total]
+    @Query("SELECT o.status, o.paymentMethod, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o " +
+           "WHERE o.createdAt >= :startDate AND o.createdAt <= :endDate GROUP BY o.status, o.paymentMethod")
+    List<Object[]> getSalesSummaryByStatusAndPaymentMethod(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    // Rapport de ventes : un seul passage sur les lignes des commandes livrées, agrégées par produit
+    // Lignes : [productId, productName, categoryName, quantité, chiffre d'affaires, nombre de lignes]
+    @Query("SELECT p.id, p.name, c.name, SUM(oi.quantity), SUM(oi.totalPrice), COUNT(oi) " +
+           "FROM OrderItem oi JOIN oi.product p JOIN p.category c JOIN oi.order o " +
+           "WHERE o.status = 'DELIVERED' AND o.createdAt >= :startDate AND o.createdAt <= :endDate " +
+           "GROUP BY p.id, p.name, c.name")
+    List<Object[]> getDeliveredSalesByProductBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    // Lignes : [id, orderNumber, createdAt, status, paymentStatus, paymentMethod, subtotal, taxAmount,
+    //          shippingCost, totalAmount, email, firstName, lastName]
+    @Query("SELECT o.id, o.orderNumber, o.createdAt, o.status, o.paymentStatus, o.paymentMethod, o.subtotal, " +
+           "o.taxAmount, o.shippingCost, o.totalAmount, u.email, u.firstName, u.lastName " +
+           "FROM Order o LEFT JOIN o.user u " +
+           "WHERE o.createdAt >= :startDate AND o.createdAt < :endDate ORDER BY o.id ASC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    Stream<Object[]> streamForExport(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+}
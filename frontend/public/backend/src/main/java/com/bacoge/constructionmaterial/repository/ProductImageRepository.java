@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -30,4 +31,16 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     // Fallback: fetch first image URL by display order
     @Query("SELECT pi.imageUrl FROM ProductImage pi WHERE pi.product.id = :productId ORDER BY pi.displayOrder ASC, pi.id ASC")
     List<String> findAllImageUrlsByProductIdOrder(@Param("productId") Long productId);
+
+    // Records generated derivatives on every image row pointing to the original
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProductImage pi SET pi.thumbnailUrl = :thumbnailUrl, pi.cardUrl = :cardUrl, pi.detailUrl = :detailUrl " +
+           "WHERE pi.imageUrl = :imageUrl")
+    int updateDerivatives(@Param("imageUrl") String imageUrl, @Param("thumbnailUrl") String thumbnailUrl,
+                          @Param("cardUrl") String cardUrl, @Param("detailUrl") String detailUrl);
+
+    // Originals that still have no derivatives
+    @Query("SELECT DISTINCT pi.imageUrl FROM ProductImage pi WHERE pi.thumbnailUrl IS NULL")
+    List<String> findImageUrlsWithoutDerivatives();
 }
@@ -6,13 +6,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.LockModeType;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +31,25 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id = :id")
     Optional<Product> findByIdWithCategory(@Param("id") Long id);
     
+    // Chargement groupé pour l'affichage du panier (catégorie + images, puis promotions :
+    // deux collections de type List ne peuvent pas être chargées dans la même requête)
+    @Query("SELECT DISTINCT p FROM Product p " +
+           "LEFT JOIN FETCH p.category " +
+           "LEFT JOIN FETCH p.images " +
+           "WHERE p.id IN :ids")
+    List<Product> findAllByIdWithCategoryAndImages(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT DISTINCT p FROM Product p " +
+           "LEFT JOIN FETCH p.promotions " +
+           "WHERE p.id IN :ids")
+    List<Product> findAllByIdWithPromotions(@Param("ids") Collection<Long> ids);
+    
+    // Charge et verrouille (SELECT ... FOR UPDATE) les produits d'une commande en une seule requête.
+    // Tri par id pour que deux commandes concurrentes prennent les verrous dans le même ordre.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT DISTINCT p FROM Product p " +
            "LEFT JOIN FETCH p.category " +
            "LEFT JOIN FETCH p.images " +
@@ -44,6 +66,10 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     
     @Query("SELECT COUNT(p) > 0 FROM Product p WHERE p.sku = :sku")
     boolean existsBySku(@Param("sku") String sku);
+
+    // Import en masse : produits existants d'un lot de SKU, catégorie comprise
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.sku IN :skus")
+    List<Product> findBySkuIn(@Param("skus") Collection<String> skus);
     
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.category.id = :categoryId")
     List<Product> findByCategoryId(@Param("categoryId") Long categoryId);
@@ -166,6 +192,52 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
     List<Product> findActiveProducts();
     
+    // Classements produits : une ligne compacte par produit actif
+    // Lignes : [id, averageRating, reviewCount, viewCount, createdAt, featured]
+    @Query("SELECT p.id, p.averageRating, p.reviewCount, p.viewCount, p.createdAt, p.featured " +
+           "FROM Product p WHERE p.status = 'ACTIVE'")
+    List<Object[]> findRankingInputs();
+    
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE products SET view_count = view_count + :delta WHERE id = :productId", nativeQuery = true)
+    int incrementViewCount(@Param("productId") Long productId, @Param("delta") long delta);
+    
+    // Lignes : [name, quantité vendue] (commandes non annulées)
+    @Query("SELECT p.name, SUM(oi.quantity) FROM OrderItem oi JOIN oi.product p JOIN oi.order o " +
+           "WHERE o.status <> 'CANCELLED' GROUP BY p.id, p.name ORDER BY SUM(oi.quantity) DESC")
+    List<Object[]> findTopSellingProductNames(Pageable pageable);
+    
+    // Ajuste la synthèse des avis en une seule instruction (la moyenne est calculée à partir des anciennes valeurs)
+    @Modifying
+    @Query(value = "UPDATE products SET " +
+                   "avg_rating = CASE WHEN review_count + :countDelta > 0 " +
+                   "THEN (rating_sum + :ratingDelta) * 1.0 / (review_count + :countDelta) ELSE 0 END, " +
+                   "rating_sum = rating_sum + :ratingDelta, " +
+                   "review_count = review_count + :countDelta " +
+                   "WHERE id = :productId", nativeQuery = true)
+    int adjustRatingSummary(@Param("productId") Long productId,
+                            @Param("ratingDelta") long ratingDelta,
+                            @Param("countDelta") int countDelta);
+    
+    @Modifying
+    @Query(value = "UPDATE products SET rating_sum = :ratingSum, review_count = :reviewCount, avg_rating = :averageRating " +
+                   "WHERE id = :productId", nativeQuery = true)
+    int setRatingSummary(@Param("productId") Long productId,
+                         @Param("ratingSum") long ratingSum,
+                         @Param("reviewCount") int reviewCount,
+                         @Param("averageRating") double averageRating);
+    
+    @Modifying
+    @Query(value = "UPDATE products SET rating_sum = 0, review_count = 0, avg_rating = 0 WHERE review_count <> 0", nativeQuery = true)
+    int resetRatingSummaries();
+    
+    @Query("SELECT p.id, p.reviewCount, p.averageRating FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findRatingSummaries(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.reviewCount > 0")
+    long countWithReviews();
+    
     @Modifying
     @Transactional
     @Query(value = "DELETE FROM cart_items WHERE product_id = :productId", nativeQuery = true)
@@ -176,7 +248,7 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query(value = "DELETE FROM promotion_products WHERE product_id = :productId", nativeQuery = true)
     void deletePromotionProductsByProductId(@Param("productId") Long productId);
     
-    @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.price DESC")
+    @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.averageRating DESC, p.reviewCount DESC, p.id")
     List<Product> findTopRatedProducts(Pageable pageable);
     
     default List<Product> findTopRatedProducts(int limit) {
@@ -214,15 +286,15 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
         ));
     }
     
-    // Méthode pour les produits les plus vendus (données de test pour l'instant)
+    // Produits les plus vendus (quantités des commandes non annulées)
     default List<Map<String, Object>> findTopSellingProducts(int limit) {
-        List<Product> products = findTopByOrderByCreatedAtDesc(limit);
-        return products.stream().map(product -> {
+        return findTopSellingProductNames(PageRequest.of(0, limit)).stream().map(row -> {
             Map<String, Object> productData = new HashMap<>();
-            productData.put("name", product.getName());
-            productData.put("label", product.getName());
-            productData.put("sales", (int)(Math.random() * 100) + 10); // Données de test
-            productData.put("value", (int)(Math.random() * 100) + 10); // Données de test
+            long sales = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+            productData.put("name", row[0]);
+            productData.put("label", row[0]);
+            productData.put("sales", sales);
+            productData.put("value", sales);
             return productData;
         }).collect(Collectors.toList());
     }
@@ -34,4 +34,8 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
 
     // Compter les avis en attente d'approbation
     long countByIsApproved(Boolean isApproved);
+
+    // Somme et nombre de notes approuvées par produit (reconstruction de la synthèse des avis)
+    @Query("SELECT r.product.id, SUM(r.rating), COUNT(r) FROM ProductReview r WHERE r.isApproved = true GROUP BY r.product.id")
+    List<Object[]> sumApprovedRatingsByProduct();
 }
@@ -28,6 +28,19 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
            "(p.startDate IS NULL OR p.startDate <= :now) AND " +
            "(p.endDate IS NULL OR p.endDate >= :now)")
     List<Promotion> findActivePromotions(@Param("now") LocalDateTime now);
+
+    // Catégories ciblées entièrement par une promotion en cours
+    @Query("SELECT DISTINCT c.id FROM Promotion p JOIN p.applicableCategories c WHERE p.status = 'ACTIVE' AND " +
+           "(p.startDate IS NULL OR p.startDate <= :now) AND (p.endDate IS NULL OR p.endDate >= :now)")
+    List<Long> findActivePromotionCategoryIds(@Param("now") LocalDateTime now);
+
+    // Produits actifs ciblés par une promotion en cours, par catégorie
+    // Lignes : [categoryId, nombre de produits]
+    @Query("SELECT pr.category.id, COUNT(DISTINCT pr.id) FROM Promotion p JOIN p.applicableProducts pr " +
+           "WHERE p.status = 'ACTIVE' AND pr.status = 'ACTIVE' AND pr.category IS NOT NULL AND " +
+           "(p.startDate IS NULL OR p.startDate <= :now) AND (p.endDate IS NULL OR p.endDate >= :now) " +
+           "GROUP BY pr.category.id")
+    List<Object[]> countActivePromotionProductsByCategory(@Param("now") LocalDateTime now);
     
     @Query("SELECT p FROM Promotion p WHERE p.status = 'ACTIVE' AND " +
            "(p.startDate IS NULL OR p.startDate <= :now) AND " +
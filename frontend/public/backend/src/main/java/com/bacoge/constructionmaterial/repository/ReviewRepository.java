@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -28,8 +29,33 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.productId = :productId AND r.isApproved = true")
     Long countApprovedByProductId(@Param("productId") Long productId);
 
+    // Somme et nombre de notes approuvées par produit (reconstruction de la synthèse des avis)
+    @Query("SELECT r.productId, SUM(r.rating), COUNT(r) FROM Review r " +
+           "WHERE r.isApproved = true AND r.productId IS NOT NULL AND r.rating IS NOT NULL GROUP BY r.productId")
+    List<Object[]> sumApprovedRatingsByProduct();
+
     Page<Review> findByProductIdAndIsApprovedTrueOrderByCreatedAtDesc(Long productId, Pageable pageable);
     
+    // Listes paginées servies par les index (user_id, created_at, id) et (is_approved, created_at, id)
+    Page<Review> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+    
+    Page<Review> findByIsApprovedTrueOrderByCreatedAtDescIdDesc(Pageable pageable);
+    
+    // Meilleurs avis par curseur (note, date, id) : index (is_approved, rating, created_at, id)
+    @Query("SELECT r FROM Review r WHERE r.isApproved = true AND r.rating >= :minRating " +
+           "ORDER BY r.rating DESC, r.createdAt DESC, r.id DESC")
+    List<Review> findTopRated(@Param("minRating") Integer minRating, Pageable pageable);
+    
+    @Query("SELECT r FROM Review r WHERE r.isApproved = true AND r.rating >= :minRating " +
+           "AND (r.rating < :cursorRating OR (r.rating = :cursorRating AND (r.createdAt < :cursorCreatedAt " +
+           "OR (r.createdAt = :cursorCreatedAt AND r.id < :cursorId)))) " +
+           "ORDER BY r.rating DESC, r.createdAt DESC, r.id DESC")
+    List<Review> findTopRatedBeforeCursor(@Param("minRating") Integer minRating,
+                                          @Param("cursorRating") Integer cursorRating,
+                                          @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
+    
     // Méthodes pour l'administration
     Page<Review> findByIsApprovedOrderByCreatedAtDesc(Boolean isApproved, Pageable pageable);
     
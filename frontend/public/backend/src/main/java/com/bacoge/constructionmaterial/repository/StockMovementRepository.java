@@ -1,15 +1,91 @@
 package com.bacoge.constructionmaterial.repository;
 
 import com.bacoge.constructionmaterial.model.StockMovement;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
     
     @Query("SELECT sm FROM StockMovement sm ORDER BY sm.createdAt DESC LIMIT 10")
     List<StockMovement> findTop10ByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+
+    // Historique d'un produit (index product_id, created_at, id)
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.productId = :productId ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovement> findByProductIdOrderByCreatedAtDesc(@Param("productId") Long productId);
+
+    @Query(value = "SELECT sm FROM StockMovement sm WHERE sm.productId = :productId ORDER BY sm.createdAt DESC, sm.id DESC",
+           countQuery = "SELECT COUNT(sm) FROM StockMovement sm WHERE sm.productId = :productId")
+    Page<StockMovement> findByProductIdOrderByCreatedAtDesc(@Param("productId") Long productId, Pageable pageable);
+
+    // Mouvements sur une période (bornes exclues, index created_at, id)
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.createdAt > :startDate AND sm.createdAt < :endDate " +
+           "ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovement> findCreatedBetween(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
+
+    @Query(value = "SELECT sm FROM StockMovement sm WHERE sm.createdAt > :startDate AND sm.createdAt < :endDate " +
+                   "ORDER BY sm.createdAt DESC, sm.id DESC",
+           countQuery = "SELECT COUNT(sm) FROM StockMovement sm WHERE sm.createdAt > :startDate AND sm.createdAt < :endDate")
+    Page<StockMovement> findCreatedBetween(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate,
+                                           Pageable pageable);
+
+    // Mouvements par type (index movement_type, created_at, id)
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.movementType = :type ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovement> findByMovementTypeOrderByCreatedAtDesc(@Param("type") StockMovement.MovementType type,
+                                                               Pageable pageable);
+
+    long countByMovementType(StockMovement.MovementType movementType);
+
+    // Pagination par curseur (createdAt, id) : lignes strictement antérieures au curseur,
+    // sans OFFSET, donc coût constant quelle que soit la profondeur de la page
+    @Query("SELECT sm FROM StockMovement sm " +
+           "WHERE sm.createdAt < :cursorCreatedAt OR (sm.createdAt = :cursorCreatedAt AND sm.id < :cursorId) " +
+           "ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovement> findBeforeCursor(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable pageable);
+
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.productId = :productId " +
+           "AND (sm.createdAt < :cursorCreatedAt OR (sm.createdAt = :cursorCreatedAt AND sm.id < :cursorId)) " +
+           "ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovement> findByProductIdBeforeCursor(@Param("productId") Long productId,
+                                                    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
+
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.movementType = :type " +
+           "AND (sm.createdAt < :cursorCreatedAt OR (sm.createdAt = :cursorCreatedAt AND sm.id < :cursorId)) " +
+           "ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovement> findByMovementTypeBeforeCursor(@Param("type") StockMovement.MovementType type,
+                                                       @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                       @Param("cursorId") Long cursorId,
+                                                       Pageable pageable);
+
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.productId = :productId AND sm.movementType = :type " +
+           "AND (sm.createdAt < :cursorCreatedAt OR (sm.createdAt = :cursorCreatedAt AND sm.id < :cursorId)) " +
+           "ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovement> findByProductIdAndMovementTypeBeforeCursor(@Param("productId") Long productId,
+                                                                   @Param("type") StockMovement.MovementType type,
+                                                                   @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                                   @Param("cursorId") Long cursorId,
+                                                                   Pageable pageable);
+
+    // Lignes : [id, createdAt, productId, productName, movementType, quantity, reason]
+    @Query("SELECT sm.id, sm.createdAt, sm.productId, sm.productName, sm.movementType, sm.quantity, sm.reason " +
+           "FROM StockMovement sm WHERE sm.createdAt >= :startDate AND sm.createdAt < :endDate ORDER BY sm.id ASC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    Stream<Object[]> streamForExport(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+}
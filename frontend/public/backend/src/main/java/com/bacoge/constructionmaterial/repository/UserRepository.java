@@ -1,10 +1,13 @@
 package com.bacoge.constructionmaterial.repository;
 
 import com.bacoge.constructionmaterial.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
@@ -13,6 +16,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -141,4 +145,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     default long countUsersBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
         return countUsersCreatedBetweenDates(startDate, endDate);
     }
-}
\ No newline at end of file
+    
+    // Lignes : [id, firstName, lastName, email, phoneNumber, country, city, role, status, createdAt, lastLogin]
+    @Query("SELECT u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.country, u.city, u.role, u.status, " +
+           "u.createdAt, u.lastLogin FROM User u " +
+           "WHERE u.createdAt >= :startDate AND u.createdAt < :endDate ORDER BY u.id ASC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    Stream<Object[]> streamForExport(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+}
@@ -33,9 +33,15 @@ public class AdminNotificationService {
 
     @Autowired
     private WebSocketNotificationService webSocketNotificationService;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
     
     // Créer une notification pour un achat de produit
-    public NotificationDto createOrderNotification(Order order) {
+    public void createOrderNotification(Order order) {
         try {
             Notification notification = new Notification();
             notification.setType(Notification.NotificationType.ORDER_CREATED);
@@ -52,12 +58,8 @@ public class AdminNotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
             
-            Notification saved = notificationRepository.save(notification);
-            logger.info("Notification de commande créée: {}", saved.getId());
-            // Broadcast realtime to admins
-            NotificationDto dto = new NotificationDto(saved);
-            try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
-            return dto;
+            notificationOutbox.append(notification);
+            logger.debug("Notification de commande créée (en attente d'envoi)");
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification de commande", e);
             throw new RuntimeException("Erreur lors de la création de la notification", e);
@@ -65,7 +67,7 @@ public class AdminNotificationService {
     }
 
     // Créer une notification pour un nouvel avis client
-    public NotificationDto createNewReviewNotification(Long productId, Long userId, Integer rating, String comment) {
+    public void createNewReviewNotification(Long productId, Long userId, Integer rating, String comment) {
         try {
             Notification notification = new Notification();
             notification.setType(Notification.NotificationType.NEW_REVIEW);
@@ -82,11 +84,8 @@ public class AdminNotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
 
-            Notification saved = notificationRepository.save(notification);
-            logger.info("Notification d'avis créée: {}", saved.getId());
-            NotificationDto dto = new NotificationDto(saved);
-            try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
-            return dto;
+            notificationOutbox.append(notification);
+            logger.debug("Notification d'avis créée (en attente d'envoi)");
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification d'avis", e);
             throw new RuntimeException("Erreur lors de la création de la notification d'avis", e);
@@ -94,7 +93,7 @@ public class AdminNotificationService {
     }
 
     // Créer une notification pour changement de statut de commande
-    public NotificationDto createOrderStatusChangedNotification(Order order, Order.OrderStatus newStatus) {
+    public void createOrderStatusChangedNotification(Order order, Order.OrderStatus newStatus) {
         try {
             Notification notification = new Notification();
             // Use existing enum to avoid compile issues (icons and UI still show proper title)
@@ -110,10 +109,7 @@ public class AdminNotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
 
-            Notification saved = notificationRepository.save(notification);
-            NotificationDto dto = new NotificationDto(saved);
-            try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
-            return dto;
+            notificationOutbox.append(notification);
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification de changement de statut", e);
             throw new RuntimeException("Erreur lors de la création de la notification de statut", e);
@@ -121,7 +117,7 @@ public class AdminNotificationService {
     }
     
     // Créer une notification pour un nouvel utilisateur
-    public NotificationDto createUserRegistrationNotification(User user) {
+    public void createUserRegistrationNotification(User user) {
         try {
             Notification notification = new Notification();
             notification.setType(Notification.NotificationType.USER_REGISTERED);
@@ -137,11 +133,8 @@ public class AdminNotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(7));
             
-            Notification saved = notificationRepository.save(notification);
-            logger.info("Notification d'inscription créée: {}", saved.getId());
-            NotificationDto dto = new NotificationDto(saved);
-            try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
-            return dto;
+            notificationOutbox.append(notification);
+            logger.debug("Notification d'inscription créée (en attente d'envoi)");
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification d'inscription", e);
             throw new RuntimeException("Erreur lors de la création de la notification", e);
@@ -149,7 +142,7 @@ public class AdminNotificationService {
     }
     
     // Créer une notification pour suppression de compte
-    public NotificationDto createUserDeletionNotification(User user) {
+    public void createUserDeletionNotification(User user) {
         try {
             Notification notification = new Notification();
             notification.setType(Notification.NotificationType.USER_DELETED);
@@ -165,11 +158,8 @@ public class AdminNotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
             
-            Notification saved = notificationRepository.save(notification);
-            logger.info("Notification de suppression d'utilisateur créée: {}", saved.getId());
-            NotificationDto dto = new NotificationDto(saved);
-            try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
-            return dto;
+            notificationOutbox.append(notification);
+            logger.debug("Notification de suppression d'utilisateur créée (en attente d'envoi)");
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification de suppression", e);
             throw new RuntimeException("Erreur lors de la création de la notification", e);
@@ -177,7 +167,7 @@ public class AdminNotificationService {
     }
     
     // Créer une notification pour rupture de stock
-    public NotificationDto createStockOutNotification(Product product) {
+    public void createStockOutNotification(Product product) {
         try {
             Notification notification = new Notification();
             notification.setType(Notification.NotificationType.STOCK_OUT);
@@ -192,11 +182,8 @@ public class AdminNotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(7));
             
-            Notification saved = notificationRepository.save(notification);
-            logger.info("Notification de rupture de stock créée: {}", saved.getId());
-            NotificationDto dto = new NotificationDto(saved);
-            try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
-            return dto;
+            notificationOutbox.append(notification);
+            logger.debug("Notification de rupture de stock créée (en attente d'envoi)");
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification de stock", e);
             throw new RuntimeException("Erreur lors de la création de la notification", e);
@@ -204,7 +191,7 @@ public class AdminNotificationService {
     }
     
     // Créer une notification pour stock faible
-    public NotificationDto createLowStockNotification(Product product, int currentStock) {
+    public void createLowStockNotification(Product product, int currentStock) {
         try {
             Notification notification = new Notification();
             notification.setType(Notification.NotificationType.STOCK_LOW);
@@ -220,11 +207,8 @@ public class AdminNotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(7));
             
-            Notification saved = notificationRepository.save(notification);
-            logger.info("Notification de stock faible créée: {}", saved.getId());
-            NotificationDto dto = new NotificationDto(saved);
-            try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
-            return dto;
+            notificationOutbox.append(notification);
+            logger.debug("Notification de stock faible créée (en attente d'envoi)");
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification de stock faible", e);
             throw new RuntimeException("Erreur lors de la création de la notification", e);
@@ -232,7 +216,7 @@ public class AdminNotificationService {
     }
     
     // Créer une notification pour message de contact
-    public NotificationDto createContactMessageNotification(String senderName, String senderEmail, String subject, String message, Long messageId) {
+    public void createContactMessageNotification(String senderName, String senderEmail, String subject, String message, Long messageId) {
         try {
             Notification notification = new Notification();
             notification.setType(Notification.NotificationType.CONTACT_MESSAGE);
@@ -248,11 +232,8 @@ public class AdminNotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
             
-            Notification saved = notificationRepository.save(notification);
-            logger.info("Notification de message de contact créée: {}", saved.getId());
-            NotificationDto dto = new NotificationDto(saved);
-            try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
-            return dto;
+            notificationOutbox.append(notification);
+            logger.debug("Notification de message de contact créée (en attente d'envoi)");
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification de contact", e);
             throw new RuntimeException("Erreur lors de la création de la notification", e);
@@ -278,6 +259,7 @@ public class AdminNotificationService {
             logger.info("Notification de test créée: {}", saved.getId());
             NotificationDto dto = new NotificationDto(saved);
             try { webSocketNotificationService.sendNotificationToAdmins(dto); } catch (Exception ignore) {}
+            unreadCounterService.adjustAdminNotifications(1);
             return dto;
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification de test", e);
@@ -337,8 +319,12 @@ public class AdminNotificationService {
             Optional<Notification> optionalNotification = notificationRepository.findById(notificationId);
             if (optionalNotification.isPresent()) {
                 Notification notification = optionalNotification.get();
+                boolean wasUnread = Boolean.FALSE.equals(notification.getIsRead());
                 notification.markAsRead();
                 Notification saved = notificationRepository.save(notification);
+                if (wasUnread) {
+                    adjustUnreadCounter(saved, -1);
+                }
                 logger.info("Notification {} marquée comme lue", notificationId);
                 return new NotificationDto(saved);
             } else {
@@ -355,6 +341,7 @@ public class AdminNotificationService {
         try {
             LocalDateTime now = LocalDateTime.now();
             int updated = notificationRepository.markAllAsReadForAdmins(now);
+            unreadCounterService.resetAdminNotifications();
             logger.info("{} notifications marquées comme lues", updated);
             return updated;
         } catch (Exception e) {
@@ -366,8 +353,12 @@ public class AdminNotificationService {
     // Supprimer une notification
     public void deleteNotification(Long notificationId) {
         try {
-            if (notificationRepository.existsById(notificationId)) {
-                notificationRepository.deleteById(notificationId);
+            Optional<Notification> notification = notificationRepository.findById(notificationId);
+            if (notification.isPresent()) {
+                notificationRepository.delete(notification.get());
+                if (Boolean.FALSE.equals(notification.get().getIsRead())) {
+                    adjustUnreadCounter(notification.get(), -1);
+                }
                 logger.info("Notification {} supprimée", notificationId);
             } else {
                 throw new RuntimeException("Notification non trouvée: " + notificationId);
@@ -382,6 +373,7 @@ public class AdminNotificationService {
     public void deleteAllNotifications() {
         try {
             long count = notificationRepository.deleteAllAdmins();
+            unreadCounterService.resetAdminNotifications();
             logger.info("{} notifications supprimées", count);
         } catch (Exception e) {
             logger.error("Erreur lors de la suppression de toutes les notifications", e);
@@ -406,6 +398,9 @@ public class AdminNotificationService {
         try {
             LocalDateTime now = LocalDateTime.now();
             int deleted = notificationRepository.deleteExpiredNotificationsForAdmins(now);
+            if (deleted > 0) {
+                unreadCounterService.invalidateNotifications();
+            }
             logger.info("{} notifications expirées supprimées", deleted);
             return deleted;
         } catch (Exception e) {
@@ -417,7 +412,7 @@ public class AdminNotificationService {
     // Compter les notifications non lues
     public long countUnreadNotifications() {
         try {
-            return notificationRepository.countAdminUnread();
+            return unreadCounterService.getAdminNotifications();
         } catch (Exception e) {
             logger.error("Erreur lors du comptage des notifications non lues", e);
             return 0;
@@ -473,4 +468,12 @@ public class AdminNotificationService {
             return Optional.empty();
         }
     }
-}
\ No newline at end of file
+
+    private void adjustUnreadCounter(Notification notification, long delta) {
+        if (notification.getRelatedUser() != null) {
+            unreadCounterService.adjustUserNotifications(notification.getRelatedUser().getId(), delta);
+        } else {
+            unreadCounterService.adjustAdminNotifications(delta);
+        }
+    }
+}
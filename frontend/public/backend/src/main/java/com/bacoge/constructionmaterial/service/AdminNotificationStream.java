@@ -0,0 +1,217 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.properties.WebSocketProperties;
+import com.bacoge.constructionmaterial.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Flux des notifications temps réel vers /topic/admin/notifications.
+ *
+ * Les événements publiés sont regroupés par fenêtre (app.websocket.admin-stream.window-ms)
+ * et envoyés en une seule trame :
+ * - une fenêtre ne contenant qu'un événement produit le message habituel (même format qu'avant) ;
+ * - sinon une trame {"type": "NOTIFICATION_BATCH", "notifications": [...]}.
+ *
+ * Contre-pression : quand la file d'envoi du canal sortant dépasse le seuil configuré
+ * (clients lents), les événements de priorité LOW ne sont plus envoyés un par un mais
+ * résumés dans le champ "mergedLowPriority" (nombre par type). Si le tampon est plein,
+ * les événements LOW sont abandonnés en premier.
+ */
+@Component
+public class AdminNotificationStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminNotificationStream.class);
+
+    static final String DESTINATION = "/topic/admin/notifications";
+
+    private record Event(Map<String, Object> message, String type, boolean lowPriority) {
+    }
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ThreadPoolTaskExecutor outboundExecutor; // null si le canal sortant utilise un autre exécuteur
+    private final WebSocketProperties.AdminStream settings;
+
+    private final Deque<Event> buffer = new ArrayDeque<>();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder droppedLowPriority = new LongAdder();
+    private final LongAdder droppedOverflow = new LongAdder();
+    private final LongAdder mergedLowPriority = new LongAdder();
+    private final AtomicLong maxBufferDepth = new AtomicLong();
+
+    public AdminNotificationStream(SimpMessagingTemplate messagingTemplate,
+                                   @Qualifier("clientOutboundChannelExecutor") Executor outboundExecutor,
+                                   WebSocketProperties webSocketProperties) {
+        this.messagingTemplate = messagingTemplate;
+        this.outboundExecutor = outboundExecutor instanceof ThreadPoolTaskExecutor pool ? pool : null;
+        this.settings = webSocketProperties.getAdminStream();
+    }
+
+    /**
+     * Ajoute un message au prochain envoi groupé
+     * @param message Message déjà formaté pour le client
+     * @param priority Priorité de la notification (nom de Notification.NotificationPriority), peut être null
+     */
+    public void publish(Map<String, Object> message, String priority) {
+        if (message == null) {
+            return;
+        }
+        Object type = message.get("type");
+        Event event = new Event(message, type != null ? type.toString() : "UNKNOWN",
+                Notification.NotificationPriority.LOW.name().equals(priority));
+        published.increment();
+
+        synchronized (buffer) {
+            if (buffer.size() >= Math.max(1, settings.getBufferCapacity()) && !makeRoom(event)) {
+                return;
+            }
+            buffer.addLast(event);
+            maxBufferDepth.accumulateAndGet(buffer.size(), Math::max);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.admin-stream.window-ms:150}")
+    public void flush() {
+        List<Event> events;
+        synchronized (buffer) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            events = new ArrayList<>(buffer);
+            buffer.clear();
+        }
+
+        boolean slowClients = outboundBacklog() >= settings.getSlowClientQueueThreshold();
+        List<Map<String, Object>> notifications = new ArrayList<>(events.size());
+        Map<String, Integer> merged = new LinkedHashMap<>();
+        for (Event event : events) {
+            if (slowClients && event.lowPriority()) {
+                merged.merge(event.type(), 1, Integer::sum);
+            } else {
+                notifications.add(event.message());
+            }
+        }
+        if (!merged.isEmpty()) {
+            mergedLowPriority.add(events.size() - notifications.size());
+        }
+
+        try {
+            send(notifications, merged);
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'envoi groupé des notifications admin ({} événement(s))", events.size(), e);
+        }
+    }
+
+    public int getBufferDepth() {
+        synchronized (buffer) {
+            return buffer.size();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bufferDepth", getBufferDepth());
+        stats.put("maxBufferDepth", maxBufferDepth.get());
+        stats.put("published", published.sum());
+        stats.put("eventsSent", eventsSent.sum());
+        stats.put("framesSent", framesSent.sum());
+        stats.put("mergedLowPriority", mergedLowPriority.sum());
+        stats.put("droppedLowPriority", droppedLowPriority.sum());
+        stats.put("droppedOverflow", droppedOverflow.sum());
+        stats.put("outboundQueueSize", outboundBacklog());
+        stats.put("outboundActiveThreads", outboundExecutor != null ? outboundExecutor.getActiveCount() : 0);
+        stats.put("outboundPoolSize", outboundExecutor != null ? outboundExecutor.getPoolSize() : 0);
+        stats.put("slowClientQueueThreshold", settings.getSlowClientQueueThreshold());
+        return stats;
+    }
+
+    public void reset() {
+        published.reset();
+        framesSent.reset();
+        eventsSent.reset();
+        droppedLowPriority.reset();
+        droppedOverflow.reset();
+        mergedLowPriority.reset();
+        maxBufferDepth.set(getBufferDepth());
+    }
+
+    // Tampon plein : on sacrifie d'abord un événement LOW (le nouveau ou un ancien),
+    // à défaut l'événement le plus ancien
+    private boolean makeRoom(Event incoming) {
+        if (incoming.lowPriority()) {
+            droppedLowPriority.increment();
+            return false;
+        }
+        Iterator<Event> it = buffer.iterator();
+        while (it.hasNext()) {
+            if (it.next().lowPriority()) {
+                it.remove();
+                droppedLowPriority.increment();
+                return true;
+            }
+        }
+        buffer.pollFirst();
+        droppedOverflow.increment();
+        logger.warn("Tampon des notifications admin plein, notification la plus ancienne abandonnée");
+        return true;
+    }
+
+    private void send(List<Map<String, Object>> notifications, Map<String, Integer> merged) {
+        if (notifications.size() == 1 && merged.isEmpty()) {
+            messagingTemplate.convertAndSend(DESTINATION, notifications.get(0));
+            framesSent.increment();
+            eventsSent.increment();
+            return;
+        }
+
+        int batchSize = Math.max(1, settings.getMaxBatchSize());
+        int from = 0;
+        do {
+            int to = Math.min(notifications.size(), from + batchSize);
+            Map<String, Object> frame = new HashMap<>();
+            frame.put("type", "NOTIFICATION_BATCH");
+            frame.put("notifications", new ArrayList<>(notifications.subList(from, to)));
+            frame.put("count", to - from);
+            // Le résumé des événements fusionnés n'est joint qu'à la dernière trame
+            if (to == notifications.size() && !merged.isEmpty()) {
+                frame.put("mergedLowPriority", merged);
+            }
+            frame.put("timestamp", System.currentTimeMillis());
+            messagingTemplate.convertAndSend(DESTINATION, frame);
+            framesSent.increment();
+            eventsSent.add(to - from);
+            from = to;
+        } while (from < notifications.size());
+    }
+
+    private int outboundBacklog() {
+        if (outboundExecutor == null) {
+            return 0;
+        }
+        try {
+            return outboundExecutor.getQueueSize();
+        } catch (IllegalStateException e) {
+            // Exécuteur pas encore initialisé ou déjà arrêté
+            return 0;
+        }
+    }
+}
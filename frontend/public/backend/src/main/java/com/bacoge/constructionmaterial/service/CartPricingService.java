@@ -0,0 +1,137 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.dto.client.CartDto;
+import com.bacoge.constructionmaterial.dto.client.CartItemDto;
+import com.bacoge.constructionmaterial.dto.client.ProductDisplayDto;
+import com.bacoge.constructionmaterial.model.Product;
+import com.bacoge.constructionmaterial.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calcul des paniers (invité et client) à partir d'une liste de lignes.
+ *
+ * Tous les produits du panier sont chargés en une seule passe (une requête pour
+ * catégorie + images, une pour les promotions), quel que soit le nombre de lignes,
+ * puis les montants sont calculés ligne par ligne sans autre accès à la base.
+ */
+@Service
+public class CartPricingService {
+
+    private final ProductRepository productRepository;
+
+    public CartPricingService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Ligne de panier à valoriser. Les prix sont optionnels : s'ils sont absents
+     * (panier invité), le prix actuel du produit est utilisé.
+     */
+    public record CartLine(Long lineId, Long productId, int quantity,
+                           BigDecimal unitPrice, BigDecimal discountedPrice, BigDecimal totalPrice) {
+
+        public static CartLine atCurrentPrice(Long lineId, Long productId, int quantity) {
+            return new CartLine(lineId, productId, quantity, null, null, null);
+        }
+    }
+
+    /**
+     * Résultat du calcul : le panier et les lignes dont le produit n'existe plus
+     * (ou n'a pas de prix), à retirer par l'appelant.
+     */
+    public record PricedCart(CartDto cart, List<Long> unavailableLineIds) {
+    }
+
+    @Transactional(readOnly = true)
+    public PricedCart priceCart(List<CartLine> lines) {
+        CartDto cart = new CartDto();
+        cart.setItems(new ArrayList<>());
+        List<Long> unavailable = new ArrayList<>();
+
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (CartLine line : lines) {
+            if (line.productId() != null) {
+                productIds.add(line.productId());
+            }
+        }
+        Map<Long, Product> products = loadProducts(productIds);
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        int totalItems = 0;
+        for (CartLine line : lines) {
+            Product product = products.get(line.productId());
+            if (product == null || product.getPrice() == null) {
+                unavailable.add(line.lineId());
+                continue;
+            }
+            CartItemDto item = buildItem(line, product);
+            cart.getItems().add(item);
+            totalAmount = totalAmount.add(item.getTotalPrice());
+            totalItems += line.quantity();
+        }
+
+        cart.setTotalAmount(totalAmount);
+        cart.setTotalItems(totalItems);
+        return new PricedCart(cart, unavailable);
+    }
+
+    /**
+     * Charge les produits avec catégorie, images et promotions en deux requêtes
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Product> loadProducts(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return products;
+        }
+        for (Product product : productRepository.findAllByIdWithCategoryAndImages(productIds)) {
+            products.put(product.getId(), product);
+        }
+        // Même contexte de persistance : initialise la collection promotions des mêmes instances
+        productRepository.findAllByIdWithPromotions(productIds);
+        return products;
+    }
+
+    /**
+     * Construit la ligne de panier affichée à partir d'un produit déjà chargé
+     */
+    public CartItemDto buildItem(CartLine line, Product product) {
+        ProductDisplayDto productDto = toProductDto(product);
+
+        BigDecimal unitPrice = line.unitPrice() != null ? line.unitPrice() : product.getPrice();
+        BigDecimal discountedPrice = line.discountedPrice() != null ? line.discountedPrice() : productDto.getDiscountedPrice();
+        // Prix effectif = prix remisé (celui payé à la commande), à défaut le prix unitaire
+        BigDecimal effectivePrice = discountedPrice != null ? discountedPrice : unitPrice;
+        BigDecimal totalPrice = line.totalPrice() != null
+                ? line.totalPrice()
+                : effectivePrice.multiply(BigDecimal.valueOf(line.quantity()));
+
+        CartItemDto item = new CartItemDto();
+        item.setId(line.lineId());
+        item.setProduct(productDto);
+        item.setQuantity(line.quantity());
+        item.setUnitPrice(unitPrice);
+        item.setDiscountedPrice(effectivePrice);
+        item.setTotalPrice(totalPrice);
+        return item;
+    }
+
+    public ProductDisplayDto toProductDto(Product product) {
+        ProductDisplayDto productDto = ProductDisplayDto.fromProduct(product);
+        // Assurer une image principale si absente
+        if (productDto.getImageUrl() == null && productDto.getImageUrls() != null && !productDto.getImageUrls().isEmpty()) {
+            productDto.setImageUrl(productDto.getImageUrls().get(0));
+        }
+        return productDto;
+    }
+}
@@ -0,0 +1,217 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.model.Category;
+import com.bacoge.constructionmaterial.repository.CategoryRepository;
+import com.bacoge.constructionmaterial.repository.PromotionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Instantané en mémoire des catégories et de leurs compteurs de produits (tous, actifs, en promotion),
+ * utilisé par les menus de navigation, les pages catégories et la liste de l'administration.
+ *
+ * L'instantané est immuable et versionné : il est reconstruit en trois requêtes (catégories, compteurs
+ * de produits en un GROUP BY, produits en promotion) puis remplacé d'un bloc. Une écriture de catégorie
+ * (rare) reconstruit l'instantané dans le thread qui la valide, avant le retour de la requête : la
+ * lecture suivante voit la modification. Les écritures de produits et de promotions demandent une
+ * reconstruction après commit ; les demandes rapprochées sont regroupées sur un seul thread et les
+ * lectures continuent sur l'instantané précédent.
+ * Une reconstruction périodique prend en compte le début et la fin des promotions.
+ */
+@Service
+public class CategorySnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorySnapshotService.class);
+
+    /** Catégorie et compteurs, détachée de la session JPA */
+    public record CategorySummary(Long id, String name, String description, String imageUrl, String icon,
+                                  Category.CategoryStatus status, LocalDateTime createdAt, LocalDateTime updatedAt,
+                                  long productCount, long activeProductCount, long promotionProductCount) {
+
+        public boolean isActive() {
+            return status == Category.CategoryStatus.ACTIVE;
+        }
+    }
+
+    /** Catégories triées par nom ; listes et table immuables */
+    public record Snapshot(long version, LocalDateTime builtAt, List<CategorySummary> categories,
+                           List<CategorySummary> activeCategories, Map<Long, CategorySummary> byId) {
+
+        public CategorySummary get(Long id) {
+            return id != null ? byId.get(id) : null;
+        }
+    }
+
+    private final CategoryRepository categoryRepository;
+    private final PromotionRepository promotionRepository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ThreadPoolTaskExecutor rebuildExecutor = new ThreadPoolTaskExecutor();
+
+    public CategorySnapshotService(CategoryRepository categoryRepository, PromotionRepository promotionRepository) {
+        this.categoryRepository = categoryRepository;
+        this.promotionRepository = promotionRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        rebuildExecutor.setCorePoolSize(1);
+        rebuildExecutor.setMaxPoolSize(1);
+        rebuildExecutor.setQueueCapacity(2);
+        rebuildExecutor.setThreadNamePrefix("category-snapshot-");
+        rebuildExecutor.initialize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdown();
+    }
+
+    /**
+     * Instantané courant (construit à la première lecture s'il n'existe pas encore)
+     */
+    public Snapshot current() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    snapshot = rebuild();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reconstruit l'instantané ; en cas d'erreur, l'instantané précédent reste en service
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized Snapshot rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Map<Long, long[]> productCounts = new HashMap<>();
+            for (Object[] row : categoryRepository.countProductsGroupedByCategory()) {
+                productCounts.put((Long) row[0], new long[] {
+                        ((Number) row[1]).longValue(), row[2] != null ? ((Number) row[2]).longValue() : 0L });
+            }
+            Set<Long> promotedCategories = new HashSet<>(promotionRepository.findActivePromotionCategoryIds(now));
+            Map<Long, Long> promotedProducts = new HashMap<>();
+            for (Object[] row : promotionRepository.countActivePromotionProductsByCategory(now)) {
+                promotedProducts.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+
+            List<CategorySummary> categories = new ArrayList<>();
+            List<CategorySummary> activeCategories = new ArrayList<>();
+            Map<Long, CategorySummary> byId = new LinkedHashMap<>();
+            for (Category category : categoryRepository.findAll(Sort.by("name"))) {
+                long[] counts = productCounts.getOrDefault(category.getId(), new long[2]);
+                // Catégorie entière en promotion : tous ses produits actifs le sont
+                long promotionCount = promotedCategories.contains(category.getId())
+                        ? counts[1] : promotedProducts.getOrDefault(category.getId(), 0L);
+                CategorySummary summary = new CategorySummary(category.getId(), category.getName(),
+                        category.getDescription(), category.getImageUrl(), category.getIcon(), category.getStatus(),
+                        category.getCreatedAt(), category.getUpdatedAt(), counts[0], counts[1], promotionCount);
+                categories.add(summary);
+                byId.put(summary.id(), summary);
+                if (summary.isActive()) {
+                    activeCategories.add(summary);
+                }
+            }
+
+            Snapshot snapshot = new Snapshot(versions.incrementAndGet(), now, List.copyOf(categories),
+                    List.copyOf(activeCategories), Collections.unmodifiableMap(byId));
+            current.set(snapshot);
+            logger.debug("Instantané des catégories v{} construit: {} catégorie(s) en {} ms",
+                    snapshot.version(), categories.size(), System.currentTimeMillis() - start);
+            return snapshot;
+        } catch (Exception e) {
+            logger.error("Impossible de construire l'instantané des catégories", e);
+            Snapshot previous = current.get();
+            if (previous == null) {
+                throw new IllegalStateException("Catégories indisponibles", e);
+            }
+            return previous;
+        }
+    }
+
+    /**
+     * Reconstruit l'instantané dès le commit de la transaction en cours, dans le même thread (catégorie modifiée)
+     */
+    public void rebuildAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild();
+                }
+            });
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Demande une reconstruction après commit de la transaction en cours (produit ou promotion modifié)
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    // Début et fin des promotions, écritures hors services (requêtes de mise à jour en masse)
+    @Scheduled(fixedDelayString = "${app.categories.snapshot.refresh-interval-ms:300000}", initialDelay = 300_000)
+    public void refreshPeriodically() {
+        scheduleRebuild();
+    }
+
+    // Une seule reconstruction en attente à la fois : les demandes suivantes sont couvertes par celle-ci
+    private void scheduleRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        } catch (RuntimeException e) {
+            rebuildPending.set(false);
+            logger.warn("Reconstruction de l'instantané des catégories non planifiée: {}", e.getMessage());
+        }
+    }
+}
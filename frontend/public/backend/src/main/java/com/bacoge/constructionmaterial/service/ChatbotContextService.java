@@ -0,0 +1,111 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.model.Product;
+import com.bacoge.constructionmaterial.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Contexte produits transmis au modèle du chatbot (RAG).
+ *
+ * Les produits pertinents sont choisis en un seul appel à l'index en mémoire
+ * (ProductSearchIndex.retrieve, classement BM25 borné par un budget de temps) ;
+ * seuls les produits retenus sont ensuite lus en base, par clé primaire, pour
+ * afficher un prix et une disponibilité à jour.
+ */
+@Service
+public class ChatbotContextService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatbotContextService.class);
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+
+    @Value("${app.chatbot.context.max-products:5}")
+    private int maxProducts;
+
+    @Value("${app.chatbot.context.budget-micros:2000}")
+    private long budgetMicros;
+
+    public ChatbotContextService(ProductSearchIndex productSearchIndex,
+                                 ProductRepository productRepository,
+                                 ProductService productService) {
+        this.productSearchIndex = productSearchIndex;
+        this.productRepository = productRepository;
+        this.productService = productService;
+    }
+
+    /**
+     * Liste des produits pertinents pour le message, une ligne par produit ("" si aucun)
+     */
+    @Transactional(readOnly = true)
+    public String buildProductContext(String userMessage) {
+        if (userMessage == null || userMessage.isBlank()) {
+            return "";
+        }
+        List<Product> products = productSearchIndex.isReady()
+                ? retrieveFromIndex(userMessage)
+                : searchByKeywords(userMessage);
+
+        StringBuilder contextBuilder = new StringBuilder();
+        for (Product p : products) {
+            contextBuilder.append(String.format("- %s : %.2f € (Dispo: %s)\n",
+                    p.getName(),
+                    p.getPrice(),
+                    p.getStockQuantity() != null && p.getStockQuantity() > 0 ? "Oui" : "Non"));
+        }
+        return contextBuilder.toString();
+    }
+
+    private List<Product> retrieveFromIndex(String userMessage) {
+        ProductSearchIndex.Retrieval retrieval = productSearchIndex.retrieve(userMessage, maxProducts, budgetMicros);
+        if (retrieval.truncated()) {
+            logger.debug("Recherche de contexte interrompue par le budget ({} µs)", retrieval.elapsedMicros());
+        }
+        if (retrieval.productIds().isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> byId = productRepository.findAllById(retrieval.productIds()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> ordered = new ArrayList<>(retrieval.productIds().size());
+        for (Long id : retrieval.productIds()) {
+            Product product = byId.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
+    }
+
+    // Index pas encore construit (démarrage) : recherche SQL par mot-clé (> 3 lettres)
+    private List<Product> searchByKeywords(String userMessage) {
+        Set<Long> addedProductIds = new LinkedHashSet<>();
+        List<Product> found = new ArrayList<>();
+        for (String word : userMessage.split("\\s+")) {
+            if (word.length() <= 3) {
+                continue;
+            }
+            for (Product p : productService.searchProducts(word)) {
+                if (addedProductIds.add(p.getId())) {
+                    found.add(p);
+                    if (found.size() >= maxProducts) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+}
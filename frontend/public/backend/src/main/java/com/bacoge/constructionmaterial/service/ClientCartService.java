@@ -3,7 +3,6 @@ package com.bacoge.constructionmaterial.service;
 import com.bacoge.constructionmaterial.dto.client.AddToCartRequest;
 import com.bacoge.constructionmaterial.dto.client.CartDto;
 import com.bacoge.constructionmaterial.dto.client.CartItemDto;
-import com.bacoge.constructionmaterial.dto.client.ProductDisplayDto;
 import com.bacoge.constructionmaterial.dto.client.UpdateCartItemRequest;
 import com.bacoge.constructionmaterial.model.Cart;
 import com.bacoge.constructionmaterial.model.CartItem;
@@ -11,29 +10,38 @@ import com.bacoge.constructionmaterial.model.Product;
 import com.bacoge.constructionmaterial.repository.CartItemRepository;
 import com.bacoge.constructionmaterial.repository.CartRepository;
 import com.bacoge.constructionmaterial.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class ClientCartService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ClientCartService.class);
+
     private final ProductRepository productRepository;
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final CartPricingService cartPricingService;
 
     public ClientCartService(ProductRepository productRepository,
                              CartRepository cartRepository,
-                             CartItemRepository cartItemRepository) {
+                             CartItemRepository cartItemRepository,
+                             CartPricingService cartPricingService) {
         this.productRepository = productRepository;
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
+        this.cartPricingService = cartPricingService;
     }
 
     private Cart getOrCreateCart(Long userId) {
@@ -81,7 +89,30 @@ public class ClientCartService {
                 .orElse(0);
     }
 
-    public boolean validateCartForOrder(Long userId) { return true; }
+    /**
+     * Avant la commande : retire du panier les articles dont le produit n'existe plus ou n'a pas
+     * de prix (signalés par unavailableItemIds lors de la lecture du panier)
+     */
+    @Transactional
+    public boolean validateCartForOrder(Long userId) {
+        if (userId == null) return true;
+        cartRepository.findByUserId(userId).ifPresent(cart -> {
+            List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
+            List<Long> unavailable = cartPricingService.priceCart(toCartLines(items)).unavailableLineIds();
+            if (unavailable.isEmpty()) return;
+            Set<Long> unavailableIds = new HashSet<>(unavailable);
+            for (CartItem it : items) {
+                if (unavailableIds.contains(it.getId())) {
+                    cart.getItems().removeIf(ci -> ci.getId().equals(it.getId()));
+                    cartItemRepository.delete(it);
+                    logger.warn("Produit non trouvé ou prix null, article retiré du panier {}: {}", cart.getId(), it.getId());
+                }
+            }
+            recomputeCartTotals(cart);
+            cartRepository.save(cart);
+        });
+        return true;
+    }
 
     @Transactional
     public void addToCart(Long productId, Integer quantity) {
@@ -137,12 +168,7 @@ public class ClientCartService {
         dto.setQuantity(item.getQuantity());
         // Recharger le produit avec images pour DTO
         Product fullProduct = productRepository.findByIdWithPromotions(product.getId()).orElse(product);
-        ProductDisplayDto productDto = ProductDisplayDto.fromProduct(fullProduct);
-        // Assurer une image principale si absente
-        if (productDto.getImageUrl() == null && productDto.getImageUrls() != null && !productDto.getImageUrls().isEmpty()) {
-            productDto.setImageUrl(productDto.getImageUrls().get(0));
-        }
-        dto.setProduct(productDto);
+        dto.setProduct(cartPricingService.toProductDto(fullProduct));
         dto.setUnitPrice(item.getUnitPrice());
         dto.setDiscountedPrice(item.getDiscountedPrice());
         dto.setTotalPrice(item.getTotalPrice());
@@ -204,29 +230,33 @@ public class ClientCartService {
         if (cartOpt.isEmpty()) return dto;
         Cart cart = cartOpt.get();
         List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
-        BigDecimal total = BigDecimal.ZERO;
-        for (CartItem it : items) {
-            CartItemDto itemDto = new CartItemDto();
-            itemDto.setId(it.getId());
-            itemDto.setQuantity(it.getQuantity());
-            itemDto.setUnitPrice(it.getUnitPrice());
-            itemDto.setDiscountedPrice(it.getDiscountedPrice());
-            itemDto.setTotalPrice(it.getTotalPrice());
-            // Charger produit avec images
-            Product full = productRepository.findByIdWithPromotions(it.getProduct().getId()).orElse(it.getProduct());
-            ProductDisplayDto pDto = ProductDisplayDto.fromProduct(full);
-            if (pDto.getImageUrl() == null && pDto.getImageUrls() != null && !pDto.getImageUrls().isEmpty()) {
-                pDto.setImageUrl(pDto.getImageUrls().get(0));
-            }
-            itemDto.setProduct(pDto);
-            dto.getItems().add(itemDto);
-            if (itemDto.getTotalPrice() != null) total = total.add(itemDto.getTotalPrice());
+        
+        // Valoriser toutes les lignes avec un seul chargement des produits (prix enregistrés à l'ajout)
+        CartPricingService.PricedCart pricedCart = cartPricingService.priceCart(toCartLines(items));
+        CartDto priced = pricedCart.cart();
+
+        // Lecture seule : les articles sans produit ou sans prix sont signalés, puis retirés à la commande
+        if (!pricedCart.unavailableLineIds().isEmpty()) {
+            logger.debug("Articles indisponibles dans le panier {}: {}", cart.getId(), pricedCart.unavailableLineIds());
         }
-        dto.setTotalAmount(total);
-        dto.setTotalItems(items.stream().mapToInt(ci -> Optional.ofNullable(ci.getQuantity()).orElse(0)).sum());
+
+        dto.setItems(priced.getItems());
+        dto.setUnavailableItemIds(pricedCart.unavailableLineIds());
+        dto.setTotalAmount(priced.getTotalAmount());
+        dto.setTotalItems(priced.getTotalItems());
         return dto;
     }
 
+    private List<CartPricingService.CartLine> toCartLines(List<CartItem> items) {
+        List<CartPricingService.CartLine> lines = new ArrayList<>(items.size());
+        for (CartItem it : items) {
+            lines.add(new CartPricingService.CartLine(it.getId(), it.getProduct().getId(),
+                    Optional.ofNullable(it.getQuantity()).orElse(0),
+                    it.getUnitPrice(), it.getDiscountedPrice(), it.getTotalPrice()));
+        }
+        return lines;
+    }
+
     @Transactional
     public CartItemDto updateCartItem(Long userId, Long cartItemId, UpdateCartItemRequest request) {
         if (userId == null) throw new IllegalArgumentException("userId null");
@@ -244,11 +274,7 @@ public class ClientCartService {
         dto.setId(item.getId());
         dto.setQuantity(item.getQuantity());
         Product full = productRepository.findByIdWithPromotions(product.getId()).orElse(product);
-        ProductDisplayDto pDto = ProductDisplayDto.fromProduct(full);
-        if (pDto.getImageUrl() == null && pDto.getImageUrls() != null && !pDto.getImageUrls().isEmpty()) {
-            pDto.setImageUrl(pDto.getImageUrls().get(0));
-        }
-        dto.setProduct(pDto);
+        dto.setProduct(cartPricingService.toProductDto(full));
         dto.setUnitPrice(item.getUnitPrice());
         dto.setDiscountedPrice(item.getDiscountedPrice());
         dto.setTotalPrice(item.getTotalPrice());
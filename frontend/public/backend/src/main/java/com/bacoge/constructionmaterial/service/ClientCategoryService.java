@@ -1,70 +1,65 @@
 package com.bacoge.constructionmaterial.service;
 
 import com.bacoge.constructionmaterial.dto.client.CategoryDisplayDto;
-import com.bacoge.constructionmaterial.model.Category;
-import com.bacoge.constructionmaterial.repository.CategoryRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Catégories du site client, lues dans l'instantané en mémoire (voir CategorySnapshotService) :
+ * aucune requête en base par appel.
+ */
 @Service
 public class ClientCategoryService {
-    
-    private final CategoryRepository categoryRepository;
-    
-    public ClientCategoryService(CategoryRepository categoryRepository) {
-        this.categoryRepository = categoryRepository;
+
+    private final CategorySnapshotService categorySnapshotService;
+
+    public ClientCategoryService(CategorySnapshotService categorySnapshotService) {
+        this.categorySnapshotService = categorySnapshotService;
     }
-    
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+
+    public List<CategoryDisplayDto> getAllCategories() {
+        return toDisplays(categorySnapshotService.current().categories());
     }
-    
-    public List<Category> getAllActiveCategories() {
-        return categoryRepository.findAll(); // Simplified - return all categories as active
+
+    public List<CategoryDisplayDto> getAllActiveCategories() {
+        return toDisplays(categorySnapshotService.current().activeCategories());
     }
-    
-    // Méthode pour compter les produits dans une catégorie
-    private int countProductsInCategory(Category category) {
-        if (category.getProducts() != null) {
-            return category.getProducts().size();
+
+    public CategoryDisplayDto getCategoryById(Long id) {
+        CategorySnapshotService.CategorySummary summary = categorySnapshotService.current().get(id);
+        if (summary == null) {
+            throw new RuntimeException("Category not found with id: " + id);
         }
-        return 0;
-    }
-    
-    public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+        return CategoryDisplayDto.fromSummary(summary);
     }
-    
-    public List<Category> getFeaturedCategories() {
-        // Return all categories for now - in a complete implementation, 
-        // this would filter by featured flag
-        return categoryRepository.findAll();
+
+    // Catégories actives ayant des produits, les plus fournies en premier
+    public List<CategoryDisplayDto> getFeaturedCategories() {
+        return categorySnapshotService.current().activeCategories().stream()
+                .filter(category -> category.activeProductCount() > 0)
+                .sorted(Comparator.comparingLong(CategorySnapshotService.CategorySummary::activeProductCount).reversed())
+                .map(CategoryDisplayDto::fromSummary)
+                .collect(Collectors.toList());
     }
-    
-    public List<Category> getAllCategoriesWithPromoCount() {
-        // Return all categories for now - in a complete implementation,
-        // this would include promotion counts
-        return categoryRepository.findAll();
+
+    // Catégories actives ayant des produits en promotion (promotionCount renseigné)
+    public List<CategoryDisplayDto> getAllCategoriesWithPromoCount() {
+        return categorySnapshotService.current().activeCategories().stream()
+                .filter(category -> category.promotionProductCount() > 0)
+                .map(CategoryDisplayDto::fromSummary)
+                .collect(Collectors.toList());
     }
 
     public List<CategoryDisplayDto> getAllActiveCategoryDisplays() {
-        return categoryRepository.findAll().stream()
-                .map(category -> {
-                    Long count = categoryRepository.countActiveProductsByCategoryId(category.getId());
-                    int productCount = count != null ? count.intValue() : 0;
-                    CategoryDisplayDto dto = new CategoryDisplayDto();
-                    dto.setId(category.getId());
-                    dto.setName(category.getName());
-                    dto.setDescription(category.getDescription());
-                    dto.setImageUrl(category.getImageUrl());
-                    dto.setStatus("ACTIVE");
-                    dto.setCreatedAt(category.getCreatedAt());
-                    dto.setProductCount(productCount);
-                    return dto;
-                })
+        return getAllActiveCategories();
+    }
+
+    private List<CategoryDisplayDto> toDisplays(List<CategorySnapshotService.CategorySummary> categories) {
+        return categories.stream()
+                .map(CategoryDisplayDto::fromSummary)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.service;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
 import com.bacoge.constructionmaterial.dto.client.CreateOrderRequest;
 import com.bacoge.constructionmaterial.dto.client.OrderDisplayDto;
 import com.bacoge.constructionmaterial.dto.client.OrderItemDisplayDto;
@@ -21,7 +22,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,6 +46,9 @@ public class ClientOrderService {
     @Autowired
     private AdminNotificationService adminNotificationService;
     
+    @Autowired
+    private OrderStatsRollupService orderStatsRollupService;
+    
     public ClientOrderService(OrderRepository orderRepository, ProductRepository productRepository, 
                              AuthService authService, ClientCartService cartService) {
         this.orderRepository = orderRepository;
@@ -49,6 +57,7 @@ public class ClientOrderService {
         this.cartService = cartService;
     }
     
+    @EvictDashboardCaches
     public OrderDisplayDto createOrder(CreateOrderRequest request) {
         logger.info("Création d'une nouvelle commande");
         
@@ -79,52 +88,64 @@ public class ClientOrderService {
             order.setPaymentMethod(request.getPaymentMethod());
             order.setNotes(request.getNotes());
             
+            // Quantités demandées par produit (les lignes d'un même produit sont regroupées)
+            Map<Long, Integer> requestedQuantities = new LinkedHashMap<>();
+            for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
+                if (itemRequest.getProductId() == null) {
+                    throw new IllegalArgumentException("L'ID du produit ne peut pas être null");
+                }
+                if (itemRequest.getQuantity() == null || itemRequest.getQuantity() <= 0) {
+                    throw new IllegalArgumentException("La quantité doit être positive");
+                }
+                requestedQuantities.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+            }
+            
+            // Charger et verrouiller tous les produits en une seule requête : aucune autre
+            // commande ne peut modifier leur stock avant la fin de cette transaction
+            Map<Long, Product> products = productRepository.findAllByIdForUpdate(requestedQuantities.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            
             // Créer les éléments de commande avec validation
-            List<OrderItem> orderItems = request.getItems().stream()
-                    .map(itemRequest -> {
-                        if (itemRequest.getProductId() == null) {
-                            throw new IllegalArgumentException("L'ID du produit ne peut pas être null");
-                        }
-                        if (itemRequest.getQuantity() == null || itemRequest.getQuantity() <= 0) {
-                            throw new IllegalArgumentException("La quantité doit être positive");
-                        }
-                        
-                        Product product = productRepository.findById(itemRequest.getProductId())
-                                .orElseThrow(() -> new RuntimeException("Produit non trouvé: " + itemRequest.getProductId()));
-                        
-                        // Vérifier la disponibilité et le stock
-                        if (!product.isActive()) {
-                            throw new RuntimeException("Le produit '" + product.getName() + "' n'est plus disponible");
-                        }
-                        
-                        if (product.getStockQuantity() < itemRequest.getQuantity()) {
-                            throw new RuntimeException("Stock insuffisant pour le produit '" + product.getName() + 
-                                                     "'. Stock disponible: " + product.getStockQuantity() + 
-                                                     ", quantité demandée: " + itemRequest.getQuantity());
-                        }
-                        
-                        OrderItem orderItem = new OrderItem();
-                        orderItem.setOrder(order);
-                        orderItem.setProduct(product);
-                        orderItem.setQuantity(itemRequest.getQuantity());
-                        orderItem.setPrice(product.getPrice());
-                        orderItem.calculateTotalPrice();
-                        
-                        // Réduire le stock
-                        product.setStockQuantity(product.getStockQuantity() - itemRequest.getQuantity());
-                        productRepository.save(product);
-                        
-                        logger.debug("Article ajouté à la commande - Produit: {}, Quantité: {}", 
-                                   product.getName(), itemRequest.getQuantity());
-                        
-                        return orderItem;
-                    })
-                    .collect(Collectors.toList());
+            List<OrderItem> orderItems = new ArrayList<>(requestedQuantities.size());
+            for (Map.Entry<Long, Integer> entry : requestedQuantities.entrySet()) {
+                Product product = products.get(entry.getKey());
+                int quantity = entry.getValue();
+                if (product == null) {
+                    throw new RuntimeException("Produit non trouvé: " + entry.getKey());
+                }
+                
+                // Vérifier la disponibilité et le stock
+                if (!product.isActive()) {
+                    throw new RuntimeException("Le produit '" + product.getName() + "' n'est plus disponible");
+                }
+                
+                if (product.getStockQuantity() < quantity) {
+                    throw new RuntimeException("Stock insuffisant pour le produit '" + product.getName() + 
+                                             "'. Stock disponible: " + product.getStockQuantity() + 
+                                             ", quantité demandée: " + quantity);
+                }
+                
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setProduct(product);
+                orderItem.setQuantity(quantity);
+                orderItem.setPrice(product.getPrice());
+                orderItem.calculateTotalPrice();
+                orderItems.add(orderItem);
+                
+                // Réduire le stock : l'entité est gérée, la mise à jour (conditionnée par la version)
+                // est envoyée au flush, regroupée en batch JDBC avec celles des autres produits
+                product.setStockQuantity(product.getStockQuantity() - quantity);
+                
+                logger.debug("Article ajouté à la commande - Produit: {}, Quantité: {}", 
+                           product.getName(), quantity);
+            }
             
             order.setOrderItems(orderItems);
             order.calculateTotals();
             
             Order savedOrder = orderRepository.save(order);
+            orderStatsRollupService.recordOrderCreated(savedOrder);
             
             // Créer une notification pour l'admin
             try {
@@ -215,6 +236,7 @@ public class ClientOrderService {
         }
     }
     
+    @EvictDashboardCaches
     public void cancelOrder(Long id) {
         logger.info("Annulation de la commande ID: {}", id);
         
@@ -253,6 +275,7 @@ public class ClientOrderService {
                 }
                 
                 orderRepository.save(order);
+                orderStatsRollupService.recordStatusChange(order, Order.OrderStatus.PENDING);
                 
                 logger.info("Commande annulée avec succès - ID: {}, Numéro: {}", 
                            order.getId(), order.getOrderNumber());
@@ -269,6 +292,7 @@ public class ClientOrderService {
         }
     }
 
+    @EvictDashboardCaches
     public void confirmOrderReceived(Long id) {
         logger.info("Confirmation de réception pour la commande ID: {}", id);
         if (id == null) {
@@ -288,6 +312,7 @@ public class ClientOrderService {
             if (order.getStatus() == Order.OrderStatus.SHIPPED) {
                 order.setStatus(Order.OrderStatus.DELIVERED);
                 orderRepository.save(order);
+                orderStatsRollupService.recordStatusChange(order, Order.OrderStatus.SHIPPED);
                 logger.info("Commande marquée comme livrée - ID: {}", order.getId());
                 // Notify admins of status change
                 try { adminNotificationService.createOrderStatusChangedNotification(order, Order.OrderStatus.DELIVERED); } catch (Exception ex) { logger.warn("WS notify order delivered failed: {}", ex.getMessage()); }
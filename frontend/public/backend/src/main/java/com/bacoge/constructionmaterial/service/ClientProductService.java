@@ -1,10 +1,15 @@
 package com.bacoge.constructionmaterial.service;
 
 import com.bacoge.constructionmaterial.dto.client.ProductDisplayDto;
+import com.bacoge.constructionmaterial.model.Category;
 import com.bacoge.constructionmaterial.model.Product;
+import com.bacoge.constructionmaterial.repository.CategoryRepository;
 import com.bacoge.constructionmaterial.repository.ProductRepository;
 import com.bacoge.constructionmaterial.repository.ProductImageRepository;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -12,8 +17,13 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,31 +31,55 @@ public class ClientProductService {
     
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final CategoryRepository categoryRepository;
+    private final ProductRankingService productRankingService;
     
-    public ClientProductService(ProductRepository productRepository, ProductImageRepository productImageRepository) {
+    public ClientProductService(ProductRepository productRepository, ProductImageRepository productImageRepository,
+                                ProductSearchIndex productSearchIndex, ProductFacetIndex productFacetIndex,
+                                CategoryRepository categoryRepository, ProductRankingService productRankingService) {
         this.productRepository = productRepository;
         this.productImageRepository = productImageRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetIndex = productFacetIndex;
+        this.categoryRepository = categoryRepository;
+        this.productRankingService = productRankingService;
     }
     
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
     
+    /**
+     * Produits actifs de la liste du catalogue. Les filtres (style, pièce, couleur, matériau,
+     * collection, tags, tranche de prix) prennent les valeurs renvoyées par getCatalogFacets et sont
+     * résolus par l'index de facettes : une valeur cochée renvoie exactement les produits comptés.
+     */
     public Page<ProductDisplayDto> getActiveProducts(
             String name,
             Long categoryId,
             BigDecimal minPrice,
             BigDecimal maxPrice,
-            String style,
-            String room,
-            String color,
-            String material,
-            String collectionName,
-            String tags,
+            Map<ProductFacetIndex.Facet, Set<String>> selected,
             String sortBy,
             String sortDir,
             Pageable pageable,
             String currency) {
+        Map<ProductFacetIndex.Facet, Set<String>> filters = selected != null ? selected : Map.of();
+        boolean indexReady = productSearchIndex.isReady();
+        Set<Long> facetMatches = indexReady && !filters.isEmpty() ? productFacetIndex.matchingProductIds(filters) : null;
+
+        // Recherche texte et filtres : servis par les index en mémoire (les LIKE '%...%' ne peuvent pas utiliser d'index)
+        ProductSearchIndex.SortField sortField = toSortField(sortBy, hasText(name));
+        if ((hasText(name) || facetMatches != null) && sortField != null && indexReady) {
+            ProductSearchIndex.Query query = new ProductSearchIndex.Query(name, categoryId, minPrice, maxPrice, facetMatches);
+            return searchWithIndex(query, sortField, "desc".equalsIgnoreCase(sortDir), pageable);
+        }
+        if (facetMatches != null && facetMatches.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
         // Utiliser Specifications JPA pour filtrage côté DB
         Specification<Product> spec = Specification.where((root, query, cb) -> cb.conjunction());
 
@@ -74,34 +108,121 @@ public class ClientProductService {
             spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice));
         }
 
-        // Filtres design d'intérieur
-        if (style != null && !style.isBlank()) {
-            String v = "%" + style.trim().toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("style")), v));
-        }
-        if (room != null && !room.isBlank()) {
-            String v = "%" + room.trim().toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("room")), v));
+        // Filtres du catalogue : produits retenus par l'index de facettes (tri non géré par l'index),
+        // ou, pendant la construction de l'index, mêmes règles appliquées en SQL
+        if (facetMatches != null) {
+            spec = spec.and((root, query, cb) -> root.get("id").in(facetMatches));
+        } else {
+            for (Map.Entry<ProductFacetIndex.Facet, Set<String>> entry : filters.entrySet()) {
+                spec = spec.and(facetSpecification(entry.getKey(), entry.getValue()));
+            }
         }
-        if (color != null && !color.isBlank()) {
-            String v = "%" + color.trim().toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("color")), v));
+
+        Page<Product> products = productRepository.findAll(spec, pageable);
+        return products.map(this::toDisplayDto);
+    }
+
+    // Valeurs d'une facette en SQL (OU entre valeurs) : égalité sur la valeur normalisée, comme dans l'index
+    // (la collation de la base ignore les accents), tag complet dans la liste séparée par des virgules
+    private static Specification<Product> facetSpecification(ProductFacetIndex.Facet facet, Set<String> values) {
+        List<String> normalized = values.stream()
+                .filter(ClientProductService::hasText)
+                .map(v -> v.trim().toLowerCase())
+                .collect(Collectors.toList());
+        return (root, query, cb) -> switch (facet) {
+            case CATEGORY -> root.get("category").get("id").in(normalized.stream()
+                    .filter(v -> v.chars().allMatch(Character::isDigit))
+                    .map(Long::valueOf)
+                    .collect(Collectors.toList()));
+            case STYLE -> cb.lower(cb.trim(root.<String>get("style"))).in(normalized);
+            case ROOM -> cb.lower(cb.trim(root.<String>get("room"))).in(normalized);
+            case COLOR -> cb.lower(cb.trim(root.<String>get("color"))).in(normalized);
+            case MATERIAL -> cb.lower(cb.trim(root.<String>get("material"))).in(normalized);
+            case COLLECTION -> cb.lower(cb.trim(root.<String>get("collectionName"))).in(normalized);
+            case TAGS -> {
+                Expression<String> tagList = cb.concat(cb.concat(",",
+                        cb.function("replace", String.class, cb.lower(root.<String>get("tags")), cb.literal(", "), cb.literal(","))), ",");
+                yield cb.or(normalized.stream()
+                        .map(tag -> cb.like(tagList, "%," + tag + ",%"))
+                        .toArray(Predicate[]::new));
+            }
+            case PRICE -> cb.or(normalized.stream()
+                    .map(ProductFacetIndex::priceBucketBounds)
+                    .filter(bounds -> bounds != null)
+                    .map(bounds -> bounds[1] == null
+                            ? cb.greaterThanOrEqualTo(root.<BigDecimal>get("price"), bounds[0])
+                            : cb.and(cb.greaterThanOrEqualTo(root.<BigDecimal>get("price"), bounds[0]),
+                                     cb.lessThan(root.<BigDecimal>get("price"), bounds[1])))
+                    .toArray(Predicate[]::new));
+        };
+    }
+
+    private Page<ProductDisplayDto> searchWithIndex(ProductSearchIndex.Query query, ProductSearchIndex.SortField sortField,
+                                                    boolean descending, Pageable pageable) {
+        Pageable page = pageable.isPaged() ? pageable : PageRequest.of(0, 20);
+        ProductSearchIndex.Result result = productSearchIndex.search(
+                query, sortField, descending, page.getPageNumber(), page.getPageSize());
+
+        // Seule la page demandée est lue en base, puis remise dans l'ordre de l'index
+        Map<Long, Product> byId = productRepository.findAllById(result.productIds()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductDisplayDto> content = new ArrayList<>(result.productIds().size());
+        for (Long id : result.productIds()) {
+            Product product = byId.get(id);
+            if (product != null) {
+                content.add(toDisplayDto(product));
+            }
         }
-        if (material != null && !material.isBlank()) {
-            String v = "%" + material.trim().toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("material")), v));
+        return new PageImpl<>(content, page, result.totalHits());
+    }
+
+    /**
+     * Nombre de produits actifs par valeur de filtre pour la sélection courante, calculé
+     * en une passe sur l'index de facettes (une recherche texte restreint les produits comptés)
+     */
+    public ProductFacetIndex.FacetResult getCatalogFacets(String search,
+                                                         Map<ProductFacetIndex.Facet, Set<String>> selected,
+                                                         BigDecimal minPrice,
+                                                         BigDecimal maxPrice,
+                                                         int limitPerFacet) {
+        if (!productSearchIndex.isReady()) {
+            throw new IllegalStateException("Index du catalogue en cours de construction");
         }
-        if (collectionName != null && !collectionName.isBlank()) {
-            String v = "%" + collectionName.trim().toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("collectionName")), v));
+        Set<Long> restrictTo = hasText(search) ? productSearchIndex.matchingProductIds(search) : null;
+        ProductFacetIndex.FacetResult result = productFacetIndex.compute(
+                new ProductFacetIndex.FacetQuery(selected, minPrice, maxPrice, restrictTo), limitPerFacet);
+
+        // Les catégories sont indexées par identifiant : libellés résolus pour les seules valeurs retournées
+        List<ProductFacetIndex.FacetCount> categories = result.facets().get(ProductFacetIndex.Facet.CATEGORY);
+        if (categories == null || categories.isEmpty()) {
+            return result;
         }
-        if (tags != null && !tags.isBlank()) {
-            String v = "%" + tags.trim().toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("tags")), v));
+        List<Long> categoryIds = categories.stream().map(c -> Long.valueOf(c.value())).collect(Collectors.toList());
+        Map<Long, String> names = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, c -> c.getName() != null ? c.getName() : c.getId().toString()));
+        Map<ProductFacetIndex.Facet, List<ProductFacetIndex.FacetCount>> facets = new EnumMap<>(result.facets());
+        facets.put(ProductFacetIndex.Facet.CATEGORY, categories.stream()
+                .map(c -> new ProductFacetIndex.FacetCount(c.value(),
+                        names.getOrDefault(Long.valueOf(c.value()), c.label()), c.count()))
+                .collect(Collectors.toList()));
+        return new ProductFacetIndex.FacetResult(result.total(), facets);
+    }
+
+    private ProductSearchIndex.SortField toSortField(String sortBy, boolean hasSearchText) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return hasSearchText ? ProductSearchIndex.SortField.RELEVANCE : ProductSearchIndex.SortField.NAME;
         }
+        return switch (sortBy) {
+            case "relevance" -> ProductSearchIndex.SortField.RELEVANCE;
+            case "name" -> ProductSearchIndex.SortField.NAME;
+            case "price" -> ProductSearchIndex.SortField.PRICE;
+            case "createdAt" -> ProductSearchIndex.SortField.CREATED_AT;
+            default -> null;
+        };
+    }
 
-        Page<Product> products = productRepository.findAll(spec, pageable);
-        return products.map(this::toDisplayDto);
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
     }
     
     public ProductDisplayDto getProductById(Long id) {
@@ -112,6 +233,7 @@ public class ClientProductService {
         }
         
         Product product = productOpt.get();
+        productRankingService.recordView(product.getId());
         
         // Create DTO with only basic fields - no lazy collections
         ProductDisplayDto dto = new ProductDisplayDto();
@@ -141,8 +263,8 @@ public class ClientProductService {
             dto.setImageUrls(List.of("/images/placeholder-product.jpg"));
             dto.setImageUrl("/branding/product-placeholder.svg");
         }
-        dto.setAverageRating(4.0);
-        dto.setReviewCount(0);
+        dto.setAverageRating(product.getAverageRating());
+        dto.setReviewCount(product.getReviewCount());
         dto.setDiscountedPrice(dto.getPrice());
         dto.setInStock(dto.getStockQuantity() > 0);
         dto.setLowStock(dto.getStockQuantity() < 10);
@@ -153,23 +275,11 @@ public class ClientProductService {
     }
     
     public List<ProductDisplayDto> getRecommendedProducts(int limit) {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(product -> product.getStatus() == Product.ProductStatus.ACTIVE)
-                .limit(limit)
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::toDisplayDto)
-                .collect(Collectors.toList());
+        return loadRanked(productRankingService.recommended(limit));
     }
     
     public List<ProductDisplayDto> getPopularProducts(int limit) {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(product -> product.getStatus() == Product.ProductStatus.ACTIVE)
-                .limit(limit)
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::toDisplayDto)
-                .collect(Collectors.toList());
+        return loadRanked(productRankingService.popular(limit));
     }
     
     public List<ProductDisplayDto> getNewArrivals() {
@@ -209,13 +319,22 @@ public class ClientProductService {
     }
     
     public List<ProductDisplayDto> getFeaturedProducts() {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(product -> product.getStatus() == Product.ProductStatus.ACTIVE)
-                .limit(8)
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::toDisplayDto)
-                .collect(Collectors.toList());
+        return loadRanked(productRankingService.featured(8));
+    }
+    
+    // Seuls les k produits classés sont lus en base, dans l'ordre du classement ; un produit désactivé
+    // depuis le dernier calcul est écarté
+    private List<ProductDisplayDto> loadRanked(List<Long> ids) {
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductDisplayDto> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null && product.getStatus() == Product.ProductStatus.ACTIVE) {
+                content.add(toDisplayDto(product));
+            }
+        }
+        return content;
     }
     
     public List<ProductDisplayDto> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
@@ -34,6 +34,9 @@ public class ConversationService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
     public Conversation createConversationFromContact(String subject, String content, String userEmailOptional) {
         Conversation conv = new Conversation();
         conv.setSubject(subject != null ? subject : "Contact");
@@ -61,6 +64,7 @@ public class ConversationService {
         saved.setAdminUnreadCount(saved.getAdminUnreadCount() + 1);
         saved.setLastMessageAt(first.getCreatedAt());
         conversationRepository.save(saved);
+        unreadCounterService.adjustAdminMessages(1);
         return saved;
     }
 
@@ -97,11 +101,13 @@ public class ConversationService {
 
         conv.setUserUnreadCount(conv.getUserUnreadCount() + 1);
         conv.setLastMessageAt(msg.getCreatedAt());
+        Long recipientId = conv.getUser() != null ? conv.getUser().getId() : null;
+        unreadCounterService.adjustUserMessages(recipientId, 1);
         
-        // Envoyer une notification pour la réponse admin
+        // Envoyer une notification pour la réponse admin (au client de la conversation)
         try {
             String senderName = msg.getSenderUser() != null ? msg.getSenderUser().getFirstName() + " " + msg.getSenderUser().getLastName() : "Administrateur";
-            notificationService.sendNewConversationMessageNotification(conversationId, senderName, content, true);
+            notificationService.sendNewConversationMessageNotification(recipientId, senderName, content, true);
         } catch (Exception e) {
             // Log l'erreur mais ne pas empêcher la création du message
             System.err.println("Erreur lors de l'envoi de la notification: " + e.getMessage());
@@ -128,6 +134,7 @@ public class ConversationService {
 
         conv.setAdminUnreadCount(conv.getAdminUnreadCount() + 1);
         conv.setLastMessageAt(msg.getCreatedAt());
+        unreadCounterService.adjustAdminMessages(1);
         
         // Envoyer une notification pour le message utilisateur
         try {
@@ -144,6 +151,7 @@ public class ConversationService {
         Conversation conv = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new RuntimeException("Conversation non trouvée"));
         if (conv.getAdminUnreadCount() > 0) {
+            unreadCounterService.adjustAdminMessages(-conv.getAdminUnreadCount());
             conv.setAdminUnreadCount(0);
             conversationRepository.save(conv);
         }
@@ -156,22 +164,25 @@ public class ConversationService {
             throw new RuntimeException("Accès refusé");
         }
         if (conv.getUserUnreadCount() > 0) {
+            unreadCounterService.adjustUserMessages(user.getId(), -conv.getUserUnreadCount());
             conv.setUserUnreadCount(0);
             conversationRepository.save(conv);
         }
     }
 
+    /**
+     * Total des messages non lus d'un client (somme de userUnreadCount sur toutes ses conversations)
+     */
+    @Transactional(readOnly = true)
     public long getUserUnreadCount(User user) {
-        Page<Conversation> page = getUserConversations(user, 0, 100);
-        return page.getContent().stream().mapToLong(Conversation::getUserUnreadCount).sum();
+        return user != null ? unreadCounterService.getUserMessages(user.getId()) : 0;
     }
 
     /**
-     * Total des messages non lus côté admin (somme de adminUnreadCount)
-     * Note: limite à la première page (100) comme pour getUserUnreadCount
+     * Total des messages non lus côté admin (somme de adminUnreadCount sur toutes les conversations)
      */
+    @Transactional(readOnly = true)
     public long getAdminUnreadCount() {
-        Page<Conversation> page = getAdminConversations(0, 100);
-        return page.getContent().stream().mapToLong(Conversation::getAdminUnreadCount).sum();
+        return unreadCounterService.getAdminMessages();
     }
 }
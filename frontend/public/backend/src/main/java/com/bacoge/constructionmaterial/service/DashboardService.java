@@ -1,6 +1,7 @@
 package com.bacoge.constructionmaterial.service;
 
 import com.bacoge.constructionmaterial.dto.DashboardStats;
+import com.bacoge.constructionmaterial.model.OrderDailyStats;
 import com.bacoge.constructionmaterial.model.Product;
 import com.bacoge.constructionmaterial.repository.*;
 import org.springframework.cache.annotation.Cacheable;
@@ -12,6 +13,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -36,17 +38,20 @@ public class DashboardService {
     private final OrderRepository orderRepository;
     private final CategoryRepository categoryRepository;
     private final ReviewRepository reviewRepository;
+    private final OrderStatsRollupService orderStatsRollupService;
     
     public DashboardService(UserRepository userRepository,
                           ProductRepository productRepository,
                           OrderRepository orderRepository,
                           CategoryRepository categoryRepository,
-                          ReviewRepository reviewRepository) {
+                          ReviewRepository reviewRepository,
+                          OrderStatsRollupService orderStatsRollupService) {
         this.userRepository = userRepository;
         this.productRepository = productRepository;
         this.orderRepository = orderRepository;
         this.categoryRepository = categoryRepository;
         this.reviewRepository = reviewRepository;
+        this.orderStatsRollupService = orderStatsRollupService;
     }
     
     /**
@@ -59,9 +64,15 @@ public class DashboardService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startOfDay = now.with(LocalTime.MIN);
         LocalDateTime startOfMonth = now.withDayOfMonth(1).with(LocalTime.MIN);
-        LocalDateTime startOfYear = now.withDayOfYear(1).with(LocalTime.MIN);
+        LocalDate today = now.toLocalDate();
         
         try {
+            // Agrégats de commandes pré-calculés (order_daily_stats)
+            OrderDailyStats orderTotals = orderStatsRollupService.getTotals();
+            OrderDailyStats todayTotals = orderStatsRollupService.getTotalsBetween(today, today);
+            OrderDailyStats monthTotals = orderStatsRollupService.getTotalsBetween(today.withDayOfMonth(1), today);
+            OrderDailyStats yearTotals = orderStatsRollupService.getTotalsBetween(today.withDayOfYear(1), today);
+            
             // 1. Compteurs de base
             long totalUsers = userRepository.count();
             logger.info("Total users: {}", totalUsers);
@@ -71,7 +82,7 @@ public class DashboardService {
             logger.info("Total products: {}", totalProducts);
             stats.setTotalProducts(totalProducts);
             
-            long totalOrders = orderRepository.count();
+            long totalOrders = orderTotals.getOrdersCount();
             logger.info("Total orders: {}", totalOrders);
             stats.setTotalOrders(totalOrders);
             
@@ -88,15 +99,10 @@ public class DashboardService {
             stats.setProductStats(productStats);
             
             // 2. Revenus
-            BigDecimal totalRevenue = orderRepository.getTotalRevenue();
-            BigDecimal todayRevenue = orderRepository.getRevenueByDateRange(startOfDay, now);
-            BigDecimal monthlyRevenue = orderRepository.getRevenueByDateRange(startOfMonth, now);
-            BigDecimal yearlyRevenue = orderRepository.getRevenueByDateRange(startOfYear, now);
-            
-            stats.setTotalRevenue(totalRevenue != null ? totalRevenue.doubleValue() : 0.0);
-            stats.setTodayRevenue(todayRevenue != null ? todayRevenue.doubleValue() : 0.0);
-            stats.setMonthlyRevenue(monthlyRevenue != null ? monthlyRevenue.doubleValue() : 0.0);
-            stats.setYearlyRevenue(yearlyRevenue != null ? yearlyRevenue.doubleValue() : 0.0);
+            stats.setTotalRevenue(orderTotals.getDeliveredRevenue().doubleValue());
+            stats.setTodayRevenue(todayTotals.getDeliveredRevenue().doubleValue());
+            stats.setMonthlyRevenue(monthTotals.getDeliveredRevenue().doubleValue());
+            stats.setYearlyRevenue(yearTotals.getDeliveredRevenue().doubleValue());
             
             // 3. Utilisateurs
             long newUsersToday = userRepository.countByCreatedAtAfter(startOfDay);
@@ -110,26 +116,20 @@ public class DashboardService {
             userStats.put("active", activeUsers);
             stats.setUserStats(userStats);
             
-            // 4. Commandes - utilisation de la méthode optimisée
-            Object[] orderStatsArray = orderRepository.getOrderStatsBatch();
+            // 4. Commandes - lues depuis les agrégats journaliers
             Map<String, Long> orderStats = new HashMap<>();
-            if (orderStatsArray != null && orderStatsArray.length >= 7) {
-                orderStats.put("total", ((Number) orderStatsArray[0]).longValue());
-                orderStats.put("pending", ((Number) orderStatsArray[1]).longValue());
-                orderStats.put("confirmed", ((Number) orderStatsArray[2]).longValue());
-                orderStats.put("processing", ((Number) orderStatsArray[3]).longValue());
-                orderStats.put("shipped", ((Number) orderStatsArray[4]).longValue());
-                orderStats.put("delivered", ((Number) orderStatsArray[5]).longValue());
-                orderStats.put("cancelled", ((Number) orderStatsArray[6]).longValue());
-                
-                // Calcul des commandes complétées (delivered + shipped) et en attente (pending + confirmed + processing)
-    orderStats.put("completed", orderStats.get("delivered") + orderStats.get("shipped"));
-    orderStats.put("pending", orderStats.get("pending") + orderStats.get("confirmed") + orderStats.get("processing"));
-            }
+            orderStats.put("total", orderTotals.getOrdersCount());
+            orderStats.put("confirmed", orderTotals.getConfirmedCount());
+            orderStats.put("processing", orderTotals.getProcessingCount());
+            orderStats.put("shipped", orderTotals.getShippedCount());
+            orderStats.put("delivered", orderTotals.getDeliveredCount());
+            orderStats.put("cancelled", orderTotals.getCancelledCount());
+            // Commandes complétées (delivered + shipped) et en attente (pending + confirmed + processing)
+            orderStats.put("completed", orderTotals.getCompletedCount());
+            orderStats.put("pending", orderTotals.getOpenCount());
             
             // Ajout des commandes d'aujourd'hui
-            long ordersToday = orderRepository.countNewOrdersToday(startOfDay, startOfDay.plusDays(1));
-            orderStats.put("today", ordersToday);
+            orderStats.put("today", todayTotals.getOrdersCount());
             
             stats.setOrderStatusCount(orderStats);
             
@@ -200,6 +200,12 @@ public class DashboardService {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusMonths(months - 1).withDayOfMonth(1);
         
+        // Chiffre d'affaires par mois à partir des agrégats journaliers (une seule requête)
+        Map<YearMonth, BigDecimal> revenueByMonth = new HashMap<>();
+        for (OrderDailyStats day : orderStatsRollupService.getDailyStats(startDate, endDate)) {
+            revenueByMonth.merge(YearMonth.from(day.getStatDate()), day.getDeliveredRevenue(), BigDecimal::add);
+        }
+        
         // Générer les mois entre startDate et endDate
         LocalDate current = startDate;
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM yyyy", Locale.FRENCH);
@@ -207,14 +213,7 @@ public class DashboardService {
         while (!current.isAfter(endDate)) {
             // Ajouter le mois courant aux labels
             labels.add(current.format(formatter));
-            
-            // Calculer le début et la fin du mois
-            LocalDateTime monthStart = current.atStartOfDay();
-            LocalDateTime monthEnd = current.withDayOfMonth(current.lengthOfMonth()).atTime(23, 59, 59);
-            
-            // Récupérer le chiffre d'affaires pour le mois
-            BigDecimal monthlySales = orderRepository.getRevenueByDateRange(monthStart, monthEnd);
-            salesData.add(monthlySales != null ? monthlySales : BigDecimal.ZERO);
+            salesData.add(revenueByMonth.getOrDefault(YearMonth.from(current), BigDecimal.ZERO));
             
             // Passer au mois suivant
             current = current.plusMonths(1);
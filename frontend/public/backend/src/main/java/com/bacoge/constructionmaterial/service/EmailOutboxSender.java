@@ -0,0 +1,278 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.properties.MailProperties;
+import com.bacoge.constructionmaterial.model.EmailOutboxMessage;
+import com.bacoge.constructionmaterial.repository.EmailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Expédie les emails de la table email_outbox (voir EmailService).
+ *
+ * À chaque passe, les emails dus sont réservés (statut SENDING + jeton de lot, ce qui
+ * permet plusieurs instances), découpés en lots de app.mail.outbox.batch-size et envoyés
+ * par un pool de threads dédié : chaque lot utilise une seule connexion SMTP
+ * (JavaMailSender.send(SimpleMailMessage...)).
+ *
+ * Un email en échec est replanifié avec un délai doublé à chaque tentative, jusqu'à
+ * app.mail.outbox.max-attempts ; une adresse invalide passe directement en FAILED sans
+ * bloquer le reste du lot. Si le lot entier échoue à la préparation, ses emails sont
+ * renvoyés un par un.
+ */
+@Component
+public class EmailOutboxSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxSender.class);
+
+    private static final int MAX_ROUNDS_PER_POLL = 10;
+    private static final int ERROR_MAX_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final MailProperties mailProperties;
+    private final MailProperties.Outbox settings;
+
+    private final ThreadPoolTaskExecutor senderPool = new ThreadPoolTaskExecutor();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private volatile LocalDateTime lastPollAt;
+
+    public EmailOutboxSender(EmailOutboxRepository emailOutboxRepository,
+                             JavaMailSender mailSender,
+                             MailProperties mailProperties) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.mailProperties = mailProperties;
+        this.settings = mailProperties.getOutbox();
+    }
+
+    @PostConstruct
+    void init() {
+        int threads = Math.max(1, settings.getSenderThreads());
+        senderPool.setCorePoolSize(threads);
+        senderPool.setMaxPoolSize(threads);
+        senderPool.setQueueCapacity(threads * MAX_ROUNDS_PER_POLL);
+        senderPool.setThreadNamePrefix("email-sender-");
+        senderPool.setWaitForTasksToCompleteOnShutdown(true);
+        senderPool.setAwaitTerminationSeconds(30);
+        senderPool.initialize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senderPool.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:1000}", initialDelay = 5_000)
+    public void poll() {
+        if (!settings.isEnabled() || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastPollAt = LocalDateTime.now();
+            emailOutboxRepository.releaseStale(lastPollAt.minusNanos(settings.getStaleAfterMs() * 1_000_000L),
+                    EmailOutboxMessage.Status.PENDING, EmailOutboxMessage.Status.SENDING);
+            for (int round = 0; round < MAX_ROUNDS_PER_POLL; round++) {
+                if (sendDue() == 0) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'expédition des emails en file", e);
+        } finally {
+            polling.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 120_000)
+    public void purgeSent() {
+        if (settings.getSentRetentionDays() <= 0) {
+            return;
+        }
+        try {
+            int deleted = emailOutboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(settings.getSentRetentionDays()),
+                    EmailOutboxMessage.Status.SENT);
+            if (deleted > 0) {
+                logger.info("{} email(s) envoyé(s) supprimé(s) de la file", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de la purge des emails envoyés", e);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", settings.isEnabled());
+        stats.put("lastPollAt", lastPollAt);
+        stats.put("sent", sent.sum());
+        stats.put("retried", retried.sum());
+        stats.put("failed", failed.sum());
+        stats.put("smtpConnections", connections.sum());
+        stats.put("activeSenders", senderPool.getActiveCount());
+        Map<String, Long> queue = new LinkedHashMap<>();
+        for (Object[] row : emailOutboxRepository.countByStatus()) {
+            queue.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
+        }
+        stats.put("outbox", queue);
+        return stats;
+    }
+
+    // Réserve puis envoie un ensemble d'emails dus ; retourne le nombre d'emails réservés
+    private int sendDue() {
+        int batchSize = Math.max(1, settings.getBatchSize());
+        int threads = Math.max(1, settings.getSenderThreads());
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = emailOutboxRepository.findDueIds(EmailOutboxMessage.Status.PENDING, now,
+                PageRequest.of(0, batchSize * threads));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String token = UUID.randomUUID().toString();
+        if (emailOutboxRepository.claim(ids, token, now, EmailOutboxMessage.Status.PENDING, EmailOutboxMessage.Status.SENDING) == 0) {
+            return 0;
+        }
+        List<EmailOutboxMessage> claimed = emailOutboxRepository.findByClaimTokenOrderByIdAsc(token);
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            List<EmailOutboxMessage> batch = claimed.subList(from, Math.min(claimed.size(), from + batchSize));
+            batches.add(CompletableFuture.runAsync(() -> sendBatch(batch), senderPool));
+        }
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+        return claimed.size();
+    }
+
+    private void sendBatch(List<EmailOutboxMessage> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> sendable = new ArrayList<>(batch.size());
+        List<SimpleMailMessage> messages = new ArrayList<>(batch.size());
+        for (EmailOutboxMessage message : batch) {
+            // Adresse illisible (mise en file avant validation) : seul cet email échoue
+            if (!EmailService.isValidRecipient(message.getRecipient())) {
+                retryOrFail(message, new MailParseException("Adresse email invalide: " + message.getRecipient()), now);
+                continue;
+            }
+            sendable.add(message);
+            messages.add(toMailMessage(message));
+        }
+        if (sendable.isEmpty()) {
+            return;
+        }
+
+        Set<Object> failedMessages = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Object, Exception> failures = Map.of();
+        MailException batchError = null;
+        try {
+            connections.increment();
+            mailSender.send(messages.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            failedMessages.addAll(failures.keySet());
+            batchError = e;
+        } catch (MailParseException | MailPreparationException e) {
+            // Erreur de préparation sans détail par message : chaque email est renvoyé seul
+            logger.warn("Lot de {} email(s) non préparé ({}), envoi un par un", sendable.size(), e.getMessage());
+            sendIndividually(sendable, messages);
+            return;
+        } catch (MailException e) {
+            batchError = e;
+        }
+
+        List<Long> sentIds = new ArrayList<>(sendable.size());
+        now = LocalDateTime.now();
+        for (int i = 0; i < sendable.size(); i++) {
+            EmailOutboxMessage message = sendable.get(i);
+            if (batchError == null || (!failedMessages.isEmpty() && !failedMessages.contains(messages.get(i)))) {
+                sentIds.add(message.getId());
+                continue;
+            }
+            Exception error = failures.getOrDefault(messages.get(i), batchError);
+            retryOrFail(message, error, now);
+        }
+        markSent(sentIds, now);
+    }
+
+    private void sendIndividually(List<EmailOutboxMessage> batch, List<SimpleMailMessage> messages) {
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                connections.increment();
+                mailSender.send(messages.get(i));
+                sentIds.add(batch.get(i).getId());
+            } catch (MailException e) {
+                retryOrFail(batch.get(i), e, LocalDateTime.now());
+            }
+        }
+        markSent(sentIds, LocalDateTime.now());
+    }
+
+    private void markSent(List<Long> sentIds, LocalDateTime now) {
+        if (sentIds.isEmpty()) {
+            return;
+        }
+        emailOutboxRepository.markSent(sentIds, now, EmailOutboxMessage.Status.SENT);
+        sent.add(sentIds.size());
+        logger.debug("{} email(s) envoyé(s) sur une connexion SMTP", sentIds.size());
+    }
+
+    private void retryOrFail(EmailOutboxMessage message, Exception error, LocalDateTime now) {
+        int attempts = message.getAttempts() + 1;
+        String lastError = truncate(error != null ? error.getMessage() : null);
+        boolean permanent = error instanceof MailParseException || error instanceof MailPreparationException;
+        if (permanent || attempts >= Math.max(1, settings.getMaxAttempts())) {
+            emailOutboxRepository.reschedule(message.getId(), EmailOutboxMessage.Status.FAILED, attempts, now, lastError);
+            failed.increment();
+            logger.error("Abandon de l'envoi de l'email {} à {} après {} tentative(s): {}",
+                    message.getId(), message.getRecipient(), attempts, lastError);
+            return;
+        }
+        long backoff = Math.min(settings.getMaxBackoffMs(),
+                settings.getInitialBackoffMs() * (1L << Math.min(20, attempts - 1)));
+        emailOutboxRepository.reschedule(message.getId(), EmailOutboxMessage.Status.PENDING, attempts,
+                now.plusNanos(backoff * 1_000_000L), lastError);
+        retried.increment();
+        logger.warn("Échec de l'envoi de l'email {} à {} (tentative {}), nouvel essai dans {} ms: {}",
+                message.getId(), message.getRecipient(), attempts, backoff, lastError);
+    }
+
+    private SimpleMailMessage toMailMessage(EmailOutboxMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+        mail.setFrom(mailProperties.getFrom());
+        return mail;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > ERROR_MAX_LENGTH ? value.substring(0, ERROR_MAX_LENGTH) : value;
+    }
+}
@@ -0,0 +1,106 @@
+package com.bacoge.constructionmaterial.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modèles des emails transactionnels.
+ *
+ * Chaque corps est découpé une seule fois, au chargement de la classe, en segments
+ * littéraux et en indices de paramètres ({0}, {1}...) : le rendu se limite ensuite
+ * à une concaténation, sans analyse de format à chaque envoi.
+ */
+public enum EmailTemplate {
+
+    WELCOME("Bienvenue chez B&Acoge !",
+            "Bonjour {0} {1},\n\n" +
+            "Bienvenue chez B&Acoge !\n\n" +
+            "Votre compte a été créé avec succès. Vous pouvez maintenant vous connecter et découvrir notre large gamme de matériaux de construction.\n\n" +
+            "Nous sommes ravis de vous compter parmi nos clients et nous nous engageons à vous offrir les meilleurs produits et services.\n\n" +
+            "N'hésitez pas à nous contacter si vous avez des questions.\n\n" +
+            EmailTemplate.SIGNATURE),
+
+    PROFILE_UPDATED("Profil mis à jour - B&Acoge",
+            "Bonjour {0},\n\n" +
+            "Votre profil B&Acoge a été mis à jour avec succès.\n\n" +
+            "Si vous n'êtes pas à l'origine de cette modification, veuillez nous contacter immédiatement.\n\n" +
+            EmailTemplate.SIGNATURE),
+
+    PASSWORD_CHANGED("Mot de passe modifié - B&Acoge",
+            "Bonjour {0},\n\n" +
+            "Votre mot de passe B&Acoge a été modifié avec succès.\n\n" +
+            "Si vous n'êtes pas à l'origine de cette modification, veuillez nous contacter immédiatement pour sécuriser votre compte.\n\n" +
+            EmailTemplate.SIGNATURE),
+
+    ACCOUNT_DEACTIVATED("Compte désactivé - B&Acoge",
+            "Bonjour {0},\n\n" +
+            "Votre compte B&Acoge a été désactivé comme demandé.\n\n" +
+            "Vous pouvez réactiver votre compte à tout moment en nous contactant.\n\n" +
+            "Nous espérons vous revoir bientôt !\n\n" +
+            EmailTemplate.SIGNATURE),
+
+    ACCOUNT_DELETED("Compte supprimé - B&Acoge",
+            "Bonjour {0},\n\n" +
+            "Votre compte B&Acoge a été supprimé définitivement comme demandé.\n\n" +
+            "Toutes vos données ont été effacées de nos systèmes.\n\n" +
+            "Nous vous remercions d'avoir fait confiance à B&Acoge.\n\n" +
+            EmailTemplate.SIGNATURE),
+
+    TWO_FACTOR_ENABLED("Authentification à deux facteurs activée - B&Acoge",
+            "Bonjour {0},\n\n" +
+            "L'authentification à deux facteurs a été activée sur votre compte B&Acoge.\n\n" +
+            "Cette mesure de sécurité supplémentaire protège votre compte contre les accès non autorisés.\n\n" +
+            "Si vous n'êtes pas à l'origine de cette activation, veuillez nous contacter immédiatement.\n\n" +
+            EmailTemplate.SIGNATURE);
+
+    private static final String SIGNATURE =
+            "Cordialement,\n" +
+            "L'équipe B&Acoge\n\n" +
+            "---\n" +
+            "Ceci est un message automatique, merci de ne pas y répondre.";
+
+    private final String subject;
+    private final String[] literals;  // literals[i] précède le paramètre argIndexes[i]
+    private final int[] argIndexes;
+    private final int literalLength;
+
+    EmailTemplate(String subject, String body) {
+        this.subject = subject;
+        List<String> parts = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = body.indexOf('{', start)) >= 0) {
+            int close = body.indexOf('}', open);
+            if (close < 0) {
+                break;
+            }
+            parts.add(body.substring(start, open));
+            indexes.add(Integer.parseInt(body.substring(open + 1, close)));
+            start = close + 1;
+        }
+        parts.add(body.substring(start));
+        this.literals = parts.toArray(new String[0]);
+        this.argIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+        this.literalLength = parts.stream().mapToInt(String::length).sum();
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Corps de l'email avec les paramètres donnés (un paramètre absent ou null est rendu vide)
+     */
+    public String render(Object... args) {
+        StringBuilder body = new StringBuilder(literalLength + 32 * argIndexes.length);
+        for (int i = 0; i < argIndexes.length; i++) {
+            body.append(literals[i]);
+            int index = argIndexes[i];
+            if (args != null && index < args.length && args[index] != null) {
+                body.append(args[index]);
+            }
+        }
+        return body.append(literals[literals.length - 1]).toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.bacoge.constructionmaterial.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Découpage de texte en termes pour la recherche : minuscules, accents et
+ * ligatures supprimés (« Carrelage émaillé » → carrelage, emaille), mots vides
+ * français ignorés et pluriels simples ramenés au singulier.
+ * Le même traitement est appliqué aux documents indexés et aux requêtes.
+ */
+public final class FrenchTextAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "au", "aux", "avec", "ce", "ces", "d", "dans", "de", "des", "du", "en", "et", "l", "la",
+        "le", "les", "leur", "ou", "par", "pour", "sans", "sur", "un", "une", "the", "and", "of"
+    );
+
+    private FrenchTextAnalyzer() {
+    }
+
+    /**
+     * Forme normalisée d'un texte (sans découpage) : minuscules, sans accents
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+        return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Termes d'un texte, dans l'ordre, doublons conservés
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String folded = fold(text);
+        if (folded.isEmpty()) {
+            return tokens;
+        }
+        for (String raw : SEPARATORS.split(folded)) {
+            if (raw.isEmpty() || STOP_WORDS.contains(raw)) {
+                continue;
+            }
+            tokens.add(stem(raw));
+        }
+        return tokens;
+    }
+
+    /**
+     * Pluriels réguliers : carreaux → carreau, briques → brique (les mots courts sont conservés)
+     */
+    static String stem(String token) {
+        if (token.length() > 3 && !Character.isDigit(token.charAt(0))
+                && (token.endsWith("s") || token.endsWith("x"))) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
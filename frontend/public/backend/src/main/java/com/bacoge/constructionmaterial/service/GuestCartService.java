@@ -21,9 +21,11 @@ public class GuestCartService {
     private static final String CART_SESSION_KEY = "guest_cart";
     
     private final ProductRepository productRepository;
+    private final CartPricingService cartPricingService;
     
-    public GuestCartService(ProductRepository productRepository) {
+    public GuestCartService(ProductRepository productRepository, CartPricingService cartPricingService) {
         this.productRepository = productRepository;
+        this.cartPricingService = cartPricingService;
     }
     
     @SuppressWarnings("unchecked")
@@ -48,64 +50,23 @@ public class GuestCartService {
             Map<String, GuestCartItem> cartItems = getCartFromSession(session);
             logger.debug("DEBUG: Récupération des articles du panier - nombre d'articles: {}", cartItems.size());
             
-            CartDto cartDto = new CartDto();
-            cartDto.setId(null); // Pas d'ID pour le panier invité
-            cartDto.setItems(new ArrayList<>());
-            cartDto.setTotalAmount(BigDecimal.ZERO);
-            cartDto.setTotalItems(0);
-            
-            BigDecimal totalAmount = BigDecimal.ZERO;
-            int totalItems = 0;
-            
-            // Create a list to track items to remove (products that no longer exist)
-            List<String> itemsToRemove = new ArrayList<>();
-            
-            for (Map.Entry<String, GuestCartItem> entry : cartItems.entrySet()) {
-                GuestCartItem item = entry.getValue();
-                String itemKey = entry.getKey();
-                
-                logger.debug("DEBUG: Traitement de l'article avec productId: {}", item.getProductId());
-                
-                try {
-                    // Charger le produit avec ses images pour disposer de imageUrl côté front
-                    Product product = productRepository.findByIdWithPromotions(item.getProductId()).orElse(null);
-                    if (product != null && product.getPrice() != null) {
-                        logger.debug("DEBUG: Produit trouvé: {}", product.getName());
-                        CartItemDto itemDto = new CartItemDto();
-                        itemDto.setId(Long.valueOf(item.getId()));
-                        
-                        // Créer un ProductDisplayDto pour le produit
-                        com.bacoge.constructionmaterial.dto.client.ProductDisplayDto productDto = 
-                            com.bacoge.constructionmaterial.dto.client.ProductDisplayDto.fromProduct(product);
-                        itemDto.setProduct(productDto);
-                        
-                        itemDto.setQuantity(item.getQuantity());
-                        itemDto.setUnitPrice(product.getPrice());
-                        itemDto.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-                        
-                        cartDto.getItems().add(itemDto);
-                        totalAmount = totalAmount.add(itemDto.getTotalPrice());
-                        totalItems += item.getQuantity();
-                    } else {
-                        logger.warn("Produit non trouvé ou prix null avec l'ID: {}", item.getProductId());
-                        itemsToRemove.add(itemKey);
-                    }
-                } catch (Exception e) {
-                    logger.error("Erreur lors du traitement du produit ID: {}", item.getProductId(), e);
-                    itemsToRemove.add(itemKey);
-                }
+            // Tous les produits du panier sont chargés en une seule passe
+            List<CartPricingService.CartLine> lines = new ArrayList<>(cartItems.size());
+            for (GuestCartItem item : cartItems.values()) {
+                lines.add(CartPricingService.CartLine.atCurrentPrice(
+                        Long.valueOf(item.getId()), item.getProductId(), item.getQuantity()));
             }
+            CartPricingService.PricedCart priced = cartPricingService.priceCart(lines);
+            CartDto cartDto = priced.cart();
+            cartDto.setId(null); // Pas d'ID pour le panier invité
             
-            // Remove invalid items from cart
-            for (String itemKey : itemsToRemove) {
-                cartItems.remove(itemKey);
-                logger.debug("Removed invalid item from cart: {}", itemKey);
+            // Retirer les articles dont le produit n'existe plus
+            for (Long lineId : priced.unavailableLineIds()) {
+                cartItems.remove(String.valueOf(lineId));
+                logger.warn("Produit non trouvé ou prix null, article retiré du panier: {}", lineId);
             }
             
-            cartDto.setTotalAmount(totalAmount);
-            cartDto.setTotalItems(totalItems);
-            
-            logger.debug("DEBUG: Panier créé avec {} articles, montant total: {}", totalItems, totalAmount);
+            logger.debug("DEBUG: Panier créé avec {} articles, montant total: {}", cartDto.getTotalItems(), cartDto.getTotalAmount());
             return cartDto;
         } catch (Exception e) {
             logger.error("ERROR: Erreur dans getCart de GuestCartService", e);
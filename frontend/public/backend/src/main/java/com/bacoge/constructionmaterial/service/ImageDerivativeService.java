@@ -0,0 +1,379 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.properties.ImagesProperties;
+import com.bacoge.constructionmaterial.model.ProductImage;
+import com.bacoge.constructionmaterial.repository.ProductImageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Génère les copies redimensionnées des images produits (miniature, carte, page produit)
+ * pour que la boutique ne serve plus les originaux (jusqu'à plusieurs Mo) dans les listes.
+ *
+ * Les copies sont des JPEG recompressés, inscrits dans la boîte de chaque variante sans
+ * agrandissement, écrits dans {upload}/derivatives/ et servis par /uploads/derivatives/.
+ * Le traitement est fait par un pool de threads dédié, après le commit quand il est
+ * demandé dans une transaction ; les URLs sont ensuite enregistrées sur ProductImage.
+ * Une demande reçue pendant le traitement de la même image est rejouée à la fin de celui-ci
+ * (les lignes ProductImage créées entre-temps reçoivent aussi leurs URLs) ; des copies déjà
+ * à jour ne sont pas régénérées, seules leurs URLs sont enregistrées.
+ * Tant qu'une copie n'existe pas, ProductImage.urlFor() renvoie l'original.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final String UPLOADS_PREFIX = "/uploads/";
+    private static final String DERIVATIVES_DIR = "derivatives";
+
+    @Value("${app.upload.dir:${user.home}/bacoge-uploads}")
+    private String uploadDir;
+
+    private final ProductImageRepository productImageRepository;
+    private final ImagesProperties imagesProperties;
+    private final ImagesProperties.Derivatives settings;
+
+    private final ThreadPoolTaskExecutor workers = new ThreadPoolTaskExecutor();
+    // Images en cours de traitement → une nouvelle demande est arrivée entre-temps
+    private final ConcurrentHashMap<String, Boolean> inProgress = new ConcurrentHashMap<>();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder unsupported = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    public ImageDerivativeService(ProductImageRepository productImageRepository,
+                                  ImagesProperties imagesProperties) {
+        this.productImageRepository = productImageRepository;
+        this.imagesProperties = imagesProperties;
+        this.settings = imagesProperties.getDerivatives();
+    }
+
+    @PostConstruct
+    void init() {
+        int threads = Math.max(1, settings.getWorkerThreads());
+        workers.setCorePoolSize(threads);
+        workers.setMaxPoolSize(threads);
+        workers.setQueueCapacity(Math.max(1, settings.getQueueCapacity()));
+        workers.setThreadNamePrefix("image-derivatives-");
+        workers.initialize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Demande la génération des copies d'une image téléversée (/uploads/...).
+     * Dans une transaction, la demande n'est transmise qu'après le commit.
+     */
+    public void generateAsync(String imageUrl) {
+        if (!settings.isEnabled() || resolveOriginal(imageUrl) == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(imageUrl);
+                }
+            });
+        } else {
+            submit(imageUrl);
+        }
+    }
+
+    /**
+     * Renseigne les copies déjà générées sur une nouvelle ProductImage (téléversement
+     * antérieur à la création du produit) ; à défaut, demande leur génération.
+     */
+    public void attachDerivatives(ProductImage image) {
+        if (image == null || resolveOriginal(image.getImageUrl()) == null) {
+            return;
+        }
+        Map<ProductImage.Variant, String> urls = existingDerivatives(image.getImageUrl());
+        if (urls.size() == ProductImage.Variant.values().length) {
+            image.setThumbnailUrl(urls.get(ProductImage.Variant.THUMBNAIL));
+            image.setCardUrl(urls.get(ProductImage.Variant.CARD));
+            image.setDetailUrl(urls.get(ProductImage.Variant.DETAIL));
+        } else {
+            generateAsync(image.getImageUrl());
+        }
+    }
+
+    /**
+     * Supprime les copies d'une image (à appeler avec la suppression de l'original)
+     */
+    public void deleteDerivatives(String imageUrl) {
+        if (resolveOriginal(imageUrl) == null) {
+            return;
+        }
+        for (ProductImage.Variant variant : ProductImage.Variant.values()) {
+            try {
+                Files.deleteIfExists(derivativePath(imageUrl, variant));
+            } catch (IOException e) {
+                logger.warn("Impossible de supprimer la copie {} de {}: {}", variant, imageUrl, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Génère en arrière-plan les copies manquantes de toutes les images existantes
+     * @return nombre d'images concernées
+     */
+    public int rebuildMissing() {
+        List<String> imageUrls = productImageRepository.findImageUrlsWithoutDerivatives();
+        if (imageUrls.isEmpty()) {
+            return 0;
+        }
+        // Une seule tâche séquentielle : la file reste disponible pour les téléversements
+        workers.execute(() -> imageUrls.forEach(this::generate));
+        logger.info("Génération des copies manquantes demandée pour {} image(s)", imageUrls.size());
+        return imageUrls.size();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", settings.isEnabled());
+        stats.put("generated", generated.sum());
+        stats.put("unsupported", unsupported.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("originalBytes", bytesIn.sum());
+        stats.put("derivativeBytes", bytesOut.sum());
+        stats.put("queueSize", workers.getQueueSize());
+        stats.put("activeWorkers", workers.getActiveCount());
+        return stats;
+    }
+
+    private void submit(String imageUrl) {
+        try {
+            workers.execute(() -> generate(imageUrl));
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            logger.warn("File de traitement des images pleine, copies de {} non générées", imageUrl);
+        }
+    }
+
+    private void generate(String imageUrl) {
+        boolean[] started = {false};
+        inProgress.compute(imageUrl, (url, rerun) -> {
+            started[0] = rerun == null;
+            return rerun == null ? Boolean.FALSE : Boolean.TRUE;
+        });
+        if (!started[0]) {
+            return;
+        }
+        try {
+            Path original = resolveOriginal(imageUrl);
+            if (original == null || !Files.exists(original)) {
+                return;
+            }
+            Map<ProductImage.Variant, String> existing = upToDateDerivatives(imageUrl, original);
+            if (existing != null) {
+                productImageRepository.updateDerivatives(imageUrl, existing.get(ProductImage.Variant.THUMBNAIL),
+                        existing.get(ProductImage.Variant.CARD), existing.get(ProductImage.Variant.DETAIL));
+                return;
+            }
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null) {
+                // Format sans lecteur ImageIO (WebP...) : l'original reste servi
+                unsupported.increment();
+                logger.debug("Format non pris en charge pour les copies: {}", imageUrl);
+                return;
+            }
+            Files.createDirectories(derivativesDirectory());
+            Map<ProductImage.Variant, String> urls = new EnumMap<>(ProductImage.Variant.class);
+            long written = 0;
+            // De la plus grande variante à la plus petite : chacune est réduite depuis la précédente
+            List<ProductImage.Variant> variants = Arrays.stream(ProductImage.Variant.values())
+                    .sorted(Comparator.comparingLong((ProductImage.Variant v) -> (long) boundingBox(v)[0] * boundingBox(v)[1]).reversed())
+                    .toList();
+            BufferedImage current = source;
+            for (ProductImage.Variant variant : variants) {
+                int[] box = boundingBox(variant);
+                Path target = derivativePath(imageUrl, variant);
+                current = resize(current, box[0], box[1]);
+                writeJpeg(current, target, settings.getJpegQuality());
+                written += Files.size(target);
+                urls.put(variant, derivativeUrl(imageUrl, variant));
+            }
+            productImageRepository.updateDerivatives(imageUrl, urls.get(ProductImage.Variant.THUMBNAIL),
+                    urls.get(ProductImage.Variant.CARD), urls.get(ProductImage.Variant.DETAIL));
+            generated.increment();
+            bytesIn.add(Files.size(original));
+            bytesOut.add(written);
+            logger.debug("Copies générées pour {} ({} octets)", imageUrl, written);
+        } catch (Exception e) {
+            failed.increment();
+            logger.error("Erreur lors de la génération des copies de {}: {}", imageUrl, e.getMessage());
+        } finally {
+            if (Boolean.TRUE.equals(inProgress.remove(imageUrl))) {
+                submit(imageUrl);
+            }
+        }
+    }
+
+    private int[] boundingBox(ProductImage.Variant variant) {
+        return switch (variant) {
+            case THUMBNAIL -> new int[]{imagesProperties.getThumbnail().getWidth(), imagesProperties.getThumbnail().getHeight()};
+            case CARD -> new int[]{settings.getCardWidth(), settings.getCardHeight()};
+            case DETAIL -> new int[]{settings.getDetailWidth(), settings.getDetailHeight()};
+        };
+    }
+
+    // Réduction par demi-étapes successives (qualité proche du bicubique pour un coût bilinéaire),
+    // sans agrandissement ; la transparence est aplatie sur fond blanc (JPEG)
+    static BufferedImage resize(BufferedImage source, int maxWidth, int maxHeight) {
+        double scale = Math.min(1.0, Math.min((double) maxWidth / source.getWidth(), (double) maxHeight / source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = flatten(source);
+        int width = current.getWidth();
+        int height = current.getHeight();
+        while (width != targetWidth || height != targetHeight) {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        }
+        return current;
+    }
+
+    private static BufferedImage flatten(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    // Écriture dans un fichier temporaire puis renommage : une copie n'est jamais servie à moitié écrite
+    static void writeJpeg(BufferedImage image, Path target, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temp = Files.createTempFile(target.getParent(), "derivative-", ".tmp");
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(Math.max(0.1f, Math.min(1f, quality)));
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Map<ProductImage.Variant, String> existingDerivatives(String imageUrl) {
+        Map<ProductImage.Variant, String> urls = new EnumMap<>(ProductImage.Variant.class);
+        for (ProductImage.Variant variant : ProductImage.Variant.values()) {
+            if (Files.exists(derivativePath(imageUrl, variant))) {
+                urls.put(variant, derivativeUrl(imageUrl, variant));
+            }
+        }
+        return urls;
+    }
+
+    // URLs des copies si elles existent toutes et sont plus récentes que l'original, sinon null
+    private Map<ProductImage.Variant, String> upToDateDerivatives(String imageUrl, Path original) throws IOException {
+        Map<ProductImage.Variant, String> urls = existingDerivatives(imageUrl);
+        if (urls.size() != ProductImage.Variant.values().length) {
+            return null;
+        }
+        for (ProductImage.Variant variant : ProductImage.Variant.values()) {
+            if (Files.getLastModifiedTime(derivativePath(imageUrl, variant))
+                    .compareTo(Files.getLastModifiedTime(original)) < 0) {
+                return null;
+            }
+        }
+        return urls;
+    }
+
+    // Fichier original d'une URL /uploads/..., null pour une URL externe ou hors du dossier d'upload
+    private Path resolveOriginal(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(UPLOADS_PREFIX)
+                || imageUrl.startsWith(UPLOADS_PREFIX + DERIVATIVES_DIR + "/")) {
+            return null;
+        }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = root.resolve(imageUrl.substring(UPLOADS_PREFIX.length())).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    private Path derivativesDirectory() {
+        return Paths.get(uploadDir, DERIVATIVES_DIR);
+    }
+
+    private Path derivativePath(String imageUrl, ProductImage.Variant variant) {
+        return derivativesDirectory().resolve(derivativeName(imageUrl, variant));
+    }
+
+    private static String derivativeUrl(String imageUrl, ProductImage.Variant variant) {
+        return UPLOADS_PREFIX + DERIVATIVES_DIR + "/" + derivativeName(imageUrl, variant);
+    }
+
+    // /uploads/sous-dossier/abc.png -> sous-dossier_abc-card.jpg
+    private static String derivativeName(String imageUrl, ProductImage.Variant variant) {
+        String name = imageUrl.substring(UPLOADS_PREFIX.length()).replace('/', '_');
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        return name + "-" + variant.name().toLowerCase() + ".jpg";
+    }
+}
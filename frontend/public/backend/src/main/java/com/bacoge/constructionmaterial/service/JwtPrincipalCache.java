@@ -0,0 +1,91 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.CacheNames;
+import io.jsonwebtoken.Claims;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+
+/**
+ * Cache à durée de vie courte des utilisateurs authentifiés par JWT.
+ *
+ * La clé est le sujet du token (email) associé à sa date d'émission : un même
+ * token ne déclenche qu'une lecture en base par période de validité du cache.
+ * Les entrées d'un utilisateur sont supprimées dès que son mot de passe, son
+ * statut ou son compte changent (voir evictUser).
+ */
+@Service
+public class JwtPrincipalCache {
+
+    private static final String KEY_SEPARATOR = "|";
+
+    private final CacheManager cacheManager;
+    private final UserDetailsService userDetailsService;
+
+    public JwtPrincipalCache(CacheManager cacheManager, UserDetailsService userDetailsService) {
+        this.cacheManager = cacheManager;
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * Retourne l'utilisateur correspondant aux claims d'un token déjà validé
+     */
+    public UserDetails getPrincipal(Claims claims) {
+        String subject = claims.getSubject();
+        Date issuedAt = claims.getIssuedAt();
+        Cache cache = cacheManager.getCache(CacheNames.JWT_PRINCIPALS);
+        if (cache == null || issuedAt == null) {
+            return userDetailsService.loadUserByUsername(subject);
+        }
+
+        String key = subject + KEY_SEPARATOR + issuedAt.getTime();
+        try {
+            return cache.get(key, () -> userDetailsService.loadUserByUsername(subject));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Supprime toutes les entrées d'un utilisateur (quel que soit le token).
+     * Dans une transaction, la suppression est répétée après le commit pour ne pas
+     * conserver une version relue avant que la modification soit visible.
+     */
+    public void evictUser(String email) {
+        if (email == null) {
+            return;
+        }
+        removeEntries(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeEntries(email);
+                }
+            });
+        }
+    }
+
+    private void removeEntries(String email) {
+        Cache cache = cacheManager.getCache(CacheNames.JWT_PRINCIPALS);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            String prefix = email + KEY_SEPARATOR;
+            nativeCache.asMap().keySet().removeIf(key -> key.toString().startsWith(prefix));
+        } else if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.bacoge.constructionmaterial.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -36,18 +38,30 @@ public class JwtService {
     @Value("${app.jwt.admin-expiration-ms:28800000}")
     private Long adminJwtExpiration;
     
-    private Key getSigningKey() {
+    // Clé HMAC et parseur construits une seule fois (immutables, partagés entre threads)
+    private Key signingKey;
+    private JwtParser jwtParser;
+    
+    @PostConstruct
+    void initSigningKey() {
         try {
             if (jwtSecret == null || jwtSecret.trim().isEmpty()) {
                 // Fallback to a secure default if not configured
                 jwtSecret = "MyVerySecureJwtSecretKeyForHS512Algorithm123456789012345678901234";
             }
-            return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+            signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+            jwtParser = Jwts.parserBuilder()
+                    .setSigningKey(signingKey)
+                    .build();
         } catch (Exception e) {
             throw new IllegalStateException("Failed to initialize JWT signing key. Please check the JWT secret configuration.", e);
         }
     }
     
+    private Key getSigningKey() {
+        return signingKey;
+    }
+    
     /**
      * Generate a token with default type (USER_ACCESS)
      */
@@ -126,9 +140,7 @@ public class JwtService {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -158,10 +170,7 @@ public class JwtService {
      */
     public boolean isTokenValid(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
+            jwtParser.parseClaimsJws(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -202,9 +211,7 @@ public class JwtService {
     }
     
     public Claims validateTokenAndGetClaims(String token, String expectedTokenType) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        Claims claims = jwtParser
                 .parseClaimsJws(token)
                 .getBody();
                 
@@ -0,0 +1,228 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.properties.NotificationProperties;
+import com.bacoge.constructionmaterial.model.Notification;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vide la NotificationOutbox à intervalle régulier : les notifications en attente sont
+ * insérées par lots (une instruction JDBC batch par lot), puis poussées via WebSocket.
+ * Le compteur de non-lus n'est mis à jour et envoyé qu'une fois par utilisateur et par lot,
+ * quel que soit le nombre de notifications qu'il reçoit (voir UnreadCounterService).
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final int MAX_BATCHES_PER_RUN = 20;
+    private static final int TITLE_MAX_LENGTH = 255;
+    private static final int MESSAGE_MAX_LENGTH = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO notifications " +
+            "(type, title, message, user_id, related_entity_id, related_entity_type, is_read, priority, " +
+            "action_url, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final NotificationOutbox notificationOutbox;
+    private final JdbcTemplate jdbcTemplate;
+    private final UnreadCounterService unreadCounterService;
+    private final WebSocketNotificationService webSocketNotificationService;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+
+    public NotificationDispatcher(NotificationOutbox notificationOutbox,
+                                  JdbcTemplate jdbcTemplate,
+                                  UnreadCounterService unreadCounterService,
+                                  WebSocketNotificationService webSocketNotificationService,
+                                  NotificationProperties notificationProperties,
+                                  PlatformTransactionManager transactionManager) {
+        this.notificationOutbox = notificationOutbox;
+        this.jdbcTemplate = jdbcTemplate;
+        this.unreadCounterService = unreadCounterService;
+        this.webSocketNotificationService = webSocketNotificationService;
+        this.batchSize = Math.max(1, notificationProperties.getDispatch().getBatchSize());
+        // Transaction propre au lot : un échec annule les lignes déjà insérées avant le repli unitaire
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch.interval-ms:250}")
+    public void dispatch() {
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            List<NotificationOutbox.PendingNotification> batch = notificationOutbox.drain(batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                dispatchBatch(batch);
+            } catch (Exception e) {
+                logger.error("Erreur lors de l'envoi d'un lot de {} notification(s)", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Traite les notifications restantes à l'arrêt de l'application
+     */
+    @PreDestroy
+    public void flush() {
+        try {
+            dispatch();
+        } catch (Exception e) {
+            logger.warn("Notifications en attente non traitées à l'arrêt: {}", notificationOutbox.size());
+        }
+    }
+
+    private void dispatchBatch(List<NotificationOutbox.PendingNotification> batch) {
+        List<Notification> saved = insert(batch);
+
+        Map<Long, Integer> createdPerUser = new LinkedHashMap<>();
+        int createdForAdmins = 0;
+        int sent = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Notification notification = saved.get(i);
+            if (notification == null) {
+                continue;
+            }
+            NotificationOutbox.PendingNotification pending = batch.get(i);
+            if (pending.isForAdmins()) {
+                webSocketNotificationService.sendNotificationToAdmins(notification);
+                createdForAdmins++;
+            } else {
+                webSocketNotificationService.sendNotificationToClient(pending.userId(), notification);
+                createdPerUser.merge(pending.userId(), 1, Integer::sum);
+            }
+            sent++;
+        }
+
+        // Un seul envoi du compteur par utilisateur pour tout le lot
+        unreadCounterService.notificationsCreated(createdPerUser, createdForAdmins);
+        logger.debug("Lot de {} notification(s) traité ({} utilisateur(s) notifié(s))", sent, createdPerUser.size());
+    }
+
+    // Insertion du lot en une instruction batch, dans sa propre transaction : avec
+    // rewriteBatchedStatements, un lot en échec peut avoir inséré une partie des lignes, annulées
+    // par le rollback avant l'insertion ligne par ligne (sinon ces notifications seraient en double).
+    // Le résultat est aligné sur le lot (null pour une notification qui n'a pas pu être enregistrée).
+    private List<Notification> insert(List<NotificationOutbox.PendingNotification> batch) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            batchTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bind(ps, batch.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    },
+                    keyHolder));
+        } catch (Exception e) {
+            logger.warn("Insertion groupée des notifications impossible, insertion unitaire: {}", e.getMessage());
+            return insertOneByOne(batch);
+        }
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Notification> saved = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Long id = i < keys.size() ? firstKey(keys.get(i)) : null;
+            saved.add(toNotification(batch.get(i), id));
+        }
+        return saved;
+    }
+
+    private List<Notification> insertOneByOne(List<NotificationOutbox.PendingNotification> batch) {
+        List<Notification> saved = new ArrayList<>(batch.size());
+        for (NotificationOutbox.PendingNotification pending : batch) {
+            try {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                    bind(ps, pending);
+                    return ps;
+                }, keyHolder);
+                saved.add(toNotification(pending, keyHolder.getKeyList().isEmpty() ? null : firstKey(keyHolder.getKeyList().get(0))));
+            } catch (Exception e) {
+                logger.error("Notification ignorée ({} - {}): {}", pending.type(), pending.title(), e.getMessage());
+                saved.add(null);
+            }
+        }
+        return saved;
+    }
+
+    private void bind(PreparedStatement ps, NotificationOutbox.PendingNotification pending) throws SQLException {
+        ps.setString(1, pending.type().name());
+        ps.setString(2, truncate(pending.title(), TITLE_MAX_LENGTH));
+        ps.setString(3, truncate(pending.message(), MESSAGE_MAX_LENGTH));
+        setLong(ps, 4, pending.userId());
+        setLong(ps, 5, pending.relatedEntityId());
+        ps.setString(6, pending.relatedEntityType());
+        ps.setBoolean(7, false);
+        ps.setString(8, pending.priority().name());
+        ps.setString(9, pending.actionUrl());
+        ps.setTimestamp(10, Timestamp.valueOf(pending.createdAt()));
+        if (pending.expiresAt() != null) {
+            ps.setTimestamp(11, Timestamp.valueOf(pending.expiresAt()));
+        } else {
+            ps.setNull(11, Types.TIMESTAMP);
+        }
+    }
+
+    private Notification toNotification(NotificationOutbox.PendingNotification pending, Long id) {
+        Notification notification = new Notification(pending.type(), truncate(pending.title(), TITLE_MAX_LENGTH),
+                truncate(pending.message(), MESSAGE_MAX_LENGTH), pending.priority());
+        notification.setId(id);
+        notification.setRelatedEntityId(pending.relatedEntityId());
+        notification.setRelatedEntityType(pending.relatedEntityType());
+        notification.setActionUrl(pending.actionUrl());
+        notification.setCreatedAt(pending.createdAt());
+        notification.setExpiresAt(pending.expiresAt());
+        return notification;
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private static Long firstKey(Map<String, Object> key) {
+        for (Object value : key.values()) {
+            if (value instanceof Number number) {
+                return number.longValue();
+            }
+        }
+        return null;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -0,0 +1,116 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.properties.NotificationProperties;
+import com.bacoge.constructionmaterial.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File d'attente des notifications à créer.
+ *
+ * Les services y ajoutent des notifications (non enregistrées) pendant leur transaction ;
+ * elles ne sont transmises au NotificationDispatcher qu'après le commit, et abandonnées
+ * si la transaction est annulée. L'enregistrement en base et l'envoi WebSocket se font
+ * ensuite hors de la transaction métier (commande, paiement...).
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    /**
+     * Copie immuable d'une notification en attente (sans référence à des entités gérées)
+     */
+    public record PendingNotification(Long userId,
+                                      Notification.NotificationType type,
+                                      String title,
+                                      String message,
+                                      Long relatedEntityId,
+                                      String relatedEntityType,
+                                      Notification.NotificationPriority priority,
+                                      String actionUrl,
+                                      LocalDateTime createdAt,
+                                      LocalDateTime expiresAt) {
+
+        public boolean isForAdmins() {
+            return userId == null;
+        }
+
+        static PendingNotification of(Notification notification) {
+            return new PendingNotification(
+                    notification.getRelatedUser() != null ? notification.getRelatedUser().getId() : null,
+                    notification.getType() != null ? notification.getType() : Notification.NotificationType.SYSTEM_UPDATE,
+                    notification.getTitle() != null ? notification.getTitle() : "Notification",
+                    notification.getMessage() != null ? notification.getMessage() : "",
+                    notification.getRelatedEntityId(),
+                    notification.getRelatedEntityType(),
+                    notification.getPriority() != null ? notification.getPriority() : Notification.NotificationPriority.MEDIUM,
+                    notification.getActionUrl(),
+                    notification.getCreatedAt() != null ? notification.getCreatedAt() : LocalDateTime.now(),
+                    notification.getExpiresAt());
+        }
+    }
+
+    private final BlockingQueue<PendingNotification> queue;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public NotificationOutbox(NotificationProperties notificationProperties) {
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, notificationProperties.getDispatch().getQueueCapacity()));
+    }
+
+    /**
+     * Ajoute une notification ; elle sera créée après le commit de la transaction courante
+     * (immédiatement prise en charge s'il n'y a pas de transaction)
+     */
+    public void append(Notification notification) {
+        if (notification == null) {
+            return;
+        }
+        PendingNotification pending = PendingNotification.of(notification);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(pending);
+                }
+            });
+        } else {
+            enqueue(pending);
+        }
+    }
+
+    /**
+     * Retire jusqu'à maxItems notifications de la file
+     */
+    public List<PendingNotification> drain(int maxItems) {
+        List<PendingNotification> batch = new ArrayList<>(Math.min(maxItems, queue.size()));
+        queue.drainTo(batch, maxItems);
+        return batch;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void enqueue(PendingNotification pending) {
+        if (!queue.offer(pending)) {
+            long total = dropped.incrementAndGet();
+            logger.warn("File de notifications pleine, notification ignorée ({} au total): {} - {}",
+                    total, pending.type(), pending.title());
+        }
+    }
+}
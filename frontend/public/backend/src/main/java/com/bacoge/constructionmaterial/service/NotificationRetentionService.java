@@ -0,0 +1,194 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.properties.NotificationProperties;
+import com.bacoge.constructionmaterial.model.Notification;
+import com.bacoge.constructionmaterial.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Purge planifiée de la table notifications :
+ * - notifications expirées (expires_at dépassé) ;
+ * - notifications lues depuis plus de app.notifications.retention.read-retention-days ;
+ * - notifications d'un type plus anciennes que app.notifications.retention.type-retention-days[TYPE].
+ *
+ * Chaque critère est traité par tranches : on lit les N premiers ids concernés (par ordre
+ * croissant, à partir du dernier id traité) puis on supprime la plage d'ids correspondante
+ * en revérifiant le critère. Chaque tranche est une transaction courte qui ne verrouille
+ * qu'une plage de clés primaires, au lieu d'un DELETE sur toute la table.
+ */
+@Service
+public class NotificationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private static final String EXPIRED = "expired";
+    private static final String READ = "read";
+    private static final String TYPE_PREFIX = "type:";
+
+    @FunctionalInterface
+    private interface IdFinder {
+        List<Long> findAfter(Long afterId, Pageable pageable);
+    }
+
+    @FunctionalInterface
+    private interface RangeDeleter {
+        int delete(Long fromId, Long toId);
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final UnreadCounterService unreadCounterService;
+    private final NotificationProperties.Retention settings;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, LongAdder> purged = new ConcurrentHashMap<>();
+    private final LongAdder runs = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunMillis;
+    private volatile long lastRunDeleted;
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        UnreadCounterService unreadCounterService,
+                                        NotificationProperties notificationProperties) {
+        this.notificationRepository = notificationRepository;
+        this.unreadCounterService = unreadCounterService;
+        this.settings = notificationProperties.getRetention();
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.retention.interval-ms:900000}", initialDelay = 60_000)
+    public void scheduledPurge() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        try {
+            purgeAll();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la purge des notifications", e);
+        }
+    }
+
+    /**
+     * Applique toutes les règles de conservation
+     * @return nombre de notifications supprimées par critère (vide si une purge est déjà en cours)
+     */
+    public Map<String, Long> purgeAll() {
+        Map<String, Long> deleted = new LinkedHashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Purge des notifications déjà en cours");
+            return deleted;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            deleted.put(EXPIRED, purgeExpired(now));
+
+            if (settings.getReadRetentionDays() > 0) {
+                LocalDateTime readBefore = now.minusDays(settings.getReadRetentionDays());
+                deleted.put(READ, purge(READ,
+                        (afterId, page) -> notificationRepository.findReadBeforeIdsAfter(readBefore, afterId, page),
+                        (fromId, toId) -> notificationRepository.deleteReadBeforeInRange(fromId, toId, readBefore)));
+            }
+
+            for (Map.Entry<Notification.NotificationType, Integer> rule : settings.getTypeRetentionDays().entrySet()) {
+                if (rule.getKey() == null || rule.getValue() == null || rule.getValue() <= 0) {
+                    continue;
+                }
+                Notification.NotificationType type = rule.getKey();
+                LocalDateTime createdBefore = now.minusDays(rule.getValue());
+                deleted.put(TYPE_PREFIX + type.name(), purge(TYPE_PREFIX + type.name(),
+                        (afterId, page) -> notificationRepository.findByTypeCreatedBeforeIdsAfter(type, createdBefore, afterId, page),
+                        (fromId, toId) -> notificationRepository.deleteByTypeCreatedBeforeInRange(fromId, toId, type, createdBefore)));
+            }
+
+            long total = deleted.values().stream().mapToLong(Long::longValue).sum();
+            // Des notifications non lues ont pu disparaître (expiration, règle par type)
+            if (total - deleted.getOrDefault(READ, 0L) > 0) {
+                unreadCounterService.invalidateNotifications();
+            }
+            lastRunDeleted = total;
+            if (total > 0) {
+                logger.info("Purge des notifications: {} ligne(s) supprimée(s) {}", total, deleted);
+            }
+            return deleted;
+        } finally {
+            runs.increment();
+            lastRunAt = LocalDateTime.now();
+            lastRunMillis = System.currentTimeMillis() - start;
+            running.set(false);
+        }
+    }
+
+    /**
+     * Supprime les notifications expirées par tranches
+     */
+    public long purgeExpired(LocalDateTime now) {
+        return purge(EXPIRED,
+                (afterId, page) -> notificationRepository.findExpiredIdsAfter(now, afterId, page),
+                (fromId, toId) -> notificationRepository.deleteExpiredInRange(fromId, toId, now));
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", settings.isEnabled());
+        stats.put("running", running.get());
+        stats.put("runs", runs.sum());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("lastRunDeleted", lastRunDeleted);
+        Map<String, Long> totals = new LinkedHashMap<>();
+        purged.forEach((criterion, count) -> totals.put(criterion, count.sum()));
+        stats.put("purged", totals);
+        stats.put("chunkSize", settings.getChunkSize());
+        stats.put("readRetentionDays", settings.getReadRetentionDays());
+        stats.put("typeRetentionDays", settings.getTypeRetentionDays());
+        return stats;
+    }
+
+    private long purge(String criterion, IdFinder finder, RangeDeleter deleter) {
+        int chunkSize = Math.max(1, settings.getChunkSize());
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        long afterId = 0L;
+        long total = 0;
+        for (int i = 0; i < Math.max(1, settings.getMaxChunksPerRun()); i++) {
+            List<Long> ids = finder.findAfter(afterId, chunk);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Long fromId = ids.get(0);
+            Long toId = ids.get(ids.size() - 1);
+            total += deleter.delete(fromId, toId);
+            afterId = toId;
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            pause();
+        }
+        if (total > 0) {
+            purged.computeIfAbsent(criterion, c -> new LongAdder()).add(total);
+        }
+        return total;
+    }
+
+    private void pause() {
+        if (settings.getPauseMs() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(settings.getPauseMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -27,13 +27,22 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final WebSocketNotificationService webSocketNotificationService;
+    private final NotificationOutbox notificationOutbox;
+    private final UnreadCounterService unreadCounterService;
+    private final NotificationRetentionService notificationRetentionService;
 
     public NotificationService(NotificationRepository notificationRepository,
                                UserRepository userRepository,
-                               WebSocketNotificationService webSocketNotificationService) {
+                               WebSocketNotificationService webSocketNotificationService,
+                               NotificationOutbox notificationOutbox,
+                               UnreadCounterService unreadCounterService,
+                               NotificationRetentionService notificationRetentionService) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
         this.webSocketNotificationService = webSocketNotificationService;
+        this.notificationOutbox = notificationOutbox;
+        this.unreadCounterService = unreadCounterService;
+        this.notificationRetentionService = notificationRetentionService;
     }
     
     /**
@@ -54,12 +63,8 @@ public class NotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
 
-            Notification saved = notificationRepository.save(notification);
-            // Broadcast to client
-            try { webSocketNotificationService.sendNotificationToClient(order.getUser().getId(), saved); } catch (Exception ignore) {}
-            // Update client unread count
-            long unread = notificationRepository.countByRelatedUserIdAndIsReadFalse(order.getUser().getId());
-            try { webSocketNotificationService.sendUserNotificationCount(order.getUser().getId(), unread); } catch (Exception ignore) {}
+            // Enregistrement et envoi WebSocket après le commit, par le NotificationDispatcher
+            notificationOutbox.append(notification);
         } catch (Exception e) {
             logger.error("Erreur lors de l'envoi de la notification de création de commande", e);
         }
@@ -83,10 +88,7 @@ public class NotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
 
-            Notification saved = notificationRepository.save(notification);
-            try { webSocketNotificationService.sendNotificationToClient(order.getUser().getId(), saved); } catch (Exception ignore) {}
-            long unread = notificationRepository.countByRelatedUserIdAndIsReadFalse(order.getUser().getId());
-            try { webSocketNotificationService.sendUserNotificationCount(order.getUser().getId(), unread); } catch (Exception ignore) {}
+            notificationOutbox.append(notification);
         } catch (Exception e) {
             logger.error("Erreur lors de l'envoi de la notification de statut de commande", e);
         }
@@ -110,10 +112,7 @@ public class NotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
 
-            Notification saved = notificationRepository.save(notification);
-            try { webSocketNotificationService.sendNotificationToClient(order.getUser().getId(), saved); } catch (Exception ignore) {}
-            long unread = notificationRepository.countByRelatedUserIdAndIsReadFalse(order.getUser().getId());
-            try { webSocketNotificationService.sendUserNotificationCount(order.getUser().getId(), unread); } catch (Exception ignore) {}
+            notificationOutbox.append(notification);
         } catch (Exception e) {
             logger.error("Erreur lors de l'envoi de la notification de paiement", e);
         }
@@ -153,10 +152,7 @@ public class NotificationService {
             notification.setCreatedAt(LocalDateTime.now());
             notification.setExpiresAt(LocalDateTime.now().plusDays(30));
 
-            Notification saved = notificationRepository.save(notification);
-            try { webSocketNotificationService.sendNotificationToClient(user.getId(), saved); } catch (Exception ignore) {}
-            long unread = notificationRepository.countByRelatedUserIdAndIsReadFalse(user.getId());
-            try { webSocketNotificationService.sendUserNotificationCount(user.getId(), unread); } catch (Exception ignore) {}
+            notificationOutbox.append(notification);
         } catch (Exception e) {
             logger.error("Erreur lors de l'envoi de la notification d'inscription", e);
         }
@@ -166,14 +162,13 @@ public class NotificationService {
     public int markAllAsRead(Long userId) {
         if (userId == null) return 0;
         int updated = notificationRepository.markAllAsReadForUser(userId);
-        long unread = notificationRepository.countByRelatedUserIdAndIsReadFalse(userId);
-        try { webSocketNotificationService.sendUserNotificationCount(userId, unread); } catch (Exception ignore) {}
+        unreadCounterService.resetUserNotifications(userId);
         return updated;
     }
     
     public Integer getUnreadCount(Long userId) {
         if (userId == null) return 0;
-        return (int) notificationRepository.countByRelatedUserIdAndIsReadFalse(userId);
+        return (int) unreadCounterService.getUserNotifications(userId);
     }
     
     public Notification createNotification(Notification.NotificationType type,
@@ -196,8 +191,7 @@ public class NotificationService {
 
             Notification saved = notificationRepository.save(notification);
             try { webSocketNotificationService.sendNotificationToClient(user.getId(), saved); } catch (Exception ignore) {}
-            long unread = notificationRepository.countByRelatedUserIdAndIsReadFalse(user.getId());
-            try { webSocketNotificationService.sendUserNotificationCount(user.getId(), unread); } catch (Exception ignore) {}
+            unreadCounterService.adjustUserNotifications(user.getId(), 1);
             return saved;
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la notification", e);
@@ -220,10 +214,7 @@ public class NotificationService {
             n.setRelatedUser(user);
             n.setPriority(Notification.NotificationPriority.MEDIUM);
             n.setCreatedAt(LocalDateTime.now());
-            Notification saved = notificationRepository.save(n);
-            try { webSocketNotificationService.sendNotificationToClient(userId, saved); } catch (Exception ignore) {}
-            long unread = notificationRepository.countByRelatedUserIdAndIsReadFalse(userId);
-            try { webSocketNotificationService.sendUserNotificationCount(userId, unread); } catch (Exception ignore) {}
+            notificationOutbox.append(n);
         });
     }
     
@@ -268,12 +259,20 @@ public class NotificationService {
     @Transactional
     public int deleteAllUserNotifications(Long userId) {
         if (userId == null) return 0;
-        return notificationRepository.deleteAllByUserId(userId);
+        int deleted = notificationRepository.deleteAllByUserId(userId);
+        unreadCounterService.resetUserNotifications(userId);
+        return deleted;
     }
     
-    @Transactional
+    /**
+     * Supprime les notifications expirées, par tranches (voir NotificationRetentionService)
+     */
     public int deleteExpiredNotifications() {
-        return notificationRepository.deleteExpiredNotifications(LocalDateTime.now());
+        long deleted = notificationRetentionService.purgeExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            unreadCounterService.invalidateNotifications();
+        }
+        return (int) deleted;
     }
     
     @Transactional
@@ -287,8 +286,9 @@ public class NotificationService {
                 notificationRepository.save(n);
                 Long userId = n.getRelatedUser() != null ? n.getRelatedUser().getId() : null;
                 if (userId != null) {
-                    long unread = notificationRepository.countByRelatedUserIdAndIsReadFalse(userId);
-                    try { webSocketNotificationService.sendUserNotificationCount(userId, unread); } catch (Exception ignore) {}
+                    unreadCounterService.adjustUserNotifications(userId, -1);
+                } else {
+                    unreadCounterService.adjustAdminNotifications(-1);
                 }
             }
         }
@@ -1,20 +1,49 @@
 package com.bacoge.constructionmaterial.service;
 
+import com.bacoge.constructionmaterial.config.CacheNames;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
+/**
+ * Client du modèle de langage (API compatible OpenAI : OpenAI, Ollama, serveur de test local).
+ *
+ * - client HTTP JDK partagé (connexions réutilisées), délais de connexion et de réponse ;
+ * - appels asynchrones : aucun thread Tomcat n'attend la fin de la génération ;
+ * - nombre d'appels simultanés borné : au-delà, réponse immédiate "assistant occupé" ;
+ * - réponses mises en cache par question normalisée (casse, accents et espaces seulement)
+ *   et par contexte produits : une même question sur les mêmes produits n'est générée qu'une fois.
+ */
 @Service
 public class OpenAIService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OpenAIService.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static final String BUSY_MESSAGE = "L'assistant est très sollicité en ce moment, merci de réessayer dans quelques instants.";
+    static final String NO_RESPONSE_MESSAGE = "Désolé, je n'ai pas pu générer de réponse.";
+
     @Value("${openai.api.key}")
     private String apiKey;
 
@@ -22,26 +51,191 @@ public class OpenAIService {
     @Value("${openai.model:gpt-3.5-turbo}")
     private String modelId;
 
-    private final RestTemplate restTemplate = new RestTemplate();
     @Value("${openai.api.url:https://api.openai.com/v1/chat/completions}")
     private String apiUrl;
 
+    @Value("${openai.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${openai.request-timeout-ms:60000}")
+    private long requestTimeoutMs;
+
+    @Value("${openai.max-concurrent-requests:8}")
+    private int maxConcurrentRequests;
+
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    private HttpClient httpClient;
+    private Semaphore permits;
+
+    public OpenAIService(ObjectMapper objectMapper, CacheManager cacheManager) {
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+    }
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        permits = new Semaphore(Math.max(1, maxConcurrentRequests));
+    }
+
+    public long getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    /**
+     * Version bloquante, conservée pour les appels internes
+     */
     public String getChatResponse(String userMessage, String contextInfo) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
+        return getChatResponseAsync(userMessage, contextInfo).join();
+    }
+
+    /**
+     * Réponse complète du modèle ; le futur se termine toujours normalement (message d'erreur en cas d'échec)
+     */
+    public CompletableFuture<String> getChatResponseAsync(String userMessage, String contextInfo) {
+        String cacheKey = cacheKey(userMessage, contextInfo);
+        String cached = getCached(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (!permits.tryAcquire()) {
+            logger.warn("Appel au modèle refusé: {} requête(s) déjà en cours", maxConcurrentRequests);
+            return CompletableFuture.completedFuture(BUSY_MESSAGE);
+        }
+
+        HttpRequest request;
+        try {
+            request = buildRequest(userMessage, contextInfo, false);
+        } catch (Exception e) {
+            permits.release();
+            return CompletableFuture.completedFuture(errorMessage(e));
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    String content = parseContent(response);
+                    if (content != null) {
+                        putCached(cacheKey, content);
+                        return content;
+                    }
+                    return NO_RESPONSE_MESSAGE;
+                })
+                .exceptionally(this::errorMessage)
+                .whenComplete((result, error) -> permits.release());
+    }
+
+    /**
+     * Réponse du modèle transmise morceau par morceau (stream: true).
+     * @param onToken appelé pour chaque fragment de texte reçu
+     * @return futur du texte complet ; se termine toujours normalement (message d'erreur en cas d'échec)
+     */
+    public CompletableFuture<String> streamChatResponse(String userMessage, String contextInfo, Consumer<String> onToken) {
+        String cacheKey = cacheKey(userMessage, contextInfo);
+        String cached = getCached(cacheKey);
+        if (cached != null) {
+            onToken.accept(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (!permits.tryAcquire()) {
+            logger.warn("Appel au modèle (flux) refusé: {} requête(s) déjà en cours", maxConcurrentRequests);
+            onToken.accept(BUSY_MESSAGE);
+            return CompletableFuture.completedFuture(BUSY_MESSAGE);
+        }
+
+        HttpRequest request;
+        try {
+            request = buildRequest(userMessage, contextInfo, true);
+        } catch (Exception e) {
+            permits.release();
+            String error = errorMessage(e);
+            onToken.accept(error);
+            return CompletableFuture.completedFuture(error);
+        }
+        StreamSubscriber subscriber = new StreamSubscriber(onToken);
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber))
+                .thenApply(response -> {
+                    if (response.statusCode() >= 400) {
+                        throw new IllegalStateException("HTTP " + response.statusCode());
+                    }
+                    String content = subscriber.content.toString();
+                    if (content.isEmpty()) {
+                        onToken.accept(NO_RESPONSE_MESSAGE);
+                        return NO_RESPONSE_MESSAGE;
+                    }
+                    putCached(cacheKey, content);
+                    return content;
+                })
+                .exceptionally(e -> {
+                    String error = errorMessage(e);
+                    onToken.accept(error);
+                    return error;
+                })
+                .whenComplete((result, error) -> permits.release());
+    }
+
+    /**
+     * Lit les lignes "data: {...}" d'un flux SSE compatible OpenAI
+     */
+    private class StreamSubscriber implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onToken;
+        private final StringBuilder content = new StringBuilder();
+
+        StreamSubscriber(Consumer<String> onToken) {
+            this.onToken = onToken;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || "[DONE]".equals(data)) {
+                return;
+            }
+            try {
+                JsonNode delta = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+                if (delta.isTextual() && !delta.asText().isEmpty()) {
+                    content.append(delta.asText());
+                    onToken.accept(delta.asText());
+                }
+            } catch (Exception e) {
+                logger.debug("Fragment de flux ignoré: {}", data);
+            }
+        }
 
+        @Override
+        public void onError(Throwable throwable) {
+            // Propagé par le futur de sendAsync
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private HttpRequest buildRequest(String userMessage, String contextInfo, boolean stream) throws Exception {
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("model", modelId);
-        
+
         Map<String, String> message = new HashMap<>();
         message.put("role", "user");
         message.put("content", userMessage);
-        
+
         // Add system prompt to maintain persona
         Map<String, String> systemMessage = new HashMap<>();
         systemMessage.put("role", "system");
-        
+
         String systemContent = "Tu es l'assistant de 'Atmo Design'. Tu dois être concis, précis et direct (max 3 phrases).";
         if (contextInfo != null && !contextInfo.isEmpty()) {
             systemContent += "\n\nVoici les produits disponibles en stock (utilise UNIQUEMENT ceux-ci si pertinent) :\n" + contextInfo;
@@ -49,28 +243,61 @@ public class OpenAIService {
         } else {
             systemContent += "\nSi tu ne connais pas la réponse ou le produit, dis simplement que tu ne sais pas.";
         }
-        
+
         systemMessage.put("content", systemContent);
 
         requestBody.put("messages", List.of(systemMessage, message));
         requestBody.put("temperature", 0.7);
+        if (stream) {
+            requestBody.put("stream", true);
+        }
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+        return HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody)))
+                .build();
+    }
 
+    private String parseContent(HttpResponse<String> response) {
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(apiUrl, request, Map.class);
-            if (response.getBody() != null && response.getBody().containsKey("choices")) {
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) response.getBody().get("choices");
-                if (!choices.isEmpty()) {
-                    Map<String, Object> messageObj = (Map<String, Object>) choices.get(0).get("message");
-                    return (String) messageObj.get("content");
-                }
-            }
+            JsonNode content = objectMapper.readTree(response.body()).path("choices").path(0).path("message").path("content");
+            return content.isTextual() ? content.asText() : null;
         } catch (Exception e) {
-            e.printStackTrace();
-            return "Désolé, je rencontre des difficultés techniques pour le moment (" + e.getMessage() + ").";
+            throw new IllegalStateException("Réponse illisible du modèle", e);
+        }
+    }
+
+    private String errorMessage(Throwable e) {
+        Throwable cause = e.getCause() != null && e instanceof CompletionException ? e.getCause() : e;
+        logger.error("Erreur lors de l'appel au modèle de langage", cause);
+        String detail = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return "Désolé, je rencontre des difficultés techniques pour le moment (" + detail + ").";
+    }
+
+    // Clé : question entière (minuscules, sans accents, espaces réduits ; ordre des mots et négations
+    // conservés) et empreinte du contexte produits (prix et disponibilités)
+    private static String cacheKey(String userMessage, String contextInfo) {
+        String question = WHITESPACE.matcher(FrenchTextAnalyzer.fold(userMessage)).replaceAll(" ").trim();
+        if (question.isEmpty()) {
+            return null;
+        }
+        return question + "|" + (contextInfo != null ? contextInfo.hashCode() : 0);
+    }
+
+    private String getCached(String key) {
+        Cache cache = key != null ? cacheManager.getCache(CacheNames.CHATBOT_RESPONSES) : null;
+        return cache != null ? cache.get(key, String.class) : null;
+    }
+
+    private void putCached(String key, String content) {
+        Cache cache = key != null ? cacheManager.getCache(CacheNames.CHATBOT_RESPONSES) : null;
+        if (cache != null) {
+            cache.put(key, content);
         }
-        
-        return "Désolé, je n'ai pas pu générer de réponse.";
     }
 }
@@ -1,6 +1,7 @@
 package com.bacoge.constructionmaterial.service;
 
 import com.bacoge.constructionmaterial.model.Order;
+import com.bacoge.constructionmaterial.model.OrderDailyStats;
 import com.bacoge.constructionmaterial.model.Product;
 import com.bacoge.constructionmaterial.model.User;
 import com.bacoge.constructionmaterial.repository.OrderRepository;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.HashMap;
@@ -28,42 +30,34 @@ public class OptimizedDashboardService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final OrderStatsRollupService orderStatsRollupService;
 
     @Autowired
     public OptimizedDashboardService(OrderRepository orderRepository,
                                    UserRepository userRepository,
-                                   ProductRepository productRepository) {
+                                   ProductRepository productRepository,
+                                   OrderStatsRollupService orderStatsRollupService) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
+        this.orderStatsRollupService = orderStatsRollupService;
     }
 
     /**
-     * Récupère toutes les statistiques des commandes en une seule requête
+     * Récupère toutes les statistiques des commandes depuis les agrégats journaliers
      */
     @Cacheable(value = "dashboard-stats", key = "'order-stats-batch'")
     public Map<String, Object> getOrderStatsBatch() {
-        Object[] stats = orderRepository.getOrderStatsBatch();
+        OrderDailyStats stats = orderStatsRollupService.getTotals();
         Map<String, Object> orderStats = new HashMap<>();
         
-        if (stats != null && stats.length >= 7) {
-            orderStats.put("total", ((Number) stats[0]).longValue());
-            orderStats.put("pending", ((Number) stats[1]).longValue());
-            orderStats.put("confirmed", ((Number) stats[2]).longValue());
-            orderStats.put("processing", ((Number) stats[3]).longValue());
-            orderStats.put("shipped", ((Number) stats[4]).longValue());
-            orderStats.put("delivered", ((Number) stats[5]).longValue());
-            orderStats.put("cancelled", ((Number) stats[6]).longValue());
-        } else {
-            // Valeurs par défaut en cas d'erreur
-            orderStats.put("total", 0L);
-            orderStats.put("pending", 0L);
-            orderStats.put("confirmed", 0L);
-            orderStats.put("processing", 0L);
-            orderStats.put("shipped", 0L);
-            orderStats.put("delivered", 0L);
-            orderStats.put("cancelled", 0L);
-        }
+        orderStats.put("total", stats.getOrdersCount());
+        orderStats.put("pending", stats.getPendingCount());
+        orderStats.put("confirmed", stats.getConfirmedCount());
+        orderStats.put("processing", stats.getProcessingCount());
+        orderStats.put("shipped", stats.getShippedCount());
+        orderStats.put("delivered", stats.getDeliveredCount());
+        orderStats.put("cancelled", stats.getCancelledCount());
         
         return orderStats;
     }
@@ -131,36 +125,28 @@ public class OptimizedDashboardService {
      */
     @Cacheable(value = "dashboard-stats", key = "'revenue-comparison'")
     public Map<String, Object> getRevenueComparison() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime currentMonthStart = now.withDayOfMonth(1).with(LocalTime.MIN);
-        LocalDateTime previousMonthStart = currentMonthStart.minusMonths(1);
-        LocalDateTime nextMonthStart = currentMonthStart.plusMonths(1);
+        LocalDate currentMonthStart = LocalDate.now().withDayOfMonth(1);
+        LocalDate previousMonthStart = currentMonthStart.minusMonths(1);
         
-        Object[] revenueStats = orderRepository.getCurrentAndPreviousMonthRevenue(
-            previousMonthStart, currentMonthStart, nextMonthStart);
+        BigDecimal currentRevenue = orderStatsRollupService
+            .getTotalsBetween(currentMonthStart, currentMonthStart.plusMonths(1).minusDays(1))
+            .getDeliveredRevenue();
+        BigDecimal previousRevenue = orderStatsRollupService
+            .getTotalsBetween(previousMonthStart, currentMonthStart.minusDays(1))
+            .getDeliveredRevenue();
         
         Map<String, Object> revenueComparison = new HashMap<>();
-        
-        if (revenueStats != null && revenueStats.length >= 2) {
-            BigDecimal currentRevenue = revenueStats[0] != null ? (BigDecimal) revenueStats[0] : BigDecimal.ZERO;
-            BigDecimal previousRevenue = revenueStats[1] != null ? (BigDecimal) revenueStats[1] : BigDecimal.ZERO;
-            
-            revenueComparison.put("currentMonth", currentRevenue);
-            revenueComparison.put("previousMonth", previousRevenue);
-            
-            // Calcul du taux de croissance
-            double growthRate = 0.0;
-            if (previousRevenue.compareTo(BigDecimal.ZERO) > 0) {
-                growthRate = currentRevenue.subtract(previousRevenue)
-                    .divide(previousRevenue, 4, java.math.RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
-            }
-            revenueComparison.put("growthRate", growthRate);
-        } else {
-            revenueComparison.put("currentMonth", BigDecimal.ZERO);
-            revenueComparison.put("previousMonth", BigDecimal.ZERO);
-            revenueComparison.put("growthRate", 0.0);
+        revenueComparison.put("currentMonth", currentRevenue);
+        revenueComparison.put("previousMonth", previousRevenue);
+        
+        // Calcul du taux de croissance
+        double growthRate = 0.0;
+        if (previousRevenue.compareTo(BigDecimal.ZERO) > 0) {
+            growthRate = currentRevenue.subtract(previousRevenue)
+                .divide(previousRevenue, 4, java.math.RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100)).doubleValue();
         }
+        revenueComparison.put("growthRate", growthRate);
         
         return revenueComparison;
     }
@@ -213,7 +199,8 @@ public class OptimizedDashboardService {
         Map<String, Object> todayStats = new HashMap<>();
         
         // Nouvelles commandes aujourd'hui
-        long newOrdersToday = orderRepository.countNewOrdersToday(startOfDay, endOfDay);
+        LocalDate today = startOfDay.toLocalDate();
+        long newOrdersToday = orderStatsRollupService.getTotalsBetween(today, today).getOrdersCount();
         todayStats.put("newOrders", newOrdersToday);
         
         // Nouveaux utilisateurs aujourd'hui
@@ -0,0 +1,195 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
+import com.bacoge.constructionmaterial.model.Order;
+import com.bacoge.constructionmaterial.model.OrderDailyStats;
+import com.bacoge.constructionmaterial.repository.OrderDailyStatsRepository;
+import com.bacoge.constructionmaterial.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintient les agrégats journaliers des commandes (table order_daily_stats).
+ *
+ * Les méthodes record* sont appelées dans la transaction qui modifie la commande :
+ * la ligne du jour concerné est verrouillée puis ajustée, de sorte que les
+ * agrégats restent cohérents avec la table orders. Le tableau de bord lit ces
+ * lignes au lieu de parcourir toutes les commandes.
+ */
+@Service
+@Transactional
+public class OrderStatsRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatsRollupService.class);
+
+    private final OrderDailyStatsRepository orderDailyStatsRepository;
+    private final OrderRepository orderRepository;
+
+    public OrderStatsRollupService(OrderDailyStatsRepository orderDailyStatsRepository,
+                                   OrderRepository orderRepository) {
+        this.orderDailyStatsRepository = orderDailyStatsRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Comptabilise une nouvelle commande
+     */
+    public void recordOrderCreated(Order order) {
+        OrderDailyStats stats = lockDay(dayOf(order));
+        stats.setOrdersCount(stats.getOrdersCount() + 1);
+        stats.adjustStatusCount(order.getStatus(), 1);
+        if (order.getStatus() == Order.OrderStatus.DELIVERED) {
+            stats.adjustDeliveredRevenue(amountOf(order));
+        }
+    }
+
+    /**
+     * Comptabilise un changement de statut (no-op si le statut n'a pas changé)
+     */
+    public void recordStatusChange(Order order, Order.OrderStatus previousStatus) {
+        Order.OrderStatus newStatus = order.getStatus();
+        if (previousStatus == newStatus) {
+            return;
+        }
+        OrderDailyStats stats = lockDay(dayOf(order));
+        stats.adjustStatusCount(previousStatus, -1);
+        stats.adjustStatusCount(newStatus, 1);
+        if (previousStatus == Order.OrderStatus.DELIVERED) {
+            stats.adjustDeliveredRevenue(amountOf(order).negate());
+        }
+        if (newStatus == Order.OrderStatus.DELIVERED) {
+            stats.adjustDeliveredRevenue(amountOf(order));
+        }
+    }
+
+    /**
+     * Comptabilise une modification du montant total d'une commande
+     */
+    public void recordAmountChange(Order order, BigDecimal previousAmount) {
+        if (order.getStatus() != Order.OrderStatus.DELIVERED) {
+            return;
+        }
+        BigDecimal delta = amountOf(order).subtract(previousAmount != null ? previousAmount : BigDecimal.ZERO);
+        if (delta.signum() != 0) {
+            lockDay(dayOf(order)).adjustDeliveredRevenue(delta);
+        }
+    }
+
+    /**
+     * Retire une commande supprimée des agrégats
+     */
+    public void recordOrderDeleted(Order order) {
+        OrderDailyStats stats = lockDay(dayOf(order));
+        stats.setOrdersCount(stats.getOrdersCount() - 1);
+        stats.adjustStatusCount(order.getStatus(), -1);
+        if (order.getStatus() == Order.OrderStatus.DELIVERED) {
+            stats.adjustDeliveredRevenue(amountOf(order).negate());
+        }
+    }
+
+    /**
+     * Totaux sur tout l'historique
+     */
+    @Transactional(readOnly = true)
+    public OrderDailyStats getTotals() {
+        return toTotals(orderDailyStatsRepository.sumAll());
+    }
+
+    /**
+     * Totaux sur une période (bornes incluses)
+     */
+    @Transactional(readOnly = true)
+    public OrderDailyStats getTotalsBetween(LocalDate startDate, LocalDate endDate) {
+        return toTotals(orderDailyStatsRepository.sumBetween(startDate, endDate));
+    }
+
+    /**
+     * Lignes journalières d'une période, triées par date
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDailyStats> getDailyStats(LocalDate startDate, LocalDate endDate) {
+        return orderDailyStatsRepository.findBetween(startDate, endDate);
+    }
+
+    /**
+     * Recalcule entièrement les agrégats à partir de la table orders.
+     * À utiliser pour l'initialisation ou après une correction manuelle des données.
+     */
+    @EvictDashboardCaches
+    public int rebuild() {
+        Map<LocalDate, OrderDailyStats> days = new TreeMap<>();
+        for (Object[] row : orderRepository.getDailyStatusAggregates()) {
+            LocalDate day = (LocalDate) row[0];
+            Order.OrderStatus status = (Order.OrderStatus) row[1];
+            long count = ((Number) row[2]).longValue();
+            BigDecimal amount = (BigDecimal) row[3];
+
+            OrderDailyStats stats = days.computeIfAbsent(day, OrderDailyStats::new);
+            stats.setOrdersCount(stats.getOrdersCount() + count);
+            stats.adjustStatusCount(status, count);
+            if (status == Order.OrderStatus.DELIVERED) {
+                stats.adjustDeliveredRevenue(amount);
+            }
+        }
+
+        orderDailyStatsRepository.deleteAllInBatch();
+        orderDailyStatsRepository.saveAll(days.values());
+        logger.info("Agrégats de commandes reconstruits: {} jour(s)", days.size());
+        return days.size();
+    }
+
+    /**
+     * Initialise les agrégats au démarrage si la table est vide alors que des commandes existent
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        try {
+            if (orderDailyStatsRepository.count() == 0 && orderRepository.count() > 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Impossible d'initialiser les agrégats de commandes", e);
+        }
+    }
+
+    private OrderDailyStats lockDay(LocalDate day) {
+        orderDailyStatsRepository.insertIfAbsent(day);
+        return orderDailyStatsRepository.findByStatDateForUpdate(day)
+                .orElseThrow(() -> new IllegalStateException("Ligne d'agrégats introuvable pour le " + day));
+    }
+
+    private LocalDate dayOf(Order order) {
+        return order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : LocalDate.now();
+    }
+
+    private BigDecimal amountOf(Order order) {
+        return order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+    }
+
+    private OrderDailyStats toTotals(List<Object[]> rows) {
+        OrderDailyStats totals = new OrderDailyStats();
+        if (rows == null || rows.isEmpty() || rows.get(0) == null) {
+            return totals;
+        }
+        Object[] row = rows.get(0);
+        totals.setOrdersCount(((Number) row[0]).longValue());
+        totals.setPendingCount(((Number) row[1]).longValue());
+        totals.setConfirmedCount(((Number) row[2]).longValue());
+        totals.setProcessingCount(((Number) row[3]).longValue());
+        totals.setShippedCount(((Number) row[4]).longValue());
+        totals.setDeliveredCount(((Number) row[5]).longValue());
+        totals.setCancelledCount(((Number) row[6]).longValue());
+        totals.setDeliveredRevenue(new BigDecimal(row[7].toString()));
+        return totals;
+    }
+}
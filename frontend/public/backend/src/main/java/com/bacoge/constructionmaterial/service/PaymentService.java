@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.service;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
 import com.bacoge.constructionmaterial.dto.PaymentRequestDto;
 import com.bacoge.constructionmaterial.dto.PaymentResponseDto;
 import com.bacoge.constructionmaterial.model.Order;
@@ -34,10 +35,13 @@ public class PaymentService {
     private NotificationService notificationService;
     @Autowired
     private AdminNotificationService adminNotificationService;
+    @Autowired
+    private OrderStatsRollupService orderStatsRollupService;
 
     /**
      * Traiter un paiement par carte de crédit
      */
+    @EvictDashboardCaches
     public PaymentResponseDto processCardPayment(PaymentRequestDto paymentRequest, Long userId) {
         try {
             // Créer la commande
@@ -57,6 +61,7 @@ public class PaymentService {
                 order.setPaymentMethod("CARD");
                 order.setTransactionId(transactionId);
                 orderRepository.save(order);
+                orderStatsRollupService.recordStatusChange(order, Order.OrderStatus.PENDING);
                 
                 // Envoyer notification à l'administrateur
                 notificationService.sendOrderCreatedNotification(order);
@@ -68,6 +73,7 @@ public class PaymentService {
                 order.setPaymentStatus(Order.PaymentStatus.FAILED);
                 order.setStatus(Order.OrderStatus.CANCELLED);
                 orderRepository.save(order);
+                orderStatsRollupService.recordStatusChange(order, Order.OrderStatus.PENDING);
                 
                 return PaymentResponseDto.failure("Paiement refusé par la banque");
             }
@@ -79,6 +85,7 @@ public class PaymentService {
     /**
      * Traiter un paiement PayPal
      */
+    @EvictDashboardCaches
     public PaymentResponseDto processPayPalPayment(PaymentRequestDto paymentRequest, Long userId) {
         try {
             // Créer la commande
@@ -107,6 +114,7 @@ public class PaymentService {
     /**
      * Traiter un paiement par virement bancaire
      */
+    @EvictDashboardCaches
     public PaymentResponseDto processBankTransferPayment(PaymentRequestDto paymentRequest, Long userId) {
         try {
             // Créer la commande
@@ -139,6 +147,7 @@ public class PaymentService {
     /**
      * Traiter un paiement à la livraison (Cash on Delivery)
      */
+    @EvictDashboardCaches
     public PaymentResponseDto processCashOnDeliveryPayment(PaymentRequestDto paymentRequest, Long userId) {
         try {
             // Créer la commande
@@ -165,6 +174,7 @@ public class PaymentService {
     /**
      * Confirmer un paiement PayPal
      */
+    @EvictDashboardCaches
     public PaymentResponseDto confirmPayPalPayment(String paymentId, String payerId) {
         try {
             // Trouver la commande par transaction ID
@@ -174,6 +184,7 @@ public class PaymentService {
             }
             
             Order order = orderOpt.get();
+            Order.OrderStatus previousStatus = order.getStatus();
             
             // Simuler la confirmation PayPal
             boolean confirmationSuccess = simulatePayPalConfirmation(paymentId, payerId);
@@ -182,6 +193,7 @@ public class PaymentService {
                 order.setPaymentStatus(Order.PaymentStatus.PAID);
                 order.setStatus(Order.OrderStatus.CONFIRMED);
                 orderRepository.save(order);
+                orderStatsRollupService.recordStatusChange(order, previousStatus);
                 
                 // Envoyer notification à l'administrateur
                 notificationService.sendOrderCreatedNotification(order);
@@ -192,6 +204,7 @@ public class PaymentService {
                 order.setPaymentStatus(Order.PaymentStatus.FAILED);
                 order.setStatus(Order.OrderStatus.CANCELLED);
                 orderRepository.save(order);
+                orderStatsRollupService.recordStatusChange(order, previousStatus);
                 
                 return PaymentResponseDto.failure("Échec de la confirmation PayPal");
             }
@@ -261,7 +274,9 @@ public class PaymentService {
             order.setOrderItems(orderItems);
             order.setTotalAmount(totalAmount);
             
-            return orderRepository.save(order);
+            Order savedOrder = orderRepository.save(order);
+            orderStatsRollupService.recordOrderCreated(savedOrder);
+            return savedOrder;
         } catch (Exception e) {
             return null;
         }
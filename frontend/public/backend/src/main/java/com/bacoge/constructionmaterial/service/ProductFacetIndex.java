@@ -0,0 +1,387 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.model.Product;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index de facettes du catalogue : pour chaque valeur normalisée d'un filtre
+ * (catégorie, style, pièce, couleur, matériau, collection, tag, tranche de prix),
+ * un bitmap des produits actifs qui la portent.
+ *
+ * Chaque produit reçoit un numéro d'ordre dense (réutilisé après suppression) qui
+ * sert de position dans les bitmaps. Une requête combine les bitmaps (OU entre les
+ * valeurs d'une même facette, ET entre facettes) puis calcule en une passe le nombre
+ * de produits pour chaque valeur : les comptes d'une facette ignorent sa propre
+ * sélection, comme dans une barre de filtres à cases multiples.
+ *
+ * L'index est alimenté par ProductSearchIndex, en même temps que l'index texte.
+ */
+@Service
+public class ProductFacetIndex {
+
+    public enum Facet {
+        CATEGORY("category"),
+        STYLE("style"),
+        ROOM("room"),
+        COLOR("color"),
+        MATERIAL("material"),
+        COLLECTION("collectionName"),
+        TAGS("tags"),
+        PRICE("price");
+
+        private final String paramName;
+
+        Facet(String paramName) {
+            this.paramName = paramName;
+        }
+
+        public String getParamName() {
+            return paramName;
+        }
+    }
+
+    /** Bornes inférieures des tranches de prix (la dernière tranche est ouverte) */
+    private static final int[] PRICE_BUCKETS = {0, 50, 100, 250, 500, 1000};
+
+    /**
+     * Valeurs de facettes d'un produit : valeur normalisée → libellé d'origine
+     */
+    public record FacetDocument(Long productId, BigDecimal price, Map<Facet, Map<String, String>> values) {
+    }
+
+    /**
+     * Sélection courante ; une facette absente ou vide n'est pas filtrée.
+     * restrictTo limite le calcul à un ensemble de produits (résultat d'une recherche texte), null = tous.
+     */
+    public record FacetQuery(Map<Facet, Set<String>> selected, BigDecimal minPrice, BigDecimal maxPrice,
+                             Collection<Long> restrictTo) {
+    }
+
+    public record FacetCount(String value, String label, long count) {
+    }
+
+    public record FacetResult(long total, Map<Facet, List<FacetCount>> facets) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<FacetDocument> documents = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private double[] prices = new double[1024];
+    private final Map<Facet, Map<String, BitSet>> bitmaps = new EnumMap<>(Facet.class);
+    private final Map<Facet, Map<String, String>> labels = new EnumMap<>(Facet.class);
+
+    public ProductFacetIndex() {
+        for (Facet facet : Facet.values()) {
+            bitmaps.put(facet, new HashMap<>());
+            labels.put(facet, new HashMap<>());
+        }
+    }
+
+    /**
+     * Extrait les valeurs de facettes d'un produit (à appeler tant que l'entité est attachée)
+     */
+    public static FacetDocument toDocument(Product product) {
+        Map<Facet, Map<String, String>> values = new EnumMap<>(Facet.class);
+        if (product.getCategoryId() != null) {
+            String id = product.getCategoryId().toString();
+            values.put(Facet.CATEGORY, Map.of(id, id));
+        }
+        addValue(values, Facet.STYLE, product.getStyle());
+        addValue(values, Facet.ROOM, product.getRoom());
+        addValue(values, Facet.COLOR, product.getColor());
+        addValue(values, Facet.MATERIAL, product.getMaterial());
+        addValue(values, Facet.COLLECTION, product.getCollectionName());
+        if (product.getTags() != null) {
+            for (String tag : product.getTags().split(",")) {
+                addValue(values, Facet.TAGS, tag);
+            }
+        }
+        if (product.getPrice() != null) {
+            String bucket = priceBucket(product.getPrice());
+            values.put(Facet.PRICE, Map.of(bucket, bucket));
+        }
+        return new FacetDocument(product.getId(), product.getPrice(), values);
+    }
+
+    /**
+     * Normalise une valeur de facette telle que saisie dans un filtre
+     */
+    public static String normalize(String value) {
+        return value == null ? "" : FrenchTextAnalyzer.fold(value.trim());
+    }
+
+    public void replaceAll(Collection<FacetDocument> newDocuments) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            documents.clear();
+            freeOrdinals.clear();
+            live.clear();
+            prices = new double[Math.max(1024, newDocuments.size())];
+            bitmaps.values().forEach(Map::clear);
+            labels.values().forEach(Map::clear);
+            newDocuments.forEach(this::putInternal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(FacetDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.productId());
+            putInternal(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetResult compute(FacetQuery query, int limitPerFacet) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (query.restrictTo() != null) {
+                BitSet allowed = new BitSet(live.length());
+                for (Long productId : query.restrictTo()) {
+                    Integer ordinal = ordinals.get(productId);
+                    if (ordinal != null) {
+                        allowed.set(ordinal);
+                    }
+                }
+                base.and(allowed);
+            }
+
+            // Les tranches de prix sont comptées sans le filtre min/max, qui porte sur la même dimension
+            BitSet baseWithPrice = base;
+            if (query.minPrice() != null || query.maxPrice() != null) {
+                baseWithPrice = (BitSet) base.clone();
+                baseWithPrice.and(priceRange(query.minPrice(), query.maxPrice()));
+            }
+
+            Map<Facet, BitSet> masks = masks(query.selected());
+
+            BitSet matching = (BitSet) baseWithPrice.clone();
+            masks.values().forEach(matching::and);
+
+            Map<Facet, List<FacetCount>> facets = new EnumMap<>(Facet.class);
+            BitSet scratch = new BitSet();
+            for (Facet facet : Facet.values()) {
+                BitSet others = (BitSet) (facet == Facet.PRICE ? base : baseWithPrice).clone();
+                for (Map.Entry<Facet, BitSet> mask : masks.entrySet()) {
+                    if (mask.getKey() != facet) {
+                        others.and(mask.getValue());
+                    }
+                }
+
+                List<FacetCount> counts = new ArrayList<>();
+                for (Map.Entry<String, BitSet> entry : bitmaps.get(facet).entrySet()) {
+                    scratch.clear();
+                    scratch.or(entry.getValue());
+                    scratch.and(others);
+                    int count = scratch.cardinality();
+                    if (count > 0) {
+                        counts.add(new FacetCount(entry.getKey(), labels.get(facet).get(entry.getKey()), count));
+                    }
+                }
+                if (facet == Facet.PRICE) {
+                    counts.sort(Comparator.comparingInt(c -> bucketLowerBound(c.value())));
+                } else {
+                    counts.sort(Comparator.comparingLong(FacetCount::count).reversed()
+                            .thenComparing(FacetCount::label));
+                    if (counts.size() > limitPerFacet) {
+                        counts = new ArrayList<>(counts.subList(0, limitPerFacet));
+                    }
+                }
+                facets.put(facet, counts);
+            }
+            return new FacetResult(matching.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Produits actifs portant les valeurs sélectionnées (mêmes règles que compute : OU entre les
+     * valeurs d'une facette, ET entre facettes) ; sert à la liste du catalogue pour qu'un filtre
+     * coché renvoie exactement les produits comptés
+     */
+    public Set<Long> matchingProductIds(Map<Facet, Set<String>> selected) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = (BitSet) live.clone();
+            masks(selected).values().forEach(matching::and);
+            Set<Long> productIds = new HashSet<>(Math.max(16, matching.cardinality() * 2));
+            for (int ordinal = matching.nextSetBit(0); ordinal >= 0; ordinal = matching.nextSetBit(ordinal + 1)) {
+                productIds.add(documents.get(ordinal).productId());
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bornes d'une tranche de prix ("50-100" ou "1000+") : {min inclus, max exclu ou null} ; null si invalide
+     */
+    public static BigDecimal[] priceBucketBounds(String bucket) {
+        if (bucket == null) {
+            return null;
+        }
+        String value = bucket.trim();
+        try {
+            if (value.endsWith("+")) {
+                return new BigDecimal[] {new BigDecimal(value.substring(0, value.length() - 1)), null};
+            }
+            int dash = value.indexOf('-');
+            if (dash <= 0) {
+                return null;
+            }
+            return new BigDecimal[] {new BigDecimal(value.substring(0, dash)), new BigDecimal(value.substring(dash + 1))};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Un masque par facette sélectionnée : union des bitmaps des valeurs choisies
+    private Map<Facet, BitSet> masks(Map<Facet, Set<String>> selected) {
+        Map<Facet, BitSet> masks = new EnumMap<>(Facet.class);
+        if (selected == null) {
+            return masks;
+        }
+        for (Map.Entry<Facet, Set<String>> entry : selected.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                continue;
+            }
+            BitSet mask = new BitSet();
+            Map<String, BitSet> facetBitmaps = bitmaps.get(entry.getKey());
+            for (String value : entry.getValue()) {
+                BitSet bitmap = facetBitmaps.get(normalize(value));
+                if (bitmap != null) {
+                    mask.or(bitmap);
+                }
+            }
+            masks.put(entry.getKey(), mask);
+        }
+        return masks;
+    }
+
+    private void putInternal(FacetDocument document) {
+        int ordinal;
+        if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.pop();
+            documents.set(ordinal, document);
+        } else {
+            ordinal = documents.size();
+            documents.add(document);
+        }
+        if (ordinal >= prices.length) {
+            prices = Arrays.copyOf(prices, Math.max(prices.length * 2, ordinal + 1));
+        }
+        prices[ordinal] = document.price() != null ? document.price().doubleValue() : Double.NaN;
+        ordinals.put(document.productId(), ordinal);
+        live.set(ordinal);
+
+        for (Map.Entry<Facet, Map<String, String>> entry : document.values().entrySet()) {
+            Map<String, BitSet> facetBitmaps = bitmaps.get(entry.getKey());
+            Map<String, String> facetLabels = labels.get(entry.getKey());
+            for (Map.Entry<String, String> value : entry.getValue().entrySet()) {
+                facetBitmaps.computeIfAbsent(value.getKey(), v -> new BitSet()).set(ordinal);
+                facetLabels.putIfAbsent(value.getKey(), value.getValue());
+            }
+        }
+    }
+
+    private void removeInternal(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        FacetDocument previous = documents.set(ordinal, null);
+        live.clear(ordinal);
+        freeOrdinals.push(ordinal);
+        if (previous == null) {
+            return;
+        }
+        for (Map.Entry<Facet, Map<String, String>> entry : previous.values().entrySet()) {
+            Map<String, BitSet> facetBitmaps = bitmaps.get(entry.getKey());
+            for (String value : entry.getValue().keySet()) {
+                BitSet bitmap = facetBitmaps.get(value);
+                if (bitmap != null) {
+                    bitmap.clear(ordinal);
+                    if (bitmap.isEmpty()) {
+                        facetBitmaps.remove(value);
+                        labels.get(entry.getKey()).remove(value);
+                    }
+                }
+            }
+        }
+    }
+
+    private BitSet priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        double min = minPrice != null ? minPrice.doubleValue() : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice.doubleValue() : Double.POSITIVE_INFINITY;
+        BitSet range = new BitSet(documents.size());
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            double price = prices[ordinal];
+            if (price >= min && price <= max) {
+                range.set(ordinal);
+            }
+        }
+        return range;
+    }
+
+    private static void addValue(Map<Facet, Map<String, String>> values, Facet facet, String rawValue) {
+        String value = normalize(rawValue);
+        if (!value.isEmpty()) {
+            values.computeIfAbsent(facet, f -> new LinkedHashMap<>()).putIfAbsent(value, rawValue.trim());
+        }
+    }
+
+    private static String priceBucket(BigDecimal price) {
+        for (int i = PRICE_BUCKETS.length - 1; i > 0; i--) {
+            if (price.compareTo(BigDecimal.valueOf(PRICE_BUCKETS[i])) >= 0) {
+                return i == PRICE_BUCKETS.length - 1
+                        ? PRICE_BUCKETS[i] + "+"
+                        : PRICE_BUCKETS[i] + "-" + PRICE_BUCKETS[i + 1];
+            }
+        }
+        return PRICE_BUCKETS[0] + "-" + PRICE_BUCKETS[1];
+    }
+
+    private static int bucketLowerBound(String bucket) {
+        int end = 0;
+        while (end < bucket.length() && Character.isDigit(bucket.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? 0 : Integer.parseInt(bucket.substring(0, end));
+    }
+}
@@ -19,9 +19,12 @@ public class ProductImageService {
     private String uploadDir;
     
     private final ProductImageRepository productImageRepository;
+    private final ImageDerivativeService imageDerivativeService;
 
-    public ProductImageService(ProductImageRepository productImageRepository) {
+    public ProductImageService(ProductImageRepository productImageRepository,
+                               ImageDerivativeService imageDerivativeService) {
         this.productImageRepository = productImageRepository;
+        this.imageDerivativeService = imageDerivativeService;
     }
     
     @Transactional
@@ -37,6 +40,7 @@ public class ProductImageService {
                 String filename = image.getImageUrl().substring(image.getImageUrl().lastIndexOf("/") + 1);
                 Path filePath = Paths.get(uploadDir, filename);
                 Files.deleteIfExists(filePath);
+                imageDerivativeService.deleteDerivatives(image.getImageUrl());
             } catch (IOException e) {
                 // Log l'erreur mais continuer la suppression en base
                 e.printStackTrace();
@@ -0,0 +1,277 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.repository.OrderRepository;
+import com.bacoge.constructionmaterial.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classements précalculés des produits actifs (populaires, recommandés, en vedette) servis aux
+ * pages d'accueil et aux carrousels sans requête de tri à chaque appel.
+ *
+ * Popularité = unités vendues (commandes non annulées) pondérées par une décroissance exponentielle
+ * selon l'ancienneté de la vente + poids × ln(1 + consultations) + poids × écart de la note bayésienne
+ * à la moyenne du catalogue (les produits peu notés sont ramenés vers la moyenne).
+ * Recommandés = popularité normalisée, qualité de la note, fraîcheur du produit et mise en avant.
+ * En vedette = produits marqués « featured » par popularité, complétés par les plus populaires.
+ *
+ * Le calcul lit deux projections compactes (ventes par produit et par jour, une ligne par produit actif)
+ * et publie d'un bloc des tableaux d'identifiants ; les k premiers sont lus en O(k). Les consultations
+ * sont comptées en mémoire et reportées en base (UPDATE ciblés) avant chaque calcul.
+ */
+@Service
+public class ProductRankingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRankingService.class);
+
+    /** Classements triés du meilleur au moins bon ; tableaux jamais modifiés après publication */
+    public record Rankings(long version, LocalDateTime builtAt, long[] popular, long[] recommended, long[] featured) {
+    }
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+
+    @Value("${app.rankings.sales-window-days:180}")
+    private int salesWindowDays;
+
+    @Value("${app.rankings.sales-half-life-days:30}")
+    private double salesHalfLifeDays;
+
+    @Value("${app.rankings.view-weight:1.0}")
+    private double viewWeight;
+
+    @Value("${app.rankings.rating-weight:2.0}")
+    private double ratingWeight;
+
+    @Value("${app.rankings.rating-prior-count:5}")
+    private int ratingPriorCount;
+
+    @Value("${app.rankings.freshness-half-life-days:30}")
+    private double freshnessHalfLifeDays;
+
+    @Value("${app.rankings.max-size:500}")
+    private int maxSize;
+
+    private final AtomicReference<Rankings> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    public ProductRankingService(ProductRepository productRepository, OrderRepository orderRepository) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushViews();
+    }
+
+    public List<Long> popular(int k) {
+        return top(current().popular(), k);
+    }
+
+    public List<Long> recommended(int k) {
+        return top(current().recommended(), k);
+    }
+
+    public List<Long> featured(int k) {
+        return top(current().featured(), k);
+    }
+
+    /**
+     * Compte une consultation de fiche produit (reportée en base au prochain calcul)
+     */
+    public void recordView(Long productId) {
+        if (productId != null) {
+            pendingViews.computeIfAbsent(productId, id -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Classements courants (calculés à la première lecture s'ils n'existent pas encore)
+     */
+    public Rankings current() {
+        Rankings rankings = current.get();
+        if (rankings == null) {
+            synchronized (this) {
+                rankings = current.get();
+                if (rankings == null) {
+                    rankings = recompute();
+                }
+            }
+        }
+        return rankings;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rankings.refresh-interval-ms:900000}", initialDelay = 900_000)
+    public void refreshPeriodically() {
+        recompute();
+    }
+
+    /**
+     * Recalcule les classements ; en cas d'erreur, les classements précédents restent en service
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized Rankings recompute() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            flushViews();
+
+            // Ventes décroissantes : une vente d'il y a salesHalfLifeDays jours compte pour moitié
+            LocalDate today = now.toLocalDate();
+            Map<Long, Double> decayedUnits = new HashMap<>();
+            for (Object[] row : orderRepository.getUnitsSoldByProductAndDaySince(now.minusDays(salesWindowDays))) {
+                if (row[0] == null || row[4] == null) {
+                    continue;
+                }
+                LocalDate day = LocalDate.of(((Number) row[1]).intValue(), ((Number) row[2]).intValue(),
+                        ((Number) row[3]).intValue());
+                double weight = decay(Math.max(0, ChronoUnit.DAYS.between(day, today)), salesHalfLifeDays);
+                decayedUnits.merge((Long) row[0], ((Number) row[4]).doubleValue() * weight, Double::sum);
+            }
+
+            // Lignes : [id, averageRating, reviewCount, viewCount, createdAt, featured]
+            List<Object[]> inputs = productRepository.findRankingInputs();
+            double ratingSum = 0;
+            long reviewTotal = 0;
+            for (Object[] row : inputs) {
+                int reviews = ((Number) row[2]).intValue();
+                ratingSum += ((Number) row[1]).doubleValue() * reviews;
+                reviewTotal += reviews;
+            }
+            double meanRating = reviewTotal > 0 ? ratingSum / reviewTotal : 0;
+
+            int size = inputs.size();
+            long[] ids = new long[size];
+            double[] popularity = new double[size];
+            double[] quality = new double[size];
+            double[] freshness = new double[size];
+            boolean[] featuredFlags = new boolean[size];
+            double maxPopularity = 0;
+            for (int i = 0; i < size; i++) {
+                Object[] row = inputs.get(i);
+                ids[i] = (Long) row[0];
+                int reviews = ((Number) row[2]).intValue();
+                double bayesian = (((Number) row[1]).doubleValue() * reviews + meanRating * ratingPriorCount)
+                        / Math.max(1, reviews + ratingPriorCount);
+                long views = ((Number) row[3]).longValue();
+                popularity[i] = decayedUnits.getOrDefault(ids[i], 0.0)
+                        + viewWeight * Math.log1p(views)
+                        + ratingWeight * (bayesian - meanRating);
+                quality[i] = bayesian / 5.0;
+                LocalDateTime createdAt = (LocalDateTime) row[4];
+                freshness[i] = createdAt != null
+                        ? decay(Math.max(0, ChronoUnit.DAYS.between(createdAt, now)), freshnessHalfLifeDays) : 0;
+                featuredFlags[i] = Boolean.TRUE.equals(row[5]);
+                maxPopularity = Math.max(maxPopularity, popularity[i]);
+            }
+
+            double[] recommendation = new double[size];
+            for (int i = 0; i < size; i++) {
+                double normalized = maxPopularity > 0 ? Math.max(0, popularity[i]) / maxPopularity : 0;
+                recommendation[i] = 0.5 * normalized + 0.3 * quality[i] + 0.15 * freshness[i]
+                        + (featuredFlags[i] ? 0.05 : 0);
+            }
+
+            Integer[] byPopularity = rank(ids, popularity);
+            long[] popular = head(ids, byPopularity, maxSize);
+            long[] recommended = head(ids, rank(ids, recommendation), maxSize);
+
+            // En vedette : produits mis en avant d'abord, puis les plus populaires
+            List<Integer> featuredOrder = new ArrayList<>();
+            for (Integer index : byPopularity) {
+                if (featuredFlags[index]) {
+                    featuredOrder.add(index);
+                }
+            }
+            for (Integer index : byPopularity) {
+                if (!featuredFlags[index]) {
+                    featuredOrder.add(index);
+                }
+            }
+            long[] featured = head(ids, featuredOrder.toArray(new Integer[0]), maxSize);
+
+            Rankings rankings = new Rankings(versions.incrementAndGet(), now, popular, recommended, featured);
+            current.set(rankings);
+            logger.debug("Classements produits v{} calculés: {} produit(s) actif(s) en {} ms",
+                    rankings.version(), size, System.currentTimeMillis() - start);
+            return rankings;
+        } catch (Exception e) {
+            logger.error("Impossible de calculer les classements produits", e);
+            Rankings previous = current.get();
+            if (previous == null) {
+                throw new IllegalStateException("Classements produits indisponibles", e);
+            }
+            return previous;
+        }
+    }
+
+    // Report des consultations en base ; en cas d'échec, elles restent en attente
+    private void flushViews() {
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0) {
+                continue;
+            }
+            try {
+                productRepository.incrementViewCount(entry.getKey(), delta);
+            } catch (Exception e) {
+                entry.getValue().add(delta);
+                logger.warn("Consultations du produit {} non enregistrées: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private static double decay(double ageDays, double halfLifeDays) {
+        return halfLifeDays > 0 ? Math.pow(0.5, ageDays / halfLifeDays) : 1.0;
+    }
+
+    // Indices triés par score décroissant ; à score égal, le produit le plus récent (id le plus grand) d'abord
+    private static Integer[] rank(long[] ids, double[] scores) {
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> scores[i]).reversed()
+                .thenComparing(Comparator.<Integer>comparingLong(i -> ids[i]).reversed()));
+        return order;
+    }
+
+    private static long[] head(long[] ids, Integer[] order, int limit) {
+        long[] result = new long[Math.min(order.length, Math.max(0, limit))];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids[order[i]];
+        }
+        return result;
+    }
+
+    private static List<Long> top(long[] ranking, int k) {
+        int count = Math.min(ranking.length, Math.max(0, k));
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(ranking[i]);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,158 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.repository.ProductRepository;
+import com.bacoge.constructionmaterial.repository.ProductReviewRepository;
+import com.bacoge.constructionmaterial.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintient la synthèse des avis de chaque produit (colonnes rating_sum, review_count
+ * et avg_rating de la table products).
+ *
+ * Les deux sources d'avis (table reviews gérée par ReviewService, table product_reviews
+ * gérée par AdminReviewService) y contribuent. Les méthodes record* sont appelées dans
+ * la transaction qui change le statut d'approbation d'un avis et appliquent un delta en
+ * une seule instruction UPDATE : les pages du catalogue lisent directement ces colonnes
+ * avec le produit, sans requête supplémentaire.
+ */
+@Service
+@Transactional
+public class ProductRatingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRatingService.class);
+
+    /**
+     * Note moyenne et nombre d'avis approuvés d'un produit
+     */
+    public record RatingSummary(Long productId, int reviewCount, double averageRating) {
+
+        public static RatingSummary empty(Long productId) {
+            return new RatingSummary(productId, 0, 0.0);
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ReviewRepository reviewRepository;
+    private final ProductReviewRepository productReviewRepository;
+
+    public ProductRatingService(ProductRepository productRepository,
+                                ReviewRepository reviewRepository,
+                                ProductReviewRepository productReviewRepository) {
+        this.productRepository = productRepository;
+        this.reviewRepository = reviewRepository;
+        this.productReviewRepository = productReviewRepository;
+    }
+
+    /**
+     * Un avis devient visible (création approuvée ou approbation)
+     */
+    public void recordApproved(Long productId, Integer rating) {
+        if (productId != null && rating != null) {
+            productRepository.adjustRatingSummary(productId, rating, 1);
+        }
+    }
+
+    /**
+     * Un avis approuvé cesse d'être visible (rejet ou suppression)
+     */
+    public void recordUnapproved(Long productId, Integer rating) {
+        if (productId != null && rating != null) {
+            productRepository.adjustRatingSummary(productId, -rating, -1);
+        }
+    }
+
+    /**
+     * Applique un changement de statut d'approbation (no-op si le statut n'a pas changé)
+     */
+    public void recordApprovalChange(Long productId, Integer rating, boolean wasApproved, boolean approved) {
+        if (wasApproved == approved) {
+            return;
+        }
+        if (approved) {
+            recordApproved(productId, rating);
+        } else {
+            recordUnapproved(productId, rating);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public RatingSummary getSummary(Long productId) {
+        if (productId == null) {
+            return RatingSummary.empty(null);
+        }
+        return getSummaries(List.of(productId)).getOrDefault(productId, RatingSummary.empty(productId));
+    }
+
+    /**
+     * Synthèses d'un ensemble de produits en une requête (les produits inconnus sont absents de la map)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, RatingSummary> getSummaries(Collection<Long> productIds) {
+        Map<Long, RatingSummary> summaries = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return summaries;
+        }
+        for (Object[] row : productRepository.findRatingSummaries(productIds)) {
+            Long productId = ((Number) row[0]).longValue();
+            summaries.put(productId, new RatingSummary(productId,
+                    ((Number) row[1]).intValue(), ((Number) row[2]).doubleValue()));
+        }
+        return summaries;
+    }
+
+    /**
+     * Recalcule toutes les synthèses à partir des deux tables d'avis.
+     * À utiliser pour l'initialisation ou après une correction manuelle des données.
+     */
+    public int rebuild() {
+        Map<Long, long[]> totals = new HashMap<>();
+        accumulate(totals, reviewRepository.sumApprovedRatingsByProduct());
+        accumulate(totals, productReviewRepository.sumApprovedRatingsByProduct());
+
+        productRepository.resetRatingSummaries();
+        for (Map.Entry<Long, long[]> entry : totals.entrySet()) {
+            long ratingSum = entry.getValue()[0];
+            int reviewCount = (int) entry.getValue()[1];
+            double average = reviewCount > 0 ? (double) ratingSum / reviewCount : 0.0;
+            productRepository.setRatingSummary(entry.getKey(), ratingSum, reviewCount, average);
+        }
+        logger.info("Synthèse des avis reconstruite: {} produit(s) noté(s)", totals.size());
+        return totals.size();
+    }
+
+    /**
+     * Initialise les synthèses au démarrage si aucune n'est renseignée alors que des avis approuvés existent
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        try {
+            if (productRepository.countWithReviews() == 0
+                    && (reviewRepository.countByIsApproved(true) > 0 || productReviewRepository.countByIsApproved(true) > 0)) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Impossible d'initialiser la synthèse des avis", e);
+        }
+    }
+
+    private void accumulate(Map<Long, long[]> totals, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            if (row[0] == null || row[1] == null) {
+                continue;
+            }
+            long[] total = totals.computeIfAbsent(((Number) row[0]).longValue(), id -> new long[2]);
+            total[0] += ((Number) row[1]).longValue();
+            total[1] += ((Number) row[2]).longValue();
+        }
+    }
+}
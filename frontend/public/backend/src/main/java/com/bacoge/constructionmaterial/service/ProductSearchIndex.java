@@ -0,0 +1,564 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.model.Product;
+import com.bacoge.constructionmaterial.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire des produits actifs, utilisé par la recherche du catalogue.
+ *
+ * Chaque produit est découpé en termes (voir FrenchTextAnalyzer) avec un poids par champ
+ * (nom > tags > attributs > description). Une requête est évaluée terme à terme :
+ * correspondance exacte ou par préfixe (saisie en cours), tous les termes devant être
+ * présents, puis classement TF-IDF. La catégorie et les bornes de prix sont filtrées sur les
+ * attributs conservés dans l'index, les autres filtres du catalogue arrivent résolus par
+ * l'index de facettes (ensemble de produits) : seule la page de résultats est ensuite lue en base.
+ * retrieve() offre en plus un classement BM25 en OU, limité aux k meilleurs produits,
+ * pour le contexte du chatbot.
+ *
+ * L'index est construit au démarrage et mis à jour après commit par les services
+ * qui créent, modifient ou suppriment des produits ; l'index de facettes
+ * (ProductFacetIndex) est maintenu dans les mêmes opérations. Les mises à jour
+ * reçues pendant une reconstruction sont rejouées sur le nouvel index.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int BUILD_BATCH_SIZE = 500;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 200;
+    private static final float PREFIX_MATCH_WEIGHT = 0.6f;
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float TAGS_WEIGHT = 2.0f;
+    private static final float ATTRIBUTE_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float BM25_K1 = 1.2f;
+    private static final float BM25_B = 0.75f;
+    private static final int MAX_RETRIEVAL_TERMS = 16;
+    private static final int MIN_RETRIEVAL_PREFIX_LENGTH = 4;
+    private static final int MAX_RETRIEVAL_PREFIX_EXPANSIONS = 20;
+
+    public enum SortField { RELEVANCE, NAME, PRICE, CREATED_AT }
+
+    /**
+     * Critères de recherche ; les champs null sont ignorés. productIds restreint la recherche
+     * (produits retenus par les filtres du catalogue, voir ProductFacetIndex.matchingProductIds)
+     */
+    public record Query(String text, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                        Set<Long> productIds) {
+    }
+
+    /**
+     * Une page d'identifiants de produits triés, et le nombre total de résultats
+     */
+    public record Result(List<Long> productIds, long totalHits) {
+    }
+
+    /**
+     * Produits les plus pertinents pour un texte libre (contexte du chatbot) ;
+     * truncated = le budget de temps a interrompu l'évaluation des termes
+     */
+    public record Retrieval(List<Long> productIds, boolean truncated, long elapsedMicros) {
+    }
+
+    /** Attributs d'un produit conservés pour filtrer et trier sans accès à la base */
+    private record IndexedProduct(Long id, Long categoryId, BigDecimal price, LocalDateTime createdAt,
+                                  String sortName, Map<String, Float> termWeights, float length) {
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductFacetIndex productFacetIndex;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private double totalLength;
+    private volatile boolean ready;
+    // Mises à jour appliquées pendant une reconstruction (sous le verrou) : rejouées après le
+    // remplacement, sinon le résultat du parcours (plus ancien) les écraserait ; null hors reconstruction
+    private List<Runnable> updatesDuringRebuild;
+
+    public ProductSearchIndex(ProductRepository productRepository, ProductFacetIndex productFacetIndex) {
+        this.productRepository = productRepository;
+        this.productFacetIndex = productFacetIndex;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruit l'index à partir de la table products (par lots)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            updatesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Long, IndexedProduct> rebuilt = new HashMap<>();
+        List<ProductFacetIndex.FacetDocument> facetDocuments = new ArrayList<>();
+        try {
+            int page = 0;
+            Page<Product> batch;
+            do {
+                batch = productRepository.findAll(PageRequest.of(page++, BUILD_BATCH_SIZE, Sort.by("id")));
+                for (Product product : batch) {
+                    if (product.isActive()) {
+                        rebuilt.put(product.getId(), toIndexed(product));
+                        facetDocuments.add(ProductFacetIndex.toDocument(product));
+                    }
+                }
+            } while (batch.hasNext());
+        } catch (Exception e) {
+            logger.error("Impossible de construire l'index de recherche produits", e);
+            lock.writeLock().lock();
+            try {
+                updatesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            totalLength = 0;
+            rebuilt.values().forEach(this::addPostings);
+            documents.putAll(rebuilt);
+            productFacetIndex.replaceAll(facetDocuments);
+            replayed = updatesDuringRebuild.size();
+            updatesDuringRebuild.forEach(Runnable::run);
+            updatesDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Index de recherche produits construit: {} produit(s) en {} ms ({} mise(s) à jour rejouée(s))",
+                rebuilt.size(), System.currentTimeMillis() - start, replayed);
+    }
+
+    /**
+     * Met à jour un produit dans l'index (après commit si une transaction est en cours)
+     */
+    public void indexAfterCommit(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        // Extraire les attributs maintenant, tant que l'entité est attachée
+        IndexedProduct indexed = product.isActive() ? toIndexed(product) : null;
+        ProductFacetIndex.FacetDocument facetDocument = product.isActive() ? ProductFacetIndex.toDocument(product) : null;
+        Long productId = product.getId();
+        runAfterCommit(() -> applyUpdate(() -> {
+            removeInternal(productId);
+            if (indexed != null) {
+                documents.put(productId, indexed);
+                addPostings(indexed);
+                productFacetIndex.put(facetDocument);
+            } else {
+                productFacetIndex.remove(productId);
+            }
+        }));
+    }
+
+    /**
+     * Met à jour un lot de produits dans l'index en une seule prise du verrou (import en masse)
+     */
+    public void indexAllAfterCommit(Collection<Product> products) {
+        Map<Long, IndexedProduct> indexed = new HashMap<>();
+        Map<Long, ProductFacetIndex.FacetDocument> facetDocuments = new HashMap<>();
+        List<Long> productIds = new ArrayList<>();
+        for (Product product : products) {
+            if (product == null || product.getId() == null) {
+                continue;
+            }
+            productIds.add(product.getId());
+            if (product.isActive()) {
+                indexed.put(product.getId(), toIndexed(product));
+                facetDocuments.put(product.getId(), ProductFacetIndex.toDocument(product));
+            }
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+        runAfterCommit(() -> applyUpdate(() -> {
+            for (Long productId : productIds) {
+                removeInternal(productId);
+                IndexedProduct document = indexed.get(productId);
+                if (document != null) {
+                    documents.put(productId, document);
+                    addPostings(document);
+                    productFacetIndex.put(facetDocuments.get(productId));
+                } else {
+                    productFacetIndex.remove(productId);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Retire un produit de l'index (après commit si une transaction est en cours)
+     */
+    public void removeAfterCommit(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        runAfterCommit(() -> applyUpdate(() -> {
+            removeInternal(productId);
+            productFacetIndex.remove(productId);
+        }));
+    }
+
+    // Applique une mise à jour sous le verrou d'écriture ; pendant une reconstruction, elle est aussi
+    // conservée pour être rejouée sur le nouvel index
+    private void applyUpdate(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Identifiants des produits correspondant à un texte de recherche, sans tri ni pagination ;
+     * null si le texte ne contient aucun terme exploitable (pas de restriction)
+     */
+    public Set<Long> matchingProductIds(String text) {
+        List<String> queryTerms = FrenchTextAnalyzer.tokenize(text);
+        if (queryTerms.isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(score(queryTerms).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Classement BM25 des produits contenant au moins un terme du texte (OU), limité aux
+     * limit meilleurs. Les termes sont évalués du plus rare au plus fréquent ; si le budget
+     * de temps est dépassé, les termes restants (les moins discriminants) sont ignorés.
+     */
+    public Retrieval retrieve(String text, int limit, long budgetMicros) {
+        long start = System.nanoTime();
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(FrenchTextAnalyzer.tokenize(text)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new Retrieval(List.of(), false, 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return new Retrieval(List.of(), false, (System.nanoTime() - start) / 1_000);
+            }
+            double averageLength = Math.max(totalLength / documentCount, 1.0);
+            queryTerms.sort(Comparator.comparingInt(term -> {
+                Map<Long, Float> posting = postings.get(term);
+                return posting != null ? posting.size() : Integer.MAX_VALUE;
+            }));
+            if (queryTerms.size() > MAX_RETRIEVAL_TERMS) {
+                queryTerms = queryTerms.subList(0, MAX_RETRIEVAL_TERMS);
+            }
+
+            long deadline = start + budgetMicros * 1_000;
+            boolean truncated = false;
+            Map<Long, Float> scores = new HashMap<>();
+            for (String queryTerm : queryTerms) {
+                // Le terme le plus rare est toujours évalué, même si le budget est déjà dépassé
+                if (budgetMicros > 0 && !scores.isEmpty() && System.nanoTime() > deadline) {
+                    truncated = true;
+                    break;
+                }
+                accumulateBm25(scores, postings.get(queryTerm), 1.0f, documentCount, averageLength);
+                if (queryTerm.length() >= MIN_RETRIEVAL_PREFIX_LENGTH) {
+                    int expanded = 0;
+                    for (Map.Entry<String, Map<Long, Float>> entry
+                            : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                        if (expanded++ >= MAX_RETRIEVAL_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        accumulateBm25(scores, entry.getValue(), PREFIX_MATCH_WEIGHT, documentCount, averageLength);
+                    }
+                }
+            }
+
+            // Sélection des limit meilleurs avec un tas borné (pas de tri complet)
+            Comparator<Map.Entry<Long, Float>> byScore = Map.Entry.<Long, Float>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Float>comparingByKey().reversed());
+            PriorityQueue<Map.Entry<Long, Float>> top = new PriorityQueue<>(limit + 1, byScore);
+            for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Map.Entry<Long, Float>> best = new ArrayList<>(top);
+            best.sort(byScore.reversed());
+            List<Long> ids = new ArrayList<>(best.size());
+            for (Map.Entry<Long, Float> entry : best) {
+                ids.add(entry.getKey());
+            }
+            return new Retrieval(ids, truncated, (System.nanoTime() - start) / 1_000);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result search(Query query, SortField sortField, boolean descending, int page, int size) {
+        List<String> queryTerms = FrenchTextAnalyzer.tokenize(query.text());
+        Set<Long> productIds = query.productIds();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = queryTerms.isEmpty() ? null : score(queryTerms);
+
+            // Seuls les (page + 1) * size premiers sont conservés dans un tas borné : le pire en tête
+            Comparator<IndexedProduct> order = comparator(sortField, descending, scores);
+            int window = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE - 1);
+            PriorityQueue<IndexedProduct> top = new PriorityQueue<>(Math.min(window, 1024) + 1, order.reversed());
+            long totalHits = 0;
+            Iterable<Long> candidates = scores != null ? scores.keySet()
+                    : productIds != null ? productIds : documents.keySet();
+            for (Long id : candidates) {
+                IndexedProduct doc = documents.get(id);
+                if (doc != null
+                        && (productIds == null || productIds.contains(id))
+                        && (query.categoryId() == null || query.categoryId().equals(doc.categoryId()))
+                        && (query.minPrice() == null || (doc.price() != null && doc.price().compareTo(query.minPrice()) >= 0))
+                        && (query.maxPrice() == null || (doc.price() != null && doc.price().compareTo(query.maxPrice()) <= 0))) {
+                    totalHits++;
+                    top.offer(doc);
+                    if (top.size() > window) {
+                        top.poll();
+                    }
+                }
+            }
+
+            List<IndexedProduct> hits = new ArrayList<>(top);
+            hits.sort(order);
+
+            int from = (int) Math.min((long) page * size, hits.size());
+            int to = (int) Math.min((long) from + size, hits.size());
+            List<Long> ids = new ArrayList<>(to - from);
+            for (IndexedProduct doc : hits.subList(from, to)) {
+                ids.add(doc.id());
+            }
+            return new Result(ids, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Score TF-IDF des produits contenant tous les termes de la requête (exacts ou par préfixe)
+    private Map<Long, Float> score(List<String> queryTerms) {
+        int documentCount = Math.max(documents.size(), 1);
+        Map<Long, Float> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Float> termScores = new HashMap<>();
+            accumulate(termScores, queryTerm, postings.get(queryTerm), 1.0f, documentCount);
+            if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+                NavigableMap<String, Map<Long, Float>> expansions =
+                        postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false);
+                int expanded = 0;
+                for (Map.Entry<String, Map<Long, Float>> entry : expansions.entrySet()) {
+                    if (expanded++ >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    accumulate(termScores, entry.getKey(), entry.getValue(), PREFIX_MATCH_WEIGHT, documentCount);
+                }
+            }
+
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Long, Float> intersection = new HashMap<>();
+                for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                    Float termScore = termScores.get(entry.getKey());
+                    if (termScore != null) {
+                        intersection.put(entry.getKey(), entry.getValue() + termScore);
+                    }
+                }
+                scores = intersection;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private void accumulate(Map<Long, Float> termScores, String term, Map<Long, Float> posting,
+                            float matchWeight, int documentCount) {
+        if (posting == null || posting.isEmpty()) {
+            return;
+        }
+        float idf = (float) Math.log(1.0 + (double) documentCount / posting.size());
+        for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+            termScores.merge(entry.getKey(), idf * entry.getValue() * matchWeight, Float::sum);
+        }
+    }
+
+    // Les poids par champ tiennent lieu de fréquence du terme (BM25F simplifié)
+    private void accumulateBm25(Map<Long, Float> scores, Map<Long, Float> posting, float matchWeight,
+                                int documentCount, double averageLength) {
+        if (posting == null || posting.isEmpty()) {
+            return;
+        }
+        int df = posting.size();
+        double idf = Math.log(1.0 + (documentCount - df + 0.5) / (df + 0.5));
+        for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+            IndexedProduct doc = documents.get(entry.getKey());
+            if (doc == null) {
+                continue;
+            }
+            double tf = entry.getValue();
+            double norm = BM25_K1 * (1 - BM25_B + BM25_B * doc.length() / averageLength);
+            scores.merge(entry.getKey(), (float) (idf * tf * (BM25_K1 + 1) / (tf + norm) * matchWeight), Float::sum);
+        }
+    }
+
+    private Comparator<IndexedProduct> comparator(SortField sortField, boolean descending, Map<Long, Float> scores) {
+        Comparator<IndexedProduct> byName = Comparator.comparing(IndexedProduct::sortName);
+        Comparator<IndexedProduct> comparator;
+        switch (sortField) {
+            case PRICE -> comparator = Comparator.comparing(IndexedProduct::price,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case CREATED_AT -> comparator = Comparator.comparing(IndexedProduct::createdAt,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case RELEVANCE -> {
+                if (scores == null) {
+                    return byName.thenComparing(IndexedProduct::id);
+                }
+                // Meilleur score en premier, quel que soit le sens demandé
+                return Comparator.<IndexedProduct>comparingDouble(doc -> -scores.getOrDefault(doc.id(), 0f))
+                        .thenComparing(byName)
+                        .thenComparing(IndexedProduct::id);
+            }
+            default -> comparator = byName;
+        }
+        if (descending) {
+            comparator = comparator.reversed();
+        }
+        return comparator.thenComparing(IndexedProduct::id);
+    }
+
+    private IndexedProduct toIndexed(Product product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getTags(), TAGS_WEIGHT);
+        addField(weights, product.getBrand(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getStyle(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getRoom(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getColor(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getMaterial(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getCollectionName(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getSku(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        return new IndexedProduct(
+                product.getId(),
+                product.getCategoryId(),
+                product.getPrice(),
+                product.getCreatedAt(),
+                FrenchTextAnalyzer.fold(product.getName()),
+                weights,
+                (float) weights.values().stream().mapToDouble(Float::doubleValue).sum());
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String term : FrenchTextAnalyzer.tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    private void addPostings(IndexedProduct doc) {
+        totalLength += doc.length();
+        for (Map.Entry<String, Float> entry : doc.termWeights().entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(doc.id(), entry.getValue());
+        }
+    }
+
+    private void removeInternal(Long productId) {
+        IndexedProduct previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        totalLength = Math.max(0, totalLength - previous.length());
+        Set<String> emptied = new HashSet<>();
+        for (String term : previous.termWeights().keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    emptied.add(term);
+                }
+            }
+        }
+        emptied.forEach(postings::remove);
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -2,37 +2,47 @@ package com.bacoge.constructionmaterial.service;
 
 import com.bacoge.constructionmaterial.entity.Review;
 import com.bacoge.constructionmaterial.model.User;
+import com.bacoge.constructionmaterial.dto.client.ReviewCursorPageDto;
 import com.bacoge.constructionmaterial.dto.client.ReviewDto;
 import com.bacoge.constructionmaterial.repository.ReviewRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class ReviewService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final ReviewRepository reviewRepository;
     private final UserService userService;
+    private final ProductRatingService productRatingService;
     
-    public ReviewService(ReviewRepository reviewRepository, UserService userService) {
+    public ReviewService(ReviewRepository reviewRepository, UserService userService,
+                         ProductRatingService productRatingService) {
         this.reviewRepository = reviewRepository;
         this.userService = userService;
+        this.productRatingService = productRatingService;
     }
     
+    // Lus dans la synthèse maintenue sur le produit (voir ProductRatingService)
     public Double getAverageRating(Long productId) {
         if (productId == null) return 0.0;
-        Double avg = reviewRepository.findAverageRatingForProduct(productId);
-        return avg != null ? avg : 0.0;
+        return productRatingService.getSummary(productId).averageRating();
     }
     
     public Integer getReviewCount(Long productId) {
         if (productId == null) return 0;
-        Long c = reviewRepository.countApprovedByProductId(productId);
-        return c != null ? c.intValue() : 0;
+        return productRatingService.getSummary(productId).reviewCount();
     }
     
     public Page<ReviewDto> getProductReviews(Long productId, Pageable pageable) {
@@ -40,7 +50,7 @@ public class ReviewService {
             return Page.empty(pageable);
         }
         Page<Review> reviews = reviewRepository.findByProductIdAndIsApprovedTrueOrderByCreatedAtDesc(productId, pageable);
-        return reviews.map(this::convertToDto);
+        return toDtoPage(reviews);
     }
     
     public ReviewDto createReview(Long productId, Long userId, Integer rating, String comment) {
@@ -64,6 +74,7 @@ public class ReviewService {
         return convertToDto(savedReview);
     }
     
+    @Transactional
     public void deleteReview(Long reviewId, Long userId) {
         if (reviewId == null || userId == null) {
             throw new IllegalArgumentException("Review ID and User ID are required");
@@ -78,44 +89,123 @@ public class ReviewService {
         }
         
         reviewRepository.deleteById(reviewId);
+        if (Boolean.TRUE.equals(review.getIsApproved())) {
+            productRatingService.recordUnapproved(review.getProductId(), review.getRating());
+        }
+    }
+    
+    /**
+     * Modération : approuve ou rejette un avis et met à jour la synthèse du produit
+     */
+    @Transactional
+    public Review setApproval(Long reviewId, boolean approved) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Avis non trouvé"));
+        
+        boolean wasApproved = Boolean.TRUE.equals(review.getIsApproved());
+        review.setIsApproved(approved);
+        review.setUpdatedAt(LocalDateTime.now());
+        Review savedReview = reviewRepository.save(review);
+        productRatingService.recordApprovalChange(review.getProductId(), review.getRating(), wasApproved, approved);
+        return savedReview;
     }
     
-    public List<ReviewDto> getUserReviews(Long userId) {
+    /**
+     * Modération : supprime un avis (quel que soit son auteur)
+     */
+    @Transactional
+    public void deleteReviewAsAdmin(Long reviewId) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Avis non trouvé"));
+        
+        reviewRepository.delete(review);
+        if (Boolean.TRUE.equals(review.getIsApproved())) {
+            productRatingService.recordUnapproved(review.getProductId(), review.getRating());
+        }
+    }
+    
+    public Page<ReviewDto> getUserReviews(Long userId, int page, int size) {
         if (userId == null) {
             throw new IllegalArgumentException("User ID is required");
         }
         
-        // In a complete implementation, we would filter reviews by userId
-        return reviewRepository.findAll().stream()
-                .filter(review -> review.getUserId().equals(userId))
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        Page<Review> reviews = reviewRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, pageRequest(page, size));
+        return toDtoPage(reviews);
     }
     
-    public List<ReviewDto> getAllApprovedReviews() {
-        return reviewRepository.findAll().stream()
-                .filter(review -> review.getIsApproved())
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    /**
+     * Avis approuvés, du plus récent au plus ancien
+     */
+    public Page<ReviewDto> getApprovedReviews(int page, int size) {
+        Page<Review> reviews = reviewRepository.findByIsApprovedTrueOrderByCreatedAtDescIdDesc(pageRequest(page, size));
+        return toDtoPage(reviews);
     }
     
     public List<ReviewDto> getTopRatedReviews(int limit) {
-        return reviewRepository.findAll().stream()
-                .filter(review -> review.getIsApproved())
-                .filter(review -> review.getRating() >= 4)
-                .limit(limit)
-                .map(this::convertToDto)
+        return getTopRatedReviews(4, null, null, null, limit).getContent();
+    }
+    
+    /**
+     * Meilleurs avis approuvés (note décroissante puis plus récents), paginés par curseur :
+     * le coût d'une page ne dépend pas de sa position dans la liste
+     */
+    public ReviewCursorPageDto getTopRatedReviews(int minRating, Integer cursorRating, LocalDateTime cursorCreatedAt,
+                                                  Long cursorId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Une ligne de plus pour savoir s'il existe une page suivante
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        
+        List<Review> rows;
+        if (cursorRating != null && cursorCreatedAt != null && cursorId != null) {
+            rows = reviewRepository.findTopRatedBeforeCursor(minRating, cursorRating, cursorCreatedAt, cursorId, pageable);
+        } else {
+            rows = reviewRepository.findTopRated(minRating, pageable);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<Review> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        Review last = pageRows.isEmpty() ? null : pageRows.get(pageRows.size() - 1);
+        
+        return new ReviewCursorPageDto(
+                convertAll(pageRows),
+                hasMore,
+                hasMore ? last.getRating() : null,
+                hasMore ? last.getCreatedAt() : null,
+                hasMore ? last.getId() : null
+        );
+    }
+    
+    private Pageable pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+    
+    private Page<ReviewDto> toDtoPage(Page<Review> reviews) {
+        return new PageImpl<>(convertAll(reviews.getContent()), reviews.getPageable(), reviews.getTotalElements());
+    }
+    
+    // Conversion d'une page d'avis avec chargement des auteurs en une seule requête
+    private List<ReviewDto> convertAll(List<Review> reviews) {
+        List<Long> userIds = reviews.stream()
+                .map(Review::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, User> users = userIds.isEmpty() ? Map.of() : userService.findAllByIds(userIds);
+        return reviews.stream()
+                .map(review -> convertToDto(review, users.get(review.getUserId())))
                 .collect(Collectors.toList());
     }
     
     private ReviewDto convertToDto(Review review) {
+        return convertToDto(review, review.getUserId() != null ? userService.findById(review.getUserId()) : null);
+    }
+    
+    private ReviewDto convertToDto(Review review, User user) {
         ReviewDto dto = new ReviewDto();
         dto.setId(review.getId());
         dto.setProductId(review.getProductId());
         dto.setUserId(review.getUserId());
         
-        // Get user information
-        User user = userService.findById(review.getUserId());
         if (user != null) {
             dto.setUserName(user.getFirstName() + " " + user.getLastName());
         } else {
@@ -0,0 +1,226 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.repository.ConversationRepository;
+import com.bacoge.constructionmaterial.repository.NotificationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Compteurs de non-lus (notifications et messages de conversation), par utilisateur
+ * et pour l'administration.
+ *
+ * Une valeur absente du cache est calculée par une seule requête d'agrégat (COUNT ou SUM) ;
+ * elle est ensuite mise à jour en mémoire par les services qui la modifient (réponse,
+ * lecture, création de notification...) puis poussée via WebSocket, ce qui évite aux
+ * interfaces d'interroger périodiquement les endpoints de comptage.
+ *
+ * Les modifications faites dans une transaction ne sont appliquées qu'après le commit.
+ * Les entrées expirent après quelques minutes pour borner tout écart avec la base
+ * (par exemple une lecture concurrente d'une valeur antérieure au commit).
+ */
+@Service
+public class UnreadCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounterService.class);
+
+    public enum Counter {
+        NOTIFICATIONS,
+        MESSAGES
+    }
+
+    /** userId null = compteur des administrateurs */
+    private record Key(Counter counter, Long userId) {
+
+        boolean isAdmin() {
+            return userId == null;
+        }
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final ConversationRepository conversationRepository;
+    private final WebSocketNotificationService webSocketNotificationService;
+
+    private final Cache<Key, AtomicLong> counters = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    public UnreadCounterService(NotificationRepository notificationRepository,
+                                ConversationRepository conversationRepository,
+                                WebSocketNotificationService webSocketNotificationService) {
+        this.notificationRepository = notificationRepository;
+        this.conversationRepository = conversationRepository;
+        this.webSocketNotificationService = webSocketNotificationService;
+    }
+
+    // ========== LECTURE ==========
+
+    public long getUserNotifications(Long userId) {
+        return userId == null ? 0 : get(new Key(Counter.NOTIFICATIONS, userId));
+    }
+
+    public long getUserMessages(Long userId) {
+        return userId == null ? 0 : get(new Key(Counter.MESSAGES, userId));
+    }
+
+    public long getAdminNotifications() {
+        return get(new Key(Counter.NOTIFICATIONS, null));
+    }
+
+    public long getAdminMessages() {
+        return get(new Key(Counter.MESSAGES, null));
+    }
+
+    // ========== MODIFICATIONS ==========
+
+    public void adjustUserNotifications(Long userId, long delta) {
+        if (userId != null && delta != 0) {
+            afterCommit(() -> apply(new Key(Counter.NOTIFICATIONS, userId), v -> v + delta));
+        }
+    }
+
+    public void resetUserNotifications(Long userId) {
+        if (userId != null) {
+            afterCommit(() -> apply(new Key(Counter.NOTIFICATIONS, userId), v -> 0));
+        }
+    }
+
+    public void adjustAdminNotifications(long delta) {
+        if (delta != 0) {
+            afterCommit(() -> apply(new Key(Counter.NOTIFICATIONS, null), v -> v + delta));
+        }
+    }
+
+    public void resetAdminNotifications() {
+        afterCommit(() -> apply(new Key(Counter.NOTIFICATIONS, null), v -> 0));
+    }
+
+    public void adjustUserMessages(Long userId, long delta) {
+        if (userId != null && delta != 0) {
+            afterCommit(() -> apply(new Key(Counter.MESSAGES, userId), v -> v + delta));
+        }
+    }
+
+    public void adjustAdminMessages(long delta) {
+        if (delta != 0) {
+            afterCommit(() -> apply(new Key(Counter.MESSAGES, null), v -> v + delta));
+        }
+    }
+
+    /**
+     * Suppression en masse dont l'effet par utilisateur n'est pas connu (expiration...) :
+     * les compteurs de notifications sont recalculés à la prochaine lecture
+     */
+    public void invalidateNotifications() {
+        afterCommit(() -> {
+            counters.asMap().keySet().removeIf(key -> key.counter() == Counter.NOTIFICATIONS);
+            push(new Key(Counter.NOTIFICATIONS, null), getAdminNotifications());
+        });
+    }
+
+    /**
+     * Notifications enregistrées par le NotificationDispatcher (hors transaction métier).
+     * Les compteurs absents du cache sont chargés en une seule requête groupée.
+     * @param createdPerUser nombre de notifications créées par utilisateur
+     * @param createdForAdmins nombre de notifications créées pour les administrateurs
+     */
+    public void notificationsCreated(Map<Long, Integer> createdPerUser, int createdForAdmins) {
+        List<Long> missing = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : createdPerUser.entrySet()) {
+            AtomicLong value = counters.getIfPresent(new Key(Counter.NOTIFICATIONS, entry.getKey()));
+            if (value != null) {
+                value.addAndGet(entry.getValue());
+            } else {
+                missing.add(entry.getKey());
+            }
+        }
+        if (!missing.isEmpty()) {
+            // Les lignes viennent d'être insérées : le comptage les inclut déjà
+            for (Long userId : missing) {
+                counters.put(new Key(Counter.NOTIFICATIONS, userId), new AtomicLong());
+            }
+            for (Object[] row : notificationRepository.countUnreadByUserIds(missing)) {
+                AtomicLong value = counters.getIfPresent(new Key(Counter.NOTIFICATIONS, ((Number) row[0]).longValue()));
+                if (value != null) {
+                    value.set(((Number) row[1]).longValue());
+                }
+            }
+        }
+        for (Long userId : createdPerUser.keySet()) {
+            push(new Key(Counter.NOTIFICATIONS, userId), getUserNotifications(userId));
+        }
+        if (createdForAdmins > 0) {
+            apply(new Key(Counter.NOTIFICATIONS, null), v -> v + createdForAdmins);
+        }
+    }
+
+    // ========== INTERNE ==========
+
+    private long get(Key key) {
+        return counters.get(key, k -> new AtomicLong(load(k))).get();
+    }
+
+    // Une valeur absente est relue en base (après le commit, elle inclut donc déjà la modification)
+    private void apply(Key key, LongUnaryOperator update) {
+        try {
+            AtomicLong value = counters.getIfPresent(key);
+            long current = value != null
+                    ? value.updateAndGet(v -> Math.max(0, update.applyAsLong(v)))
+                    : get(key);
+            push(key, current);
+        } catch (Exception e) {
+            counters.invalidate(key);
+            logger.error("Erreur lors de la mise à jour du compteur {} (userId={})", key.counter(), key.userId(), e);
+        }
+    }
+
+    private long load(Key key) {
+        if (key.counter() == Counter.NOTIFICATIONS) {
+            return key.isAdmin()
+                    ? notificationRepository.countAdminUnread()
+                    : notificationRepository.countByRelatedUserIdAndIsReadFalse(key.userId());
+        }
+        return key.isAdmin()
+                ? conversationRepository.sumAdminUnreadCount()
+                : conversationRepository.sumUserUnreadCount(key.userId());
+    }
+
+    private void push(Key key, long value) {
+        if (key.counter() == Counter.NOTIFICATIONS) {
+            if (key.isAdmin()) {
+                webSocketNotificationService.sendNotificationCountUpdate((int) value);
+            } else {
+                webSocketNotificationService.sendUserNotificationCount(key.userId(), value);
+            }
+        } else if (key.isAdmin()) {
+            webSocketNotificationService.sendAdminMessageCount(value);
+        } else {
+            webSocketNotificationService.sendUserMessageCount(key.userId(), value);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.service;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
 import com.bacoge.constructionmaterial.dto.ChangePasswordRequest;
 import com.bacoge.constructionmaterial.dto.UpdateProfileRequest;
 import com.bacoge.constructionmaterial.dto.UserResponse;
@@ -40,6 +41,9 @@ public class UserProfileService {
     
     @Autowired
     private NotificationService notificationService;
+    
+    @Autowired
+    private JwtPrincipalCache jwtPrincipalCache;
 
     /**
      * Récupère le profil de l'utilisateur connecté
@@ -72,6 +76,8 @@ public class UserProfileService {
             }
         }
 
+        String previousEmail = currentUser.getEmail();
+
         // Mettre à jour les informations
         currentUser.setFirstName(request.getFirstName());
         currentUser.setLastName(request.getLastName());
@@ -86,6 +92,7 @@ public class UserProfileService {
         }
 
         User updatedUser = userRepository.save(currentUser);
+        jwtPrincipalCache.evictUser(previousEmail);
         
         logger.info("Profil mis à jour avec succès pour l'utilisateur: {}", updatedUser.getEmail());
         
@@ -128,6 +135,7 @@ public class UserProfileService {
         // Mettre à jour le mot de passe
         currentUser.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(currentUser);
+        jwtPrincipalCache.evictUser(currentUser.getEmail());
 
         logger.info("Mot de passe changé avec succès pour l'utilisateur: {}", currentUser.getEmail());
 
@@ -142,6 +150,7 @@ public class UserProfileService {
     /**
      * Désactive le compte de l'utilisateur connecté
      */
+    @EvictDashboardCaches
     public void deactivateAccount() {
         User currentUser = getCurrentUser();
         if (currentUser == null) {
@@ -152,6 +161,7 @@ public class UserProfileService {
 
         currentUser.setStatus(User.UserStatus.INACTIVE);
         userRepository.save(currentUser);
+        jwtPrincipalCache.evictUser(currentUser.getEmail());
 
         logger.info("Compte désactivé avec succès pour l'utilisateur: {}", currentUser.getEmail());
 
@@ -166,6 +176,7 @@ public class UserProfileService {
     /**
      * Réactive le compte de l'utilisateur
      */
+    @EvictDashboardCaches
     public void reactivateAccount(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isEmpty()) {
@@ -177,6 +188,7 @@ public class UserProfileService {
 
         user.setStatus(User.UserStatus.ACTIVE);
         userRepository.save(user);
+        jwtPrincipalCache.evictUser(user.getEmail());
 
         logger.info("Compte réactivé avec succès pour l'utilisateur: {}", user.getEmail());
     }
@@ -185,6 +197,7 @@ public class UserProfileService {
      * Supprime définitivement le compte de l'utilisateur connecté
      * ATTENTION: Cette action est irréversible
      */
+    @EvictDashboardCaches
     public void deleteAccount() {
         User currentUser = getCurrentUser();
         if (currentUser == null) {
@@ -207,6 +220,7 @@ public class UserProfileService {
 
         // Supprimer l'utilisateur de la base de données
         userRepository.delete(currentUser);
+        jwtPrincipalCache.evictUser(userEmail);
 
         logger.warn("Compte supprimé définitivement pour l'utilisateur: {}", userEmail);
 
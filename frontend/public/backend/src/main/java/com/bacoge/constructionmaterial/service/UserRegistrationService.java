@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.service;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
 import com.bacoge.constructionmaterial.dto.RegisterRequest;
 import com.bacoge.constructionmaterial.model.User;
 import com.bacoge.constructionmaterial.repository.UserRepository;
@@ -17,6 +18,7 @@ public class UserRegistrationService {
         this.passwordEncoder = passwordEncoder;
     }
     
+    @EvictDashboardCaches
     public User registerUser(RegisterRequest registerRequest) {
         // Vérifier si l'utilisateur existe déjà
         if (userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
@@ -4,6 +4,11 @@ import com.bacoge.constructionmaterial.model.User;
 import com.bacoge.constructionmaterial.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class UserService {
     
@@ -20,4 +25,9 @@ public class UserService {
     public User findById(Long id) {
         return userRepository.findById(id).orElse(null);
     }
+    
+    public Map<Long, User> findAllByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
 }
\ No newline at end of file
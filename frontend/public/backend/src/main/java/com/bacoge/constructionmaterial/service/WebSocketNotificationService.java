@@ -22,6 +22,9 @@ public class WebSocketNotificationService {
     
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private AdminNotificationStream adminNotificationStream;
     
     @Autowired
     private ObjectMapper objectMapper;
@@ -34,10 +37,10 @@ public class WebSocketNotificationService {
         try {
             Map<String, Object> message = createNotificationMessage(notification);
             
-            // Envoie à tous les administrateurs via le topic
-            messagingTemplate.convertAndSend("/topic/admin/notifications", message);
+            // Regroupé avec les autres événements de la fenêtre courante (AdminNotificationStream)
+            adminNotificationStream.publish(message, notification.getPriority().name());
             
-            logger.info("Notification envoyée aux admins: {} - {}", 
+            logger.debug("Notification mise en file pour les admins: {} - {}", 
                        notification.getType(), notification.getTitle());
                        
         } catch (Exception e) {
@@ -66,7 +69,7 @@ public class WebSocketNotificationService {
                 metadata.put("entityType", dto.getRelatedEntityType());
                 message.put("metadata", metadata);
             }
-            messagingTemplate.convertAndSend("/topic/admin/notifications", message);
+            adminNotificationStream.publish(message, dto.getPriority());
         } catch (Exception e) {
             logger.error("Erreur lors de l'envoi de la notification WebSocket (DTO): ", e);
         }
@@ -194,6 +197,41 @@ public class WebSocketNotificationService {
         }
     }
 
+    /**
+     * Envoie le nombre de messages de conversation non lus d'un client
+     * Canal: /topic/client/{userId}/message-count
+     */
+    public void sendUserMessageCount(Long userId, long unreadCount) {
+        if (userId == null) return;
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "USER_MESSAGE_COUNT_UPDATE");
+            message.put("unreadCount", unreadCount);
+            message.put("timestamp", System.currentTimeMillis());
+            messagingTemplate.convertAndSend("/topic/client/" + userId + "/message-count", message);
+            logger.debug("Mise à jour du compteur de messages client envoyée (userId={}, count={})", userId, unreadCount);
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'envoi du compteur de messages client {}: ", userId, e);
+        }
+    }
+
+    /**
+     * Envoie le nombre de messages de conversation non lus côté administration
+     * Canal: /topic/admin/message-count
+     */
+    public void sendAdminMessageCount(long unreadCount) {
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "MESSAGE_COUNT_UPDATE");
+            message.put("unreadCount", unreadCount);
+            message.put("timestamp", System.currentTimeMillis());
+            messagingTemplate.convertAndSend("/topic/admin/message-count", message);
+            logger.debug("Mise à jour du compteur de messages admin envoyée: {}", unreadCount);
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'envoi du compteur de messages admin: ", e);
+        }
+    }
+
     /**
      * Crée un message de notification formaté pour WebSocket
      * @param notification La notification source
@@ -0,0 +1,72 @@
+package com.bacoge.constructionmaterial.service.admin;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+@Service
+public class AdminCacheService {
+
+    private final CacheManager cacheManager;
+
+    public AdminCacheService(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get hit/miss/eviction statistics for every cache
+     */
+    public Map<String, Map<String, Object>> getCacheStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String name : new TreeSet<>(cacheManager.getCacheNames())) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = getNativeCache(name);
+            if (nativeCache == null) {
+                continue;
+            }
+            CacheStats stats = nativeCache.stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", nativeCache.estimatedSize());
+            entry.put("hitCount", stats.hitCount());
+            entry.put("missCount", stats.missCount());
+            entry.put("hitRate", stats.hitRate());
+            entry.put("evictionCount", stats.evictionCount());
+            entry.put("requestCount", stats.requestCount());
+            result.put(name, entry);
+        }
+        return result;
+    }
+
+    /**
+     * Clear a cache by name
+     */
+    public boolean clearCache(String name) {
+        // getCache() crée les caches à la demande : ne pas en créer un pour un nom inconnu
+        if (!cacheManager.getCacheNames().contains(name)) {
+            return false;
+        }
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return false;
+        }
+        cache.clear();
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache;
+        }
+        return null;
+    }
+}
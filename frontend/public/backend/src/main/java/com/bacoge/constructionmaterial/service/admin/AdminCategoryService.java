@@ -4,6 +4,7 @@ import com.bacoge.constructionmaterial.dto.admin.CategoryDto;
 import com.bacoge.constructionmaterial.dto.admin.CreateCategoryRequest;
 import com.bacoge.constructionmaterial.model.Category;
 import com.bacoge.constructionmaterial.repository.CategoryRepository;
+import com.bacoge.constructionmaterial.service.CategorySnapshotService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,33 +15,23 @@ import java.util.stream.Collectors;
 public class AdminCategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final CategorySnapshotService categorySnapshotService;
     
-    public AdminCategoryService(CategoryRepository categoryRepository) {
+    public AdminCategoryService(CategoryRepository categoryRepository, CategorySnapshotService categorySnapshotService) {
         this.categoryRepository = categoryRepository;
+        this.categorySnapshotService = categorySnapshotService;
     }
     
-    @Transactional(readOnly = true)
+    // Listes lues dans l'instantané des catégories (compteurs de produits actifs inclus)
     public List<CategoryDto> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(category -> {
-                    CategoryDto dto = CategoryDto.fromEntity(category);
-                    Long count = categoryRepository.countActiveProductsByCategoryId(category.getId());
-                    dto.setProductsCount(count != null ? count : 0L);
-                    return dto;
-                })
+        return categorySnapshotService.current().categories().stream()
+                .map(CategoryDto::fromSummary)
                 .collect(Collectors.toList());
     }
     
-    @Transactional(readOnly = true)
     public List<CategoryDto> getActiveCategories() {
-        return categoryRepository.findAll().stream()
-                .filter(category -> category.getStatus() == Category.CategoryStatus.ACTIVE)
-                .map(category -> {
-                    CategoryDto dto = CategoryDto.fromEntity(category);
-                    Long count = categoryRepository.countActiveProductsByCategoryId(category.getId());
-                    dto.setProductsCount(count != null ? count : 0L);
-                    return dto;
-                })
+        return categorySnapshotService.current().activeCategories().stream()
+                .map(CategoryDto::fromSummary)
                 .collect(Collectors.toList());
     }
     
@@ -76,6 +67,7 @@ public class AdminCategoryService {
         }
         
         Category savedCategory = categoryRepository.save(category);
+        categorySnapshotService.rebuildAfterCommit();
         CategoryDto dto = CategoryDto.fromEntity(savedCategory);
         return dto;
     }
@@ -94,6 +86,7 @@ public class AdminCategoryService {
         }
         
         Category savedCategory = categoryRepository.save(category);
+        categorySnapshotService.rebuildAfterCommit();
         CategoryDto dto = CategoryDto.fromEntity(savedCategory);
         return dto;
     }
@@ -104,6 +97,7 @@ public class AdminCategoryService {
             throw new RuntimeException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        categorySnapshotService.rebuildAfterCommit();
     }
     
     @Transactional
@@ -113,28 +107,24 @@ public class AdminCategoryService {
         
         category.setStatus(status);
         Category savedCategory = categoryRepository.save(category);
+        categorySnapshotService.rebuildAfterCommit();
         CategoryDto dto = CategoryDto.fromEntity(savedCategory);
         return dto;
     }
     
-    @Transactional(readOnly = true)
     public List<CategoryDto> searchCategoriesByName(String name) {
-        return categoryRepository.findAll().stream()
-                .filter(category -> category.getName().toLowerCase().contains(name.toLowerCase()))
-                .map(category -> {
-                    CategoryDto dto = CategoryDto.fromEntity(category);
-                    return dto;
-                })
+        String search = name.toLowerCase();
+        return categorySnapshotService.current().categories().stream()
+                .filter(category -> category.name() != null && category.name().toLowerCase().contains(search))
+                .map(CategoryDto::fromSummary)
                 .collect(Collectors.toList());
     }
     
     public long getTotalCategories() {
-        return categoryRepository.count();
+        return categorySnapshotService.current().categories().size();
     }
     
     public long getActiveCategoriesCount() {
-        return categoryRepository.findAll().stream()
-                .filter(category -> category.getStatus() == Category.CategoryStatus.ACTIVE)
-                .count();
+        return categorySnapshotService.current().activeCategories().size();
     }
 }
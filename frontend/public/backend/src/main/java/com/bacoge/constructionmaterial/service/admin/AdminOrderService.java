@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.service.admin;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
 import com.bacoge.constructionmaterial.dto.UserResponse;
 import com.bacoge.constructionmaterial.dto.admin.CreateOrderRequest;
 import com.bacoge.constructionmaterial.dto.admin.OrderDto;
@@ -9,6 +10,7 @@ import com.bacoge.constructionmaterial.model.Order;
 import com.bacoge.constructionmaterial.model.OrderItem;
 import com.bacoge.constructionmaterial.model.User;
 import com.bacoge.constructionmaterial.service.NotificationService;
+import com.bacoge.constructionmaterial.service.OrderStatsRollupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -41,15 +43,18 @@ public class AdminOrderService {
     private final com.bacoge.constructionmaterial.repository.UserRepository userRepository;
     private final com.bacoge.constructionmaterial.repository.OrderItemRepository orderItemRepository;
     private final NotificationService notificationService;
+    private final OrderStatsRollupService orderStatsRollupService;
     
     public AdminOrderService(com.bacoge.constructionmaterial.repository.OrderRepository orderRepository,
                            com.bacoge.constructionmaterial.repository.UserRepository userRepository,
                            com.bacoge.constructionmaterial.repository.OrderItemRepository orderItemRepository,
-                           NotificationService notificationService) {
+                           NotificationService notificationService,
+                           OrderStatsRollupService orderStatsRollupService) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.orderItemRepository = orderItemRepository;
         this.notificationService = notificationService;
+        this.orderStatsRollupService = orderStatsRollupService;
     }
     
     public Page<OrderDto> getAllOrders(String search, Long userId, Order.OrderStatus status, 
@@ -65,13 +70,12 @@ public class AdminOrderService {
     }
     
     public OrderDto getOrderByOrderNumber(String orderNumber) {
-        Order order = orderRepository.findAll().stream()
-                .filter(o -> o.getOrderNumber().equals(orderNumber))
-                .findFirst()
+        Order order = orderRepository.findByOrderNumber(orderNumber)
                 .orElseThrow(() -> new RuntimeException("Order not found with order number: " + orderNumber));
         return convertToDto(order);
     }
     
+    @EvictDashboardCaches
     @org.springframework.transaction.annotation.Transactional
     public OrderDto createOrder(CreateOrderRequest request) {
         Order order = new Order();
@@ -84,36 +88,44 @@ public class AdminOrderService {
         order.setOrderDate(LocalDateTime.now());
         
         Order savedOrder = orderRepository.save(order);
+        orderStatsRollupService.recordOrderCreated(savedOrder);
         return convertToDto(savedOrder);
     }
     
+    @EvictDashboardCaches
     @org.springframework.transaction.annotation.Transactional
     public OrderDto updateOrder(Long id, CreateOrderRequest request) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         
+        BigDecimal previousAmount = order.getTotalAmount();
         order.setTotalAmount(request.getTotalAmount());
         // Update other fields as needed
         
         Order savedOrder = orderRepository.save(order);
+        orderStatsRollupService.recordAmountChange(savedOrder, previousAmount);
         return convertToDto(savedOrder);
     }
     
+    @EvictDashboardCaches
     @org.springframework.transaction.annotation.Transactional
     public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new RuntimeException("Order not found with id: " + id);
-        }
-        orderRepository.deleteById(id);
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        orderStatsRollupService.recordOrderDeleted(order);
+        orderRepository.delete(order);
     }
     
+    @EvictDashboardCaches
     @org.springframework.transaction.annotation.Transactional
     public OrderDto updateOrderStatus(Long id, Order.OrderStatus status) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
         Order savedOrder = orderRepository.save(order);
+        orderStatsRollupService.recordStatusChange(savedOrder, previousStatus);
         try {
             notificationService.sendOrderStatusNotification(savedOrder, status != null ? status.name() : (savedOrder.getStatus() != null ? savedOrder.getStatus().name() : null));
         } catch (Exception e) {
@@ -122,6 +134,7 @@ public class AdminOrderService {
         return convertToDto(savedOrder);
     }
     
+    @EvictDashboardCaches
     @org.springframework.transaction.annotation.Transactional
     public OrderDto updatePaymentStatus(Long id, Order.PaymentStatus paymentStatus) {
         Order order = orderRepository.findById(id)
@@ -158,8 +171,7 @@ public class AdminOrderService {
     }
     
     public List<OrderDto> getOrdersBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getOrderDate().isAfter(startDate) && order.getOrderDate().isBefore(endDate))
+        return orderRepository.findByOrderDateStrictlyBetween(startDate, endDate).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -169,9 +181,7 @@ public class AdminOrderService {
     }
     
     public long getOrdersCountByStatus(Order.OrderStatus status) {
-        return orderRepository.findAll().stream()
-                .filter(order -> order.getStatus() == status)
-                .count();
+        return orderRepository.countByStatus(status);
     }
     
     public BigDecimal getTotalRevenueBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
@@ -1,5 +1,6 @@
 package com.bacoge.constructionmaterial.service.admin;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
 import com.bacoge.constructionmaterial.dto.admin.CreateProductRequest;
 import com.bacoge.constructionmaterial.dto.admin.ProductDto;
 import com.bacoge.constructionmaterial.dto.client.ProductDisplayDto;
@@ -9,6 +10,9 @@ import com.bacoge.constructionmaterial.model.Category;
 import com.bacoge.constructionmaterial.model.ProductImage;
 import com.bacoge.constructionmaterial.repository.ProductRepository;
 import com.bacoge.constructionmaterial.repository.CategoryRepository;
+import com.bacoge.constructionmaterial.service.CategorySnapshotService;
+import com.bacoge.constructionmaterial.service.ImageDerivativeService;
+import com.bacoge.constructionmaterial.service.ProductSearchIndex;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -24,10 +28,18 @@ public class AdminProductService {
     
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ImageDerivativeService imageDerivativeService;
+    private final CategorySnapshotService categorySnapshotService;
     
-    public AdminProductService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    public AdminProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                               ProductSearchIndex productSearchIndex, ImageDerivativeService imageDerivativeService,
+                               CategorySnapshotService categorySnapshotService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.imageDerivativeService = imageDerivativeService;
+        this.categorySnapshotService = categorySnapshotService;
     }
     
     public Page<ProductDto> getAllProducts(String search, Product.ProductStatus status, Pageable pageable) {
@@ -62,6 +74,7 @@ public class AdminProductService {
         return convertToDto(product);
     }
     
+    @EvictDashboardCaches
     public ProductDto createProduct(CreateProductRequest request) {
         Product product = new Product();
         product.setName(request.getName());
@@ -102,6 +115,7 @@ public class AdminProductService {
                 productImage.setIsMain(i == 0); // La première image est l'image principale
                 productImage.setDisplayOrder(i + 1);
                 productImage.setProduct(savedProduct);
+                imageDerivativeService.attachDerivatives(productImage);
                 
                 savedProduct.addImage(productImage);
             }
@@ -110,9 +124,12 @@ public class AdminProductService {
             savedProduct = productRepository.save(savedProduct);
         }
         
+        productSearchIndex.indexAfterCommit(savedProduct);
+        categorySnapshotService.refreshAfterCommit();
         return convertToDto(savedProduct);
     }
     
+    @EvictDashboardCaches
     public ProductDto updateProduct(Long id, CreateProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
@@ -158,22 +175,29 @@ public class AdminProductService {
                 productImage.setIsMain(i == 0); // La première image est l'image principale
                 productImage.setDisplayOrder(i + 1);
                 productImage.setProduct(product);
+                imageDerivativeService.attachDerivatives(productImage);
                 
                 product.addImage(productImage);
             }
         }
         
         Product savedProduct = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(savedProduct);
+        categorySnapshotService.refreshAfterCommit();
         return convertToDto(savedProduct);
     }
     
+    @EvictDashboardCaches
     public void deleteProduct(Long id) {
         if (!productRepository.existsById(id)) {
             throw new RuntimeException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        productSearchIndex.removeAfterCommit(id);
+        categorySnapshotService.refreshAfterCommit();
     }
     
+    @EvictDashboardCaches
     public ProductDto updateProductStatus(Long id, Product.ProductStatus status) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
@@ -181,9 +205,12 @@ public class AdminProductService {
         product.setStatus(status);
         product.setUpdatedAt(LocalDateTime.now());
         Product savedProduct = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(savedProduct);
+        categorySnapshotService.refreshAfterCommit();
         return convertToDto(savedProduct);
     }
     
+    @EvictDashboardCaches
     public ProductDto updateStock(Long id, Integer stockQuantity) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
@@ -332,14 +359,18 @@ public class AdminProductService {
         dto.setInStock(product.getStockQuantity() > 0);
         dto.setLowStock(product.getStockQuantity() < 10);
         dto.setImageUrl(product.getImageUrl());
+        dto.applyImageVariants(product.getImages().stream()
+                .filter(image -> Boolean.TRUE.equals(image.getIsMain()))
+                .findFirst()
+                .orElse(null));
         dto.setSku(product.getSku());
         dto.setWeightKg(product.getWeightKg());
         dto.setDimensions(product.getDimensions());
         dto.setBrand(product.getBrand());
         dto.setStatus(product.getStatus() != null ? product.getStatus().name() : null);
         dto.setCreatedAt(product.getCreatedAt());
-        dto.setAverageRating(0.0); // Default value, should be calculated
-        dto.setReviewCount(0); // Default value
+        dto.setAverageRating(product.getAverageRating());
+        dto.setReviewCount(product.getReviewCount());
         
         // Set promotion if exists
         if (product.getPromotion() != null) {
@@ -8,6 +8,7 @@ import com.bacoge.constructionmaterial.repository.CategoryRepository;
 import com.bacoge.constructionmaterial.repository.ProductRepository;
 import com.bacoge.constructionmaterial.model.Product;
 import com.bacoge.constructionmaterial.model.Category;
+import com.bacoge.constructionmaterial.service.CategorySnapshotService;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -26,13 +27,16 @@ public class AdminPromotionService {
     private final PromotionRepository promotionRepository;
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final CategorySnapshotService categorySnapshotService;
     
     public AdminPromotionService(PromotionRepository promotionRepository,
                                  CategoryRepository categoryRepository,
-                                 ProductRepository productRepository) {
+                                 ProductRepository productRepository,
+                                 CategorySnapshotService categorySnapshotService) {
         this.promotionRepository = promotionRepository;
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
+        this.categorySnapshotService = categorySnapshotService;
     }
     
     public List<PromotionDto> getAllPromotions() {
@@ -123,6 +127,7 @@ public class AdminPromotionService {
         applyRequestToEntity(promotion, request);
 
         Promotion savedPromotion = promotionRepository.save(promotion);
+        categorySnapshotService.refreshAfterCommit();
         return convertToDto(savedPromotion);
     }
     
@@ -131,6 +136,7 @@ public class AdminPromotionService {
                 .orElseThrow(() -> new RuntimeException("Promotion not found with id: " + id));
         applyRequestToEntity(promotion, request);
         Promotion savedPromotion = promotionRepository.save(promotion);
+        categorySnapshotService.refreshAfterCommit();
         return convertToDto(savedPromotion);
     }
     
@@ -139,6 +145,7 @@ public class AdminPromotionService {
             throw new RuntimeException("Promotion not found with id: " + id);
         }
         promotionRepository.deleteById(id);
+        categorySnapshotService.refreshAfterCommit();
     }
     
     public PromotionDto updatePromotionStatus(Long id, Promotion.PromotionStatus status) {
@@ -147,6 +154,7 @@ public class AdminPromotionService {
         
         promotion.setStatus(status);
         Promotion savedPromotion = promotionRepository.save(promotion);
+        categorySnapshotService.refreshAfterCommit();
         return convertToDto(savedPromotion);
     }
     
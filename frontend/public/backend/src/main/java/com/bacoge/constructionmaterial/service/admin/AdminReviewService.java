@@ -8,6 +8,7 @@ import com.bacoge.constructionmaterial.model.User;
 import com.bacoge.constructionmaterial.repository.ProductReviewRepository;
 import com.bacoge.constructionmaterial.repository.ProductRepository;
 import com.bacoge.constructionmaterial.repository.UserRepository;
+import com.bacoge.constructionmaterial.service.ProductRatingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,6 +28,7 @@ public class AdminReviewService {
     private final ProductReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ProductRatingService productRatingService;
 
     /**
      * Créer un nouvel avis
@@ -61,6 +63,9 @@ public class AdminReviewService {
         review.setHelpfulVotes(0);
 
         ProductReview savedReview = reviewRepository.save(review);
+        if (Boolean.TRUE.equals(savedReview.getIsApproved())) {
+            productRatingService.recordApproved(product.getId(), savedReview.getRating());
+        }
         return ProductReviewDto.fromEntity(savedReview);
     }
 
@@ -115,8 +120,10 @@ public class AdminReviewService {
         ProductReview review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Avis non trouvé avec l'ID: " + reviewId));
 
+        boolean wasApproved = Boolean.TRUE.equals(review.getIsApproved());
         review.setIsApproved(true);
         ProductReview savedReview = reviewRepository.save(review);
+        productRatingService.recordApprovalChange(review.getProduct().getId(), review.getRating(), wasApproved, true);
         return ProductReviewDto.fromEntity(savedReview);
     }
 
@@ -127,8 +134,10 @@ public class AdminReviewService {
         ProductReview review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Avis non trouvé avec l'ID: " + reviewId));
 
+        boolean wasApproved = Boolean.TRUE.equals(review.getIsApproved());
         review.setIsApproved(false);
         ProductReview savedReview = reviewRepository.save(review);
+        productRatingService.recordApprovalChange(review.getProduct().getId(), review.getRating(), wasApproved, false);
         return ProductReviewDto.fromEntity(savedReview);
     }
 
@@ -136,10 +145,12 @@ public class AdminReviewService {
      * Supprimer un avis
      */
     public void deleteReview(Long reviewId) {
-        if (!reviewRepository.existsById(reviewId)) {
-            throw new RuntimeException("Avis non trouvé avec l'ID: " + reviewId);
+        ProductReview review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Avis non trouvé avec l'ID: " + reviewId));
+        reviewRepository.delete(review);
+        if (Boolean.TRUE.equals(review.getIsApproved())) {
+            productRatingService.recordUnapproved(review.getProduct().getId(), review.getRating());
         }
-        reviewRepository.deleteById(reviewId);
     }
 
     /**
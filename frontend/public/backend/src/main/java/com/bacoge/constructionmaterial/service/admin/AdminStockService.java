@@ -1,5 +1,7 @@
 package com.bacoge.constructionmaterial.service.admin;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
+import com.bacoge.constructionmaterial.dto.admin.StockMovementCursorPageDto;
 import com.bacoge.constructionmaterial.dto.admin.StockMovementDto;
 import com.bacoge.constructionmaterial.model.Product;
 import com.bacoge.constructionmaterial.model.StockMovement;
@@ -9,7 +11,6 @@ import com.bacoge.constructionmaterial.repository.StockMovementRepository;
 import com.bacoge.constructionmaterial.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -23,6 +24,8 @@ import java.util.stream.Collectors;
 @Service
 public class AdminStockService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     private final StockMovementRepository stockMovementRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
@@ -39,6 +42,7 @@ public class AdminStockService {
     /**
      * Record a stock movement and update product stock
      */
+    @EvictDashboardCaches
     @Transactional
     public StockMovementDto recordStockMovement(Long productId, Integer quantity, 
                                               StockMovement.MovementType type, 
@@ -109,9 +113,7 @@ public class AdminStockService {
      * Get stock movements for a specific product
      */
     public List<StockMovementDto> getProductStockMovements(Long productId) {
-        return stockMovementRepository.findAll().stream()
-                .filter(movement -> movement.getProductId().equals(productId))
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
+        return stockMovementRepository.findByProductIdOrderByCreatedAtDesc(productId).stream()
                 .map(StockMovementDto::fromStockMovement)
                 .collect(Collectors.toList());
     }
@@ -120,29 +122,16 @@ public class AdminStockService {
      * Get paginated stock movements for a specific product
      */
     public Page<StockMovementDto> getProductStockMovements(Long productId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        List<StockMovement> allMovements = stockMovementRepository.findAll().stream()
-                .filter(movement -> movement.getProductId().equals(productId))
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .collect(Collectors.toList());
-        
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allMovements.size());
-        List<StockMovement> pageContent = allMovements.subList(start, end);
-        
-        return new PageImpl<>(
-            pageContent.stream().map(StockMovementDto::fromStockMovement).collect(Collectors.toList()),
-            pageable,
-            allMovements.size()
-        );
+        Pageable pageable = PageRequest.of(page, size);
+        return stockMovementRepository.findByProductIdOrderByCreatedAtDesc(productId, pageable)
+                .map(StockMovementDto::fromStockMovement);
     }
 
     /**
      * Get stock movements between two dates
      */
     public List<StockMovementDto> getStockMovementsBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
-        return stockMovementRepository.findAll().stream()
-                .filter(movement -> movement.getCreatedAt().isAfter(startDate) && movement.getCreatedAt().isBefore(endDate))
+        return stockMovementRepository.findCreatedBetween(startDate, endDate).stream()
                 .map(StockMovementDto::fromStockMovement)
                 .collect(Collectors.toList());
     }
@@ -153,29 +142,19 @@ public class AdminStockService {
     public Page<StockMovementDto> getStockMovementsBetweenDates(LocalDateTime startDate, LocalDateTime endDate, 
                                                               int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        List<StockMovement> allMovements = stockMovementRepository.findAll().stream()
-                .filter(movement -> movement.getCreatedAt().isAfter(startDate) && movement.getCreatedAt().isBefore(endDate))
-                .collect(Collectors.toList());
-        
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allMovements.size());
-        List<StockMovement> pageContent = allMovements.subList(start, end);
-        
-        return new PageImpl<>(
-            pageContent.stream().map(StockMovementDto::fromStockMovement).collect(Collectors.toList()),
-            pageable,
-            allMovements.size()
-        );
+        return stockMovementRepository.findCreatedBetween(startDate, endDate, pageable)
+                .map(StockMovementDto::fromStockMovement);
     }
 
     /**
-     * Get movements by type
+     * Get the most recent movements of a type (limit between 1 and MAX_HISTORY_PAGE_SIZE,
+     * IllegalArgumentException otherwise)
      */
     public List<StockMovementDto> getMovementsByType(StockMovement.MovementType type, int limit) {
-        return stockMovementRepository.findAll().stream()
-                .filter(movement -> movement.getMovementType() == type)
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(limit)
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit doit être compris entre 1 et " + MAX_HISTORY_PAGE_SIZE);
+        }
+        return stockMovementRepository.findByMovementTypeOrderByCreatedAtDesc(type, PageRequest.of(0, limit)).stream()
                 .map(StockMovementDto::fromStockMovement)
                 .collect(Collectors.toList());
     }
@@ -184,8 +163,47 @@ public class AdminStockService {
      * Count movements by type
      */
     public long countMovementsByType(StockMovement.MovementType type) {
-        return stockMovementRepository.findAll().stream()
-                .filter(movement -> movement.getMovementType() == type)
-                .count();
+        return stockMovementRepository.countByMovementType(type);
+    }
+
+    /**
+     * Get a page of stock movement history using keyset pagination.
+     * Without a cursor the most recent movements are returned; otherwise the movements
+     * strictly older than (cursorCreatedAt, cursorId). Optional filters: product or type.
+     * The cursor must be complete: cursorCreatedAt and cursorId are given together or not at all.
+     */
+    public StockMovementCursorPageDto getStockMovementHistory(Long productId, StockMovement.MovementType type,
+                                                             LocalDateTime cursorCreatedAt, Long cursorId,
+                                                             int size) {
+        if ((cursorCreatedAt == null) != (cursorId == null)) {
+            throw new IllegalArgumentException("Curseur incomplet : cursorCreatedAt et cursorId vont ensemble");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        LocalDateTime createdAt = cursorCreatedAt != null ? cursorCreatedAt : LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+        Long id = cursorId != null ? cursorId : Long.MAX_VALUE;
+        // Une ligne de plus pour savoir s'il existe une page suivante
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<StockMovement> rows;
+        if (productId != null && type != null) {
+            rows = stockMovementRepository.findByProductIdAndMovementTypeBeforeCursor(productId, type, createdAt, id, pageable);
+        } else if (productId != null) {
+            rows = stockMovementRepository.findByProductIdBeforeCursor(productId, createdAt, id, pageable);
+        } else if (type != null) {
+            rows = stockMovementRepository.findByMovementTypeBeforeCursor(type, createdAt, id, pageable);
+        } else {
+            rows = stockMovementRepository.findBeforeCursor(createdAt, id, pageable);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<StockMovement> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        StockMovement last = pageRows.isEmpty() ? null : pageRows.get(pageRows.size() - 1);
+
+        return new StockMovementCursorPageDto(
+                pageRows.stream().map(StockMovementDto::fromStockMovement).collect(Collectors.toList()),
+                hasMore,
+                hasMore ? last.getCreatedAt() : null,
+                hasMore ? last.getId() : null
+        );
     }
-}
\ No newline at end of file
+}
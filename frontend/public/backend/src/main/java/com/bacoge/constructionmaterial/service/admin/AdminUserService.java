@@ -1,9 +1,11 @@
 package com.bacoge.constructionmaterial.service.admin;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
 import com.bacoge.constructionmaterial.dto.admin.CreateUserRequest;
 import com.bacoge.constructionmaterial.dto.admin.UserDto;
 import com.bacoge.constructionmaterial.model.User;
 import com.bacoge.constructionmaterial.repository.UserRepository;
+import com.bacoge.constructionmaterial.service.JwtPrincipalCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,9 +18,11 @@ import java.util.stream.Collectors;
 public class AdminUserService {
     
     private final UserRepository userRepository;
+    private final JwtPrincipalCache jwtPrincipalCache;
     
-    public AdminUserService(UserRepository userRepository) {
+    public AdminUserService(UserRepository userRepository, JwtPrincipalCache jwtPrincipalCache) {
         this.userRepository = userRepository;
+        this.jwtPrincipalCache = jwtPrincipalCache;
     }
     
     public Page<UserDto> getAllUsers(String firstName, String lastName, String email, 
@@ -33,6 +37,7 @@ public class AdminUserService {
         return convertToDto(user);
     }
     
+    @EvictDashboardCaches
     public UserDto createUser(CreateUserRequest request) {
         User user = new User();
         user.setFirstName(request.getFirstName());
@@ -55,9 +60,11 @@ public class AdminUserService {
         return convertToDto(savedUser);
     }
     
+    @EvictDashboardCaches
     public UserDto updateUser(Long id, CreateUserRequest request) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        String previousEmail = user.getEmail();
         
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
@@ -77,16 +84,19 @@ public class AdminUserService {
         user.setUpdatedAt(LocalDateTime.now());
         
         User savedUser = userRepository.save(user);
+        jwtPrincipalCache.evictUser(previousEmail);
         return convertToDto(savedUser);
     }
     
+    @EvictDashboardCaches
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        userRepository.delete(user);
+        jwtPrincipalCache.evictUser(user.getEmail());
     }
     
+    @EvictDashboardCaches
     public UserDto updateUserStatus(Long id, User.UserStatus status) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -94,19 +104,18 @@ public class AdminUserService {
         user.setStatus(status);
         user.setUpdatedAt(LocalDateTime.now());
         User savedUser = userRepository.save(user);
+        jwtPrincipalCache.evictUser(savedUser.getEmail());
         return convertToDto(savedUser);
     }
     
     public List<UserDto> getUsersByRole(User.UserRole role) {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRole() == role)
+        return userRepository.findByRole(role).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
     public List<UserDto> getUsersByStatus(User.UserStatus status) {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getStatus() == status)
+        return userRepository.findByStatus(status).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -133,12 +142,7 @@ public class AdminUserService {
     
     public List<UserDto> searchUsers(String firstName, String lastName, String email, 
                                     User.UserRole role, User.UserStatus status) {
-        return userRepository.findAll().stream()
-                .filter(user -> firstName == null || user.getFirstName().toLowerCase().contains(firstName.toLowerCase()))
-                .filter(user -> lastName == null || user.getLastName().toLowerCase().contains(lastName.toLowerCase()))
-                .filter(user -> email == null || user.getEmail().toLowerCase().contains(email.toLowerCase()))
-                .filter(user -> role == null || user.getRole() == role)
-                .filter(user -> status == null || user.getStatus() == status)
+        return userRepository.findUsersWithFilters(firstName, lastName, email, role, status, Pageable.unpaged()).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
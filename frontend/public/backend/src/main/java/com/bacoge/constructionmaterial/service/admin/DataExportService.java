@@ -0,0 +1,149 @@
+package com.bacoge.constructionmaterial.service.admin;
+
+import com.bacoge.constructionmaterial.repository.OrderRepository;
+import com.bacoge.constructionmaterial.repository.StockMovementRepository;
+import com.bacoge.constructionmaterial.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports CSV de l'administration (commandes, utilisateurs, mouvements de stock).
+ *
+ * Les lignes sont lues en flux dans une transaction en lecture seule (requêtes Stream des
+ * repositories, projections sans entités gérées) et écrites au fur et à mesure dans le flux
+ * de la réponse : la mémoire utilisée ne dépend pas du volume exporté et les premiers octets
+ * partent dès l'en-tête écrit. Les méthodes streamForExport portent un fetch size de
+ * Integer.MIN_VALUE : le pilote MySQL lit alors les lignes une à une au lieu de charger tout
+ * le résultat ; le Stream doit être fermé avant la fin de la transaction.
+ *
+ * Format : UTF-8 avec BOM, séparateur ';' et virgule décimale pour une ouverture directe dans Excel
+ * (locale française).
+ */
+@Service
+public class DataExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+
+    private static final char SEPARATOR = ';';
+    private static final char DECIMAL_SEPARATOR = ',';
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] ORDER_COLUMNS = {
+            "id", "numero", "date", "statut", "statut_paiement", "moyen_paiement", "sous_total",
+            "taxes", "livraison", "total", "email_client", "prenom_client", "nom_client"
+    };
+    private static final String[] USER_COLUMNS = {
+            "id", "prenom", "nom", "email", "telephone", "pays", "ville", "role", "statut",
+            "date_inscription", "derniere_connexion"
+    };
+    private static final String[] STOCK_MOVEMENT_COLUMNS = {
+            "id", "date", "produit_id", "produit", "type", "quantite", "motif"
+    };
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final StockMovementRepository stockMovementRepository;
+
+    public DataExportService(OrderRepository orderRepository,
+                             UserRepository userRepository,
+                             StockMovementRepository stockMovementRepository) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.stockMovementRepository = stockMovementRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportOrders(LocalDateTime startDate, LocalDateTime endDate, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = orderRepository.streamForExport(startDate, endDate)) {
+            return writeCsv("commandes", ORDER_COLUMNS, rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUsers(LocalDateTime startDate, LocalDateTime endDate, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = userRepository.streamForExport(startDate, endDate)) {
+            return writeCsv("utilisateurs", USER_COLUMNS, rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportStockMovements(LocalDateTime startDate, LocalDateTime endDate, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = stockMovementRepository.streamForExport(startDate, endDate)) {
+            return writeCsv("mouvements de stock", STOCK_MOVEMENT_COLUMNS, rows, out);
+        }
+    }
+
+    // Le flux de la réponse n'est pas fermé ici : il appartient au conteneur
+    private long writeCsv(String label, String[] columns, Stream<Object[]> rows, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write('\uFEFF');
+        writeLine(writer, columns);
+        writer.flush();
+
+        long count = 0;
+        Iterator<Object[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writeLine(writer, iterator.next());
+            count++;
+        }
+        writer.flush();
+        logger.info("Export CSV {} : {} ligne(s) en {} ms", label, count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private void writeLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writeValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number) {
+            String number = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+            writer.write(number.replace('.', DECIMAL_SEPARATOR));
+            return;
+        }
+        String text;
+        if (value instanceof LocalDateTime) {
+            text = DATE_TIME_FORMAT.format((LocalDateTime) value);
+        } else if (value instanceof Enum) {
+            text = ((Enum<?>) value).name();
+        } else {
+            text = value.toString();
+        }
+        // Texte saisi par les clients : neutralise les formules à l'ouverture dans un tableur
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(SEPARATOR) >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.bacoge.constructionmaterial.service.admin;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lecture en flux d'un fichier d'import produits : une ligne à la fois, sans charger le fichier en mémoire.
+ *
+ * - CSV : ligne d'en-tête obligatoire, séparateur ';' ou ',' (détecté sur l'en-tête), champs entre
+ *   guillemets possibles (guillemet doublé pour un guillemet, retours à la ligne autorisés) ;
+ * - JSON : tableau d'objets, par exemple [{"sku": "CIM-25", "price": 7.5}, ...].
+ *
+ * Les noms de colonnes sont normalisés (minuscules, sans '_', '-' ni espace) : stock_quantity,
+ * stockQuantity et "Stock Quantity" désignent la même colonne.
+ */
+public abstract class ProductImportReader implements Closeable {
+
+    /**
+     * Ligne lue : numéro (ligne de données du CSV, en-tête = 1 ; position dans le tableau JSON) et valeurs par colonne
+     */
+    public record Row(int number, Map<String, String> values) {
+    }
+
+    /**
+     * Ligne suivante, ou null en fin de fichier
+     */
+    public abstract Row next() throws IOException;
+
+    public static ProductImportReader open(InputStream in, String filename, ObjectMapper objectMapper) throws IOException {
+        String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".json")) {
+            return new JsonReader(objectMapper.getFactory().createParser(in));
+        }
+        if (name.isEmpty() || name.endsWith(".csv") || name.endsWith(".txt")) {
+            return new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+        throw new IllegalArgumentException("Format de fichier non supporté (CSV ou JSON attendu): " + filename);
+    }
+
+    static String normalizeColumn(String column) {
+        StringBuilder normalized = new StringBuilder(column.length());
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c != '_' && c != '-' && !Character.isWhitespace(c) && c != '\uFEFF') {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static final class CsvReader extends ProductImportReader {
+
+        private final Reader reader;
+        private final char separator;
+        private final List<String> columns = new ArrayList<>();
+        private int rowNumber = 1;
+        private int pending = -1;
+
+        CsvReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            if (header == null || header.isBlank()) {
+                throw new IllegalArgumentException("Fichier CSV vide ou sans ligne d'en-tête");
+            }
+            this.separator = count(header, ';') > count(header, ',') ? ';' : ',';
+            for (String column : header.split(String.valueOf(separator), -1)) {
+                columns.add(normalizeColumn(column.replace("\"", "")));
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+                rowNumber++;
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size() && i < fields.size(); i++) {
+                values.put(columns.get(i), fields.get(i));
+            }
+            return new Row(rowNumber, values);
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = read()) != -1) {
+                read = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                    } else {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            pending = following;
+                        }
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == separator) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (pending != -1) {
+                int c = pending;
+                pending = -1;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private static int count(String value, char c) {
+            int count = 0;
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) == c) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class JsonReader extends ProductImportReader {
+
+        private final JsonParser parser;
+        private int rowNumber;
+
+        JsonReader(JsonParser parser) throws IOException {
+            this.parser = parser;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Fichier JSON invalide : un tableau de produits est attendu");
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            rowNumber++;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return new Row(rowNumber, Map.of());
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String column = normalizeColumn(parser.currentName());
+                values.put(column, readValue(parser.nextToken()));
+            }
+            return new Row(rowNumber, values);
+        }
+
+        // Tableau de valeurs simples (tags) : valeurs séparées par des virgules ; objet imbriqué : ignoré
+        private String readValue(JsonToken token) throws IOException {
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (token == JsonToken.START_ARRAY) {
+                StringBuilder joined = new StringBuilder();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken().isStructStart()) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    if (joined.length() > 0) {
+                        joined.append(',');
+                    }
+                    joined.append(parser.getValueAsString());
+                }
+                return joined.toString();
+            }
+            if (token == JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return null;
+            }
+            return parser.getValueAsString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
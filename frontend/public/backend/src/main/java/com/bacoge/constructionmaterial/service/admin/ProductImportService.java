@@ -0,0 +1,452 @@
+package com.bacoge.constructionmaterial.service.admin;
+
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
+import com.bacoge.constructionmaterial.model.Product;
+import com.bacoge.constructionmaterial.model.StockMovement;
+import com.bacoge.constructionmaterial.repository.CategoryRepository;
+import com.bacoge.constructionmaterial.repository.ProductRepository;
+import com.bacoge.constructionmaterial.repository.StockMovementRepository;
+import com.bacoge.constructionmaterial.service.CategorySnapshotService;
+import com.bacoge.constructionmaterial.service.ProductSearchIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Import en masse du catalogue (fichier fournisseur CSV ou JSON), les produits étant identifiés par leur SKU.
+ *
+ * Le fichier est lu en flux (ProductImportReader) et traité par lots de app.products.import.chunk-size lignes :
+ * chaque ligne est validée à la lecture (erreurs rapportées avec leur numéro de ligne), les produits existants
+ * du lot sont chargés en une requête, puis créés ou mis à jour dans une transaction par lot ; les mises à jour
+ * partent en batchs JDBC (hibernate.jdbc.batch_size). Les catégories sont résolues depuis une table chargée une
+ * seule fois. Une cellule vide laisse le champ inchangé ; un lot en erreur en base est annulé sans interrompre
+ * les suivants.
+ *
+ * Colonnes : sku (obligatoire), name, price, stockQuantity (obligatoires pour un nouveau produit), description,
+ * minStockLevel, category (nom) ou categoryId, status, featured, brand, unit, weightKg, dimensions, style, room,
+ * color, material, collectionName, tags, longDescription.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int DEFAULT_TEXT_LENGTH = 255;
+
+    private record TextField(BiConsumer<Product, String> setter, int maxLength) {
+    }
+
+    // Colonnes texte (nom normalisé, voir ProductImportReader.normalizeColumn)
+    private static final Map<String, TextField> TEXT_FIELDS = new LinkedHashMap<>();
+
+    static {
+        TEXT_FIELDS.put("description", new TextField(Product::setDescription, 1000));
+        TEXT_FIELDS.put("brand", new TextField(Product::setBrand, DEFAULT_TEXT_LENGTH));
+        TEXT_FIELDS.put("unit", new TextField(Product::setUnit, DEFAULT_TEXT_LENGTH));
+        TEXT_FIELDS.put("dimensions", new TextField(Product::setDimensions, DEFAULT_TEXT_LENGTH));
+        TEXT_FIELDS.put("style", new TextField(Product::setStyle, DEFAULT_TEXT_LENGTH));
+        TEXT_FIELDS.put("room", new TextField(Product::setRoom, DEFAULT_TEXT_LENGTH));
+        TEXT_FIELDS.put("color", new TextField(Product::setColor, DEFAULT_TEXT_LENGTH));
+        TEXT_FIELDS.put("material", new TextField(Product::setMaterial, DEFAULT_TEXT_LENGTH));
+        TEXT_FIELDS.put("collectionname", new TextField(Product::setCollectionName, DEFAULT_TEXT_LENGTH));
+        TEXT_FIELDS.put("tags", new TextField(Product::setTags, 512));
+        TEXT_FIELDS.put("longdescription", new TextField(Product::setLongDescription, 65535));
+    }
+
+    /** Ligne validée ; un champ null n'est pas modifié */
+    private static final class ImportLine {
+        int number;
+        String sku;
+        String name;
+        BigDecimal price;
+        Integer stockQuantity;
+        Integer minStockLevel;
+        BigDecimal weightKg;
+        Long categoryId;
+        Product.ProductStatus status;
+        Boolean featured;
+        final Map<TextField, String> texts = new LinkedHashMap<>();
+    }
+
+    /** Compteurs et erreurs de l'import */
+    private final class ImportReport {
+        int totalRows;
+        int created;
+        int updated;
+        int failed;
+        final List<Map<String, Object>> errors = new ArrayList<>();
+
+        void error(int row, String sku, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("row", row);
+                error.put("sku", sku);
+                error.put("message", message);
+                errors.add(error);
+            }
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final CategorySnapshotService categorySnapshotService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.products.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ProductImportService(ProductRepository productRepository,
+                                CategoryRepository categoryRepository,
+                                StockMovementRepository stockMovementRepository,
+                                ProductSearchIndex productSearchIndex,
+                                CategorySnapshotService categorySnapshotService,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.categorySnapshotService = categorySnapshotService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importe un fichier de produits ; dryRun = validation et écriture simulées (chaque lot est annulé)
+     */
+    @EvictDashboardCaches
+    public Map<String, Object> importProducts(InputStream in, String filename, boolean dryRun) throws IOException {
+        long start = System.currentTimeMillis();
+        Map<String, Long> categoriesByName = new HashMap<>();
+        Set<Long> categoryIds = new HashSet<>();
+        for (Object[] row : categoryRepository.findAllIdsAndNames()) {
+            categoryIds.add((Long) row[0]);
+            if (row[1] != null) {
+                categoriesByName.put(((String) row[1]).trim().toLowerCase(Locale.ROOT), (Long) row[0]);
+            }
+        }
+
+        ImportReport report = new ImportReport();
+        String reason = "Import catalogue" + (filename != null ? " (" + filename + ")" : "");
+        int size = Math.max(1, chunkSize);
+        List<ImportLine> chunk = new ArrayList<>(size);
+        try (ProductImportReader reader = ProductImportReader.open(in, filename, objectMapper)) {
+            ProductImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                report.totalRows++;
+                ImportLine line = parse(row, categoriesByName, categoryIds, report);
+                if (line != null) {
+                    chunk.add(line);
+                }
+                if (chunk.size() >= size) {
+                    importChunk(chunk, reason, dryRun, report);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Fichier JSON invalide: " + e.getOriginalMessage());
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, reason, dryRun, report);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        logger.info("Import produits {}{} : {} ligne(s), {} créé(s), {} mis à jour, {} en erreur en {} ms",
+                filename, dryRun ? " (simulation)" : "", report.totalRows, report.created, report.updated,
+                report.failed, durationMs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", report.failed == 0);
+        result.put("dryRun", dryRun);
+        result.put("totalRows", report.totalRows);
+        result.put("created", report.created);
+        result.put("updated", report.updated);
+        result.put("failed", report.failed);
+        result.put("errors", report.errors);
+        result.put("errorsTruncated", report.failed > report.errors.size());
+        result.put("durationMs", durationMs);
+        return result;
+    }
+
+    // Crée ou met à jour les produits d'un lot dans une transaction ; en cas d'échec, tout le lot est en erreur
+    private void importChunk(List<ImportLine> lines, String reason, boolean dryRun, ImportReport report) {
+        List<ImportLine> rejected = new ArrayList<>();
+        int[] counts = new int[2];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Product> bySku = new HashMap<>();
+                List<String> skus = new ArrayList<>(lines.size());
+                lines.forEach(line -> skus.add(line.sku));
+                for (Product product : productRepository.findBySkuIn(skus)) {
+                    bySku.put(skuKey(product.getSku()), product);
+                }
+
+                Map<String, Product> touched = new LinkedHashMap<>();
+                List<Product> created = new ArrayList<>();
+                Map<String, Integer> previousStock = new HashMap<>();
+                for (ImportLine line : lines) {
+                    String key = skuKey(line.sku);
+                    Product product = bySku.get(key);
+                    boolean isNew = product == null;
+                    if (isNew && (line.name == null || line.price == null || line.stockQuantity == null)) {
+                        rejected.add(line);
+                        report.error(line.number, line.sku, "Nouveau produit : name, price et stockQuantity sont obligatoires");
+                        continue;
+                    }
+                    if (isNew) {
+                        product = new Product();
+                        product.setSku(line.sku);
+                        bySku.put(key, product);
+                        created.add(product);
+                    } else if (!touched.containsKey(key)) {
+                        previousStock.put(key, product.getStockQuantity());
+                    }
+                    apply(line, product);
+                    touched.put(key, product);
+                }
+
+                counts[0] = created.size();
+                counts[1] = touched.size() - created.size();
+                productRepository.saveAll(created);
+                List<StockMovement> movements = new ArrayList<>();
+                LocalDateTime now = LocalDateTime.now();
+                for (Map.Entry<String, Product> entry : touched.entrySet()) {
+                    Product product = entry.getValue();
+                    Integer before = previousStock.get(entry.getKey());
+                    int stock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+                    if (before == null ? stock > 0 : before != stock) {
+                        StockMovement movement = new StockMovement();
+                        movement.setProductId(product.getId());
+                        movement.setProductName(product.getName());
+                        movement.setMovementType(before == null ? StockMovement.MovementType.IN : StockMovement.MovementType.ADJUSTMENT);
+                        movement.setQuantity(stock);
+                        movement.setReason(reason);
+                        movement.setCreatedAt(now);
+                        movements.add(movement);
+                    }
+                }
+                stockMovementRepository.saveAll(movements);
+                entityManager.flush();
+
+                if (dryRun) {
+                    status.setRollbackOnly();
+                } else {
+                    productSearchIndex.indexAllAfterCommit(touched.values());
+                    categorySnapshotService.refreshAfterCommit();
+                }
+            });
+        } catch (RuntimeException e) {
+            String message = "Lot rejeté: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Import produits : lot des lignes {} à {} rejeté", lines.get(0).number,
+                    lines.get(lines.size() - 1).number, e);
+            for (ImportLine line : lines) {
+                if (!rejected.contains(line)) {
+                    report.error(line.number, line.sku, message);
+                }
+            }
+            return;
+        }
+        report.created += counts[0];
+        report.updated += counts[1];
+    }
+
+    private void apply(ImportLine line, Product product) {
+        if (line.name != null) {
+            product.setName(line.name);
+        }
+        if (line.price != null) {
+            product.setPrice(line.price);
+        }
+        if (line.stockQuantity != null) {
+            product.setStockQuantity(line.stockQuantity);
+        }
+        if (line.minStockLevel != null) {
+            product.setMinStockLevel(line.minStockLevel);
+        }
+        if (line.weightKg != null) {
+            product.setWeightKg(line.weightKg);
+        }
+        if (line.categoryId != null) {
+            product.setCategory(categoryRepository.getReferenceById(line.categoryId));
+        }
+        if (line.status != null) {
+            product.setStatus(line.status);
+        }
+        if (line.featured != null) {
+            product.setFeatured(line.featured);
+        }
+        line.texts.forEach((field, value) -> field.setter().accept(product, value));
+    }
+
+    // Valide une ligne lue ; null (et erreur rapportée) si elle est invalide
+    private ImportLine parse(ProductImportReader.Row row, Map<String, Long> categoriesByName, Set<Long> categoryIds,
+                             ImportReport report) {
+        Map<String, String> values = row.values();
+        ImportLine line = new ImportLine();
+        line.number = row.number();
+        line.sku = value(values, "sku");
+        if (line.sku == null) {
+            report.error(row.number(), null, "SKU manquant");
+            return null;
+        }
+        try {
+            if (line.sku.length() > DEFAULT_TEXT_LENGTH) {
+                throw new IllegalArgumentException("SKU trop long (" + DEFAULT_TEXT_LENGTH + " caractères maximum)");
+            }
+            line.name = value(values, "name");
+            if (line.name != null && (line.name.length() < 2 || line.name.length() > 200)) {
+                throw new IllegalArgumentException("Le nom doit contenir entre 2 et 200 caractères");
+            }
+            line.price = decimal(values, "price");
+            if (line.price != null && line.price.signum() <= 0) {
+                throw new IllegalArgumentException("Le prix doit être positif");
+            }
+            line.stockQuantity = integer(values, "stockquantity");
+            if (line.stockQuantity != null && line.stockQuantity < 0) {
+                throw new IllegalArgumentException("Le stock ne peut pas être négatif");
+            }
+            line.minStockLevel = integer(values, "minstocklevel");
+            line.weightKg = decimal(values, "weightkg");
+            line.categoryId = category(values, categoriesByName, categoryIds);
+
+            String status = value(values, "status");
+            if (status != null) {
+                try {
+                    line.status = Product.ProductStatus.valueOf(status.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Statut inconnu: " + status);
+                }
+            }
+            String featured = value(values, "featured");
+            if (featured != null) {
+                line.featured = bool(featured);
+            }
+
+            for (Map.Entry<String, TextField> field : TEXT_FIELDS.entrySet()) {
+                String text = value(values, field.getKey());
+                if (text != null) {
+                    if (text.length() > field.getValue().maxLength()) {
+                        throw new IllegalArgumentException(field.getKey() + " : " + field.getValue().maxLength()
+                                + " caractères maximum");
+                    }
+                    line.texts.put(field.getValue(), text);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            report.error(row.number(), line.sku, e.getMessage());
+            return null;
+        }
+        return line;
+    }
+
+    private static Long category(Map<String, String> values, Map<String, Long> categoriesByName, Set<Long> categoryIds) {
+        String id = value(values, "categoryid");
+        if (id != null) {
+            Long categoryId;
+            try {
+                categoryId = Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("categoryId invalide: " + id);
+            }
+            if (!categoryIds.contains(categoryId)) {
+                throw new IllegalArgumentException("Catégorie introuvable: " + id);
+            }
+            return categoryId;
+        }
+        String name = value(values, "category");
+        if (name == null) {
+            return null;
+        }
+        Long categoryId = categoriesByName.get(name.toLowerCase(Locale.ROOT));
+        if (categoryId == null) {
+            throw new IllegalArgumentException("Catégorie introuvable: " + name);
+        }
+        return categoryId;
+    }
+
+    private static String value(Map<String, String> values, String column) {
+        String value = values.get(column);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Accepte la virgule décimale (12,50) et les espaces de milliers
+    private static BigDecimal decimal(Map<String, String> values, String column) {
+        String value = value(values, column);
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.replace(" ", "").replace("\u00A0", "");
+        if (normalized.indexOf('.') < 0) {
+            normalized = normalized.replace(',', '.');
+        }
+        try {
+            return new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " : nombre invalide: " + value);
+        }
+    }
+
+    private static Integer integer(Map<String, String> values, String column) {
+        BigDecimal value = decimal(values, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(column + " : nombre entier attendu: " + value.toPlainString());
+        }
+    }
+
+    private static boolean bool(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true": case "1": case "oui": case "yes":
+                return true;
+            case "false": case "0": case "non": case "no":
+                return false;
+            default:
+                throw new IllegalArgumentException("featured : booléen attendu: " + value);
+        }
+    }
+
+    // Les SKU sont comparés sans tenir compte de la casse, comme la contrainte unique en base
+    private static String skuKey(String sku) {
+        return sku.trim().toUpperCase(Locale.ROOT);
+    }
+}
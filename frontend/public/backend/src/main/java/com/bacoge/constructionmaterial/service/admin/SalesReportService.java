@@ -0,0 +1,177 @@
+package com.bacoge.constructionmaterial.service.admin;
+
+import com.bacoge.constructionmaterial.config.CacheNames;
+import com.bacoge.constructionmaterial.model.Order;
+import com.bacoge.constructionmaterial.repository.OrderRepository;
+import com.bacoge.constructionmaterial.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Rapport de ventes de /api/admin/reports/sales.
+ *
+ * Au lieu d'une requête d'agrégat par indicateur, le rapport repose sur deux passages :
+ * - les commandes de la période groupées par (statut, moyen de paiement) : nombre de commandes,
+ *   chiffre d'affaires et répartition par moyen de paiement ;
+ * - les lignes des commandes livrées groupées par produit : chiffre d'affaires et nombre de
+ *   lignes par catégorie, meilleures ventes.
+ * Ces deux requêtes et le comptage des nouveaux utilisateurs s'exécutent en parallèle sur un
+ * pool borné ; la durée du rapport est celle de la requête la plus lente.
+ *
+ * Les rapports d'une période close sont mis en cache ; le cache est vidé à chaque écriture
+ * sur les commandes, produits ou utilisateurs (voir EvictDashboardCaches), un changement de
+ * statut pouvant modifier une période passée.
+ */
+@Service
+public class SalesReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportService.class);
+
+    private static final int TOP_PRODUCTS = 5;
+    private static final String UNKNOWN_PAYMENT_METHOD = "UNKNOWN";
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+
+    @Value("${app.reports.executor-threads:4}")
+    private int executorThreads;
+
+    @Value("${app.reports.timeout-ms:30000}")
+    private long timeoutMs;
+
+    private final ThreadPoolTaskExecutor reportExecutor = new ThreadPoolTaskExecutor();
+
+    public SalesReportService(OrderRepository orderRepository, UserRepository userRepository) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        int threads = Math.max(1, executorThreads);
+        reportExecutor.setCorePoolSize(threads);
+        reportExecutor.setMaxPoolSize(threads);
+        reportExecutor.setQueueCapacity(threads * 4);
+        reportExecutor.setThreadNamePrefix("sales-report-");
+        // File pleine : la requête s'exécute dans le thread appelant (rapport séquentiel, jamais refusé)
+        reportExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        reportExecutor.initialize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reportExecutor.shutdown();
+    }
+
+    @Cacheable(cacheNames = CacheNames.SALES_REPORTS,
+            key = "#startDate.toString() + '|' + #endDate.toString()",
+            condition = "#endDate.isBefore(T(java.time.LocalDateTime).now())")
+    public Map<String, Object> getSalesReport(LocalDateTime startDate, LocalDateTime endDate) {
+        long start = System.currentTimeMillis();
+        CompletableFuture<List<Object[]>> ordersFuture = CompletableFuture.supplyAsync(
+                () -> orderRepository.getSalesSummaryByStatusAndPaymentMethod(startDate, endDate), reportExecutor);
+        CompletableFuture<List<Object[]>> productsFuture = CompletableFuture.supplyAsync(
+                () -> orderRepository.getDeliveredSalesByProductBetween(startDate, endDate), reportExecutor);
+        CompletableFuture<Long> newUsersFuture = CompletableFuture.supplyAsync(
+                () -> userRepository.countByCreatedAtBetween(startDate, endDate), reportExecutor);
+
+        Map<String, Object> report = new HashMap<>();
+        summarizeOrders(await(ordersFuture), report);
+        summarizeProducts(await(productsFuture), report);
+
+        long totalOrders = (Long) report.get("totalOrders");
+        long newUsers = await(newUsersFuture);
+        report.put("conversionRate", totalOrders > 0 ? (double) newUsers / totalOrders * 100.0 : 0.0);
+
+        logger.debug("Rapport de ventes {} - {} calculé en {} ms", startDate, endDate, System.currentTimeMillis() - start);
+        return report;
+    }
+
+    // Nombre de commandes (tous statuts), chiffre d'affaires et moyens de paiement (commandes livrées)
+    private void summarizeOrders(List<Object[]> rows, Map<String, Object> report) {
+        long totalOrders = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        Map<String, BigDecimal> revenueByPayment = new HashMap<>();
+        for (Object[] row : rows) {
+            long count = ((Number) row[2]).longValue();
+            totalOrders += count;
+            if (row[0] == Order.OrderStatus.DELIVERED) {
+                BigDecimal amount = (BigDecimal) row[3];
+                totalRevenue = totalRevenue.add(amount);
+                String paymentMethod = row[1] != null ? (String) row[1] : UNKNOWN_PAYMENT_METHOD;
+                revenueByPayment.merge(paymentMethod, amount, BigDecimal::add);
+            }
+        }
+        report.put("totalRevenue", totalRevenue);
+        report.put("totalOrders", totalOrders);
+        report.put("avgOrderValue", totalOrders > 0
+                ? totalRevenue.divide(BigDecimal.valueOf(totalOrders), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        report.put("revenueByPayment", revenueByPayment);
+    }
+
+    // Chiffre d'affaires et lignes de commande par catégorie, meilleures ventes (commandes livrées)
+    private void summarizeProducts(List<Object[]> rows, Map<String, Object> report) {
+        Map<String, BigDecimal> revenueByCategory = new HashMap<>();
+        Map<String, Long> ordersByCategory = new HashMap<>();
+        for (Object[] row : rows) {
+            String categoryName = (String) row[2];
+            BigDecimal revenue = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+            revenueByCategory.merge(categoryName, revenue, BigDecimal::add);
+            ordersByCategory.merge(categoryName, ((Number) row[5]).longValue(), Long::sum);
+        }
+
+        List<Object[]> ranked = new ArrayList<>(rows);
+        ranked.sort(Comparator.comparingLong((Object[] row) -> row[3] != null ? ((Number) row[3]).longValue() : 0L)
+                .reversed()
+                .thenComparing(row -> row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO, Comparator.reverseOrder()));
+        List<Map<String, Object>> topProducts = new ArrayList<>();
+        for (Object[] row : ranked.subList(0, Math.min(TOP_PRODUCTS, ranked.size()))) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("productName", row[1]);
+            product.put("categoryName", row[2]);
+            product.put("totalQuantity", row[3] != null ? ((Number) row[3]).longValue() : 0L);
+            product.put("totalRevenue", row[4]);
+            topProducts.add(product);
+        }
+
+        report.put("revenueByCategory", revenueByCategory);
+        report.put("ordersByCategory", ordersByCategory);
+        report.put("topProducts", topProducts);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Calcul du rapport de ventes interrompu", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur lors du calcul du rapport de ventes: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RuntimeException("Délai dépassé pour le calcul du rapport de ventes", e);
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.bacoge.constructionmaterial.service.impl;
 
+import com.bacoge.constructionmaterial.config.EvictDashboardCaches;
 import com.bacoge.constructionmaterial.dto.ProductRequest;
 import com.bacoge.constructionmaterial.model.Product;
 import com.bacoge.constructionmaterial.model.ProductImage;
 import com.bacoge.constructionmaterial.repository.CategoryRepository;
 import com.bacoge.constructionmaterial.repository.ProductRepository;
+import com.bacoge.constructionmaterial.service.CategorySnapshotService;
+import com.bacoge.constructionmaterial.service.ImageDerivativeService;
+import com.bacoge.constructionmaterial.service.ProductSearchIndex;
 import com.bacoge.constructionmaterial.service.ProductService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -25,14 +29,23 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ImageDerivativeService imageDerivativeService;
+    private final CategorySnapshotService categorySnapshotService;
     
     @Value("${app.upload.dir:${user.home}/bacoge-uploads}")
     private String uploadDir;
 
     public ProductServiceImpl(ProductRepository productRepository,
-                            CategoryRepository categoryRepository) {
+                            CategoryRepository categoryRepository,
+                            ProductSearchIndex productSearchIndex,
+                            ImageDerivativeService imageDerivativeService,
+                            CategorySnapshotService categorySnapshotService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.imageDerivativeService = imageDerivativeService;
+        this.categorySnapshotService = categorySnapshotService;
     }
 
     @Override
@@ -56,6 +69,7 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findById(id);
     }
 
+    @EvictDashboardCaches
     @Override
     public Product createProduct(ProductRequest productRequest) {
         Product product = new Product();
@@ -75,9 +89,12 @@ public class ProductServiceImpl implements ProductService {
             saveProductImages(savedProduct, productRequest.getImages(), productRequest.getMainImageIndex());
         }
         
+        productSearchIndex.indexAfterCommit(savedProduct);
+        categorySnapshotService.refreshAfterCommit();
         return savedProduct;
     }
 
+    @EvictDashboardCaches
     @Override
     public Product updateProduct(Long id, ProductRequest productRequest) {
         return productRepository.findById(id).map(product -> {
@@ -111,10 +128,14 @@ public class ProductServiceImpl implements ProductService {
                 }
             }
             
-            return productRepository.save(product);
+            Product savedProduct = productRepository.save(product);
+            productSearchIndex.indexAfterCommit(savedProduct);
+            categorySnapshotService.refreshAfterCommit();
+            return savedProduct;
         }).orElseThrow(() -> new RuntimeException("Produit non trouvé avec l'ID: " + id));
     }
 
+    @EvictDashboardCaches
     @Override
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
@@ -126,6 +147,7 @@ public class ProductServiceImpl implements ProductService {
                 String filename = image.getImageUrl().substring(image.getImageUrl().lastIndexOf("/") + 1);
                 Path filePath = Paths.get(uploadDir, filename);
                 Files.deleteIfExists(filePath);
+                imageDerivativeService.deleteDerivatives(image.getImageUrl());
             } catch (IOException e) {
                 // Log l'erreur mais continuer la suppression
                 e.printStackTrace();
@@ -133,6 +155,8 @@ public class ProductServiceImpl implements ProductService {
         });
         
         productRepository.delete(product);
+        productSearchIndex.removeAfterCommit(id);
+        categorySnapshotService.refreshAfterCommit();
     }
 
     @Override
@@ -144,6 +168,7 @@ public class ProductServiceImpl implements ProductService {
         image.setImageUrl(imageUrl);
         image.setIsMain(isMain);
         image.setProduct(product);
+        imageDerivativeService.attachDerivatives(image);
         
         // Si c'est l'image principale, désélectionner les autres
         if (isMain) {
@@ -166,6 +191,7 @@ public class ProductServiceImpl implements ProductService {
                     String filename = image.getImageUrl().substring(image.getImageUrl().lastIndexOf("/") + 1);
                     Path filePath = Paths.get(uploadDir, filename);
                     Files.deleteIfExists(filePath);
+                    imageDerivativeService.deleteDerivatives(image.getImageUrl());
                     return true;
                 } catch (IOException e) {
                     // Log l'erreur mais continuer la suppression en base
@@ -223,6 +249,7 @@ public class ProductServiceImpl implements ProductService {
             .orElse(false);
     }
 
+    @EvictDashboardCaches
     @Override
     public void updateStock(Long productId, int quantityChange) {
         Product product = productRepository.findById(productId)
@@ -312,6 +339,8 @@ public class ProductServiceImpl implements ProductService {
                     image.setImageUrl("/uploads/" + newFilename);
                     image.setDisplayOrder(i);
                     image.setProduct(product);
+                    // Copies redimensionnées générées après le commit
+                    imageDerivativeService.attachDerivatives(image);
                     
                     // Définir si c'est l'image principale
                     boolean isMain = (mainImageIndex != null && i == mainImageIndex) || 
@@ -0,0 +1,37 @@
+package com.bacoge.constructionmaterial;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Tranche JPA sur H2 en mode MySQL (profil "test") : entités et repositories seulement.
+ *
+ * BacogeApplication déclare un @ComponentScan explicite qui charge toute l'application
+ * dans un @DataJpaTest ; la configuration Config ci-dessous ne déclare que la couche JPA.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = JpaSliceTest.Config.class)
+@ActiveProfiles("test")
+public @interface JpaSliceTest {
+
+    @SpringBootConfiguration
+    @EnableJpaRepositories(basePackages = "com.bacoge.constructionmaterial.repository")
+    @EntityScan(basePackages = {"com.bacoge.constructionmaterial.model", "com.bacoge.constructionmaterial.entity"})
+    class Config {
+    }
+}
@@ -0,0 +1,139 @@
+package com.bacoge.constructionmaterial.repository;
+
+import com.bacoge.constructionmaterial.JpaSliceTest;
+import com.bacoge.constructionmaterial.model.Category;
+import com.bacoge.constructionmaterial.model.Order;
+import com.bacoge.constructionmaterial.model.OrderItem;
+import com.bacoge.constructionmaterial.model.Product;
+import com.bacoge.constructionmaterial.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recherches de l'administration (commandes, utilisateurs) : filtrage en base et nombre de requêtes
+ * indépendant du volume de la table.
+ */
+@JpaSliceTest
+class AdminLookupQueriesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 15, 12, 0);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        Category category = new Category();
+        category.setName("Gros oeuvre");
+        entityManager.persist(category);
+        Product product = new Product();
+        product.setName("Ciment 25 kg");
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(100);
+        product.setCategory(category);
+        entityManager.persist(product);
+
+        for (int i = 0; i < 12; i++) {
+            User user = user("client" + i + "@bacoge.fr", "Client" + i,
+                    i % 3 == 0 ? User.UserRole.ADMIN : User.UserRole.CLIENT,
+                    i % 4 == 0 ? User.UserStatus.INACTIVE : User.UserStatus.ACTIVE);
+            Order order = new Order();
+            order.setUser(user);
+            order.setOrderNumber("CMD-" + i);
+            order.setStatus(i % 2 == 0 ? Order.OrderStatus.DELIVERED : Order.OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.valueOf(20));
+            entityManager.persist(order);
+            for (int line = 0; line < 2; line++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setQuantity(2);
+                item.setPrice(BigDecimal.TEN);
+                item.setTotalPrice(BigDecimal.valueOf(20));
+                entityManager.persist(item);
+            }
+            entityManager.flush();
+            // orderDate est fixée par @PrePersist : une commande par jour en remontant
+            entityManager.createNativeQuery("UPDATE orders SET order_date = ?1 WHERE id = ?2")
+                    .setParameter(1, NOW.minusDays(i))
+                    .setParameter(2, order.getId())
+                    .executeUpdate();
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void ordersBetweenDatesAreFilteredInOneQueryWithUserAndItems() {
+        List<Order> orders = orderRepository.findByOrderDateStrictlyBetween(NOW.minusDays(5), NOW);
+
+        // Bornes exclues : jours 1 à 4
+        assertThat(orders).extracting(Order::getOrderNumber).containsExactly("CMD-1", "CMD-2", "CMD-3", "CMD-4");
+        for (Order order : orders) {
+            assertThat(Hibernate.isInitialized(order.getUser())).isTrue();
+            assertThat(order.getOrderItems()).hasSize(2);
+            assertThat(Hibernate.isInitialized(order.getOrderItems().get(0).getProduct())).isTrue();
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void orderLookupsAndCountsRunOneStatementEach() {
+        assertThat(orderRepository.findByOrderNumber("CMD-7")).map(Order::getOrderNumber).contains("CMD-7");
+        assertThat(orderRepository.findByOrderNumber("CMD-99")).isEmpty();
+        assertThat(orderRepository.countByStatus(Order.OrderStatus.DELIVERED)).isEqualTo(6);
+        assertThat(orderRepository.countByStatus(Order.OrderStatus.CANCELLED)).isZero();
+
+        // Une requête par appel, une seule commande chargée : la table n'est jamais lue en entier
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isLessThan(12);
+    }
+
+    @Test
+    void userFiltersAreAppliedInTheDatabase() {
+        assertThat(userRepository.findByRole(User.UserRole.ADMIN)).hasSize(4);
+        assertThat(userRepository.findByStatus(User.UserStatus.INACTIVE)).hasSize(3);
+
+        List<User> found = userRepository.findUsersWithFilters(null, "client1", null,
+                User.UserRole.CLIENT, User.UserStatus.ACTIVE, Pageable.unpaged()).getContent();
+
+        // "client1" : Client1, Client10 et Client11, tous CLIENT et ACTIVE
+        assertThat(found).extracting(User::getLastName).containsExactlyInAnyOrder("Client1", "Client10", "Client11");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    private User user(String email, String lastName, User.UserRole role, User.UserStatus status) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("Jean");
+        user.setLastName(lastName);
+        user.setPassword("secret123");
+        user.setRole(role);
+        user.setStatus(status);
+        entityManager.persist(user);
+        return user;
+    }
+}
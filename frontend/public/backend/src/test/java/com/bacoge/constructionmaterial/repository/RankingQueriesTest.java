@@ -0,0 +1,193 @@
+package com.bacoge.constructionmaterial.repository;
+
+import com.bacoge.constructionmaterial.JpaSliceTest;
+import com.bacoge.constructionmaterial.model.Category;
+import com.bacoge.constructionmaterial.model.Order;
+import com.bacoge.constructionmaterial.model.OrderItem;
+import com.bacoge.constructionmaterial.model.Product;
+import com.bacoge.constructionmaterial.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Projections compactes lues par les classements produits (ProductRankingService) et par
+ * l'instantané des catégories (CategorySnapshotService) : une requête chacune, agrégation en base.
+ */
+@JpaSliceTest
+class RankingQueriesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 15, 12, 0);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Statistics statistics;
+    private Category tiles;
+    private Category paint;
+    private Product featuredTile;
+    private Product plainTile;
+    private Product whitePaint;
+    private Product uncategorized;
+    private int orders;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        tiles = category("Carrelage");
+        paint = category("Peinture");
+        category("Outillage");
+        featuredTile = product("Carreau grès cérame", tiles, Product.ProductStatus.ACTIVE, true);
+        plainTile = product("Carreau faïence", tiles, Product.ProductStatus.ACTIVE, false);
+        product("Carreau ancien modèle", tiles, Product.ProductStatus.INACTIVE, false);
+        whitePaint = product("Peinture blanche 10 L", paint, Product.ProductStatus.ACTIVE, false);
+        uncategorized = product("Lot de chutes", null, Product.ProductStatus.ACTIVE, false);
+
+        User user = new User();
+        user.setEmail("client@bacoge.fr");
+        user.setFirstName("Jean");
+        user.setLastName("Dupont");
+        user.setPassword("secret123");
+        user.setRole(User.UserRole.CLIENT);
+        user.setStatus(User.UserStatus.ACTIVE);
+        entityManager.persist(user);
+
+        // Hier : 2 + 3 unités du carreau mis en avant (la commande annulée ne compte pas), 1 du carreau simple
+        order(user, Order.OrderStatus.PENDING, NOW.minusDays(1), Map.of(featuredTile, 2, plainTile, 1));
+        order(user, Order.OrderStatus.DELIVERED, NOW.minusDays(1).minusHours(3), Map.of(featuredTile, 3));
+        order(user, Order.OrderStatus.CANCELLED, NOW.minusDays(1), Map.of(featuredTile, 10));
+        order(user, Order.OrderStatus.DELIVERED, NOW.minusDays(2), Map.of(whitePaint, 1));
+        // Hors fenêtre
+        order(user, Order.OrderStatus.DELIVERED, NOW.minusDays(40), Map.of(featuredTile, 5));
+
+        // Synthèse des avis et consultations : colonnes écrites uniquement par des UPDATE ciblés
+        entityManager.createNativeQuery("UPDATE products SET rating_sum = 18, review_count = 4, avg_rating = 4.5, "
+                        + "view_count = 120 WHERE id = ?1")
+                .setParameter(1, featuredTile.getId())
+                .executeUpdate();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void unitsSoldAreSummedPerProductAndDayInTheDatabase() {
+        List<Object[]> rows = orderRepository.getUnitsSoldByProductAndDaySince(NOW.minusDays(30));
+
+        assertThat(rows).extracting(RankingQueriesTest::describeSales).containsExactlyInAnyOrder(
+                featuredTile.getId() + "|" + NOW.minusDays(1).toLocalDate() + "|5",
+                plainTile.getId() + "|" + NOW.minusDays(1).toLocalDate() + "|1",
+                whitePaint.getId() + "|" + NOW.minusDays(2).toLocalDate() + "|1");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rankingInputsHaveOneRowPerActiveProduct() {
+        productRepository.incrementViewCount(featuredTile.getId(), 5);
+        entityManager.clear();
+        statistics.clear();
+
+        List<Object[]> rows = productRepository.findRankingInputs();
+
+        Map<Long, Object[]> byId = rows.stream().collect(Collectors.toMap(row -> (Long) row[0], row -> row));
+        assertThat(byId).containsOnlyKeys(featuredTile.getId(), plainTile.getId(), whitePaint.getId(), uncategorized.getId());
+        Object[] featured = byId.get(featuredTile.getId());
+        assertThat(((Number) featured[1]).doubleValue()).isEqualTo(4.5);
+        assertThat(((Number) featured[2]).intValue()).isEqualTo(4);
+        assertThat(((Number) featured[3]).longValue()).isEqualTo(125);
+        assertThat(featured[4]).isInstanceOf(LocalDateTime.class);
+        assertThat(featured[5]).isEqualTo(Boolean.TRUE);
+        // Valeurs par défaut d'un produit sans avis ni consultation
+        Object[] plain = byId.get(plainTile.getId());
+        assertThat(((Number) plain[1]).doubleValue()).isZero();
+        assertThat(((Number) plain[2]).intValue()).isZero();
+        assertThat(((Number) plain[3]).longValue()).isZero();
+        assertThat(plain[5]).isEqualTo(Boolean.FALSE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void productCountsAreGroupedByCategoryInOneQuery() {
+        List<Object[]> rows = categoryRepository.countProductsGroupedByCategory();
+
+        Map<Long, String> counts = rows.stream().collect(Collectors.toMap(row -> (Long) row[0],
+                row -> ((Number) row[1]).longValue() + "/" + ((Number) row[2]).longValue()));
+        // Catégorie sans produit absente, produit sans catégorie ignoré ; [total, actifs]
+        assertThat(counts).containsOnly(Map.entry(tiles.getId(), "3/2"), Map.entry(paint.getId(), "1/1"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private Product product(String name, Category category, Product.ProductStatus status, boolean featured) {
+        Product product = new Product();
+        product.setName(name);
+        // SKU et numéro de commande générés dépendent de l'heure : fixés pour éviter les doublons
+        product.setSku("TEST-" + name.hashCode());
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(50);
+        product.setCategory(category);
+        product.setStatus(status);
+        product.setFeatured(featured);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private void order(User user, Order.OrderStatus status, LocalDateTime createdAt, Map<Product, Integer> lines) {
+        Order order = new Order();
+        order.setOrderNumber("TEST-" + (++orders));
+        order.setUser(user);
+        order.setStatus(status);
+        order.setTotalAmount(BigDecimal.TEN);
+        entityManager.persist(order);
+        lines.forEach((product, quantity) -> {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(quantity);
+            item.setPrice(BigDecimal.TEN);
+            item.setTotalPrice(BigDecimal.TEN.multiply(BigDecimal.valueOf(quantity)));
+            entityManager.persist(item);
+        });
+        entityManager.flush();
+        // createdAt est fixée par @PrePersist
+        entityManager.createNativeQuery("UPDATE orders SET created_at = ?1 WHERE id = ?2")
+                .setParameter(1, createdAt)
+                .setParameter(2, order.getId())
+                .executeUpdate();
+    }
+
+    // [productId, année, mois, jour, quantité] -> "id|aaaa-mm-jj|quantité"
+    private static String describeSales(Object[] row) {
+        LocalDate day = LocalDate.of(((Number) row[1]).intValue(), ((Number) row[2]).intValue(), ((Number) row[3]).intValue());
+        return row[0] + "|" + day + "|" + ((Number) row[4]).longValue();
+    }
+}
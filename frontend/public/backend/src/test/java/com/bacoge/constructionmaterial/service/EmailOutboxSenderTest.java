@@ -0,0 +1,231 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.JpaSliceTest;
+import com.bacoge.constructionmaterial.config.properties.MailProperties;
+import com.bacoge.constructionmaterial.model.EmailOutboxMessage;
+import com.bacoge.constructionmaterial.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expédition de la file d'emails vers un serveur SMTP embarqué (GreenMail) : envoi par lots,
+ * adresse invalide isolée, replanification avec délai doublé puis abandon, reprise des lots
+ * abandonnés par une instance arrêtée.
+ *
+ * Les envois ont lieu sur le pool de threads de l'expéditeur : chaque écriture du test est
+ * validée immédiatement (pas de transaction de test).
+ */
+@JpaSliceTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxSenderTest {
+
+    private static final long INITIAL_BACKOFF_MS = 60_000;
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort());
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    private final MailProperties mailProperties = new MailProperties();
+    private EmailOutboxSender sender;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepository.deleteAll();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+
+        mailProperties.setFrom("no-reply@bacoge.fr");
+        MailProperties.Outbox outbox = mailProperties.getOutbox();
+        outbox.setBatchSize(2);
+        outbox.setSenderThreads(2);
+        outbox.setMaxAttempts(3);
+        outbox.setInitialBackoffMs(INITIAL_BACKOFF_MS);
+        outbox.setMaxBackoffMs(3_600_000);
+        outbox.setStaleAfterMs(600_000);
+
+        sender = new EmailOutboxSender(emailOutboxRepository, mailSender, mailProperties);
+        sender.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.shutdown();
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void sendsDueEmailsInBatchesOfOneConnection() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            queue("client" + i + "@bacoge.fr");
+        }
+
+        sender.poll();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(Arrays.stream(received).map(this::recipient))
+                .containsExactlyInAnyOrder("client0@bacoge.fr", "client1@bacoge.fr", "client2@bacoge.fr",
+                        "client3@bacoge.fr", "client4@bacoge.fr");
+        assertThat(received[0].getFrom()[0].toString()).isEqualTo("no-reply@bacoge.fr");
+        assertThat(emailOutboxRepository.findAll()).allSatisfy(message -> {
+            assertThat(message.getStatus()).isEqualTo(EmailOutboxMessage.Status.SENT);
+            assertThat(message.getAttempts()).isEqualTo(1);
+            assertThat(message.getSentAt()).isNotNull();
+            assertThat(message.getClaimToken()).isNull();
+        });
+        // Lots de 2 : une connexion SMTP par lot, pas par email
+        assertThat(sender.snapshot()).containsEntry("sent", 5L).containsEntry("smtpConnections", 3L);
+    }
+
+    @Test
+    void invalidAddressFailsWithoutBlockingItsBatch() {
+        EmailOutboxMessage first = queue("client0@bacoge.fr");
+        EmailOutboxMessage invalid = queue("pas une adresse");
+        EmailOutboxMessage last = queue("client2@bacoge.fr");
+
+        sender.poll();
+
+        assertThat(Arrays.stream(greenMail.getReceivedMessages()).map(this::recipient))
+                .containsExactlyInAnyOrder("client0@bacoge.fr", "client2@bacoge.fr");
+        assertThat(reload(first).getStatus()).isEqualTo(EmailOutboxMessage.Status.SENT);
+        assertThat(reload(last).getStatus()).isEqualTo(EmailOutboxMessage.Status.SENT);
+        EmailOutboxMessage failed = reload(invalid);
+        assertThat(failed.getStatus()).isEqualTo(EmailOutboxMessage.Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).contains("Adresse email invalide");
+    }
+
+    @Test
+    void reschedulesWithDoubledBackoffUntilTheServerAnswers() throws Exception {
+        EmailOutboxMessage message = queue("client@bacoge.fr");
+        mailSender.setPort(closedPort());
+
+        // Première tentative : nouvel essai après le délai initial
+        LocalDateTime before = LocalDateTime.now();
+        sender.poll();
+        EmailOutboxMessage retried = reload(message);
+        assertThat(retried.getStatus()).isEqualTo(EmailOutboxMessage.Status.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).isNotBlank();
+        assertThat(retried.getNextAttemptAt()).isBetween(before.plusNanos(INITIAL_BACKOFF_MS * 1_000_000L),
+                LocalDateTime.now().plusNanos(INITIAL_BACKOFF_MS * 1_000_000L));
+
+        // Pas encore dû : la passe suivante ne le retente pas
+        sender.poll();
+        assertThat(reload(message).getAttempts()).isEqualTo(1);
+
+        // Deuxième échec : délai doublé
+        makeDue(message);
+        before = LocalDateTime.now();
+        sender.poll();
+        retried = reload(message);
+        assertThat(retried.getAttempts()).isEqualTo(2);
+        assertThat(retried.getNextAttemptAt()).isBetween(before.plusNanos(2 * INITIAL_BACKOFF_MS * 1_000_000L),
+                LocalDateTime.now().plusNanos(2 * INITIAL_BACKOFF_MS * 1_000_000L));
+
+        // Le serveur répond de nouveau : envoyé à la troisième tentative
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        makeDue(message);
+        sender.poll();
+        EmailOutboxMessage sent = reload(message);
+        assertThat(sent.getStatus()).isEqualTo(EmailOutboxMessage.Status.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(3);
+        assertThat(sent.getLastError()).isNull();
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(sender.snapshot()).containsEntry("retried", 2L).containsEntry("sent", 1L);
+    }
+
+    @Test
+    void failsAfterMaxAttempts() throws Exception {
+        mailProperties.getOutbox().setMaxAttempts(2);
+        EmailOutboxMessage message = queue("client@bacoge.fr");
+        mailSender.setPort(closedPort());
+
+        sender.poll();
+        makeDue(message);
+        sender.poll();
+
+        EmailOutboxMessage failed = reload(message);
+        assertThat(failed.getStatus()).isEqualTo(EmailOutboxMessage.Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(2);
+        assertThat(sender.snapshot()).containsEntry("retried", 1L).containsEntry("failed", 1L);
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void releasesOnlyStaleClaimsOfAStoppedInstance() {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutboxMessage stale = claimed("abandonne@bacoge.fr", now.minusMinutes(20));
+        EmailOutboxMessage inFlight = claimed("en-cours@bacoge.fr", now.minusMinutes(1));
+
+        sender.poll();
+
+        assertThat(reload(stale).getStatus()).isEqualTo(EmailOutboxMessage.Status.SENT);
+        EmailOutboxMessage untouched = reload(inFlight);
+        assertThat(untouched.getStatus()).isEqualTo(EmailOutboxMessage.Status.SENDING);
+        assertThat(untouched.getClaimToken()).isEqualTo("autre-instance");
+        assertThat(Arrays.stream(greenMail.getReceivedMessages()).map(this::recipient))
+                .containsExactly("abandonne@bacoge.fr");
+        @SuppressWarnings("unchecked")
+        Map<String, Long> queue = (Map<String, Long>) sender.snapshot().get("outbox");
+        assertThat(queue).containsEntry("SENT", 1L).containsEntry("SENDING", 1L);
+    }
+
+    private EmailOutboxMessage queue(String recipient) {
+        return emailOutboxRepository.save(new EmailOutboxMessage(recipient, "Commande confirmée", "Merci pour votre commande."));
+    }
+
+    // Email réservé par une autre instance à lockedAt
+    private EmailOutboxMessage claimed(String recipient, LocalDateTime lockedAt) {
+        EmailOutboxMessage message = new EmailOutboxMessage(recipient, "Commande expédiée", "Votre commande est en route.");
+        message.setStatus(EmailOutboxMessage.Status.SENDING);
+        message.setClaimToken("autre-instance");
+        message.setLockedAt(lockedAt);
+        return emailOutboxRepository.save(message);
+    }
+
+    private void makeDue(EmailOutboxMessage message) {
+        EmailOutboxMessage current = reload(message);
+        current.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        emailOutboxRepository.save(current);
+    }
+
+    private EmailOutboxMessage reload(EmailOutboxMessage message) {
+        return emailOutboxRepository.findById(message.getId()).orElseThrow();
+    }
+
+    private String recipient(MimeMessage message) {
+        try {
+            return message.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Port local sans serveur : connexion refusée immédiatement
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
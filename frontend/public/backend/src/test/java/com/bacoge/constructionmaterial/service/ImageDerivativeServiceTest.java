@@ -0,0 +1,162 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.properties.ImagesProperties;
+import com.bacoge.constructionmaterial.repository.ProductImageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Copies redimensionnées des images produits : dimensions (boîte respectée, proportions conservées,
+ * jamais d'agrandissement), transparence aplatie sur blanc, écriture JPEG, et enregistrement des URLs
+ * pour une demande reçue pendant le traitement de la même image.
+ */
+class ImageDerivativeServiceTest {
+
+    private static final String IMAGE_URL = "/uploads/products/parquet.png";
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageDerivativeService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void resizeFitsTheBoxAndKeepsTheAspectRatio() {
+        BufferedImage landscape = ImageDerivativeService.resize(image(2000, 1000, BufferedImage.TYPE_INT_RGB), 480, 480);
+        assertThat(landscape.getWidth()).isEqualTo(480);
+        assertThat(landscape.getHeight()).isEqualTo(240);
+
+        BufferedImage portrait = ImageDerivativeService.resize(image(900, 1600, BufferedImage.TYPE_INT_RGB), 1200, 1200);
+        assertThat(portrait.getWidth()).isEqualTo(675);
+        assertThat(portrait.getHeight()).isEqualTo(1200);
+    }
+
+    @Test
+    void resizeNeverUpscales() {
+        BufferedImage small = image(120, 80, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage result = ImageDerivativeService.resize(small, 480, 480);
+
+        assertThat(result.getWidth()).isEqualTo(120);
+        assertThat(result.getHeight()).isEqualTo(80);
+    }
+
+    @Test
+    void resizeFlattensTransparencyOnWhite() {
+        BufferedImage transparent = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = transparent.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 200, 400);
+        g.dispose();
+
+        BufferedImage result = ImageDerivativeService.resize(transparent, 200, 200);
+
+        assertThat(result.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        assertThat(result.getColorModel().hasAlpha()).isFalse();
+        assertThat(new Color(result.getRGB(10, 100))).isEqualTo(Color.RED);
+        assertThat(new Color(result.getRGB(190, 100))).isEqualTo(Color.WHITE);
+    }
+
+    @Test
+    void writeJpegProducesAReadableJpegWithoutLeftovers() throws Exception {
+        Path target = uploadDir.resolve("carte.jpg");
+        BufferedImage resized = ImageDerivativeService.resize(image(1600, 1200, BufferedImage.TYPE_INT_ARGB), 480, 480);
+
+        ImageDerivativeService.writeJpeg(resized, target, 0.82f);
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(target.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            assertThat(readers.hasNext()).isTrue();
+            assertThat(readers.next().getFormatName()).isEqualToIgnoringCase("jpeg");
+        }
+        BufferedImage written = ImageIO.read(target.toFile());
+        assertThat(written.getWidth()).isEqualTo(480);
+        assertThat(written.getHeight()).isEqualTo(360);
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            assertThat(files).containsExactly(target);
+        }
+    }
+
+    @Test
+    void requestDuringProcessingIsReplayedSoNewRowsGetTheirUrls() throws Exception {
+        Path original = uploadDir.resolve("products/parquet.png");
+        Files.createDirectories(original.getParent());
+        ImageIO.write(image(1600, 1200, BufferedImage.TYPE_INT_ARGB), "png", original.toFile());
+
+        // Le premier enregistrement des URLs est retenu jusqu'à l'arrivée de la seconde demande
+        CountDownLatch firstUpdate = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ProductImageRepository repository = mock(ProductImageRepository.class);
+        when(repository.updateDerivatives(eq(IMAGE_URL), any(), any(), any())).thenAnswer(invocation -> {
+            if (firstUpdate.getCount() > 0) {
+                firstUpdate.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return 1;
+        });
+        service = new ImageDerivativeService(repository, new ImagesProperties());
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+        service.init();
+
+        service.generateAsync(IMAGE_URL);
+        assertThat(firstUpdate.await(5, TimeUnit.SECONDS)).isTrue();
+        // Nouvelle ProductImage créée pendant le traitement (attachDerivatives → generateAsync)
+        service.generateAsync(IMAGE_URL);
+        Map<?, ?> inProgress = (Map<?, ?>) ReflectionTestUtils.getField(service, "inProgress");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Boolean.TRUE.equals(inProgress.get(IMAGE_URL)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(inProgress.get(IMAGE_URL)).as("seconde demande notée pendant le traitement").isEqualTo(Boolean.TRUE);
+        release.countDown();
+
+        String thumbnail = "/uploads/derivatives/products_parquet-thumbnail.jpg";
+        String card = "/uploads/derivatives/products_parquet-card.jpg";
+        String detail = "/uploads/derivatives/products_parquet-detail.jpg";
+        verify(repository, timeout(5000).times(2)).updateDerivatives(IMAGE_URL, thumbnail, card, detail);
+        // La seconde passe réutilise les copies à jour au lieu de les régénérer
+        assertThat(service.snapshot()).containsEntry("generated", 1L).containsEntry("failed", 0L);
+        assertThat(ImageIO.read(uploadDir.resolve("derivatives/products_parquet-card.jpg").toFile()).getWidth())
+                .isEqualTo(480);
+    }
+
+    private static BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(120, 90, 60));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,208 @@
+package com.bacoge.constructionmaterial.service;
+
+import com.bacoge.constructionmaterial.config.CacheNames;
+import com.bacoge.constructionmaterial.controller.ChatbotController;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Client du modèle de langage contre un serveur HTTP local (API compatible OpenAI) :
+ * réponse complète et cache, flux SSE transmis fragment par fragment, refus "assistant occupé"
+ * et délai de réponse dépassé.
+ */
+class OpenAIServiceTest {
+
+    private static final String CONTEXT = "- Ciment 25 kg : 9,90 EUR (en stock)";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<JsonNode> requestBodies = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final CountDownLatch releaseSlowResponse = new CountDownLatch(1);
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private OpenAIService openAIService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(serverThreads);
+        server.start();
+
+        openAIService = new OpenAIService(objectMapper, new ConcurrentMapCacheManager(CacheNames.CHATBOT_RESPONSES));
+        ReflectionTestUtils.setField(openAIService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(openAIService, "modelId", "test-model");
+        ReflectionTestUtils.setField(openAIService, "apiUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions");
+        ReflectionTestUtils.setField(openAIService, "connectTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(openAIService, "requestTimeoutMs", 500L);
+        ReflectionTestUtils.setField(openAIService, "maxConcurrentRequests", 1);
+        openAIService.init();
+
+        ChatbotContextService contextService = mock(ChatbotContextService.class);
+        when(contextService.buildProductContext(anyString())).thenReturn(CONTEXT);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChatbotController(openAIService, contextService)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowResponse.countDown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void messageReturnsTheModelAnswerAndCachesIt() throws Exception {
+        for (String question : List.of("Quel est le prix du ciment ?", "  quel est le PRIX du ciment ?")) {
+            MvcResult result = mockMvc.perform(post("/api/chat/message")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"message\":\"" + question + "\"}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.response").value("Le ciment coûte 9,90 EUR."));
+        }
+
+        // La même question (casse et espaces mis à part) sur le même contexte n'est générée qu'une fois
+        assertThat(calls).hasValue(1);
+        JsonNode body = requestBodies.get(0);
+        assertThat(body.path("model").asText()).isEqualTo("test-model");
+        assertThat(body.path("stream").asBoolean(false)).isFalse();
+        assertThat(body.path("messages").path(0).path("content").asText()).contains(CONTEXT);
+        assertThat(body.path("messages").path(1).path("content").asText()).isEqualTo("Quel est le prix du ciment ?");
+        assertThat(authorizations).containsExactly("Bearer test-key");
+    }
+
+    @Test
+    void streamForwardsEachChunkThenTheFullAnswer() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/chat/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Avez-vous du carrelage ?\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContaining(result, "\"response\":\"Oui, nous en avons.\"");
+
+        String events = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(events).containsSubsequence(
+                "event:token", "data:Oui, ",
+                "event:token", "data:nous en ",
+                "event:token", "data:avons.",
+                "event:done", "\"response\":\"Oui, nous en avons.\"");
+        assertThat(requestBodies.get(0).path("stream").asBoolean()).isTrue();
+
+        // Réponse complète mise en cache : servie d'un bloc sans nouvel appel
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        String cached = openAIService.streamChatResponse("Avez-vous du carrelage ?", CONTEXT, tokens::add)
+                .get(2, TimeUnit.SECONDS);
+        assertThat(cached).isEqualTo("Oui, nous en avons.");
+        assertThat(tokens).containsExactly("Oui, nous en avons.");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void refusesWhenBusyAndReportsTimeouts() throws Exception {
+        CompletableFuture<String> slow = openAIService.getChatResponseAsync("lent", CONTEXT);
+
+        // Un seul appel simultané autorisé : les suivants sont refusés sans attendre
+        assertThat(openAIService.getChatResponseAsync("Quel est le prix du ciment ?", CONTEXT).getNow(null))
+                .isEqualTo(OpenAIService.BUSY_MESSAGE);
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        assertThat(openAIService.streamChatResponse("Avez-vous du carrelage ?", CONTEXT, tokens::add).getNow(null))
+                .isEqualTo(OpenAIService.BUSY_MESSAGE);
+        assertThat(tokens).containsExactly(OpenAIService.BUSY_MESSAGE);
+
+        // Délai de réponse dépassé : message d'erreur, puis l'appel libère sa place
+        assertThat(slow.get(5, TimeUnit.SECONDS)).startsWith("Désolé, je rencontre des difficultés techniques");
+        assertThat(openAIService.getChatResponseAsync("Quel est le prix du ciment ?", CONTEXT).get(5, TimeUnit.SECONDS))
+                .isEqualTo("Le ciment coûte 9,90 EUR.");
+    }
+
+    // Serveur de test : "lent" ne répond pas avant la fin du test, stream=true renvoie trois fragments SSE
+    private void handle(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        requestBodies.add(body);
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        String question = body.path("messages").path(1).path("content").asText();
+
+        if ("lent".equals(question)) {
+            try {
+                releaseSlowResponse.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+            return;
+        }
+        if (body.path("stream").asBoolean(false)) {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String chunk : List.of("Oui, ", "nous en ", "avons.")) {
+                    String data = objectMapper.writeValueAsString(
+                            objectMapper.createObjectNode().set("choices", objectMapper.createArrayNode()
+                                    .add(objectMapper.createObjectNode().set("delta",
+                                            objectMapper.createObjectNode().put("content", chunk)))));
+                    out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+            return;
+        }
+        byte[] response = ("{\"choices\":[{\"message\":{\"role\":\"assistant\","
+                + "\"content\":\"Le ciment coûte 9,90 EUR.\"}}]}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static void awaitContaining(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains(expected)) {
+            assertThat(System.currentTimeMillis()).as("attente de %s", expected).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}